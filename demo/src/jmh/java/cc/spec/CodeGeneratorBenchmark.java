@@ -0,0 +1,110 @@
+package cc.spec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of each CodeGenerator method over every entity of a fixture spec.
+ * One operation renders and writes one artifact per entity; files are overwritten in place.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodeGeneratorBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int schemaCount;
+
+    private Path workDir;
+    private List<SpecParser.EntityInfo> entities;
+    private List<SpecParser.EndpointInfo> endpoints;
+    private CodeGenerator codeGenerator;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        workDir = Files.createTempDirectory("speckits-bench-codegen");
+        SpecParser specParser = new SpecParser();
+        SpecParser.OpenAPIExtraction openAPI = specParser.extractOpenAPI(
+                specParser.parseOpenAPI(SpecFixtures.writeBundle(workDir.resolve("spec"), schemaCount).get("openapi")));
+        entities = openAPI.getEntities();
+        endpoints = openAPI.getEndpoints();
+
+        Path outputDir = workDir.resolve("out");
+        new ProjectGenerator(outputDir, "bench", "com.example.bench").createProjectStructure();
+        codeGenerator = new CodeGenerator(outputDir, "com.example.bench");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        SpecFixtures.deleteRecursively(workDir);
+    }
+
+    @Benchmark
+    public void generateEntity() throws IOException {
+        for (SpecParser.EntityInfo entity : entities) {
+            codeGenerator.generateEntity(entity);
+        }
+    }
+
+    @Benchmark
+    public void generateDTO() throws IOException {
+        for (SpecParser.EntityInfo entity : entities) {
+            codeGenerator.generateDTO(entity);
+        }
+    }
+
+    @Benchmark
+    public void generateRepository() throws IOException {
+        for (SpecParser.EntityInfo entity : entities) {
+            codeGenerator.generateRepository(entity);
+        }
+    }
+
+    @Benchmark
+    public void generateServiceInterface() throws IOException {
+        for (SpecParser.EntityInfo entity : entities) {
+            codeGenerator.generateServiceInterface(entity);
+        }
+    }
+
+    @Benchmark
+    public void generateServiceImpl() throws IOException {
+        for (SpecParser.EntityInfo entity : entities) {
+            codeGenerator.generateServiceImpl(entity);
+        }
+    }
+
+    @Benchmark
+    public void generateController() throws IOException {
+        for (SpecParser.EntityInfo entity : entities) {
+            codeGenerator.generateController(entity, endpoints);
+        }
+    }
+
+    @Benchmark
+    public void generateTest() throws IOException {
+        for (SpecParser.EntityInfo entity : entities) {
+            codeGenerator.generateTest(entity);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package cc.spec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end classic (non-AI) generation: parse, extract, validate and write the whole project,
+ * rendering the per-entity artifacts sequentially or on one of the speckits.generation.executor
+ * executors
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PipelineBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int schemaCount;
+
+    @Param({"sequential", "virtual", "fork-join"})
+    public String executor;
+
+    private Path workDir;
+    private ExecutorService artifactExecutor;
+    private Map<String, Path> files;
+    private Path outputDir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        workDir = Files.createTempDirectory("speckits-bench-pipeline");
+        files = SpecFixtures.writeBundle(workDir.resolve("spec"), schemaCount);
+        outputDir = workDir.resolve("out");
+        artifactExecutor = GenerationJobService.createArtifactExecutor(executor, 0);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearOutput() throws IOException {
+        SpecFixtures.deleteRecursively(outputDir);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (artifactExecutor != null) {
+            artifactExecutor.close();
+        }
+        SpecFixtures.deleteRecursively(workDir);
+    }
+
+    @Benchmark
+    public SpecToCodeAgent.GenerationResult generateProjectClassic() throws IOException {
+        SpecToCodeAgent agent = new SpecToCodeAgent("unused");
+        agent.setArtifactExecutor(artifactExecutor);
+        return agent.generateProject(files, outputDir, false);
+    }
+}
@@ -0,0 +1,73 @@
+package cc.spec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolution of 5,000 OpenAPI schemas sharing deep reference chains: the memoized
+ * OpenAPISchemaResolver against naive recursive inlining. The same schema count is spread over
+ * more levels as the depth grows. Naive inlining grows threefold per level, so it is only
+ * measured up to depth 8; at depth 25 a single schema would take billions of resolutions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchemaResolverBenchmark {
+    private static final int SCHEMA_COUNT = 5_000;
+
+    @State(Scope.Benchmark)
+    public static class MemoizedSchemas {
+        @Param({"5", "8", "25"})
+        public int depth;
+
+        private Map<String, Object> schemas;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            schemas = SpecFixtures.sharedSchemas(SCHEMA_COUNT / depth, depth);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class NaiveSchemas {
+        @Param({"5", "8"})
+        public int naiveDepth;
+
+        private Map<String, Object> schemas;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            schemas = SpecFixtures.sharedSchemas(SCHEMA_COUNT / naiveDepth, naiveDepth);
+        }
+    }
+
+    @Benchmark
+    public List<SpecParser.EntityInfo> memoized(MemoizedSchemas state) {
+        return new OpenAPISchemaResolver(state.schemas).resolveEntities();
+    }
+
+    @Benchmark
+    public void naive(NaiveSchemas state, Blackhole blackhole) {
+        int[] budget = {Integer.MAX_VALUE};
+        for (String name : state.schemas.keySet()) {
+            blackhole.consume(SpecFixtures.naiveFields(state.schemas, name, budget));
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package cc.spec;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Builds synthetic spec bundles of a given size for the benchmarks.
+ * Every schema has the same shape so results scale with the schema count only.
+ */
+public final class SpecFixtures {
+    private static final String DESCRIPTION = "Synthetic schema used to measure the generation pipeline.";
+
+    private SpecFixtures() {
+    }
+
+    /**
+     * Writes openapi.json, domain.yaml and outputprefs.yaml into the directory
+     *
+     * @return Spec files keyed like the upload form
+     */
+    public static Map<String, Path> writeBundle(Path directory, int schemaCount) throws IOException {
+        Files.createDirectories(directory);
+        Map<String, Path> files = new LinkedHashMap<>();
+        // JSON keeps large fixtures below SnakeYAML's document size limit
+        files.put("openapi", Files.writeString(directory.resolve("openapi.json"), openAPI(schemaCount)));
+        files.put("domain", Files.writeString(directory.resolve("domain.yaml"), domainModel(schemaCount)));
+        files.put("outputprefs", Files.writeString(directory.resolve("outputprefs.yaml"), "packageName: com.example.bench\n"));
+        return files;
+    }
+
+    public static String openAPI(int schemaCount) {
+        StringBuilder json = new StringBuilder(schemaCount * 640);
+        json.append("{\"openapi\": \"3.0.0\", \"info\": {\"title\": \"Bench API\", \"version\": \"1.0.0\"},\n");
+        json.append("\"paths\": {\n");
+        for (int i = 0; i < schemaCount; i++) {
+            json.append(i > 0 ? ",\n" : "").append("  \"/resource").append(i).append("s\": {");
+            json.append("\"get\": {\"summary\": \"List resource ").append(i).append("\", \"responses\": {\"200\": {\"description\": \"OK\"}}}, ");
+            json.append("\"post\": {\"summary\": \"Create resource ").append(i).append("\", \"responses\": {\"201\": {\"description\": \"Created\"}}}}");
+        }
+        json.append("\n},\n\"components\": {\"schemas\": {\n");
+        for (int i = 0; i < schemaCount; i++) {
+            json.append(i > 0 ? ",\n" : "").append("  \"Resource").append(i).append("\": {\"type\": \"object\", ");
+            json.append("\"description\": \"").append(DESCRIPTION).append("\", \"properties\": {");
+            json.append("\"id\": {\"type\": \"integer\"}, ");
+            json.append("\"name\": {\"type\": \"string\"}, ");
+            json.append("\"price\": {\"type\": \"number\"}, ");
+            json.append("\"active\": {\"type\": \"boolean\"}, ");
+            json.append("\"createdAt\": {\"type\": \"string\", \"format\": \"date-time\"}}}");
+        }
+        json.append("\n}}}\n");
+        return json.toString();
+    }
+
+    public static String domainModel(int schemaCount) {
+        StringBuilder yaml = new StringBuilder(schemaCount * 128);
+        yaml.append("entities:\n");
+        for (int i = 0; i < schemaCount; i++) {
+            yaml.append("  Item").append(i).append(":\n");
+            yaml.append("    fields:\n");
+            yaml.append("      id: long\n");
+            yaml.append("      title: string\n");
+            yaml.append("      quantity: int\n");
+            yaml.append("      weight: double\n");
+            yaml.append("      visible: boolean\n");
+        }
+        return yaml.toString();
+    }
+
+    /**
+     * OpenAPI components.schemas of width * depth schemas where S_l_i extends S_{l+1}_i and refers
+     * to S_{l+1}_i and S_{l+1}_{i+1}, so every schema is reachable through exponentially many
+     * reference paths
+     */
+    public static Map<String, Object> sharedSchemas(int width, int depth) {
+        Map<String, Object> schemas = new LinkedHashMap<>();
+        for (int level = 0; level < depth; level++) {
+            for (int i = 0; i < width; i++) {
+                Map<String, Object> properties = new LinkedHashMap<>();
+                properties.put("field" + level, Map.of("type", "integer"));
+                Map<String, Object> schema = new LinkedHashMap<>();
+                if (level + 1 < depth) {
+                    properties.put("left", Map.of("$ref", schemaRef(level + 1, i)));
+                    properties.put("right", Map.of("$ref", schemaRef(level + 1, (i + 1) % width)));
+                    schema.put("allOf", List.of(Map.of("$ref", schemaRef(level + 1, i))));
+                }
+                schema.put("properties", properties);
+                schemas.put("S_" + level + "_" + i, schema);
+            }
+        }
+        return schemas;
+    }
+
+    private static String schemaRef(int level, int i) {
+        return "#/components/schemas/S_" + level + "_" + i;
+    }
+
+    /**
+     * Resolves a schema of {@link #sharedSchemas} like OpenAPISchemaResolver, but inlines every
+     * reference again each time it is reached
+     * @param budget Schema resolutions left; decremented by each one
+     * @throws IllegalStateException once the budget is exhausted
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, String> naiveFields(Map<String, Object> schemas, String name, int[] budget) {
+        if (--budget[0] < 0) {
+            throw new IllegalStateException("Resolution budget exhausted");
+        }
+        Map<String, Object> schema = (Map<String, Object>) schemas.get(name);
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (Object part : (List<Object>) schema.getOrDefault("allOf", List.of())) {
+            String ref = (String) ((Map<String, Object>) part).get("$ref");
+            fields.putAll(naiveFields(schemas, ref.substring(ref.lastIndexOf('/') + 1), budget));
+        }
+        for (Map.Entry<String, Object> property : ((Map<String, Object>) schema.get("properties")).entrySet()) {
+            String ref = (String) ((Map<String, Object>) property.getValue()).get("$ref");
+            if (ref != null) {
+                naiveFields(schemas, ref.substring(ref.lastIndexOf('/') + 1), budget);
+                fields.put(property.getKey() + "Id", "Long");
+            } else {
+                fields.put(property.getKey(), "Long");
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Deletes a directory tree, ignoring files that are already gone
+     */
+    public static void deleteRecursively(Path root) throws IOException {
+        if (!Files.exists(root)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
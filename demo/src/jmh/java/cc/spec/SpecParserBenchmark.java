@@ -0,0 +1,94 @@
+package cc.spec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and extraction throughput for OpenAPI and domain model specs
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpecParserBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int schemaCount;
+
+    private final SpecParser specParser = new SpecParser();
+    private Path workDir;
+    private Map<String, Path> files;
+    private Map<String, Object> openAPISpec;
+    private Map<String, Object> domainModel;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        workDir = Files.createTempDirectory("speckits-bench-parser");
+        files = SpecFixtures.writeBundle(workDir, schemaCount);
+        openAPISpec = specParser.parseOpenAPI(files.get("openapi"));
+        domainModel = specParser.parseDomainModel(files.get("domain"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        SpecFixtures.deleteRecursively(workDir);
+    }
+
+    @Benchmark
+    public Map<String, Object> parseOpenAPI() throws IOException {
+        return specParser.parseOpenAPI(files.get("openapi"));
+    }
+
+    /**
+     * Parses the tree and extracts from it, the same work extractOpenAPIStreaming does
+     */
+    @Benchmark
+    public SpecParser.OpenAPIExtraction treeExtraction() throws IOException {
+        return specParser.extractOpenAPI(specParser.parseOpenAPI(files.get("openapi")));
+    }
+
+    @Benchmark
+    public SpecParser.OpenAPIExtraction extractOpenAPIStreaming() throws IOException {
+        return specParser.extractOpenAPIStreaming(files.get("openapi"));
+    }
+
+    @Benchmark
+    public Map<String, Object> parseDomainModel() throws IOException {
+        return specParser.parseDomainModel(files.get("domain"));
+    }
+
+    @Benchmark
+    public List<SpecParser.EntityInfo> extractEntitiesFromOpenAPI() {
+        return specParser.extractEntitiesFromOpenAPI(openAPISpec);
+    }
+
+    @Benchmark
+    public List<SpecParser.EndpointInfo> extractEndpointsFromOpenAPI() {
+        return specParser.extractEndpointsFromOpenAPI(openAPISpec);
+    }
+
+    @Benchmark
+    public List<SpecParser.EntityInfo> extractEntitiesFromDomainModel() {
+        return specParser.extractEntitiesFromDomainModel(domainModel);
+    }
+}
@@ -0,0 +1,76 @@
+package cc.spec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory rendering of all seven artifacts per entity: compiled templates against the
+ * legacy StringBuilder chains they replaced. No files are written.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemplateRenderBenchmark {
+    private static final String PACKAGE = "com.example.bench";
+
+    @Param({"100", "1000"})
+    public int schemaCount;
+
+    private List<SpecParser.EntityInfo> entities;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Path specDir = Files.createTempDirectory("speckits-bench-templates");
+        try {
+            SpecParser specParser = new SpecParser();
+            entities = specParser.extractEntitiesFromOpenAPI(
+                    specParser.parseOpenAPI(SpecFixtures.writeBundle(specDir, schemaCount).get("openapi")));
+        } finally {
+            SpecFixtures.deleteRecursively(specDir);
+        }
+    }
+
+    @Benchmark
+    public void templates(Blackhole blackhole) {
+        // A fresh generator per operation, so per-entity model building is measured too
+        CodeGenerator codeGenerator = new CodeGenerator(Path.of("unused"), PACKAGE);
+        for (SpecParser.EntityInfo entity : entities) {
+            for (String name : CodeTemplates.NAMES) {
+                blackhole.consume(codeGenerator.render(name, entity));
+            }
+        }
+    }
+
+    @Benchmark
+    public void legacyStringBuilder(Blackhole blackhole) {
+        for (SpecParser.EntityInfo entity : entities) {
+            blackhole.consume(LegacyCodeRenderer.renderEntity(PACKAGE, entity));
+            blackhole.consume(LegacyCodeRenderer.renderDTO(PACKAGE, entity));
+            blackhole.consume(LegacyCodeRenderer.renderRepository(PACKAGE, entity));
+            blackhole.consume(LegacyCodeRenderer.renderServiceInterface(PACKAGE, entity));
+            blackhole.consume(LegacyCodeRenderer.renderServiceImpl(PACKAGE, entity));
+            blackhole.consume(LegacyCodeRenderer.renderController(PACKAGE, entity, List.of()));
+            blackhole.consume(LegacyCodeRenderer.renderTest(PACKAGE, entity));
+        }
+    }
+}
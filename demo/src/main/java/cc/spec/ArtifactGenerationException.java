@@ -0,0 +1,25 @@
+package cc.spec;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Aggregates every artifact that failed to generate during a parallel generation run
+ */
+public final class ArtifactGenerationException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final String[] failures;
+
+    public ArtifactGenerationException(List<String> failures, List<Throwable> causes) {
+        super(failures.size() + " artifact(s) failed to generate: " + String.join("; ", failures));
+        this.failures = failures.toArray(String[]::new);
+        for (Throwable cause : causes) {
+            addSuppressed(cause);
+        }
+    }
+
+    public List<String> getFailures() {
+        return List.of(failures);
+    }
+}
@@ -0,0 +1,175 @@
+package cc.spec;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Generates every spec bundle below a directory tree, e.g. for nightly regeneration of service stubs.
+ *
+ * A bundle is a directory holding at least one spec file named after its type, with any
+ * extension: openapi, graphql, domain, metadata or outputprefs (openapi.yaml, graphql.graphqls, ...).
+ * Each bundle is generated into the same relative directory below the output root by an agent of
+ * its own, so gap reports of different bundles never mix. Bundles run concurrently on a
+ * work-stealing pool; a failed bundle is recorded and does not stop the others.
+ * BATCH_SUMMARY.md in the output root lists every bundle with its timing, entities, gaps and
+ * failure.
+ */
+public class BatchGenerator {
+    public static final String SUMMARY_FILE = "BATCH_SUMMARY.md";
+    private static final Set<String> SPEC_TYPES = Set.of("openapi", "graphql", "domain", "metadata", "outputprefs");
+
+    private final Supplier<SpecToCodeAgent> agentFactory;
+    private final int parallelism;
+
+    /**
+     * @param agentFactory Creates the agent of one bundle
+     * @param parallelism Bundles generated at once
+     */
+    public BatchGenerator(Supplier<SpecToCodeAgent> agentFactory, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Batch parallelism must be positive");
+        }
+        this.agentFactory = agentFactory;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Finds the spec bundles below the input directory, keyed by bundle directory in path order
+     */
+    public static Map<Path, Map<String, Path>> findBundles(Path inputRoot) throws IOException {
+        Map<Path, Map<String, Path>> bundles = new TreeMap<>();
+        try (Stream<Path> paths = Files.walk(inputRoot)) {
+            for (Path file : (Iterable<Path>) paths.filter(Files::isRegularFile).sorted()::iterator) {
+                String type = specType(file);
+                if (type != null) {
+                    bundles.computeIfAbsent(file.getParent(), directory -> new TreeMap<>()).putIfAbsent(type, file);
+                }
+            }
+        }
+        return bundles;
+    }
+
+    /**
+     * Generates all bundles below the input directory and writes the batch summary
+     * @return One result per bundle, in path order
+     */
+    public List<BundleResult> generate(Path inputRoot, Path outputRoot, boolean useAI) throws IOException {
+        Map<Path, Map<String, Path>> bundles = findBundles(inputRoot);
+        System.out.println("[BATCH] Generating " + bundles.size() + " bundle(s) from " + inputRoot + " with parallelism " + parallelism);
+        long start = System.nanoTime();
+
+        List<Callable<BundleResult>> tasks = new ArrayList<>();
+        for (Map.Entry<Path, Map<String, Path>> bundle : bundles.entrySet()) {
+            Path relative = inputRoot.relativize(bundle.getKey());
+            tasks.add(() -> generateBundle(relative, bundle.getValue(), outputRoot.resolve(relative), useAI));
+        }
+        List<BundleResult> results = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (Future<BundleResult> future : pool.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Batch generation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Batch generation failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        Files.createDirectories(outputRoot);
+        Files.writeString(outputRoot.resolve(SUMMARY_FILE), renderSummary(inputRoot, results, elapsed));
+        long failed = results.stream().filter(result -> !result.succeeded()).count();
+        System.out.println("[BATCH] ✓ " + (results.size() - failed) + " bundle(s) generated, " + failed + " failed in "
+                + elapsed.toMillis() + " ms; summary: " + outputRoot.resolve(SUMMARY_FILE));
+        return results;
+    }
+
+    private BundleResult generateBundle(Path relative, Map<String, Path> files, Path outputDirectory, boolean useAI) {
+        long start = System.nanoTime();
+        try {
+            SpecToCodeAgent.GenerationResult result = agentFactory.get()
+                    .generateProject(files, outputDirectory, useAI, SpecToCodeAgent.ProgressListener.NONE);
+            return new BundleResult(relative, outputDirectory, Duration.ofNanos(System.nanoTime() - start),
+                    result.getGeneratedEntities().size(), result.getGaps().size(), result.isFromCache(), null);
+        } catch (Exception e) {
+            System.err.println("[BATCH] ✗ " + display(relative) + ": " + e.getMessage());
+            return new BundleResult(relative, outputDirectory, Duration.ofNanos(System.nanoTime() - start),
+                    0, 0, false, e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
+
+    static String renderSummary(Path inputRoot, List<BundleResult> results, Duration elapsed) {
+        long failed = results.stream().filter(result -> !result.succeeded()).count();
+        long bundleMillis = results.stream().mapToLong(result -> result.elapsed().toMillis()).sum();
+        StringBuilder summary = new StringBuilder();
+        summary.append("# Batch Summary\n\n");
+        summary.append("Input: ").append(inputRoot).append("\n\n");
+        summary.append("- Bundles: ").append(results.size()).append("\n");
+        summary.append("- Succeeded: ").append(results.size() - failed).append("\n");
+        summary.append("- Failed: ").append(failed).append("\n");
+        summary.append("- Wall time: ").append(elapsed.toMillis()).append(" ms\n");
+        summary.append("- Sum of bundle times: ").append(bundleMillis).append(" ms\n\n");
+
+        summary.append("| Bundle | Status | Time (ms) | Entities | Gaps |\n");
+        summary.append("|--------|--------|-----------|----------|------|\n");
+        for (BundleResult result : results) {
+            String status = !result.succeeded() ? "FAILED" : result.fromCache() ? "OK (cache)" : "OK";
+            summary.append("| ").append(display(result.bundle())).append(" | ").append(status)
+                    .append(" | ").append(result.elapsed().toMillis())
+                    .append(" | ").append(result.entities())
+                    .append(" | ").append(result.gaps()).append(" |\n");
+        }
+        if (failed > 0) {
+            summary.append("\n## Failures\n\n");
+            for (BundleResult result : results) {
+                if (!result.succeeded()) {
+                    summary.append("- ").append(display(result.bundle())).append(": ").append(result.error()).append("\n");
+                }
+            }
+        }
+        return summary.toString();
+    }
+
+    private static String display(Path relative) {
+        return relative.toString().isEmpty() ? "." : relative.toString().replace('\\', '/');
+    }
+
+    /**
+     * The spec type a file provides, from its name without extension, or null if it is not a spec
+     */
+    private static String specType(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String type = (dot > 0 ? name.substring(0, dot) : name).toLowerCase(Locale.ROOT);
+        return SPEC_TYPES.contains(type) ? type : null;
+    }
+
+    /**
+     * Outcome of one bundle
+     * @param bundle Bundle directory relative to the input root
+     * @param error Failure message, null if the bundle was generated
+     */
+    public record BundleResult(Path bundle, Path outputDirectory, Duration elapsed, int entities, int gaps,
+                               boolean fromCache, String error) {
+        public boolean succeeded() {
+            return error == null;
+        }
+    }
+}
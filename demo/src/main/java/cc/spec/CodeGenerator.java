@@ -1,330 +1,421 @@
 package cc.spec;
 
+import javax.lang.model.SourceVersion;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Generates code artifacts (entities, DTOs, repositories, services, controllers, tests)
+ * Generates code artifacts (entities, DTOs, repositories, services, controllers, tests, perf harness,
+ * GraphQL resolvers)
  */
 public class CodeGenerator {
-    private final Path outputBasePath;
+    private final OutputSink output;
     private final String packageName;
+    private final String mainPackagePath;
+    private final String testPackagePath;
+    private final CodeTemplates templates;
+    private final GeneratorOptions options;
+    private GenerationMetrics metrics = GenerationMetrics.NONE;
+    private String applicationClass = "Application";
+    private SpecParser.GraphQLSchema graphQLSchema;
+    /**
+     * Template model per entity, built once and shared by all artifacts rendered from it
+     */
+    private final Map<SpecParser.EntityInfo, Map<String, Object>> models = new ConcurrentHashMap<>();
 
     public CodeGenerator(Path outputBasePath, String packageName) {
-        this.outputBasePath = outputBasePath;
+        this(outputBasePath, packageName, CodeTemplates.builtIn());
+    }
+
+    public CodeGenerator(Path outputBasePath, String packageName, CodeTemplates templates) {
+        this(new DiskOutputSink(outputBasePath), packageName, templates);
+    }
+
+    /**
+     * Renders with every option disabled, i.e. the output of the templates alone
+     */
+    public CodeGenerator(OutputSink output, String packageName, CodeTemplates templates) {
+        this(output, packageName, templates, GeneratorOptions.LEGACY);
+    }
+
+    public CodeGenerator(OutputSink output, String packageName, CodeTemplates templates, GeneratorOptions options) {
+        this.output = output;
         this.packageName = packageName;
+        this.mainPackagePath = "src/main/java/" + packageName.replace(".", "/");
+        this.testPackagePath = "src/test/java/" + packageName.replace(".", "/");
+        this.templates = templates;
+        this.options = options;
+    }
+
+    public CodeTemplates getTemplates() {
+        return templates;
+    }
+
+    /**
+     * Digest input covering everything besides the entity that its artifacts are rendered from
+     */
+    public String getFingerprint() {
+        return templates.getFingerprint() + "\n" + options.getFingerprint() + "\n" + applicationClass
+                + (graphQLSchema != null ? "\n" + graphQLSchema.getSource() : "");
+    }
+
+    /**
+     * Simple name of the generated Spring Boot application class, which the perf harness starts
+     */
+    public void setApplicationClass(String applicationClass) {
+        this.applicationClass = applicationClass;
+    }
+
+    /**
+     * GraphQL schema whose operations and relationships get resolvers, or null for none
+     */
+    public void setGraphQLSchema(SpecParser.GraphQLSchema graphQLSchema) {
+        this.graphQLSchema = graphQLSchema;
+    }
+
+    /**
+     * Times every rendered artifact by template type
+     */
+    public void setMetrics(GenerationMetrics metrics) {
+        this.metrics = metrics;
     }
 
     /**
      * Generates a JPA entity class
      */
     public void generateEntity(SpecParser.EntityInfo entity) throws IOException {
-        String className = entity.getName();
-        StringBuilder code = new StringBuilder();
-        code.append("package ").append(packageName).append(".entity;\n\n");
-        code.append("import jakarta.persistence.*;\n");
-        code.append("import java.util.Objects;\n\n");
-        code.append("@Entity\n");
-        code.append("@Table(name = \"").append(className.toLowerCase()).append("s\")\n");
-        code.append("public class ").append(className).append(" {\n\n");
-        code.append("    @Id\n");
-        code.append("    @GeneratedValue(strategy = GenerationType.IDENTITY)\n");
-        code.append("    private Long id;\n\n");
-        
-        for (Map.Entry<String, String> field : entity.getFields().entrySet()) {
-            String fieldName = field.getKey();
-            String fieldType = field.getValue();
-            if (!fieldName.equalsIgnoreCase("id")) {
-                code.append("    private ").append(fieldType).append(" ").append(fieldName).append(";\n\n");
-            }
-        }
-        
-        // Getters and setters
-        code.append("    // Getters and Setters\n");
-        code.append("    public Long getId() { return id; }\n");
-        code.append("    public void setId(Long id) { this.id = id; }\n\n");
-        
-        for (Map.Entry<String, String> field : entity.getFields().entrySet()) {
-            String fieldName = field.getKey();
-            String fieldType = field.getValue();
-            if (!fieldName.equalsIgnoreCase("id")) {
-                String capitalized = capitalize(fieldName);
-                code.append("    public ").append(fieldType).append(" get").append(capitalized).append("() { return ").append(fieldName).append("; }\n");
-                code.append("    public void set").append(capitalized).append("(").append(fieldType).append(" ").append(fieldName).append(") { this.").append(fieldName).append(" = ").append(fieldName).append("; }\n\n");
-            }
-        }
-        
-        code.append("    @Override\n");
-        code.append("    public boolean equals(Object o) {\n");
-        code.append("        if (this == o) return true;\n");
-        code.append("        if (o == null || getClass() != o.getClass()) return false;\n");
-        code.append("        ").append(className).append(" that = (").append(className).append(") o;\n");
-        code.append("        return Objects.equals(id, that.id);\n");
-        code.append("    }\n\n");
-        code.append("    @Override\n");
-        code.append("    public int hashCode() {\n");
-        code.append("        return Objects.hash(id);\n");
-        code.append("    }\n");
-        code.append("}\n");
-        
-        writeFile("src/main/java/" + packageName.replace(".", "/") + "/entity/" + className + ".java", code.toString());
+        generate(CodeTemplates.ENTITY, entity);
     }
 
     /**
      * Generates a DTO class
      */
     public void generateDTO(SpecParser.EntityInfo entity) throws IOException {
-        String className = entity.getName() + "DTO";
-        StringBuilder code = new StringBuilder();
-        code.append("package ").append(packageName).append(".dto;\n\n");
-        code.append("public class ").append(className).append(" {\n\n");
-        
-        for (Map.Entry<String, String> field : entity.getFields().entrySet()) {
-            String fieldName = field.getKey();
-            String fieldType = field.getValue();
-            code.append("    private ").append(fieldType).append(" ").append(fieldName).append(";\n");
-        }
-        code.append("\n");
-        
-        // Getters and setters
-        for (Map.Entry<String, String> field : entity.getFields().entrySet()) {
-            String fieldName = field.getKey();
-            String fieldType = field.getValue();
-            String capitalized = capitalize(fieldName);
-            code.append("    public ").append(fieldType).append(" get").append(capitalized).append("() { return ").append(fieldName).append("; }\n");
-            code.append("    public void set").append(capitalized).append("(").append(fieldType).append(" ").append(fieldName).append(") { this.").append(fieldName).append(" = ").append(fieldName).append("; }\n\n");
-        }
-        
-        code.append("}\n");
-        
-        writeFile("src/main/java/" + packageName.replace(".", "/") + "/dto/" + className + ".java", code.toString());
+        generate(CodeTemplates.DTO, entity);
     }
 
     /**
      * Generates a Spring Data JPA repository interface
      */
     public void generateRepository(SpecParser.EntityInfo entity) throws IOException {
-        String className = entity.getName() + "Repository";
-        String entityName = entity.getName();
-        StringBuilder code = new StringBuilder();
-        code.append("package ").append(packageName).append(".repository;\n\n");
-        code.append("import ").append(packageName).append(".entity.").append(entityName).append(";\n");
-        code.append("import org.springframework.data.jpa.repository.JpaRepository;\n");
-        code.append("import org.springframework.stereotype.Repository;\n\n");
-        code.append("@Repository\n");
-        code.append("public interface ").append(className).append(" extends JpaRepository<").append(entityName).append(", Long> {\n");
-        code.append("}\n");
-        
-        writeFile("src/main/java/" + packageName.replace(".", "/") + "/repository/" + className + ".java", code.toString());
+        generate(CodeTemplates.REPOSITORY, entity);
     }
 
     /**
      * Generates a service interface
      */
     public void generateServiceInterface(SpecParser.EntityInfo entity) throws IOException {
-        String className = entity.getName() + "Service";
-        String entityName = entity.getName();
-        String dtoName = entityName + "DTO";
-        StringBuilder code = new StringBuilder();
-        code.append("package ").append(packageName).append(".service;\n\n");
-        code.append("import ").append(packageName).append(".dto.").append(dtoName).append(";\n");
-        code.append("import java.util.List;\n\n");
-        code.append("public interface ").append(className).append(" {\n");
-        code.append("    List<").append(dtoName).append("> findAll();\n");
-        code.append("    ").append(dtoName).append(" findById(Long id);\n");
-        code.append("    ").append(dtoName).append(" save(").append(dtoName).append(" dto);\n");
-        code.append("    ").append(dtoName).append(" update(Long id, ").append(dtoName).append(" dto);\n");
-        code.append("    void deleteById(Long id);\n");
-        code.append("}\n");
-        
-        writeFile("src/main/java/" + packageName.replace(".", "/") + "/service/" + className + ".java", code.toString());
+        generate(CodeTemplates.SERVICE, entity);
     }
 
     /**
      * Generates a service implementation
      */
     public void generateServiceImpl(SpecParser.EntityInfo entity) throws IOException {
-        String className = entity.getName() + "ServiceImpl";
-        String interfaceName = entity.getName() + "Service";
-        String entityName = entity.getName();
-        String dtoName = entityName + "DTO";
-        String repoName = entityName + "Repository";
-        StringBuilder code = new StringBuilder();
-        code.append("package ").append(packageName).append(".service;\n\n");
-        code.append("import ").append(packageName).append(".dto.").append(dtoName).append(";\n");
-        code.append("import ").append(packageName).append(".entity.").append(entityName).append(";\n");
-        code.append("import ").append(packageName).append(".repository.").append(repoName).append(";\n");
-        code.append("import org.springframework.beans.factory.annotation.Autowired;\n");
-        code.append("import org.springframework.stereotype.Service;\n");
-        code.append("import java.util.List;\n");
-        code.append("import java.util.stream.Collectors;\n\n");
-        code.append("@Service\n");
-        code.append("public class ").append(className).append(" implements ").append(interfaceName).append(" {\n\n");
-        code.append("    @Autowired\n");
-        code.append("    private ").append(repoName).append(" repository;\n\n");
-        code.append("    @Override\n");
-        code.append("    public List<").append(dtoName).append("> findAll() {\n");
-        code.append("        return repository.findAll().stream()\n");
-        code.append("                .map(this::toDTO)\n");
-        code.append("                .collect(Collectors.toList());\n");
-        code.append("    }\n\n");
-        code.append("    @Override\n");
-        code.append("    public ").append(dtoName).append(" findById(Long id) {\n");
-        code.append("        return repository.findById(id)\n");
-        code.append("                .map(this::toDTO)\n");
-        code.append("                .orElse(null);\n");
-        code.append("    }\n\n");
-        code.append("    @Override\n");
-        code.append("    public ").append(dtoName).append(" save(").append(dtoName).append(" dto) {\n");
-        code.append("        ").append(entityName).append(" entity = toEntity(dto);\n");
-        code.append("        return toDTO(repository.save(entity));\n");
-        code.append("    }\n\n");
-        code.append("    @Override\n");
-        code.append("    public ").append(dtoName).append(" update(Long id, ").append(dtoName).append(" dto) {\n");
-        code.append("        ").append(entityName).append(" entity = repository.findById(id)\n");
-        code.append("                .orElseThrow(() -> new RuntimeException(\"Entity not found\"));\n");
-        code.append("        updateEntityFromDTO(entity, dto);\n");
-        code.append("        return toDTO(repository.save(entity));\n");
-        code.append("    }\n\n");
-        code.append("    @Override\n");
-        code.append("    public void deleteById(Long id) {\n");
-        code.append("        repository.deleteById(id);\n");
-        code.append("    }\n\n");
-        code.append("    private ").append(dtoName).append(" toDTO(").append(entityName).append(" entity) {\n");
-        code.append("        ").append(dtoName).append(" dto = new ").append(dtoName).append("();\n");
-        for (Map.Entry<String, String> field : entity.getFields().entrySet()) {
-            String fieldName = field.getKey();
-            String capitalized = capitalize(fieldName);
-            code.append("        dto.set").append(capitalized).append("(entity.get").append(capitalized).append("());\n");
+        generate(CodeTemplates.SERVICE_IMPL, entity);
+    }
+
+    /**
+     * Generates a REST controller
+     */
+    public void generateController(SpecParser.EntityInfo entity, List<SpecParser.EndpointInfo> endpoints) throws IOException {
+        generate(CodeTemplates.CONTROLLER, entity);
+    }
+
+    /**
+     * Generates a test class
+     */
+    public void generateTest(SpecParser.EntityInfo entity) throws IOException {
+        generate(CodeTemplates.TEST, entity);
+    }
+
+    /**
+     * Generates a JMH benchmark and a load test, unless the perf harness is disabled
+     */
+    public void generatePerfHarness(SpecParser.EntityInfo entity) throws IOException {
+        if (!options.perfHarness().enabled()) {
+            return;
         }
-        code.append("        return dto;\n");
-        code.append("    }\n\n");
-        code.append("    private ").append(entityName).append(" toEntity(").append(dtoName).append(" dto) {\n");
-        code.append("        ").append(entityName).append(" entity = new ").append(entityName).append("();\n");
-        for (Map.Entry<String, String> field : entity.getFields().entrySet()) {
-            String fieldName = field.getKey();
-            if (!fieldName.equalsIgnoreCase("id")) {
-                String capitalized = capitalize(fieldName);
-                code.append("        entity.set").append(capitalized).append("(dto.get").append(capitalized).append("());\n");
+        generate(CodeTemplates.BENCHMARK, entity);
+        generate(CodeTemplates.LOAD_TEST, entity);
+    }
+
+    /**
+     * Generates a GraphQL controller resolving the entity's operations and relationships, with a
+     * test of its batch loaders, unless the GraphQL schema has none for the entity
+     */
+    public void generateGraphQLController(SpecParser.EntityInfo entity) throws IOException {
+        if (!hasResolvers(entity)) {
+            return;
+        }
+        generate(CodeTemplates.GRAPHQL_CONTROLLER, entity);
+        if (hasBatchMappings(entity)) {
+            generate(CodeTemplates.GRAPHQL_TEST, entity);
+        }
+    }
+
+    /**
+     * Relative paths of all artifacts generated for the entity
+     */
+    public List<String> artifactPaths(SpecParser.EntityInfo entity) {
+        List<String> paths = new ArrayList<>(CodeTemplates.NAMES.size());
+        for (String templateName : CodeTemplates.NAMES) {
+            if (!options.perfHarness().enabled()
+                    && (templateName.equals(CodeTemplates.BENCHMARK) || templateName.equals(CodeTemplates.LOAD_TEST))) {
+                continue;
+            }
+            if ((templateName.equals(CodeTemplates.GRAPHQL_CONTROLLER) && !hasResolvers(entity))
+                    || (templateName.equals(CodeTemplates.GRAPHQL_TEST) && !hasBatchMappings(entity))) {
+                continue;
             }
+            paths.add(artifactPath(templateName, entity));
         }
-        code.append("        return entity;\n");
-        code.append("    }\n\n");
-        code.append("    private void updateEntityFromDTO(").append(entityName).append(" entity, ").append(dtoName).append(" dto) {\n");
+        return paths;
+    }
+
+    private String artifactPath(String templateName, SpecParser.EntityInfo entity) {
+        String name = entity.getName();
+        return switch (templateName) {
+            case CodeTemplates.ENTITY -> mainPackagePath + "/entity/" + name + ".java";
+            case CodeTemplates.DTO -> mainPackagePath + "/dto/" + name + "DTO.java";
+            case CodeTemplates.REPOSITORY -> mainPackagePath + "/repository/" + name + "Repository.java";
+            case CodeTemplates.SERVICE -> mainPackagePath + "/service/" + name + "Service.java";
+            case CodeTemplates.SERVICE_IMPL -> mainPackagePath + "/service/" + name + "ServiceImpl.java";
+            case CodeTemplates.CONTROLLER -> mainPackagePath + "/controller/" + name + "Controller.java";
+            case CodeTemplates.TEST -> testPackagePath + "/controller/" + name + "ControllerTest.java";
+            case CodeTemplates.BENCHMARK -> "src/jmh/java/" + packageName.replace(".", "/") + "/benchmark/" + name + "Benchmark.java";
+            case CodeTemplates.LOAD_TEST -> testPackagePath + "/perf/" + name + "LoadTest.java";
+            case CodeTemplates.GRAPHQL_CONTROLLER -> mainPackagePath + "/graphql/" + name + "GraphQLController.java";
+            case CodeTemplates.GRAPHQL_TEST -> testPackagePath + "/graphql/" + name + "GraphQLControllerTest.java";
+            default -> throw new IllegalArgumentException("Unknown template '" + templateName + "'");
+        };
+    }
+
+    /**
+     * Renders one artifact for the entity without writing it
+     */
+    String render(String templateName, SpecParser.EntityInfo entity) {
+        return templates.get(templateName).render(models.computeIfAbsent(entity, this::model));
+    }
+
+    private Map<String, Object> model(SpecParser.EntityInfo entity) {
+        List<Map<String, Object>> fields = new ArrayList<>(entity.getFields().size());
+        Map<String, Object> idField = null;
+        boolean records = options.projections().enabled();
         for (Map.Entry<String, String> field : entity.getFields().entrySet()) {
             String fieldName = field.getKey();
-            if (!fieldName.equalsIgnoreCase("id")) {
-                String capitalized = capitalize(fieldName);
-                code.append("        entity.set").append(capitalized).append("(dto.get").append(capitalized).append("());\n");
+            Map<String, Object> values = Map.of(
+                    "name", fieldName,
+                    "type", field.getValue(),
+                    "capitalized", capitalize(fieldName),
+                    "accessor", records ? fieldName : "get" + capitalize(fieldName),
+                    "id", fieldName.equalsIgnoreCase("id"),
+                    "last", fields.size() == entity.getFields().size() - 1);
+            fields.add(values);
+            if (idField == null && fieldName.equalsIgnoreCase("id")) {
+                idField = values;
             }
         }
-        code.append("    }\n");
-        code.append("}\n");
-        
-        writeFile("src/main/java/" + packageName.replace(".", "/") + "/service/" + className + ".java", code.toString());
+        Map<String, Object> model = new HashMap<>();
+        if (idField != null) {
+            model.put("idField", idField);
+        }
+        model.put("packageName", packageName);
+        model.put("entityName", entity.getName());
+        model.put("lowerName", entity.getName().toLowerCase());
+        model.put("fields", fields);
+        model.put("applicationClass", applicationClass);
+        model.put("sampleJson", sampleJson(entity));
+        options.addTo(model, entity);
+        if (graphQLSchema != null) {
+            addGraphQL(model, entity);
+        }
+        return model;
     }
 
     /**
-     * Generates a REST controller
+     * Adds the graphql section for an entity the schema's operations or relationships refer to
      */
-    public void generateController(SpecParser.EntityInfo entity, List<SpecParser.EndpointInfo> endpoints) throws IOException {
-        String className = entity.getName() + "Controller";
-        String entityName = entity.getName();
-        String serviceName = entityName + "Service";
-        String dtoName = entityName + "DTO";
-        StringBuilder code = new StringBuilder();
-        code.append("package ").append(packageName).append(".controller;\n\n");
-        code.append("import ").append(packageName).append(".dto.").append(dtoName).append(";\n");
-        code.append("import ").append(packageName).append(".service.").append(serviceName).append(";\n");
-        code.append("import org.springframework.beans.factory.annotation.Autowired;\n");
-        code.append("import org.springframework.http.HttpStatus;\n");
-        code.append("import org.springframework.http.ResponseEntity;\n");
-        code.append("import org.springframework.web.bind.annotation.*;\n");
-        code.append("import java.util.List;\n\n");
-        code.append("@RestController\n");
-        code.append("@RequestMapping(\"/api/").append(entityName.toLowerCase()).append("s\")\n");
-        code.append("public class ").append(className).append(" {\n\n");
-        code.append("    @Autowired\n");
-        code.append("    private ").append(serviceName).append(" service;\n\n");
-        code.append("    @GetMapping\n");
-        code.append("    public ResponseEntity<List<").append(dtoName).append(">> getAll() {\n");
-        code.append("        return ResponseEntity.ok(service.findAll());\n");
-        code.append("    }\n\n");
-        code.append("    @GetMapping(\"/{id}\")\n");
-        code.append("    public ResponseEntity<").append(dtoName).append("> getById(@PathVariable Long id) {\n");
-        code.append("        ").append(dtoName).append(" dto = service.findById(id);\n");
-        code.append("        return dto != null ? ResponseEntity.ok(dto) : ResponseEntity.notFound().build();\n");
-        code.append("    }\n\n");
-        code.append("    @PostMapping\n");
-        code.append("    public ResponseEntity<").append(dtoName).append("> create(@RequestBody ").append(dtoName).append(" dto) {\n");
-        code.append("        return ResponseEntity.status(HttpStatus.CREATED).body(service.save(dto));\n");
-        code.append("    }\n\n");
-        code.append("    @PutMapping(\"/{id}\")\n");
-        code.append("    public ResponseEntity<").append(dtoName).append("> update(@PathVariable Long id, @RequestBody ").append(dtoName).append(" dto) {\n");
-        code.append("        return ResponseEntity.ok(service.update(id, dto));\n");
-        code.append("    }\n\n");
-        code.append("    @DeleteMapping(\"/{id}\")\n");
-        code.append("    public ResponseEntity<Void> delete(@PathVariable Long id) {\n");
-        code.append("        service.deleteById(id);\n");
-        code.append("        return ResponseEntity.noContent().build();\n");
-        code.append("    }\n");
-        code.append("}\n");
-        
-        writeFile("src/main/java/" + packageName.replace(".", "/") + "/controller/" + className + ".java", code.toString());
+    private void addGraphQL(Map<String, Object> model, SpecParser.EntityInfo entity) {
+        String name = entity.getName();
+        boolean records = options.projections().enabled();
+        List<Map<String, Object>> operations = new ArrayList<>();
+        boolean hasList = false;
+        boolean hasPagedList = false;
+        boolean hasQueries = false;
+        boolean hasMutations = false;
+        boolean hasArguments = false;
+        for (SpecParser.GraphQLOperation operation : graphQLSchema.getOperations()) {
+            if (operation.entity().equals(name)) {
+                SpecParser.GraphQLOperation.Action action = operation.action();
+                if (action == SpecParser.GraphQLOperation.Action.LIST) {
+                    hasList = true;
+                    hasPagedList |= operation.paged();
+                }
+                boolean query = action == SpecParser.GraphQLOperation.Action.LIST
+                        || action == SpecParser.GraphQLOperation.Action.GET;
+                hasQueries |= query;
+                hasMutations |= !query;
+                hasArguments |= action != SpecParser.GraphQLOperation.Action.LIST
+                        || (operation.paged() && options.pagination().enabled());
+                Map<String, Object> values = new HashMap<>();
+                values.put("name", operation.name());
+                values.put("method", SourceVersion.isKeyword(operation.name()) ? operation.name() + "_" : operation.name());
+                values.put(operation.action().name().toLowerCase(), true);
+                values.put("paged", operation.paged());
+                if (operation.idArgument() != null) {
+                    values.put("idArgument", operation.idArgument());
+                }
+                if (operation.inputArgument() != null) {
+                    values.put("inputArgument", operation.inputArgument());
+                }
+                if (operation.action() == SpecParser.GraphQLOperation.Action.DELETE) {
+                    values.put("deleteReturnsBoolean", operation.returnType().equals("Boolean"));
+                    values.put("deleteReturnsId", operation.returnType().equals("ID"));
+                    values.put("deleteReturnsEntity", operation.returnType().equals(name));
+                }
+                operations.add(values);
+            }
+        }
+        List<Map<String, Object>> toOne = new ArrayList<>();
+        List<Map<String, Object>> toMany = new ArrayList<>();
+        Map<String, Map<String, Object>> services = new LinkedHashMap<>();
+        Set<String> foreignKeyLookups = new LinkedHashSet<>();
+        boolean byIdLookup = false;
+        for (SpecParser.GraphQLRelationship relationship : graphQLSchema.getRelationships()) {
+            if (relationship.target().equals(name)) {
+                if (relationship.many()) {
+                    foreignKeyLookups.add(capitalize(relationship.foreignKey()));
+                } else {
+                    byIdLookup = true;
+                }
+            }
+            if (!relationship.owner().equals(name)) {
+                continue;
+            }
+            String target = relationship.target();
+            String serviceField = target.equals(name) ? "service"
+                    : Character.toLowerCase(target.charAt(0)) + target.substring(1) + "Service";
+            if (!target.equals(name)) {
+                services.putIfAbsent(target, Map.of("target", target, "serviceField", serviceField));
+            }
+            Map<String, Object> values = new HashMap<>();
+            values.put("field", relationship.field());
+            values.put("capitalizedField", capitalize(relationship.field()));
+            values.put("target", target);
+            values.put("serviceField", serviceField);
+            values.put("foreignKey", relationship.foreignKey());
+            values.put("capitalizedForeignKey", capitalize(relationship.foreignKey()));
+            values.put("fkAccessor", records ? relationship.foreignKey() : "get" + capitalize(relationship.foreignKey()));
+            String idName = relationship.many() ? idName(entity) : idName(graphQLSchemaEntity(target));
+            values.put("idName", idName);
+            values.put("idAccessor", records ? idName : "get" + capitalize(idName));
+            (relationship.many() ? toMany : toOne).add(values);
+        }
+        if (operations.isEmpty() && toOne.isEmpty() && toMany.isEmpty() && foreignKeyLookups.isEmpty() && !byIdLookup) {
+            return;
+        }
+        List<Map<String, Object>> lookups = new ArrayList<>();
+        for (String foreignKey : foreignKeyLookups) {
+            lookups.add(Map.of("capitalized", foreignKey));
+        }
+        Map<String, Object> graphql = new HashMap<>();
+        graphql.put("operations", operations);
+        graphql.put("toOne", toOne);
+        graphql.put("toMany", toMany);
+        graphql.put("services", new ArrayList<>(services.values()));
+        graphql.put("foreignKeyLookups", lookups);
+        graphql.put("byIdLookup", byIdLookup);
+        graphql.put("hasForeignKeyLookups", !lookups.isEmpty());
+        graphql.put("hasLookups", byIdLookup || !lookups.isEmpty());
+        graphql.put("hasBatchMappings", !toOne.isEmpty() || !toMany.isEmpty());
+        graphql.put("hasToOne", !toOne.isEmpty());
+        graphql.put("hasToMany", !toMany.isEmpty());
+        graphql.put("hasList", hasList);
+        graphql.put("hasPagedList", hasPagedList);
+        graphql.put("hasQueries", hasQueries);
+        graphql.put("hasMutations", hasMutations);
+        graphql.put("hasArguments", hasArguments);
+        model.put("graphql", graphql);
+    }
+
+    private boolean hasResolvers(SpecParser.EntityInfo entity) {
+        if (graphQLSchema == null) {
+            return false;
+        }
+        for (SpecParser.GraphQLOperation operation : graphQLSchema.getOperations()) {
+            if (operation.entity().equals(entity.getName())) {
+                return true;
+            }
+        }
+        return hasBatchMappings(entity);
+    }
+
+    private boolean hasBatchMappings(SpecParser.EntityInfo entity) {
+        if (graphQLSchema == null) {
+            return false;
+        }
+        for (SpecParser.GraphQLRelationship relationship : graphQLSchema.getRelationships()) {
+            if (relationship.owner().equals(entity.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private SpecParser.EntityInfo graphQLSchemaEntity(String name) {
+        for (SpecParser.EntityInfo entity : graphQLSchema.getEntities()) {
+            if (entity.getName().equals(name)) {
+                return entity;
+            }
+        }
+        throw new IllegalArgumentException("Unknown GraphQL entity '" + name + "'");
+    }
+
+    private static String idName(SpecParser.EntityInfo entity) {
+        for (String field : entity.getFields().keySet()) {
+            if (field.equalsIgnoreCase("id")) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Entity '" + entity.getName() + "' has no id field");
     }
 
     /**
-     * Generates a test class
+     * A JSON object with a sample value for every field but the id, escaped for a Java string literal
      */
-    public void generateTest(SpecParser.EntityInfo entity) throws IOException {
-        String className = entity.getName() + "ControllerTest";
-        String entityName = entity.getName();
-        String controllerName = entityName + "Controller";
-        StringBuilder code = new StringBuilder();
-        code.append("package ").append(packageName).append(".controller;\n\n");
-        code.append("import org.junit.jupiter.api.Test;\n");
-        code.append("import org.springframework.beans.factory.annotation.Autowired;\n");
-        code.append("import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;\n");
-        code.append("import org.springframework.boot.test.mock.mockito.MockBean;\n");
-        code.append("import org.springframework.test.web.servlet.MockMvc;\n\n");
-        code.append("@WebMvcTest(").append(controllerName).append(".class)\n");
-        code.append("public class ").append(className).append(" {\n\n");
-        code.append("    @Autowired\n");
-        code.append("    private MockMvc mockMvc;\n\n");
-        code.append("    @MockBean\n");
-        code.append("    private ").append(packageName).append(".service.").append(entityName).append("Service service;\n\n");
-        code.append("    @Test\n");
-        code.append("    public void testGetAll() throws Exception {\n");
-        code.append("        // TODO: Implement test\n");
-        code.append("    }\n\n");
-        code.append("    @Test\n");
-        code.append("    public void testGetById() throws Exception {\n");
-        code.append("        // TODO: Implement test\n");
-        code.append("    }\n\n");
-        code.append("    @Test\n");
-        code.append("    public void testCreate() throws Exception {\n");
-        code.append("        // TODO: Implement test\n");
-        code.append("    }\n\n");
-        code.append("    @Test\n");
-        code.append("    public void testUpdate() throws Exception {\n");
-        code.append("        // TODO: Implement test\n");
-        code.append("    }\n\n");
-        code.append("    @Test\n");
-        code.append("    public void testDelete() throws Exception {\n");
-        code.append("        // TODO: Implement test\n");
-        code.append("    }\n");
-        code.append("}\n");
-        
-        writeFile("src/test/java/" + packageName.replace(".", "/") + "/controller/" + className + ".java", code.toString());
+    private static String sampleJson(SpecParser.EntityInfo entity) {
+        List<String> values = new ArrayList<>();
+        for (Map.Entry<String, String> field : entity.getFields().entrySet()) {
+            if (field.getKey().equalsIgnoreCase("id")) {
+                continue;
+            }
+            String value = switch (field.getValue()) {
+                case "Long" -> "1";
+                case "Double" -> "1.5";
+                case "Boolean" -> "true";
+                default -> "\\\"sample\\\"";
+            };
+            values.add("\\\"" + field.getKey() + "\\\": " + value);
+        }
+        return "{" + String.join(", ", values) + "}";
     }
 
-    private void writeFile(String relativePath, String content) throws IOException {
-        Path filePath = outputBasePath.resolve(relativePath);
-        Files.createDirectories(filePath.getParent());
-        Files.writeString(filePath, content);
+    private void generate(String templateName, SpecParser.EntityInfo entity) throws IOException {
+        GenerationMetrics.Phase artifact = metrics.artifact(templateName);
+        try {
+            output.write(artifactPath(templateName, entity), render(templateName, entity));
+        } finally {
+            artifact.stop();
+        }
     }
 
     private String capitalize(String str) {
@@ -334,4 +425,3 @@ public class CodeGenerator {
         return str.substring(0, 1).toUpperCase() + str.substring(1);
     }
 }
-
@@ -0,0 +1,151 @@
+package cc.spec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The set of compiled templates CodeGenerator renders from. The built-in set is loaded from
+ * classpath resources under /codegen, with a variant for the reactive target under
+ * /codegen/reactive, and compiled once per JVM; output preferences can replace
+ * individual templates with inline sources:
+ * <pre>
+ * templates:
+ *   repository: |
+ *     package {{packageName}}.repository;
+ *     ...
+ * </pre>
+ * Every template sees {@code packageName}, {@code entityName}, {@code lowerName} and a
+ * {@code fields} list whose elements carry {@code name}, {@code type}, {@code capitalized},
+ * {@code accessor} (the DTO's accessor method), {@code id} (true for the identifier field) and
+ * {@code last} (true for the last field); {@code idField} is the identifier field on its own,
+ * absent when the DTO has no identifier, {@code applicationClass} names the Spring Boot
+ * application class and {@code sampleJson} is a request body with a sample value for every field,
+ * escaped for a Java string literal. The enabled groups of {@link GeneratorOptions} are
+ * sections of their own: {@code pagination} with {@code keyset}, {@code defaultPageSize} and
+ * {@code maxPageSize}, {@code batching} with {@code batchSize} and {@code allocationSize},
+ * {@code caching} with the entity's {@code cacheName}, and {@code projections}; they are absent
+ * when the group is disabled. Entities a GraphQL schema refers to also see a {@code graphql}
+ * section with their {@code operations}, their {@code toOne} and {@code toMany} relationships, the
+ * {@code services} of the related entities and the {@code foreignKeyLookups} other entities'
+ * batch loaders query them by.
+ */
+public final class CodeTemplates {
+    public static final String ENTITY = "entity";
+    public static final String DTO = "dto";
+    public static final String REPOSITORY = "repository";
+    public static final String SERVICE = "service";
+    public static final String SERVICE_IMPL = "serviceImpl";
+    public static final String CONTROLLER = "controller";
+    public static final String TEST = "test";
+    public static final String BENCHMARK = "benchmark";
+    public static final String LOAD_TEST = "loadTest";
+    public static final String GRAPHQL_CONTROLLER = "graphqlController";
+    public static final String GRAPHQL_TEST = "graphqlTest";
+
+    public static final List<String> NAMES = List.of(ENTITY, DTO, REPOSITORY, SERVICE, SERVICE_IMPL, CONTROLLER, TEST,
+            BENCHMARK, LOAD_TEST, GRAPHQL_CONTROLLER, GRAPHQL_TEST);
+
+    private static final CodeTemplates BUILT_IN = loadBuiltIn(null);
+    private static final CodeTemplates BUILT_IN_REACTIVE = loadBuiltIn("/codegen/reactive/");
+
+    private final Map<String, Template> templates;
+    private final String fingerprint;
+
+    private CodeTemplates(Map<String, Template> templates, Map<String, String> sources) {
+        this.templates = Map.copyOf(templates);
+        this.fingerprint = fingerprint(sources);
+    }
+
+    public static CodeTemplates builtIn() {
+        return BUILT_IN;
+    }
+
+    /**
+     * The built-in set of the reactive target: the templates under /codegen/reactive, and the
+     * servlet ones for artifacts both stacks share such as the DTO
+     */
+    public static CodeTemplates builtInReactive() {
+        return BUILT_IN_REACTIVE;
+    }
+
+    /**
+     * Returns a copy of this set with the given templates replaced
+     *
+     * @param sources Template sources keyed by template name
+     * @throws IllegalArgumentException if a name is unknown or a source does not compile
+     */
+    public CodeTemplates withOverrides(Map<String, String> sources) {
+        Map<String, Template> merged = new LinkedHashMap<>(templates);
+        Map<String, String> fingerprintSources = new TreeMap<>();
+        fingerprintSources.put("", fingerprint);
+        for (Map.Entry<String, String> source : sources.entrySet()) {
+            if (!templates.containsKey(source.getKey())) {
+                throw new IllegalArgumentException("Unknown template '" + source.getKey() + "', expected one of " + NAMES);
+            }
+            merged.put(source.getKey(), Template.compile(source.getKey(), source.getValue()));
+            fingerprintSources.put(source.getKey(), source.getValue());
+        }
+        return new CodeTemplates(merged, fingerprintSources);
+    }
+
+    /**
+     * Digest of the template sources; changes whenever any template would render differently
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public Template get(String name) {
+        Template template = templates.get(name);
+        if (template == null) {
+            throw new IllegalArgumentException("Unknown template '" + name + "'");
+        }
+        return template;
+    }
+
+    /**
+     * @param overrideDirectory Resource directory whose templates replace the ones under /codegen, or null
+     */
+    private static CodeTemplates loadBuiltIn(String overrideDirectory) {
+        Map<String, Template> templates = new LinkedHashMap<>();
+        Map<String, String> sources = new TreeMap<>();
+        for (String name : NAMES) {
+            String resource = "/codegen/" + name + ".java.tmpl";
+            if (overrideDirectory != null && CodeTemplates.class.getResource(overrideDirectory + name + ".java.tmpl") != null) {
+                resource = overrideDirectory + name + ".java.tmpl";
+            }
+            try (InputStream in = CodeTemplates.class.getResourceAsStream(resource)) {
+                if (in == null) {
+                    throw new IllegalStateException("Missing built-in template " + resource);
+                }
+                String source = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                templates.put(name, Template.compile(name, source));
+                sources.put(name, source);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to load built-in template " + resource, e);
+            }
+        }
+        return new CodeTemplates(templates, sources);
+    }
+
+    private static String fingerprint(Map<String, String> sources) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Map.Entry<String, String> source : sources.entrySet()) {
+                digest.update((source.getKey() + "\0" + source.getValue() + "\0").getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package cc.spec;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes generated files below a directory on the local file system
+ */
+public class DiskOutputSink implements OutputSink {
+    private final Path root;
+
+    public DiskOutputSink(Path root) {
+        this.root = root;
+    }
+
+    @Override
+    public void write(String relativePath, String content) throws IOException {
+        Path filePath = root.resolve(relativePath);
+        Files.createDirectories(filePath.getParent());
+        Files.writeString(filePath, content);
+    }
+
+    @Override
+    public void createDirectory(String relativePath) throws IOException {
+        Files.createDirectories(root.resolve(relativePath));
+    }
+
+    @Override
+    public Writer openWriter(String relativePath) throws IOException {
+        Path filePath = root.resolve(relativePath);
+        Files.createDirectories(filePath.getParent());
+        return Files.newBufferedWriter(filePath);
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+}
@@ -45,6 +45,10 @@ public class GapReportGenerator {
     }
 
     public void generateGapReport(Path outputPath) throws IOException {
+        Files.writeString(outputPath, renderGapReport());
+    }
+
+    public String renderGapReport() {
         StringBuilder report = new StringBuilder();
         report.append("# GAP Report\n\n");
         report.append("Generated: ").append(new java.util.Date()).append("\n\n");
@@ -61,7 +65,7 @@ public class GapReportGenerator {
             }
         }
         
-        Files.writeString(outputPath, report.toString());
+        return report.toString();
     }
 
     public List<String> getGaps() {
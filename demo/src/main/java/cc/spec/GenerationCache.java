@@ -0,0 +1,315 @@
+package cc.spec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed cache of complete generation results.
+ *
+ * Entries are keyed by a SHA-256 digest of the normalized spec contents, the generation mode, the
+ * resolved package name and generator options, and the generator fingerprint: the
+ * {@link #GENERATOR_VERSION} and the built-in templates. A hit copies the cached tree into the
+ * requested output directory, so the pipeline is skipped entirely and the copy can be edited
+ * without touching the cache. Entries written by a different generator are dropped when the
+ * index is loaded. The total cache size is bounded; least recently used entries are evicted first.
+ */
+public class GenerationCache {
+    /**
+     * Bump whenever a generator change alters what the same specs and options produce
+     */
+    public static final int GENERATOR_VERSION = 25;
+
+    private static final String METADATA_FILE = ".cache-entry.json";
+    private static final String STAGING_PREFIX = "staging-";
+
+    private final Path cacheRoot;
+    private final long maxBytes;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LinkedHashMap<String, Long> entrySizes = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong stores = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Opens (or creates) a cache under the given directory, re-indexing entries left by earlier runs
+     * @param cacheRoot Directory holding one sub-directory per cache entry
+     * @param maxBytes Upper bound for the total size of all cached files
+     */
+    public GenerationCache(Path cacheRoot, long maxBytes) throws IOException {
+        this.cacheRoot = cacheRoot;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(cacheRoot);
+        loadIndex();
+    }
+
+    /**
+     * Computes the cache key for a spec bundle
+     * @param uploadedFiles Map of file types to their contents
+     * @param mode Generation mode ("classic" or "ai")
+     * @param packageName Resolved package name
+     * @param options Resolved generator options
+     */
+    public static String computeKey(Map<String, SpecSource> uploadedFiles, String mode, String packageName,
+                                    GeneratorOptions options) throws IOException {
+        MessageDigest digest = sha256();
+        update(digest, generatorFingerprint());
+        update(digest, options.getFingerprint());
+        update(digest, mode);
+        update(digest, packageName);
+        // Sort by spec type so the key does not depend on map iteration order
+        for (Map.Entry<String, SpecSource> entry : new TreeMap<>(uploadedFiles).entrySet()) {
+            if (entry.getValue() == null) {
+                continue;
+            }
+            update(digest, entry.getKey());
+            update(digest, normalize(entry.getValue().readString()));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Identifies the generator that produced an entry: its version and built-in templates
+     */
+    static String generatorFingerprint() {
+        return GENERATOR_VERSION + "\n" + CodeTemplates.builtIn().getFingerprint() + "\n"
+                + CodeTemplates.builtInReactive().getFingerprint();
+    }
+
+    /**
+     * Materializes a cached result into the output directory
+     * @return The cached generation result, or empty on a miss
+     */
+    public Optional<SpecToCodeAgent.GenerationResult> materialize(String key, Path outputDirectory) {
+        Path entryDir = cacheRoot.resolve(key);
+        synchronized (this) {
+            if (!entrySizes.containsKey(key)) {
+                misses.incrementAndGet();
+                return Optional.empty();
+            }
+            entrySizes.get(key); // refresh LRU position
+        }
+        try {
+            CacheEntry entry = objectMapper.readValue(entryDir.resolve(METADATA_FILE).toFile(), CacheEntry.class);
+            copyTree(entryDir, outputDirectory);
+            Files.setLastModifiedTime(entryDir.resolve(METADATA_FILE), FileTime.fromMillis(System.currentTimeMillis()));
+            hits.incrementAndGet();
+            return Optional.of(new SpecToCodeAgent.GenerationResult(outputDirectory, entry.entities, entry.gaps, true));
+        } catch (IOException e) {
+            // The entry was evicted or damaged while being read: treat as a miss
+            System.err.println("[CACHE] Failed to materialize entry " + key + ": " + e.getMessage());
+            deleteRecursively(outputDirectory);
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores a freshly generated output directory under the given key
+     */
+    public void store(String key, SpecToCodeAgent.GenerationResult result) {
+        Path staging = cacheRoot.resolve(STAGING_PREFIX + UUID.randomUUID());
+        try {
+            long size = copyTree(result.getOutputDirectory(), staging);
+            if (size > maxBytes) {
+                deleteRecursively(staging);
+                return;
+            }
+            CacheEntry entry = new CacheEntry();
+            entry.entities = result.getGeneratedEntities();
+            entry.gaps = result.getGaps();
+            entry.generator = generatorFingerprint();
+            objectMapper.writeValue(staging.resolve(METADATA_FILE).toFile(), entry);
+
+            synchronized (this) {
+                if (entrySizes.containsKey(key)) {
+                    deleteRecursively(staging); // stored concurrently by another job
+                    return;
+                }
+                Files.move(staging, cacheRoot.resolve(key), StandardCopyOption.ATOMIC_MOVE);
+                entrySizes.put(key, size);
+                totalBytes += size;
+                stores.incrementAndGet();
+                evictToBudget(key);
+            }
+        } catch (IOException e) {
+            System.err.println("[CACHE] Failed to store entry " + key + ": " + e.getMessage());
+            deleteRecursively(staging);
+        }
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(hits.get(), misses.get(), stores.get(), evictions.get(), entrySizes.size(), totalBytes, maxBytes);
+    }
+
+    /**
+     * Snapshot of the cache counters
+     */
+    public record Stats(long hits, long misses, long stores, long evictions, int entries, long sizeBytes, long maxSizeBytes) {
+    }
+
+    /**
+     * Metadata persisted next to each cached tree
+     */
+    public static class CacheEntry {
+        public List<String> entities = new ArrayList<>();
+        public List<String> gaps = new ArrayList<>();
+        public String generator;
+    }
+
+    private void evictToBudget(String keep) {
+        Iterator<Map.Entry<String, Long>> iterator = entrySizes.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            if (eldest.getKey().equals(keep)) {
+                continue;
+            }
+            iterator.remove();
+            totalBytes -= eldest.getValue();
+            evictions.incrementAndGet();
+            deleteRecursively(cacheRoot.resolve(eldest.getKey()));
+        }
+    }
+
+    private void loadIndex() throws IOException {
+        List<Path> entryDirs = new ArrayList<>();
+        try (Stream<Path> children = Files.list(cacheRoot)) {
+            for (Path child : (Iterable<Path>) children::iterator) {
+                if (child.getFileName().toString().startsWith(STAGING_PREFIX) || !Files.exists(child.resolve(METADATA_FILE))) {
+                    deleteRecursively(child); // left over from an interrupted store
+                } else if (!isCurrentGenerator(child)) {
+                    System.out.println("[CACHE] Dropped entry of an older generator: " + child.getFileName());
+                    deleteRecursively(child);
+                } else {
+                    entryDirs.add(child);
+                }
+            }
+        }
+        // Oldest access first, so iteration order matches LRU order
+        entryDirs.sort(Comparator.comparing(dir -> dir.resolve(METADATA_FILE).toFile().lastModified()));
+        for (Path entryDir : entryDirs) {
+            long size = treeSize(entryDir);
+            entrySizes.put(entryDir.getFileName().toString(), size);
+            totalBytes += size;
+        }
+        evictToBudget(null);
+    }
+
+    private boolean isCurrentGenerator(Path entryDir) {
+        try {
+            CacheEntry entry = objectMapper.readValue(entryDir.resolve(METADATA_FILE).toFile(), CacheEntry.class);
+            return generatorFingerprint().equals(entry.generator);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Copies the file tree of source to target, leaving out the entry metadata
+     * @return Total size of the copied files in bytes
+     */
+    private long copyTree(Path source, Path target) throws IOException {
+        long size = 0;
+        try (Stream<Path> paths = Files.walk(source)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                Path relative = source.relativize(path);
+                if (relative.toString().equals(METADATA_FILE)) {
+                    continue;
+                }
+                Path destination = target.resolve(relative.toString());
+                if (Files.isDirectory(path)) {
+                    Files.createDirectories(destination);
+                    continue;
+                }
+                Files.copy(path, destination, StandardCopyOption.REPLACE_EXISTING);
+                size += Files.size(path);
+            }
+        }
+        return size;
+    }
+
+    private long treeSize(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            long size = 0;
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                if (Files.isRegularFile(path) && !path.getFileName().toString().equals(METADATA_FILE)) {
+                    size += Files.size(path);
+                }
+            }
+            return size;
+        }
+    }
+
+    /**
+     * Normalizes line endings and trailing whitespace so cosmetic differences do not defeat the cache
+     */
+    private static String normalize(String content) {
+        if (content.startsWith("\uFEFF")) {
+            content = content.substring(1);
+        }
+        StringBuilder normalized = new StringBuilder(content.length());
+        for (String line : content.split("\r\n|\r|\n")) {
+            normalized.append(line.stripTrailing()).append('\n');
+        }
+        int end = normalized.length();
+        while (end > 0 && normalized.charAt(end - 1) == '\n') {
+            end--;
+        }
+        normalized.setLength(end);
+        return normalized.toString();
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        // Length-prefix every field so adjacent values cannot run together
+        digest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) ':');
+        digest.update(bytes);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static void deleteRecursively(Path dir) {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    System.err.println("[CACHE] Failed to delete " + path + ": " + e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("[CACHE] Failed to delete " + dir + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package cc.spec;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tracks the state of a single asynchronous project generation job
+ */
+public class GenerationJob implements SpecToCodeAgent.ProgressListener {
+
+    public enum Status { QUEUED, RUNNING, SUCCEEDED, FAILED }
+
+    private final String id;
+    private final String mode;
+    private final Instant createdAt;
+    private final Path outputDirectory;
+    private final List<String> completedPhases = new ArrayList<>();
+    private final List<String> logs = new ArrayList<>();
+    private Status status = Status.QUEUED;
+    private String currentPhase;
+    private int completedEntities;
+    private int totalEntities;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private List<String> generatedEntities = List.of();
+    private List<String> gaps = List.of();
+    private String error;
+
+    public GenerationJob(String id, String mode, Path outputDirectory) {
+        this.id = id;
+        this.mode = mode;
+        this.outputDirectory = outputDirectory;
+        this.createdAt = Instant.now();
+    }
+
+    @Override
+    public synchronized void onPhase(String phase) {
+        if (currentPhase != null) {
+            completedPhases.add(currentPhase);
+        }
+        currentPhase = phase;
+        logs.add("[INFO] Phase: " + phase);
+    }
+
+    @Override
+    public synchronized void onArtifactProgress(int completedEntities, int totalEntities) {
+        this.completedEntities = completedEntities;
+        this.totalEntities = totalEntities;
+    }
+
+    public synchronized void log(String line) {
+        logs.add(line);
+    }
+
+    public synchronized void markRunning() {
+        status = Status.RUNNING;
+        startedAt = Instant.now();
+    }
+
+    public synchronized void markSucceeded(SpecToCodeAgent.GenerationResult result) {
+        if (currentPhase != null) {
+            completedPhases.add(currentPhase);
+            currentPhase = null;
+        }
+        generatedEntities = List.copyOf(result.getGeneratedEntities());
+        gaps = List.copyOf(result.getGaps());
+        status = Status.SUCCEEDED;
+        finishedAt = Instant.now();
+        logs.add("[SUCCESS] Project generation complete!");
+        logs.add("[INFO] Project location: " + outputDirectory.toAbsolutePath());
+    }
+
+    public synchronized void markFailed(Throwable t) {
+        error = t.getMessage() != null ? t.getMessage() : t.getClass().getSimpleName();
+        status = Status.FAILED;
+        finishedAt = Instant.now();
+        logs.add("[ERROR] Failed to generate project: " + error);
+    }
+
+    public synchronized boolean isFinished() {
+        return status == Status.SUCCEEDED || status == Status.FAILED;
+    }
+
+    public String getId() { return id; }
+    public String getMode() { return mode; }
+    public Instant getCreatedAt() { return createdAt; }
+    public synchronized Status getStatus() { return status; }
+    public synchronized String getCurrentPhase() { return currentPhase; }
+    public synchronized List<String> getCompletedPhases() { return new ArrayList<>(completedPhases); }
+    public synchronized int getCompletedEntities() { return completedEntities; }
+    public synchronized int getTotalEntities() { return totalEntities; }
+    public synchronized Instant getStartedAt() { return startedAt; }
+    public synchronized Instant getFinishedAt() { return finishedAt; }
+    public synchronized List<String> getGeneratedEntities() { return generatedEntities; }
+    public synchronized List<String> getGaps() { return gaps; }
+    public synchronized String getError() { return error; }
+    public synchronized List<String> getLogs() { return new ArrayList<>(logs); }
+
+    Path getOutputDirectoryPath() { return outputDirectory; }
+
+    /**
+     * Absolute location of the generated project, only reported once the job has succeeded
+     */
+    public synchronized String getResultLocation() {
+        return status == Status.SUCCEEDED ? outputDirectory.toAbsolutePath().toString() : null;
+    }
+}
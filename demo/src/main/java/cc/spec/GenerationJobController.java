@@ -0,0 +1,40 @@
+package cc.spec;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Reports status, per-phase progress and result location of generation jobs
+ */
+@RestController
+public class GenerationJobController {
+    private final GenerationJobService jobService;
+
+    public GenerationJobController(GenerationJobService jobService) {
+        this.jobService = jobService;
+    }
+
+    @GetMapping("/jobs")
+    public List<GenerationJob> listJobs() {
+        return jobService.getJobs();
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<GenerationJob> getJob(@PathVariable String id) {
+        return jobService.getJob(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<GenerationCache.Stats> getCacheStats() {
+        return jobService.getCacheStats()
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+}
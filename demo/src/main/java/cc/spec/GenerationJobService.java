@@ -0,0 +1,251 @@
+package cc.spec;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs project generation as background jobs so uploads do not hold servlet threads
+ * for the duration of the parse/codegen/OpenAI pipeline.
+ */
+@Service
+public class GenerationJobService {
+    public static final String[] REQUIRED_KEYS = {"openapi", "graphql", "domain", "outputprefs"};
+    public static final String[] REQUIRED_NAMES = {"OpenAPI", "GraphQL", "Domain Model", "Output Preferences"};
+    public static final String[] OPTIONAL_KEYS = {"testspec", "dependencies"};
+    public static final String[] OPTIONAL_NAMES = {"Test Spec", "Dependencies"};
+
+    private static final String REFERENCE_SPEC_PATH = "src/main/java/cc/spec/specification_java_file.spec.md";
+
+    private final Map<String, GenerationJob> jobs = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+    private final ExecutorService artifactExecutor;
+    private final boolean aiStreaming;
+    private final GenerationCache generationCache;
+    private final OpenAIClient openAIClient;
+    private final boolean streamingOpenAPI;
+    private final WriteBehindOutputSink.Options writeBehind;
+    private final long uploadMemoryThreshold;
+    private final UploadWorkspace.MemoryBudget uploadMemory;
+    private final ShardedAIGenerator.Options aiSharding;
+    private final GenerationMetrics metrics;
+    private final Duration retention;
+    private final int maxRetainedJobs;
+    private final Path generatedDirectory;
+
+    public GenerationJobService(GenerationMetrics metrics, OpenAIClient openAIClient, SpeckitsProperties properties)
+            throws IOException {
+        SpeckitsProperties.Jobs jobSettings = properties.jobs();
+        // Generation is dominated by file I/O and the blocking OpenAI call, so each job runs on a
+        // virtual thread; the pool size and queue keep the number of in-flight jobs bounded.
+        this.executor = new ThreadPoolExecutor(jobSettings.concurrency(), jobSettings.concurrency(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(jobSettings.queueCapacity()),
+                Thread.ofVirtual().name("generation-job-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.metrics = metrics;
+        this.retention = jobSettings.retention();
+        this.maxRetainedJobs = jobSettings.maxRetained();
+        this.generatedDirectory = properties.storage().directory().resolve("generated");
+        this.artifactExecutor = createArtifactExecutor(properties.generation().executor(), properties.generation().parallelism());
+        this.aiStreaming = properties.ai().streaming();
+        this.generationCache = properties.cache().enabled()
+                ? new GenerationCache(properties.storage().directory().resolve("cache"), properties.cache().maxSize().toBytes())
+                : null;
+        this.openAIClient = openAIClient;
+        this.streamingOpenAPI = properties.parser().streamingOpenapi();
+        this.writeBehind = properties.output().writeBehind().toOptions();
+        this.uploadMemoryThreshold = properties.uploads().memoryThreshold().toBytes();
+        this.uploadMemory = new UploadWorkspace.MemoryBudget(properties.uploads().memoryLimit().toBytes());
+        this.aiSharding = properties.ai().sharding().toOptions();
+    }
+
+    /**
+     * Takes the uploaded spec bundle into a per-job workspace and queues its generation
+     * @param files Uploaded files keyed by spec type (openapi, graphql, domain, outputprefs, ...)
+     * @param generationMode "ai" for AI-powered generation, anything else for the classic generator
+     * @return The queued job
+     * @throws RejectedExecutionException If the job queue is full
+     */
+    public GenerationJob submit(Map<String, MultipartFile> files, String generationMode) throws IOException {
+        evictExpiredJobs();
+        boolean useAI = "ai".equals(generationMode);
+        String id = UUID.randomUUID().toString();
+        Path outputDir = generatedDirectory.resolve(useAI ? "ai" : "classic").resolve("project-" + id);
+        GenerationJob job = new GenerationJob(id, useAI ? "ai" : "classic", outputDir);
+
+        UploadWorkspace workspace = stageUploads(files);
+        for (Map.Entry<String, SpecSource> source : workspace.getSources().entrySet()) {
+            job.log("[INFO] Received " + source.getKey() + ": " + source.getValue().getFileName());
+        }
+
+        jobs.put(id, job);
+        job.log("[INFO] Job queued: " + id);
+        try {
+            executor.execute(() -> run(job, workspace, useAI));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(id);
+            workspace.close();
+            throw e;
+        }
+        return job;
+    }
+
+    /**
+     * Takes the non-empty uploads of a request into a workspace of their own, in memory up to the
+     * configured threshold while the process-wide upload memory limit allows it. Multipart files
+     * do not outlive the request, the workspace does.
+     */
+    public UploadWorkspace stageUploads(Map<String, MultipartFile> files) throws IOException {
+        UploadWorkspace workspace = new UploadWorkspace(uploadMemoryThreshold, uploadMemory);
+        GenerationMetrics.Phase upload = metrics.phase("upload");
+        try {
+            for (Map.Entry<String, MultipartFile> entry : files.entrySet()) {
+                MultipartFile file = entry.getValue();
+                if (file != null && !file.isEmpty()) {
+                    workspace.add(entry.getKey(), file);
+                    metrics.recordSpecSize(entry.getKey(), file.getSize());
+                }
+            }
+        } catch (IOException e) {
+            workspace.close();
+            throw e;
+        } finally {
+            upload.stop();
+        }
+        return workspace;
+    }
+
+    /**
+     * Generates the staged bundle straight into a ZIP written to the given stream. Generated files
+     * go into the archive as they are rendered and never touch disk; the workspace is closed once
+     * the archive is complete.
+     * @param generationMode "ai" for AI-powered generation, anything else for the classic generator
+     * @param out Receives the archive; closed when generation finishes
+     */
+    public void streamZip(UploadWorkspace workspace, String generationMode, OutputStream out) throws IOException {
+        boolean useAI = "ai".equals(generationMode);
+        try (workspace; ZipOutputSink zip = new ZipOutputSink(out)) {
+            SpecToCodeAgent agent = newAgent();
+            // The user is waiting on the download, so its AI requests go ahead of queued jobs
+            agent.setAIPriority(RateLimitScheduler.Priority.INTERACTIVE);
+            agent.generateFromSources(workspace.getSources(), zip, useAI, SpecToCodeAgent.ProgressListener.NONE);
+            System.out.println("[ZIP] ✓ Streamed " + zip.getEntryCount() + " entries (" + zip.getBytesWritten() + " bytes)");
+        }
+    }
+
+    public Optional<GenerationJob> getJob(String id) {
+        evictExpiredJobs();
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    public List<GenerationJob> getJobs() {
+        evictExpiredJobs();
+        List<GenerationJob> result = new ArrayList<>(jobs.values());
+        result.sort(Comparator.comparing(GenerationJob::getCreatedAt));
+        return result;
+    }
+
+    /**
+     * Counters of the generation cache, or empty when caching is disabled
+     */
+    public Optional<GenerationCache.Stats> getCacheStats() {
+        return Optional.ofNullable(generationCache).map(GenerationCache::getStats);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        if (artifactExecutor != null) {
+            artifactExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates the executor shared by all jobs for per-entity artifact generation
+     * @param type "virtual" (one virtual thread per artifact), "fork-join" (work-stealing pool) or "sequential"
+     * @param parallelism Fork-join parallelism, 0 for the number of available processors
+     */
+    static ExecutorService createArtifactExecutor(String type, int parallelism) {
+        return switch (type) {
+            case "virtual" -> Executors.newVirtualThreadPerTaskExecutor();
+            case "fork-join" -> new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+            case "sequential" -> null;
+            default -> throw new IllegalArgumentException("Unknown speckits.generation.executor: " + type);
+        };
+    }
+
+    private void run(GenerationJob job, UploadWorkspace workspace, boolean useAI) {
+        job.markRunning();
+        try {
+            job.log(useAI ? "[INFO] Using AI Agent for code generation." : "[INFO] Using classic Code Generator (no AI).");
+            SpecToCodeAgent.GenerationResult result = newAgent().generateFromSources(workspace.getSources(), job.getOutputDirectoryPath(), useAI, job);
+            if (result.isFromCache()) {
+                job.log("[INFO] Identical spec bundle found in the generation cache; pipeline skipped.");
+            } else if (useAI && Files.exists(result.getOutputDirectory().resolve("openai_response.json"))) {
+                job.log("[AI] AI-powered code generation was used. See openai_response.json for details.");
+            }
+            job.markSucceeded(result);
+        } catch (Exception e) {
+            e.printStackTrace();
+            job.markFailed(e);
+        } finally {
+            workspace.close();
+        }
+    }
+
+    private SpecToCodeAgent newAgent() {
+        SpecToCodeAgent agent = new SpecToCodeAgent(REFERENCE_SPEC_PATH);
+        agent.setArtifactExecutor(artifactExecutor);
+        agent.setStreamingEnabled(aiStreaming);
+        agent.setGenerationCache(generationCache);
+        agent.setOpenAIClient(openAIClient);
+        agent.setStreamingOpenAPI(streamingOpenAPI);
+        agent.setWriteBehind(writeBehind);
+        agent.setAISharding(aiSharding);
+        agent.setMetrics(metrics);
+        return agent;
+    }
+
+    /**
+     * Drops finished jobs older than the retention period, then the oldest finished jobs
+     * beyond the retained-job limit. Queued and running jobs are never evicted.
+     */
+    private void evictExpiredJobs() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(cutoff));
+
+        List<GenerationJob> finished = new ArrayList<>();
+        for (GenerationJob job : jobs.values()) {
+            if (job.isFinished()) {
+                finished.add(job);
+            }
+        }
+        if (finished.size() > maxRetainedJobs) {
+            finished.sort(Comparator.comparing(GenerationJob::getFinishedAt));
+            for (int i = 0; i < finished.size() - maxRetainedJobs; i++) {
+                jobs.remove(finished.get(i).getId());
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package cc.spec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks what a generation run wrote into an output directory, so the next run against the same
+ * directory can be incremental.
+ *
+ * The manifest (.speckits-manifest.json) records a SHA-256 of every generated file and, per
+ * entity, a fingerprint of everything its artifacts are rendered from. On the next run, entities
+ * with an unchanged fingerprint are not rendered at all, files whose content hash is unchanged are
+ * not rewritten (their mtimes survive), and files the previous run generated but this one did not
+ * are deleted. Changed files are replaced rather than modified in place, so hard links into the
+ * output are never written through.
+ */
+public class GenerationManifest implements OutputSink {
+    public static final String MANIFEST_FILE = ".speckits-manifest.json";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final Path outputDirectory;
+    private final ManifestData previous;
+    private final Map<String, String> files = new ConcurrentHashMap<>();
+    private final Map<String, EntityRecord> entities = new ConcurrentHashMap<>();
+    private final AtomicInteger filesWritten = new AtomicInteger();
+    private final AtomicInteger filesUnchanged = new AtomicInteger();
+    private final AtomicInteger entitiesSkipped = new AtomicInteger();
+    private int filesDeleted;
+
+    private GenerationManifest(Path outputDirectory, ManifestData previous) {
+        this.outputDirectory = outputDirectory;
+        this.previous = previous;
+    }
+
+    /**
+     * Opens the manifest of the output directory, or starts an empty one if there is none or it is unreadable
+     */
+    public static GenerationManifest open(Path outputDirectory) {
+        Path manifestFile = outputDirectory.resolve(MANIFEST_FILE);
+        ManifestData previous = new ManifestData();
+        if (Files.isRegularFile(manifestFile)) {
+            try {
+                previous = OBJECT_MAPPER.readValue(manifestFile.toFile(), ManifestData.class);
+            } catch (IOException e) {
+                System.err.println("[INCREMENTAL] Ignoring unreadable manifest " + manifestFile + ": " + e.getMessage());
+            }
+        }
+        return new GenerationManifest(outputDirectory, previous);
+    }
+
+    /**
+     * Whether a previous run left a usable manifest
+     */
+    public boolean hasPrevious() {
+        return !previous.files.isEmpty();
+    }
+
+    /**
+     * Writes a generated file unless the previous run produced identical content that is still on disk
+     */
+    @Override
+    public void write(String relativePath, String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        String hash = sha256(bytes);
+        files.put(relativePath, hash);
+        Path filePath = outputDirectory.resolve(relativePath);
+        if (hash.equals(previous.files.get(relativePath)) && Files.isRegularFile(filePath)
+                && Files.size(filePath) == bytes.length) {
+            filesUnchanged.incrementAndGet();
+            return;
+        }
+        Files.createDirectories(filePath.getParent());
+        Files.deleteIfExists(filePath); // never write through a hard link
+        Files.write(filePath, bytes);
+        filesWritten.incrementAndGet();
+    }
+
+    @Override
+    public void createDirectory(String relativePath) throws IOException {
+        Files.createDirectories(outputDirectory.resolve(relativePath));
+    }
+
+    /**
+     * Checks whether an entity can be skipped: its fingerprint matches the previous run and all of
+     * its files are still present. A skipped entity's files are carried over into this manifest.
+     */
+    public boolean isUnchanged(String entityName, String fingerprint) {
+        EntityRecord record = previous.entities.get(entityName);
+        if (record == null || !record.fingerprint.equals(fingerprint)) {
+            return false;
+        }
+        for (String file : record.files) {
+            if (!previous.files.containsKey(file) || !Files.isRegularFile(outputDirectory.resolve(file))) {
+                return false;
+            }
+        }
+        for (String file : record.files) {
+            files.put(file, previous.files.get(file));
+        }
+        entities.put(entityName, record);
+        entitiesSkipped.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Records the fingerprint and files of an entity rendered in this run
+     */
+    public void recordEntity(String entityName, String fingerprint, List<String> entityFiles) {
+        EntityRecord record = new EntityRecord();
+        record.fingerprint = fingerprint;
+        record.files = new ArrayList<>(entityFiles);
+        entities.put(entityName, record);
+    }
+
+    /**
+     * Deletes files the previous run generated that this run did not, then persists the manifest
+     */
+    public void save() throws IOException {
+        for (String file : previous.files.keySet()) {
+            if (!files.containsKey(file) && Files.deleteIfExists(outputDirectory.resolve(file))) {
+                filesDeleted++;
+            }
+        }
+        ManifestData data = new ManifestData();
+        data.files = new TreeMap<>(files);
+        data.entities = new TreeMap<>(entities);
+        Files.createDirectories(outputDirectory);
+        Path staging = outputDirectory.resolve(MANIFEST_FILE + "." + UUID.randomUUID());
+        OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValue(staging.toFile(), data);
+        Files.move(staging, outputDirectory.resolve(MANIFEST_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Fingerprint of everything an entity's artifacts are rendered from
+     */
+    public static String fingerprint(String generatorFingerprint, String packageName, SpecParser.EntityInfo entity,
+                                     List<SpecParser.EndpointInfo> endpoints) {
+        StringBuilder input = new StringBuilder();
+        input.append(generatorFingerprint).append('\n').append(packageName).append('\n').append(entity.getName()).append('\n');
+        for (Map.Entry<String, String> field : entity.getFields().entrySet()) {
+            input.append("field ").append(field.getKey()).append(' ').append(field.getValue()).append('\n');
+        }
+        if (entity.getCache() != null) {
+            input.append("cache ").append(entity.getCache()).append('\n');
+        }
+        for (SpecParser.EndpointInfo endpoint : endpoints) {
+            input.append("endpoint ").append(endpoint.getMethod()).append(' ').append(endpoint.getPath())
+                    .append(' ').append(endpoint.getSummary()).append('\n');
+        }
+        return sha256(input.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public int getFilesWritten() { return filesWritten.get(); }
+    public int getFilesUnchanged() { return filesUnchanged.get(); }
+    public int getEntitiesSkipped() { return entitiesSkipped.get(); }
+    public int getFilesDeleted() { return filesDeleted; }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * On-disk manifest format
+     */
+    public static class ManifestData {
+        public Map<String, String> files = new TreeMap<>();
+        public Map<String, EntityRecord> entities = new TreeMap<>();
+    }
+
+    public static class EntityRecord {
+        public String fingerprint;
+        public List<String> files = new ArrayList<>();
+    }
+}
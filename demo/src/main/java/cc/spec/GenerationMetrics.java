@@ -0,0 +1,196 @@
+package cc.spec;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of the generation pipeline, published through the actuator's Prometheus endpoint.
+ *
+ * Every pipeline phase and artifact type has a timer, entities, endpoints, gaps and written bytes
+ * are counted, and spec and prompt sizes are recorded as histograms. Meters are looked up per
+ * call; Micrometer caches them by name and tags.
+ */
+@Component
+public class GenerationMetrics {
+    /**
+     * Records nothing; used by agents that are not given metrics
+     */
+    public static final GenerationMetrics NONE = new GenerationMetrics(new CompositeMeterRegistry());
+
+    private final MeterRegistry registry;
+
+    public GenerationMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Starts timing a pipeline phase (upload, parse.openapi, ai, structure, readme, gap-report, ...);
+     * stopping the returned phase records it
+     */
+    public Phase phase(String name) {
+        return new Phase(Timer.builder("speckits.generation.phase")
+                .description("Time spent in a generation pipeline phase")
+                .tag("phase", name)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+
+    /**
+     * Starts timing the rendering and writing of one artifact of the given template type
+     */
+    public Phase artifact(String templateName) {
+        return new Phase(Timer.builder("speckits.generation.artifact")
+                .description("Time spent rendering and writing one generated artifact")
+                .tag("type", templateName)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+
+    /**
+     * Starts timing a whole generation run
+     * @param mode classic, ai or ai-sharded
+     */
+    public Phase run(String mode) {
+        return new Phase(Timer.builder("speckits.generation.runs")
+                .description("Time of complete generation runs, including cache hits")
+                .tag("mode", mode)
+                .register(registry));
+    }
+
+    public void countCacheHit(String mode) {
+        Counter.builder("speckits.generation.cache.hits").tag("mode", mode).register(registry).increment();
+    }
+
+    public void countEntities(int entities) {
+        Counter.builder("speckits.generation.entities").description("Entities rendered").register(registry).increment(entities);
+    }
+
+    public void countEndpoints(int endpoints) {
+        Counter.builder("speckits.generation.endpoints").description("Endpoints extracted from specs").register(registry).increment(endpoints);
+    }
+
+    public void countGaps(int gaps) {
+        Counter.builder("speckits.generation.gaps").description("Gaps reported in GAP_REPORT.md").register(registry).increment(gaps);
+    }
+
+    /**
+     * Records the size of an uploaded spec file
+     * @param type Spec type (openapi, graphql, domain, ...)
+     */
+    public void recordSpecSize(String type, long bytes) {
+        DistributionSummary.builder("speckits.spec.size")
+                .description("Size of uploaded spec files")
+                .baseUnit("bytes")
+                .tag("type", type)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(bytes);
+    }
+
+    public void recordPromptSize(int characters) {
+        DistributionSummary.builder("speckits.ai.prompt.size")
+                .description("Size of prompts sent to OpenAI")
+                .baseUnit("characters")
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(characters);
+    }
+
+    /**
+     * Wraps a sink so that the UTF-8 size of everything written through it is counted
+     */
+    public OutputSink meter(OutputSink sink) {
+        if (this == NONE) {
+            return sink;
+        }
+        Counter bytesWritten = Counter.builder("speckits.generation.bytes.written")
+                .description("Bytes of generated files")
+                .baseUnit("bytes")
+                .register(registry);
+        return new OutputSink() {
+            @Override
+            public void write(String relativePath, String content) throws IOException {
+                sink.write(relativePath, content);
+                bytesWritten.increment(utf8Length(content, 0, content.length()));
+            }
+
+            @Override
+            public void createDirectory(String relativePath) throws IOException {
+                sink.createDirectory(relativePath);
+            }
+
+            @Override
+            public Writer openWriter(String relativePath) throws IOException {
+                return new FilterWriter(sink.openWriter(relativePath)) {
+                    @Override
+                    public void write(int c) throws IOException {
+                        super.write(c);
+                        bytesWritten.increment(utf8Length(String.valueOf((char) c), 0, 1));
+                    }
+
+                    @Override
+                    public void write(char[] buffer, int offset, int length) throws IOException {
+                        super.write(buffer, offset, length);
+                        bytesWritten.increment(utf8Length(CharBuffer.wrap(buffer, offset, length), 0, length));
+                    }
+
+                    @Override
+                    public void write(String str, int offset, int length) throws IOException {
+                        super.write(str, offset, length);
+                        bytesWritten.increment(utf8Length(str, offset, offset + length));
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * UTF-8 size of the characters without encoding them
+     */
+    static long utf8Length(CharSequence chars, int start, int end) {
+        long bytes = 0;
+        for (int i = start; i < end; i++) {
+            char c = chars.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                bytes += 4;
+                i++; // the low surrogate belongs to the same code point
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * A running timer sample, stopped in a finally block around the timed work
+     */
+    public static class Phase {
+        private final Timer timer;
+        private final long start = System.nanoTime();
+
+        private Phase(Timer timer) {
+            this.timer = timer;
+        }
+
+        /**
+         * Records the time since the phase started
+         */
+        public void stop() {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package cc.spec;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Settings of the generated code read from the output preferences, e.g.
+ * <pre>
+ * pagination:
+ *   enabled: true
+ *   keyset: true
+ *   defaultPageSize: 20
+ *   maxPageSize: 100
+ * batching:
+ *   enabled: true
+ *   batchSize: 50
+ *   allocationSize: 50
+ * caching:
+ *   enabled: true
+ *   maximumSize: 1000
+ *   expireAfterWrite: 10m
+ * projections: true
+ * performanceProfile: throughput
+ * perfHarness: true
+ * target: reactive
+ * </pre>
+ * Each setting group is exposed to the templates as a section that is absent when the group is
+ * disabled, so the built-in templates render exactly the legacy output without it.
+ */
+public record GeneratorOptions(Pagination pagination, Batching batching, Caching caching, Projections projections,
+                               Performance performance, PerfHarness perfHarness, Target target) {
+    /**
+     * What generated projects get when the output preferences say nothing
+     */
+    public static final GeneratorOptions DEFAULT = new GeneratorOptions(Pagination.DEFAULT, Batching.DEFAULT,
+            Caching.DEFAULT, Projections.DEFAULT, Performance.DEFAULT, PerfHarness.DEFAULT,
+            Target.DEFAULT);
+    /**
+     * Every setting group disabled: the output of the templates before any options existed
+     */
+    public static final GeneratorOptions LEGACY = new GeneratorOptions(Pagination.DISABLED, Batching.DISABLED,
+            Caching.DISABLED, Projections.DISABLED, Performance.DISABLED, PerfHarness.DISABLED,
+            Target.DEFAULT);
+
+    /**
+     * Reads the options from the output preferences; groups that are not mentioned keep their defaults
+     * @throws IllegalArgumentException if a setting has the wrong type or an invalid value
+     */
+    public static GeneratorOptions fromPreferences(Map<String, Object> preferences) {
+        if (preferences == null) {
+            return DEFAULT;
+        }
+        return new GeneratorOptions(Pagination.from(section(preferences, "pagination")),
+                Batching.from(section(preferences, "batching")),
+                Caching.from(section(preferences, "caching")),
+                Projections.from(section(preferences, "projections")),
+                Performance.from(preferences.get("performanceProfile")),
+                PerfHarness.from(section(preferences, "perfHarness")),
+                Target.from(preferences.get("target")));
+    }
+
+    /**
+     * Names of the enabled groups the chosen target cannot generate: batching, caching and
+     * projections rely on JPA and blocking service methods, so the reactive target has none of them
+     */
+    public List<String> unsupportedByTarget() {
+        List<String> unsupported = new ArrayList<>();
+        if (target.isReactive()) {
+            if (batching.enabled()) {
+                unsupported.add("batching");
+            }
+            if (caching.enabled()) {
+                unsupported.add("caching");
+            }
+            if (projections.enabled()) {
+                unsupported.add("projections");
+            }
+        }
+        return unsupported;
+    }
+
+    /**
+     * These options with the groups listed by {@link #unsupportedByTarget()} disabled
+     */
+    public GeneratorOptions supportedByTarget() {
+        if (!target.isReactive()) {
+            return this;
+        }
+        return new GeneratorOptions(pagination, Batching.DISABLED, Caching.DISABLED, Projections.DISABLED,
+                performance, perfHarness, target);
+    }
+
+    /**
+     * Adds the template values of all enabled setting groups to an entity's template model
+     */
+    void addTo(Map<String, Object> model, SpecParser.EntityInfo entity) {
+        if (pagination.enabled()) {
+            model.put("pagination", Map.of(
+                    "keyset", pagination.keyset(),
+                    "defaultPageSize", pagination.defaultPageSize(),
+                    "maxPageSize", pagination.maxPageSize()));
+        }
+        if (batching.enabled()) {
+            model.put("batching", Map.of(
+                    "batchSize", batching.batchSize(),
+                    "allocationSize", batching.allocationSize()));
+        }
+        Caching.CacheSpec cache = caching.specFor(entity);
+        if (cache != null) {
+            model.put("caching", Map.of("cacheName", cache.cacheName()));
+        }
+        if (projections.enabled()) {
+            model.put("projections", true);
+        }
+    }
+
+    /**
+     * Stable description of every setting, part of the incremental fingerprint of each entity
+     */
+    public String getFingerprint() {
+        return toString();
+    }
+
+    /**
+     * List endpoints page through the table instead of loading it whole
+     * @param keyset Whether to also generate a seek endpoint paging by id without OFFSET scans
+     * @param defaultPageSize Page size when the request does not ask for one
+     * @param maxPageSize Largest page size a request may ask for
+     */
+    public record Pagination(boolean enabled, boolean keyset, int defaultPageSize, int maxPageSize) {
+        public static final Pagination DEFAULT = new Pagination(true, false, 20, 100);
+        public static final Pagination DISABLED = new Pagination(false, false, 20, 100);
+
+        public Pagination {
+            if (defaultPageSize < 1 || maxPageSize < defaultPageSize) {
+                throw new IllegalArgumentException("pagination page sizes must satisfy 1 <= defaultPageSize <= maxPageSize, were "
+                        + defaultPageSize + " and " + maxPageSize);
+            }
+        }
+
+        static Pagination from(Map<?, ?> section) {
+            if (section == null) {
+                return DEFAULT;
+            }
+            return new Pagination(
+                    bool(section, "pagination.enabled", "enabled", DEFAULT.enabled()),
+                    bool(section, "pagination.keyset", "keyset", DEFAULT.keyset()),
+                    integer(section, "pagination.defaultPageSize", "defaultPageSize", DEFAULT.defaultPageSize()),
+                    integer(section, "pagination.maxPageSize", "maxPageSize", DEFAULT.maxPageSize()));
+        }
+    }
+
+    /**
+     * Batch-friendly persistence: sequence ids with a pooled optimizer instead of IDENTITY, which
+     * disables JDBC insert batching, Hibernate batch settings and saveAll-backed bulk endpoints
+     * @param batchSize hibernate.jdbc.batch_size of the generated project
+     * @param allocationSize Ids each sequence call reserves for the pooled optimizer
+     */
+    public record Batching(boolean enabled, int batchSize, int allocationSize) {
+        public static final Batching DEFAULT = new Batching(false, 50, 50);
+        public static final Batching DISABLED = DEFAULT;
+
+        public Batching {
+            if (batchSize < 1 || allocationSize < 1) {
+                throw new IllegalArgumentException("batching.batchSize and batching.allocationSize must be positive, were "
+                        + batchSize + " and " + allocationSize);
+            }
+        }
+
+        static Batching from(Map<?, ?> section) {
+            if (section == null) {
+                return DEFAULT;
+            }
+            return new Batching(
+                    bool(section, "batching.enabled", "enabled", true),
+                    integer(section, "batching.batchSize", "batchSize", DEFAULT.batchSize()),
+                    integer(section, "batching.allocationSize", "allocationSize", DEFAULT.allocationSize()));
+        }
+    }
+
+    /**
+     * Caffeine caches in front of the repository reads of generated services, with cache
+     * statistics published through the actuator; entities can override the size and TTL or opt
+     * out with cache hints in the domain model
+     * @param maximumSize Entries each entity cache holds unless the domain model says otherwise
+     * @param expireAfterWrite Time-to-live of cached entries unless the domain model says otherwise
+     */
+    public record Caching(boolean enabled, long maximumSize, Duration expireAfterWrite) {
+        public static final Caching DEFAULT = new Caching(false, 1000, Duration.ofMinutes(10));
+        public static final Caching DISABLED = DEFAULT;
+
+        public Caching {
+            if (maximumSize < 1) {
+                throw new IllegalArgumentException("caching.maximumSize must be positive, was " + maximumSize);
+            }
+        }
+
+        static Caching from(Map<?, ?> section) {
+            if (section == null) {
+                return DEFAULT;
+            }
+            Object expireAfterWrite = section.get("expireAfterWrite");
+            return new Caching(
+                    bool(section, "caching.enabled", "enabled", true),
+                    integer(section, "caching.maximumSize", "maximumSize", (int) DEFAULT.maximumSize()),
+                    expireAfterWrite != null
+                            ? SpecParser.parseDuration("caching.expireAfterWrite", expireAfterWrite)
+                            : DEFAULT.expireAfterWrite());
+        }
+
+        /**
+         * The cache of an entity, null if caching is disabled or the entity opted out
+         */
+        public CacheSpec specFor(SpecParser.EntityInfo entity) {
+            SpecParser.CacheHints hints = entity.getCache();
+            if (!enabled || hints != null && Boolean.FALSE.equals(hints.enabled())) {
+                return null;
+            }
+            return new CacheSpec(entity.getName().toLowerCase() + "s",
+                    hints != null && hints.maximumSize() != null ? hints.maximumSize() : maximumSize,
+                    hints != null && hints.expireAfterWrite() != null ? hints.expireAfterWrite() : expireAfterWrite);
+        }
+
+        /**
+         * @param cacheName Name of the entity's cache, the table name of the entity
+         */
+        public record CacheSpec(String cacheName, long maximumSize, Duration expireAfterWrite) {
+        }
+    }
+
+    /**
+     * DTOs become records and reads select them with JPQL constructor expressions, so read paths
+     * neither hydrate managed entities nor dirty-check them; writes still go through entities
+     */
+    public record Projections(boolean enabled) {
+        public static final Projections DEFAULT = new Projections(false);
+        public static final Projections DISABLED = DEFAULT;
+
+        static Projections from(Map<?, ?> section) {
+            if (section == null) {
+                return DEFAULT;
+            }
+            return new Projections(bool(section, "projections.enabled", "enabled", true));
+        }
+    }
+
+    /**
+     * Tuning of the generated project's configuration for a kind of deployment: application
+     * properties, Java release, JVM options and a smoke benchmark of its list endpoint
+     * @param enabled Whether a profile was chosen; without one the project keeps the legacy dev configuration
+     */
+    public record Performance(boolean enabled, Profile profile) {
+        public static final Performance DEFAULT = new Performance(false, Profile.DEV);
+        public static final Performance DISABLED = DEFAULT;
+
+        public enum Profile {
+            /** Fast startup and readable SQL logs */
+            DEV,
+            /** Most requests per second: virtual threads, large pools, compression, parallel GC */
+            THROUGHPUT,
+            /** Short and predictable response times: virtual threads, prewarmed pools, no compression, ZGC */
+            LOW_LATENCY;
+
+            /**
+             * Name in the output preferences, e.g. low-latency
+             */
+            public String getKey() {
+                return name().toLowerCase(Locale.ROOT).replace('_', '-');
+            }
+        }
+
+        /**
+         * Whether the project runs on virtual threads, which needs Java 21
+         */
+        public boolean isTuned() {
+            return enabled && profile != Profile.DEV;
+        }
+
+        static Performance from(Object value) {
+            if (value == null) {
+                return DEFAULT;
+            }
+            for (Profile profile : Profile.values()) {
+                if (profile.getKey().equals(String.valueOf(value).trim().toLowerCase(Locale.ROOT))) {
+                    return new Performance(true, profile);
+                }
+            }
+            throw new IllegalArgumentException("performanceProfile must be one of dev, throughput or low-latency, was '" + value + "'");
+        }
+    }
+
+    /**
+     * A JMH benchmark of the service and DTO mapping and a load test of the CRUD endpoints for
+     * every entity, run only by the perf Maven profile of the generated project
+     */
+    public record PerfHarness(boolean enabled) {
+        public static final PerfHarness DEFAULT = new PerfHarness(true);
+        public static final PerfHarness DISABLED = new PerfHarness(false);
+
+        static PerfHarness from(Map<?, ?> section) {
+            if (section == null) {
+                return DEFAULT;
+            }
+            return new PerfHarness(bool(section, "perfHarness.enabled", "enabled", true));
+        }
+    }
+
+    /**
+     * The stack of the generated project: blocking Spring MVC with JPA, or WebFlux with R2DBC
+     * whose controllers and services return Mono and Flux
+     */
+    public record Target(Stack stack) {
+        public static final Target DEFAULT = new Target(Stack.SERVLET);
+
+        public enum Stack {
+            SERVLET,
+            REACTIVE;
+
+            /**
+             * Name in the output preferences, e.g. reactive
+             */
+            public String getKey() {
+                return name().toLowerCase(Locale.ROOT);
+            }
+        }
+
+        public boolean isReactive() {
+            return stack == Stack.REACTIVE;
+        }
+
+        static Target from(Object value) {
+            if (value == null) {
+                return DEFAULT;
+            }
+            for (Stack stack : Stack.values()) {
+                if (stack.getKey().equals(String.valueOf(value).trim().toLowerCase(Locale.ROOT))) {
+                    return new Target(stack);
+                }
+            }
+            throw new IllegalArgumentException("target must be servlet or reactive, was '" + value + "'");
+        }
+    }
+
+    private static Map<?, ?> section(Map<String, Object> preferences, String name) {
+        Object value = preferences.get(name);
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Boolean enabled) {
+            // "pagination: false" as a shorthand for "pagination: {enabled: false}"
+            Map<String, Object> section = new LinkedHashMap<>();
+            section.put("enabled", enabled);
+            return section;
+        }
+        if (!(value instanceof Map<?, ?> section)) {
+            throw new IllegalArgumentException(name + " must be a map or a boolean");
+        }
+        return section;
+    }
+
+    private static boolean bool(Map<?, ?> section, String path, String key, boolean defaultValue) {
+        Object value = section.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (!(value instanceof Boolean bool)) {
+            throw new IllegalArgumentException(path + " must be true or false, was '" + value + "'");
+        }
+        return bool;
+    }
+
+    private static int integer(Map<?, ?> section, String path, String key, int defaultValue) {
+        Object value = section.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (!(value instanceof Integer number)) {
+            throw new IllegalArgumentException(path + " must be an integer, was '" + value + "'");
+        }
+        return number;
+    }
+}
@@ -0,0 +1,695 @@
+package cc.spec;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parses a GraphQL schema (SDL) in one pass over its characters. Only the names and types of
+ * type, interface, input, enum, scalar and union definitions are kept; descriptions, comments,
+ * directives and default values are skipped as they are read. Object types other than the root
+ * operation types become entities, fields typed with another object type become relationships
+ * and the fields of the query and mutation types become operations when they match one of the
+ * CRUD shapes the generated services implement:
+ * <pre>
+ * orders(page: Int, size: Int): [Order]      LIST
+ * order(id: ID!): Order                      GET
+ * createOrder(input: OrderInput!): Order     CREATE (also add...)
+ * updateOrder(id: ID!, input: OrderInput!)   UPDATE (also edit...)
+ * deleteOrder(id: ID!): Boolean              DELETE (also remove..., returning ID or Order)
+ * </pre>
+ * Anything else is reported as a warning.
+ */
+public class GraphQLSchemaParser {
+    private static final Set<String> BUILT_IN_DIRECTIVES = Set.of("deprecated", "include", "skip", "specifiedBy", "oneOf");
+    private static final Map<String, String> BUILT_IN_SCALARS = Map.of(
+            "ID", "Long",
+            "Int", "Long",
+            "Float", "Double",
+            "Boolean", "Boolean",
+            "String", "String");
+
+    private final String source;
+    private final char[] chars;
+    private int position;
+    private int line = 1;
+    private int lineStart;
+
+    private final Map<String, List<FieldDefinition>> objectTypes = new LinkedHashMap<>();
+    private final Map<String, List<FieldDefinition>> inputTypes = new HashMap<>();
+    private final Set<String> interfaceTypes = new HashSet<>();
+    private final Set<String> unionTypes = new HashSet<>();
+    private final Set<String> enumTypes = new HashSet<>();
+    private final Set<String> customScalars = new LinkedHashSet<>();
+    private final Set<String> declaredDirectives = new HashSet<>(BUILT_IN_DIRECTIVES);
+    private final Set<String> usedDirectives = new LinkedHashSet<>();
+    private final Map<String, String> rootTypes = new HashMap<>();
+    private final List<String> warnings = new ArrayList<>();
+
+    public GraphQLSchemaParser(String source) {
+        this.source = source;
+        this.chars = source.toCharArray();
+    }
+
+    /**
+     * @throws IOException if the document is not a valid type system document
+     */
+    public SpecParser.GraphQLSchema parse() throws IOException {
+        skipIgnored();
+        while (position < chars.length) {
+            readDefinition();
+            skipIgnored();
+        }
+        return resolve();
+    }
+
+    private void readDefinition() throws IOException {
+        if (peek() == '"') {
+            skipString();
+            skipIgnored();
+        }
+        if (peek() == '{') {
+            throw error("Executable definitions are not supported in a schema");
+        }
+        String keyword = readName();
+        if (keyword.equals("extend")) {
+            skipIgnored();
+            keyword = readName();
+        }
+        skipIgnored();
+        switch (keyword) {
+            case "schema" -> readSchema();
+            case "type" -> readFields(objectTypes, readTypeHeader(), true);
+            case "interface" -> {
+                String name = readTypeHeader();
+                interfaceTypes.add(name);
+                readFields(new HashMap<>(), name, true);
+            }
+            case "input" -> readFields(inputTypes, readTypeHeader(), false);
+            case "enum" -> readEnum();
+            case "scalar" -> {
+                String name = readName();
+                skipDirectives();
+                if (!BUILT_IN_SCALARS.containsKey(name)) {
+                    customScalars.add(name);
+                }
+            }
+            case "union" -> readUnion();
+            case "directive" -> readDirectiveDefinition();
+            case "query", "mutation", "subscription", "fragment" ->
+                    throw error("Executable definitions are not supported in a schema");
+            default -> throw error("Unexpected '" + keyword + "'");
+        }
+    }
+
+    private void readSchema() throws IOException {
+        skipDirectives();
+        expect('{');
+        while (!consume('}')) {
+            String operation = readName();
+            skipIgnored();
+            expect(':');
+            rootTypes.put(operation, readName());
+            skipIgnored();
+        }
+    }
+
+    /**
+     * Reads the name, implemented interfaces and directives of an object, interface or input type
+     */
+    private String readTypeHeader() throws IOException {
+        String name = readName();
+        skipIgnored();
+        if (peek() == 'i' && matchesKeyword("implements")) {
+            consume('&');
+            do {
+                skipName();
+                skipIgnored();
+            } while (consume('&'));
+        }
+        skipDirectives();
+        return name;
+    }
+
+    private void readFields(Map<String, List<FieldDefinition>> types, String typeName, boolean withArguments)
+            throws IOException {
+        List<FieldDefinition> fields = types.computeIfAbsent(typeName, name -> new ArrayList<>());
+        if (!consume('{')) {
+            return;
+        }
+        while (!consume('}')) {
+            skipDescription();
+            String name = readName();
+            skipIgnored();
+            List<FieldDefinition> arguments = List.of();
+            if (withArguments && consume('(')) {
+                arguments = readInputValues(')');
+            }
+            expect(':');
+            fields.add(readInputValueType(name, arguments));
+            if (consume('=')) {
+                skipValue();
+            }
+            skipDirectives();
+        }
+    }
+
+    private List<FieldDefinition> readInputValues(char end) throws IOException {
+        List<FieldDefinition> values = new ArrayList<>();
+        while (!consume(end)) {
+            skipDescription();
+            String name = readName();
+            skipIgnored();
+            expect(':');
+            values.add(readInputValueType(name, List.of()));
+            if (consume('=')) {
+                skipValue();
+            }
+            skipDirectives();
+        }
+        return values;
+    }
+
+    private FieldDefinition readInputValueType(String name, List<FieldDefinition> arguments) throws IOException {
+        int depth = 0;
+        while (consume('[')) {
+            depth++;
+        }
+        String type = readName();
+        skipIgnored();
+        consume('!');
+        for (int i = 0; i < depth; i++) {
+            expect(']');
+            consume('!');
+        }
+        return new FieldDefinition(name, type, depth, arguments);
+    }
+
+    private void readEnum() throws IOException {
+        enumTypes.add(readName());
+        skipDirectives();
+        if (!consume('{')) {
+            return;
+        }
+        while (!consume('}')) {
+            skipDescription();
+            skipName();
+            skipDirectives();
+        }
+    }
+
+    private void readUnion() throws IOException {
+        unionTypes.add(readName());
+        skipDirectives();
+        if (consume('=')) {
+            consume('|');
+            do {
+                skipName();
+                skipIgnored();
+            } while (consume('|'));
+        }
+    }
+
+    private void readDirectiveDefinition() throws IOException {
+        expect('@');
+        declaredDirectives.add(readName());
+        skipIgnored();
+        if (consume('(')) {
+            readInputValues(')');
+        }
+        if (peek() == 'r' && matchesKeyword("repeatable")) {
+            skipIgnored();
+        }
+        if (!matchesKeyword("on")) {
+            throw error("Expected 'on'");
+        }
+        consume('|');
+        do {
+            skipName();
+            skipIgnored();
+        } while (consume('|'));
+    }
+
+    // ---- Resolution ----
+
+    private SpecParser.GraphQLSchema resolve() throws IOException {
+        String query = rootTypes.getOrDefault("query", "Query");
+        String mutation = rootTypes.getOrDefault("mutation", "Mutation");
+        String subscription = rootTypes.getOrDefault("subscription", "Subscription");
+
+        Map<String, SpecParser.EntityInfo> entities = new LinkedHashMap<>();
+        for (Map.Entry<String, List<FieldDefinition>> type : objectTypes.entrySet()) {
+            String name = type.getKey();
+            if (!name.equals(query) && !name.equals(mutation) && !name.equals(subscription)) {
+                entities.put(name, readEntity(name, type.getValue()));
+            }
+        }
+
+        List<SpecParser.GraphQLRelationship> relationships = new ArrayList<>();
+        for (boolean many : new boolean[] {false, true}) {
+            for (Map.Entry<String, SpecParser.EntityInfo> entity : entities.entrySet()) {
+                for (FieldDefinition field : objectTypes.get(entity.getKey())) {
+                    if (entities.containsKey(field.type()) && (field.listDepth() > 0) == many) {
+                        SpecParser.GraphQLRelationship relationship = relationship(entity.getValue(), field, entities);
+                        if (relationship != null) {
+                            relationships.add(relationship);
+                        }
+                    }
+                }
+            }
+        }
+
+        List<SpecParser.GraphQLOperation> operations = new ArrayList<>();
+        for (FieldDefinition field : objectTypes.getOrDefault(query, List.of())) {
+            addOperation(operations, query(field, entities), query, field);
+        }
+        for (FieldDefinition field : objectTypes.getOrDefault(mutation, List.of())) {
+            addOperation(operations, mutation(field, entities), mutation, field);
+        }
+        if (objectTypes.containsKey(subscription)) {
+            warnings.add("GraphQL subscriptions are not generated: " + subscription);
+        }
+        for (String directive : usedDirectives) {
+            if (!declaredDirectives.contains(directive)) {
+                warnings.add("GraphQL directive @" + directive + " is used but not declared; "
+                        + "the generated project does not start until the schema declares it");
+            }
+        }
+        return new SpecParser.GraphQLSchema(source, new ArrayList<>(entities.values()), relationships, operations,
+                new ArrayList<>(customScalars), warnings);
+    }
+
+    private SpecParser.EntityInfo readEntity(String name, List<FieldDefinition> fields) throws IOException {
+        SpecParser.EntityInfo entity = new SpecParser.EntityInfo(name);
+        for (FieldDefinition field : fields) {
+            String javaType = scalarType(field.type());
+            if (javaType == null) {
+                if (interfaceTypes.contains(field.type()) || unionTypes.contains(field.type())) {
+                    warnings.add("GraphQL field " + name + "." + field.name() + " of abstract type "
+                            + field.type() + " is not generated");
+                } else if (!objectTypes.containsKey(field.type())) {
+                    throw new IOException("Unknown GraphQL type '" + field.type() + "' of " + name + "." + field.name());
+                }
+                continue;
+            }
+            if (field.listDepth() > 0) {
+                warnings.add("GraphQL list field " + name + "." + field.name() + " of " + field.type() + " is not generated");
+                continue;
+            }
+            if (customScalars.contains(field.type())) {
+                warnings.add("GraphQL custom scalar " + field.type() + " of " + name + "." + field.name()
+                        + " is stored and served as String");
+            }
+            entity.addField(field.name(), javaType);
+        }
+        return entity;
+    }
+
+    /**
+     * Built-in scalars map to their Java type, enums and custom scalars to String, anything else to null
+     */
+    private String scalarType(String type) {
+        String javaType = BUILT_IN_SCALARS.get(type);
+        if (javaType == null && (enumTypes.contains(type) || customScalars.contains(type))) {
+            javaType = "String";
+        }
+        return javaType;
+    }
+
+    /**
+     * A single target joins on {field}Id of the owner; a list joins on the foreign key of the
+     * target's single field pointing back at the owner, or on {owner}Id of the target
+     */
+    private SpecParser.GraphQLRelationship relationship(SpecParser.EntityInfo owner, FieldDefinition field,
+                                                        Map<String, SpecParser.EntityInfo> entities) {
+        String path = owner.getName() + "." + field.name();
+        SpecParser.EntityInfo target = entities.get(field.type());
+        if (field.listDepth() > 1) {
+            warnings.add("GraphQL field " + path + " is a nested list and is not generated");
+            return null;
+        }
+        if (field.listDepth() == 0) {
+            if (!hasId(target)) {
+                warnings.add("GraphQL field " + path + " is not generated: " + target.getName() + " has no id field");
+                return null;
+            }
+            String foreignKey = field.name() + "Id";
+            owner.getFields().putIfAbsent(foreignKey, "Long");
+            return new SpecParser.GraphQLRelationship(owner.getName(), field.name(), target.getName(), false, foreignKey);
+        }
+        if (!hasId(owner)) {
+            warnings.add("GraphQL field " + path + " is not generated: " + owner.getName() + " has no id field");
+            return null;
+        }
+        List<String> inverse = new ArrayList<>();
+        for (FieldDefinition targetField : objectTypes.get(target.getName())) {
+            if (targetField.type().equals(owner.getName())) {
+                if (targetField.listDepth() > 0 && !target.getName().equals(owner.getName())) {
+                    warnings.add("GraphQL field " + path + " is not generated: many-to-many relationships need a join entity");
+                    return null;
+                }
+                if (targetField.listDepth() == 0) {
+                    inverse.add(targetField.name());
+                }
+            }
+        }
+        if (inverse.size() > 1) {
+            warnings.add("GraphQL field " + path + " is not generated: " + target.getName()
+                    + " refers to " + owner.getName() + " through " + String.join(" and ", inverse));
+            return null;
+        }
+        String foreignKey = inverse.isEmpty()
+                ? Character.toLowerCase(owner.getName().charAt(0)) + owner.getName().substring(1) + "Id"
+                : inverse.get(0) + "Id";
+        target.getFields().putIfAbsent(foreignKey, "Long");
+        return new SpecParser.GraphQLRelationship(owner.getName(), field.name(), target.getName(), true, foreignKey);
+    }
+
+    private SpecParser.GraphQLOperation query(FieldDefinition field, Map<String, SpecParser.EntityInfo> entities) {
+        if (!entities.containsKey(field.type())) {
+            return null;
+        }
+        if (field.listDepth() == 1) {
+            boolean paged = false;
+            for (FieldDefinition argument : field.arguments()) {
+                if (!argument.name().equals("page") && !argument.name().equals("size")) {
+                    return null;
+                }
+                paged = true;
+            }
+            return new SpecParser.GraphQLOperation(field.name(), SpecParser.GraphQLOperation.Action.LIST,
+                    field.type(), null, null, paged, field.type());
+        }
+        String id = idArgument(field);
+        if (field.listDepth() == 0 && id != null && field.arguments().size() == 1 && hasId(entities.get(field.type()))) {
+            return new SpecParser.GraphQLOperation(field.name(), SpecParser.GraphQLOperation.Action.GET,
+                    field.type(), id, null, false, field.type());
+        }
+        return null;
+    }
+
+    private SpecParser.GraphQLOperation mutation(FieldDefinition field, Map<String, SpecParser.EntityInfo> entities) {
+        String name = field.name();
+        String id = idArgument(field);
+        String input = inputArgument(field);
+        boolean returnsEntity = field.listDepth() == 0 && entities.containsKey(field.type());
+        if (name.startsWith("create") || name.startsWith("add")) {
+            if (returnsEntity && input != null && field.arguments().size() == 1) {
+                checkInput(field, input, entities.get(field.type()));
+                return new SpecParser.GraphQLOperation(name, SpecParser.GraphQLOperation.Action.CREATE,
+                        field.type(), null, input, false, field.type());
+            }
+        } else if (name.startsWith("update") || name.startsWith("edit")) {
+            if (returnsEntity && id != null && input != null && field.arguments().size() == 2) {
+                checkInput(field, input, entities.get(field.type()));
+                return new SpecParser.GraphQLOperation(name, SpecParser.GraphQLOperation.Action.UPDATE,
+                        field.type(), id, input, false, field.type());
+            }
+        } else if (name.startsWith("delete") || name.startsWith("remove")) {
+            String entity = returnsEntity ? field.type() : name.substring("delete".length());
+            boolean returnsStatus = field.listDepth() == 0
+                    && (field.type().equals("Boolean") || field.type().equals("ID"));
+            if (id != null && field.arguments().size() == 1 && entities.containsKey(entity)
+                    && (returnsEntity || returnsStatus)) {
+                return new SpecParser.GraphQLOperation(name, SpecParser.GraphQLOperation.Action.DELETE,
+                        entity, id, null, false, field.type());
+            }
+        }
+        return null;
+    }
+
+    private void addOperation(List<SpecParser.GraphQLOperation> operations, SpecParser.GraphQLOperation operation,
+                              String rootType, FieldDefinition field) {
+        if (operation != null) {
+            operations.add(operation);
+        } else {
+            warnings.add("GraphQL operation " + rootType + "." + field.name() + " is not generated: "
+                    + "no CRUD operation of an entity matches its name, arguments and type");
+        }
+    }
+
+    /**
+     * Name of the single ID argument, or null
+     */
+    private static String idArgument(FieldDefinition field) {
+        String id = null;
+        for (FieldDefinition argument : field.arguments()) {
+            if (argument.type().equals("ID") && argument.listDepth() == 0) {
+                if (id != null) {
+                    return null;
+                }
+                id = argument.name();
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Name of the single input object argument, or null
+     */
+    private String inputArgument(FieldDefinition field) {
+        String input = null;
+        for (FieldDefinition argument : field.arguments()) {
+            if (inputTypes.containsKey(argument.type()) && argument.listDepth() == 0) {
+                if (input != null) {
+                    return null;
+                }
+                input = argument.name();
+            }
+        }
+        return input;
+    }
+
+    /**
+     * Warns about input fields the entity's DTO has no property for, which are dropped when binding
+     */
+    private void checkInput(FieldDefinition field, String inputArgument, SpecParser.EntityInfo entity) {
+        for (FieldDefinition argument : field.arguments()) {
+            if (argument.name().equals(inputArgument)) {
+                for (FieldDefinition inputField : inputTypes.get(argument.type())) {
+                    if (!entity.getFields().containsKey(inputField.name())) {
+                        warnings.add("GraphQL input field " + argument.type() + "." + inputField.name()
+                                + " of " + field.name() + " has no " + entity.getName() + " field and is ignored");
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean hasId(SpecParser.EntityInfo entity) {
+        for (String field : entity.getFields().keySet()) {
+            if (field.equalsIgnoreCase("id")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ---- Lexer ----
+
+    private char peek() {
+        return position < chars.length ? chars[position] : 0;
+    }
+
+    /**
+     * Consumes the punctuator and the ignored characters after it if it is next
+     */
+    private boolean consume(char punctuator) {
+        if (peek() != punctuator) {
+            return false;
+        }
+        position++;
+        skipIgnored();
+        return true;
+    }
+
+    private void expect(char punctuator) throws IOException {
+        if (!consume(punctuator)) {
+            throw error("Expected '" + punctuator + "'");
+        }
+    }
+
+    /**
+     * Consumes the keyword and the ignored characters after it if it is the next name
+     */
+    private boolean matchesKeyword(String keyword) {
+        int end = position + keyword.length();
+        if (end > chars.length || (end < chars.length && isNamePart(chars[end]))) {
+            return false;
+        }
+        for (int i = 0; i < keyword.length(); i++) {
+            if (chars[position + i] != keyword.charAt(i)) {
+                return false;
+            }
+        }
+        position = end;
+        skipIgnored();
+        return true;
+    }
+
+    private String readName() throws IOException {
+        int start = position;
+        if (position >= chars.length || !isNameStart(chars[position])) {
+            throw error("Expected a name");
+        }
+        while (position < chars.length && isNamePart(chars[position])) {
+            position++;
+        }
+        return new String(chars, start, position - start);
+    }
+
+    private void skipName() throws IOException {
+        if (position >= chars.length || !isNameStart(chars[position])) {
+            throw error("Expected a name");
+        }
+        while (position < chars.length && isNamePart(chars[position])) {
+            position++;
+        }
+    }
+
+    /**
+     * Skips whitespace, line terminators, commas and comments
+     */
+    private void skipIgnored() {
+        while (position < chars.length) {
+            char c = chars[position];
+            if (c == '\n') {
+                position++;
+                line++;
+                lineStart = position;
+            } else if (c == ' ' || c == '\t' || c == '\r' || c == ',' || c == '\uFEFF') {
+                position++;
+            } else if (c == '#') {
+                while (position < chars.length && chars[position] != '\n') {
+                    position++;
+                }
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void skipDescription() throws IOException {
+        if (peek() == '"') {
+            skipString();
+            skipIgnored();
+        }
+    }
+
+    /**
+     * Skips a string or block string; block strings may span lines
+     */
+    private void skipString() throws IOException {
+        if (position + 2 < chars.length && chars[position + 1] == '"' && chars[position + 2] == '"') {
+            position += 3;
+            while (position + 2 < chars.length) {
+                char c = chars[position];
+                if (c == '"' && chars[position + 1] == '"' && chars[position + 2] == '"') {
+                    position += 3;
+                    return;
+                }
+                if (c == '\\' && chars[position + 1] == '"') {
+                    position += 2;
+                    continue;
+                }
+                if (c == '\n') {
+                    line++;
+                    lineStart = position + 1;
+                }
+                position++;
+            }
+            throw error("Unterminated block string");
+        }
+        position++;
+        while (position < chars.length && chars[position] != '\n') {
+            char c = chars[position++];
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                position++;
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    private void skipDirectives() throws IOException {
+        skipIgnored();
+        while (consume('@')) {
+            usedDirectives.add(readName());
+            skipIgnored();
+            if (consume('(')) {
+                while (!consume(')')) {
+                    skipName();
+                    skipIgnored();
+                    expect(':');
+                    skipValue();
+                }
+            }
+        }
+    }
+
+    /**
+     * Skips a value such as a default value or a directive argument, with the ignored characters after it
+     */
+    private void skipValue() throws IOException {
+        char c = peek();
+        if (c == '"') {
+            skipString();
+            skipIgnored();
+        } else if (c == '[') {
+            consume('[');
+            while (!consume(']')) {
+                skipValue();
+            }
+        } else if (c == '{') {
+            consume('{');
+            while (!consume('}')) {
+                skipName();
+                skipIgnored();
+                expect(':');
+                skipValue();
+            }
+        } else if (c == '$') {
+            position++;
+            skipName();
+            skipIgnored();
+        } else if (c == '-' || (c >= '0' && c <= '9')) {
+            position++;
+            while (position < chars.length && (isNamePart(chars[position]) || chars[position] == '.'
+                    || ((chars[position] == '-' || chars[position] == '+')
+                    && (chars[position - 1] == 'e' || chars[position - 1] == 'E')))) {
+                position++;
+            }
+            skipIgnored();
+        } else {
+            skipName();
+            skipIgnored();
+        }
+    }
+
+    private static boolean isNameStart(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || c == '_';
+    }
+
+    private static boolean isNamePart(char c) {
+        return isNameStart(c) || (c >= '0' && c <= '9');
+    }
+
+    private IOException error(String message) {
+        return new IOException(message + " at " + line + ":" + (position - lineStart + 1) + " of the GraphQL schema");
+    }
+
+    /**
+     * A field of an object type, an argument or an input field
+     * @param listDepth Number of list wrappers around the named type
+     */
+    private record FieldDefinition(String name, String type, int listDepth, List<FieldDefinition> arguments) {
+    }
+}
@@ -0,0 +1,24 @@
+package cc.spec;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps generated files in memory, keyed by relative path
+ */
+public class InMemoryOutputSink implements OutputSink {
+    private final Map<String, String> files = new ConcurrentHashMap<>();
+
+    @Override
+    public void write(String relativePath, String content) {
+        files.put(relativePath, content);
+    }
+
+    /**
+     * Snapshot of the files written so far, sorted by path
+     */
+    public Map<String, String> getFiles() {
+        return new TreeMap<>(files);
+    }
+}
@@ -5,27 +5,131 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Client for interacting with OpenAI API
+ *
+ * All clients share one HTTP client and thereby its connection pool. Every request attempt is
+ * admitted by a {@link RateLimitScheduler}; throttled (429), unavailable (5xx) and failed
+ * connection attempts are retried according to the {@link RetryPolicy}.
  */
 public class OpenAIClient {
     private static final String API_URL = "https://api.openai.com/v1/chat/completions";
+    private static final String SSE_DATA_PREFIX = "data:";
+    private static final String SSE_DONE = "[DONE]";
+    private static final String MODEL = "gpt-3.5-turbo";
+    private static final double TEMPERATURE = 0.7;
+    static final int MAX_TOKENS = 4096;
+    private static final Set<Integer> RETRYABLE_STATUS_CODES = Set.of(429, 500, 502, 503, 504);
+    /**
+     * One connection pool for every client in the process, so requests reuse keep-alive connections
+     */
+    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(30))
+            .build();
+    private static volatile OpenAIClient shared;
     private final HttpClient httpClient;
     private final ObjectMapper objectMapper;
+    private final String apiUrl;
     private final String apiKey;
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    private final ResponseCache responseCache;
+    private final RateLimitScheduler scheduler;
+    private final RetryPolicy retryPolicy;
 
     public OpenAIClient() {
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(30))
-                .build();
+        this(API_URL, resolveApiKey());
+    }
+
+    /**
+     * Creates a client against the OpenAI API
+     * @param scheduler Admits requests, keeping them within the rate limits
+     * @param retryPolicy Retries of throttled, unavailable and failed attempts
+     * @param responseCache Cache in front of the API, or null. Identical concurrent requests are
+     *                      coalesced so only one HTTP call per cache key is in flight; the others
+     *                      wait for its result.
+     */
+    public OpenAIClient(RateLimitScheduler scheduler, RetryPolicy retryPolicy, ResponseCache responseCache) {
+        this(API_URL, resolveApiKey(), scheduler, retryPolicy, responseCache);
+    }
+
+    /**
+     * Creates a client against an explicit endpoint, e.g. a local stub server, without rate
+     * limits or a response cache and with the default retry policy
+     * @param apiUrl Chat completions endpoint URL
+     * @param apiKey API key sent as bearer token
+     */
+    public OpenAIClient(String apiUrl, String apiKey) {
+        this(apiUrl, apiKey, RateLimitScheduler.unlimited(), RetryPolicy.DEFAULT, null);
+    }
+
+    public OpenAIClient(String apiUrl, String apiKey, RateLimitScheduler scheduler, RetryPolicy retryPolicy,
+                        ResponseCache responseCache) {
+        this.httpClient = HTTP_CLIENT;
         this.objectMapper = new ObjectMapper();
+        this.apiUrl = apiUrl;
+        this.apiKey = apiKey;
+        this.scheduler = scheduler;
+        this.retryPolicy = retryPolicy;
+        this.responseCache = responseCache;
+    }
+
+    /**
+     * A process-wide client against the OpenAI API with default settings, for callers that are
+     * not given a configured client
+     */
+    public static OpenAIClient shared() {
+        OpenAIClient client = shared;
+        if (client == null) {
+            synchronized (OpenAIClient.class) {
+                client = shared;
+                if (client == null) {
+                    client = new OpenAIClient();
+                    shared = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    public RateLimitScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Receives completion tokens as they arrive from a streamed response
+     */
+    @FunctionalInterface
+    public interface TokenListener {
+        void onToken(String token) throws IOException;
+    }
+
+    private static String resolveApiKey() {
         // Try environment variable first
         String key = System.getenv("OPENAI_API_KEY");
         if (key == null || key.isEmpty()) {
@@ -44,7 +148,7 @@ public class OpenAIClient {
                 // Ignore, will fail below if key is still null
             }
         }
-        this.apiKey = key;
+        return key;
     }
 
     /**
@@ -54,61 +158,429 @@ public class OpenAIClient {
      * @throws IOException If the request fails
      */
     public String chatCompletion(String prompt) throws IOException {
+        return chatCompletion(prompt, RateLimitScheduler.Priority.NORMAL);
+    }
+
+    /**
+     * Sends a chat completion request in the given scheduler lane
+     */
+    public String chatCompletion(String prompt, RateLimitScheduler.Priority priority) throws IOException {
+        if (responseCache == null) {
+            return sendChatCompletion(prompt, priority).content();
+        }
+        return cachedCompletion(prompt, () -> sendChatCompletion(prompt, priority));
+    }
+
+    private Completion sendChatCompletion(String prompt, RateLimitScheduler.Priority priority) throws IOException {
         if (apiKey == null || apiKey.isEmpty()) {
             throw new IOException("OPENAI_API_KEY environment variable is not set");
         }
 
         try {
             // Build the request body
-            String requestBody = buildRequestBody(prompt);
-            
-            // Create HTTP request
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(API_URL))
-                    .header("Content-Type", "application/json")
-                    .header("Authorization", "Bearer " + apiKey)
-                    .POST(HttpRequest.BodyPublishers.ofString(requestBody))
-                    .timeout(Duration.ofSeconds(60))
-                    .build();
-
-            // Send request and get response
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            String requestBody = buildRequestBody(prompt, false);
 
-            if (response.statusCode() != 200) {
-                throw new IOException("OpenAI API returned status code: " + response.statusCode() + 
-                                    ", body: " + response.body());
-            }
+            return withRetries(priority, estimateTokens(prompt), () -> {
+                HttpResponse<String> response = send(buildRequest(requestBody), HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() != 200) {
+                    throw statusFailure(response, response.body());
+                }
+                return parseResponse(response.body());
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Request interrupted", e);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to call OpenAI API: " + e.getMessage(), e);
+        }
+    }
 
-            // Parse response
-            return parseResponse(response.body());
+    /**
+     * Sends a streaming chat completion request ({@code stream: true}) and hands every content
+     * token to the listener as its server-sent event arrives
+     * @param prompt The prompt to send
+     * @param listener Receives content tokens in order
+     * @return Total number of content characters received
+     * @throws IOException If the request fails or the listener fails
+     */
+    public long streamChatCompletion(String prompt, TokenListener listener) throws IOException {
+        return streamChatCompletion(prompt, RateLimitScheduler.Priority.NORMAL, listener);
+    }
+
+    /**
+     * Sends a streaming chat completion request in the given scheduler lane
+     */
+    public long streamChatCompletion(String prompt, RateLimitScheduler.Priority priority, TokenListener listener) throws IOException {
+        if (responseCache == null) {
+            return sendStreamingCompletion(prompt, priority, listener, new String[1]);
+        }
+        boolean[] streamed = {false};
+        String response = cachedCompletion(prompt, () -> {
+            StringBuilder content = new StringBuilder();
+            String[] finishReason = new String[1];
+            sendStreamingCompletion(prompt, priority, token -> {
+                content.append(token);
+                listener.onToken(token);
+            }, finishReason);
+            streamed[0] = true;
+            return new Completion(content.toString(), finishReason[0]);
+        });
+        if (!streamed[0] && !response.isEmpty()) {
+            // Cache hit or coalesced with an identical request: deliver the whole completion at once
+            listener.onToken(response);
+        }
+        return response.length();
+    }
+
+    /**
+     * @param finishReason Receives the finish_reason of the completion, if the stream reports one
+     */
+    private long sendStreamingCompletion(String prompt, RateLimitScheduler.Priority priority, TokenListener listener,
+                                         String[] finishReason) throws IOException {
+        if (apiKey == null || apiKey.isEmpty()) {
+            throw new IOException("OPENAI_API_KEY environment variable is not set");
+        }
+
+        try {
+            String requestBody = buildRequestBody(prompt, true);
+            // Only failures before the first token are retried; the listener has seen nothing yet
+            return withRetries(priority, estimateTokens(prompt), () -> {
+                HttpResponse<Stream<String>> response = send(buildRequest(requestBody), HttpResponse.BodyHandlers.ofLines());
+                return readStream(response, listener, finishReason);
+            });
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new IOException("Request interrupted", e);
+        } catch (IOException e) {
+            throw e;
         } catch (Exception e) {
             throw new IOException("Failed to call OpenAI API: " + e.getMessage(), e);
         }
     }
 
-    private String buildRequestBody(String prompt) throws IOException {
-        Map<String, Object> requestMap = Map.of(
-            "model", "gpt-3.5-turbo",
-            "messages", List.of(
-                Map.of("role", "user", "content", prompt)
-            ),
-            "temperature", 0.7,
-            "max_tokens", 4096
-        );
+    private long readStream(HttpResponse<Stream<String>> response, TokenListener listener, String[] finishReason)
+            throws IOException {
+        try (Stream<String> lines = response.body()) {
+            if (response.statusCode() != 200) {
+                throw statusFailure(response, lines.collect(Collectors.joining("\n")));
+            }
+
+            long received = 0;
+            Iterator<String> iterator = lines.iterator();
+            while (iterator.hasNext()) {
+                String line = iterator.next();
+                if (!line.startsWith(SSE_DATA_PREFIX)) {
+                    continue; // blank separators, comments and other SSE fields
+                }
+                String data = line.substring(SSE_DATA_PREFIX.length()).trim();
+                if (data.equals(SSE_DONE)) {
+                    break;
+                }
+                String token = parseStreamChunk(data, finishReason);
+                if (token != null && !token.isEmpty()) {
+                    received += token.length();
+                    listener.onToken(token);
+                }
+            }
+            return received;
+        }
+    }
+
+    /**
+     * Serves the prompt from the response cache, joining an identical in-flight request when there
+     * is one, and otherwise runs the call. Its result is only cached when it is complete and a
+     * file map, so a truncated or malformed response is retried by the next request instead of
+     * being replayed for the whole TTL.
+     */
+    private String cachedCompletion(String prompt, CompletionCall call) throws IOException {
+        String key = cacheKey(prompt);
+        Optional<String> cached = responseCache.get(key);
+        if (cached.isPresent()) {
+            System.out.println("[AI] ✓ Response cache hit: " + key);
+            return cached.get();
+        }
+
+        CompletableFuture<String> leader = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(key, leader);
+        if (existing != null) {
+            System.out.println("[AI] Waiting for identical in-flight request: " + key);
+            return await(existing);
+        }
+        try {
+            // Another leader may have completed between the cache lookup and claiming the key
+            String response = responseCache.get(key).orElse(null);
+            if (response == null) {
+                Completion completion = call.execute();
+                response = completion.content();
+                if (!"stop".equals(completion.finishReason())) {
+                    System.out.println("[AI] Response not cached, finish reason: " + completion.finishReason());
+                } else if (!isFileMap(response)) {
+                    System.out.println("[AI] Response not cached, it is not a JSON file map");
+                } else {
+                    responseCache.put(key, response);
+                }
+            }
+            leader.complete(response);
+            return response;
+        } catch (IOException | RuntimeException e) {
+            leader.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, leader);
+        }
+    }
+
+    private String await(CompletableFuture<String> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Request interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Failed to call OpenAI API: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Hash of every request parameter that influences the completion
+     */
+    private static String cacheKey(String prompt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((MODEL + "\n" + TEMPERATURE + "\n" + MAX_TOKENS + "\n").getBytes(StandardCharsets.UTF_8));
+            digest.update(prompt.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Whether the content is the JSON object of file paths to contents every prompt asks for
+     */
+    private boolean isFileMap(String content) {
+        try {
+            JsonNode files = objectMapper.readTree(content);
+            if (files == null || !files.isObject() || files.isEmpty()) {
+                return false;
+            }
+            for (JsonNode file : files) {
+                if (!file.isTextual()) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Content of a completion and why the model stopped: "stop", "length" when cut off at
+     * max_tokens, or null when the response did not say
+     */
+    private record Completion(String content, String finishReason) {
+    }
+
+    @FunctionalInterface
+    private interface CompletionCall {
+        Completion execute() throws IOException;
+    }
+
+    /**
+     * Runs one request attempt at a time, each admitted by the scheduler, and retries throttled,
+     * unavailable and transport failures with exponential backoff and full jitter. A Retry-After
+     * from the server replaces the computed delay, and after a 429 it also pauses the scheduler
+     * so other callers hold back instead of hitting the limit as well. Backoff sleeps happen
+     * outside the permit, so a waiting retry does not occupy a concurrency slot.
+     */
+    private <T> T withRetries(RateLimitScheduler.Priority priority, int estimatedTokens, Attempt<T> attempt)
+            throws IOException, InterruptedException {
+        for (int attemptNumber = 1; ; attemptNumber++) {
+            RetryableException failure;
+            RateLimitScheduler.Permit permit = scheduler.acquire(priority, estimatedTokens);
+            try {
+                return attempt.run();
+            } catch (RetryableException e) {
+                failure = e;
+            } finally {
+                permit.close();
+            }
+            if (attemptNumber >= retryPolicy.maxAttempts()) {
+                throw failure;
+            }
+            Duration delay = failure.retryAfter != null ? failure.retryAfter : retryPolicy.backoff(attemptNumber);
+            if (failure.statusCode == 429) {
+                scheduler.pause(delay);
+            }
+            System.out.println("[AI] ⟳ " + failure.getMessage() + "; retrying in " + delay.toMillis()
+                    + " ms (attempt " + (attemptNumber + 1) + "/" + retryPolicy.maxAttempts() + ")");
+            Thread.sleep(delay);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Attempt<T> {
+        T run() throws IOException, InterruptedException;
+    }
+
+    /**
+     * Sends the request; connection failures, resets and timeouts are retryable
+     */
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler)
+            throws IOException, InterruptedException {
+        try {
+            return httpClient.send(request, bodyHandler);
+        } catch (IOException e) {
+            throw new RetryableException("Failed to call OpenAI API: " + e.getMessage(), 0, null, e);
+        }
+    }
+
+    private static IOException statusFailure(HttpResponse<?> response, String body) {
+        String message = "OpenAI API returned status code: " + response.statusCode() + ", body: " + body;
+        if (!RETRYABLE_STATUS_CODES.contains(response.statusCode())) {
+            return new IOException(message);
+        }
+        return new RetryableException(message, response.statusCode(), retryAfter(response), null);
+    }
+
+    /**
+     * Delay requested by the server: OpenAI's retry-after-ms, else Retry-After as seconds or an HTTP date
+     */
+    static Duration retryAfter(HttpResponse<?> response) {
+        Optional<String> millis = response.headers().firstValue("retry-after-ms");
+        if (millis.isPresent()) {
+            try {
+                return Duration.ofMillis(Math.max(0, (long) Double.parseDouble(millis.get().trim())));
+            } catch (NumberFormatException e) {
+                // fall back to Retry-After
+            }
+        }
+        Optional<String> header = response.headers().firstValue("Retry-After");
+        if (header.isEmpty()) {
+            return null;
+        }
+        String value = header.get().trim();
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value)));
+        } catch (NumberFormatException e) {
+            try {
+                Duration untilDate = Duration.between(Instant.now(),
+                        ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant());
+                return untilDate.isNegative() ? Duration.ZERO : untilDate;
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Tokens a request counts against the tokens-per-minute limit: roughly four characters per
+     * prompt token, plus the completion limit the API reserves up front
+     */
+    private static int estimateTokens(String prompt) {
+        return prompt.length() / 4 + MAX_TOKENS;
+    }
+
+    /**
+     * A failed attempt worth repeating
+     */
+    private static class RetryableException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private final int statusCode;
+        private final Duration retryAfter;
+
+        RetryableException(String message, int statusCode, Duration retryAfter, Throwable cause) {
+            super(message, cause);
+            this.statusCode = statusCode;
+            this.retryAfter = retryAfter;
+        }
+    }
+
+    /**
+     * @param maxAttempts Attempts per request including the first, 1 to disable retries
+     * @param initialBackoff Upper bound of the delay before the first retry
+     * @param maxBackoff Upper bound of any computed delay
+     */
+    public record RetryPolicy(int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+        public static final RetryPolicy DEFAULT = new RetryPolicy(5, Duration.ofMillis(500), Duration.ofSeconds(30));
+
+        public RetryPolicy {
+            if (maxAttempts < 1) {
+                throw new IllegalArgumentException("Max attempts must be positive");
+            }
+            if (initialBackoff.isNegative() || maxBackoff.compareTo(initialBackoff) < 0) {
+                throw new IllegalArgumentException("Backoff must satisfy 0 <= initial <= max");
+            }
+        }
+
+        /**
+         * Full jitter: uniform in [0, min(max, initial * 2^(attempt-1))]
+         */
+        Duration backoff(int attempt) {
+            long ceiling = initialBackoff.toMillis() << Math.min(attempt - 1, 20);
+            ceiling = Math.min(maxBackoff.toMillis(), ceiling);
+            return Duration.ofMillis(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        }
+    }
+
+    private HttpRequest buildRequest(String requestBody) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(apiUrl))
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + apiKey)
+                .POST(HttpRequest.BodyPublishers.ofString(requestBody))
+                .timeout(Duration.ofSeconds(60))
+                .build();
+    }
+
+    private String buildRequestBody(String prompt, boolean stream) throws IOException {
+        Map<String, Object> requestMap = new LinkedHashMap<>();
+        requestMap.put("model", MODEL);
+        requestMap.put("messages", List.of(
+            Map.of("role", "user", "content", prompt)
+        ));
+        requestMap.put("temperature", TEMPERATURE);
+        requestMap.put("max_tokens", MAX_TOKENS);
+        if (stream) {
+            requestMap.put("stream", true);
+        }
         return objectMapper.writeValueAsString(requestMap);
     }
 
+    /**
+     * Extracts the content delta from one streamed chunk, or null for role/finish-only chunks
+     * @param finishReason Receives the finish_reason of the chunk that carries one
+     */
+    @SuppressWarnings("unchecked")
+    private String parseStreamChunk(String data, String[] finishReason) throws IOException {
+        Map<String, Object> chunk = objectMapper.readValue(data, Map.class);
+        List<Object> choices = (List<Object>) chunk.get("choices");
+        if (choices == null || choices.isEmpty()) {
+            return null;
+        }
+        Map<String, Object> choice = (Map<String, Object>) choices.get(0);
+        if (choice.get("finish_reason") instanceof String reason) {
+            finishReason[0] = reason;
+        }
+        Map<String, Object> delta = (Map<String, Object>) choice.get("delta");
+        return delta != null ? (String) delta.get("content") : null;
+    }
+
     @SuppressWarnings("unchecked")
-    private String parseResponse(String responseBody) throws IOException {
+    private Completion parseResponse(String responseBody) throws IOException {
         Map<String, Object> responseMap = objectMapper.readValue(responseBody, Map.class);
         List<Object> choices = (List<Object>) responseMap.get("choices");
         if (choices != null && !choices.isEmpty()) {
             Map<String, Object> firstChoice = (Map<String, Object>) choices.get(0);
             Map<String, Object> message = (Map<String, Object>) firstChoice.get("message");
-            return (String) message.get("content");
+            return new Completion((String) message.get("content"), (String) firstChoice.get("finish_reason"));
         }
         throw new IOException("No choices in OpenAI response");
     }
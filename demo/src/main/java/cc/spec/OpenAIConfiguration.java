@@ -0,0 +1,25 @@
+package cc.spec;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+
+/**
+ * Provides the OpenAI client shared by every generation of the process, so identical prompts
+ * from concurrent uploads share a single request and all requests draw from the same rate
+ * limit budget
+ */
+@Configuration
+public class OpenAIConfiguration {
+
+    @Bean
+    public OpenAIClient openAIClient(SpeckitsProperties properties) throws IOException {
+        SpeckitsProperties.Ai ai = properties.ai();
+        ResponseCache responseCache = ai.cache().enabled()
+                ? new TieredResponseCache(properties.storage().directory().resolve("ai-cache"), ai.cache().ttl(),
+                        ai.cache().memorySize().toBytes(), ai.cache().diskSize().toBytes())
+                : null;
+        return new OpenAIClient(new RateLimitScheduler(ai.rateLimit().toLimits()), ai.retry().toPolicy(), responseCache);
+    }
+}
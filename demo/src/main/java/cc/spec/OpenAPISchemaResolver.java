@@ -0,0 +1,223 @@
+package cc.spec;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resolves the entities of the components.schemas section of an OpenAPI document. Object schemas
+ * become entities; their properties are mapped as follows:
+ * <ul>
+ *   <li>a scalar type maps to its Java type, also behind a {@code $ref} to a scalar schema</li>
+ *   <li>a {@code $ref} to an object schema becomes the foreign key {@code {property}Id}</li>
+ *   <li>an inline object is flattened into {@code {property}{Field}} fields</li>
+ *   <li>{@code allOf} merges the fields of all its parts</li>
+ *   <li>arrays are not generated and reported as warnings</li>
+ * </ul>
+ * Every named schema is resolved at most once: its kind and its fields are memoized, so shared
+ * schemas cost nothing after their first use, and resolution is linear in the size of the
+ * schemas plus the fields it produces. A schema that is still being resolved when it is reached
+ * again is a cycle, reported as a warning instead of recursing.
+ */
+public class OpenAPISchemaResolver {
+    private static final String SCHEMA_REF_PREFIX = "#/components/schemas/";
+    private static final String OBJECT = "object";
+    private static final String ARRAY = "array";
+
+    private final Map<String, Object> schemas;
+    private final Map<String, String> kinds = new HashMap<>();
+    private final Map<String, Map<String, String>> fields = new HashMap<>();
+    private final Set<String> resolvingKinds = new HashSet<>();
+    private final Set<String> resolvingFields = new HashSet<>();
+    private final List<String> warnings = new ArrayList<>();
+
+    /**
+     * @param schemas The components.schemas map of the document, schema nodes keyed by name
+     */
+    public OpenAPISchemaResolver(Map<String, Object> schemas) {
+        this.schemas = schemas;
+    }
+
+    /**
+     * Returns one entity per object schema, in document order
+     */
+    public List<SpecParser.EntityInfo> resolveEntities() {
+        List<SpecParser.EntityInfo> entities = new ArrayList<>();
+        for (String name : schemas.keySet()) {
+            if (!kind(name).equals(OBJECT)) {
+                continue;
+            }
+            SpecParser.EntityInfo entity = new SpecParser.EntityInfo(name);
+            for (Map.Entry<String, String> field : fields(name).entrySet()) {
+                entity.addField(field.getKey(), field.getValue());
+            }
+            entities.add(entity);
+        }
+        return entities;
+    }
+
+    /**
+     * Properties the generated entities leave out and references that could not be resolved
+     */
+    public List<String> getWarnings() {
+        return warnings;
+    }
+
+    /**
+     * OBJECT, ARRAY or the Java type of a scalar schema
+     */
+    private String kind(String name) {
+        String kind = kinds.get(name);
+        if (kind != null) {
+            return kind;
+        }
+        Object schema = schemas.get(name);
+        if (!(schema instanceof Map<?, ?> node)) {
+            if (!schemas.containsKey(name)) {
+                warnings.add("OpenAPI $ref to " + name + " is not resolved and is mapped to String");
+            }
+            kind = "String";
+        } else if (!resolvingKinds.add(name)) {
+            warnings.add("OpenAPI schema " + name + " is a $ref cycle and is mapped to String");
+            return "String";
+        } else {
+            kind = kindOf(node);
+            resolvingKinds.remove(name);
+        }
+        kinds.put(name, kind);
+        return kind;
+    }
+
+    private String kindOf(Map<?, ?> node) {
+        String ref = refName(node);
+        if (ref != null) {
+            return kind(ref);
+        }
+        String type = type(node);
+        if (node.containsKey("properties") || node.containsKey("allOf") || OBJECT.equals(type)) {
+            return OBJECT;
+        }
+        if (ARRAY.equals(type)) {
+            return ARRAY;
+        }
+        return SpecParser.mapOpenAPITypeToJava(type);
+    }
+
+    /**
+     * Fields of a named object schema, unprefixed; callers must not modify the returned map
+     */
+    private Map<String, String> fields(String name) {
+        Map<String, String> resolved = fields.get(name);
+        if (resolved != null) {
+            return resolved;
+        }
+        if (!resolvingFields.add(name)) {
+            warnings.add("OpenAPI schema " + name + " includes itself through allOf; the cycle is not expanded");
+            return Map.of();
+        }
+        resolved = new LinkedHashMap<>();
+        if (schemas.get(name) instanceof Map<?, ?> node) {
+            collectFields(node, "", name, resolved);
+        }
+        resolvingFields.remove(name);
+        fields.put(name, resolved);
+        return resolved;
+    }
+
+    /**
+     * Adds the fields of an object node to the given map, each name prefixed for inline objects
+     * @param path Location of the node for warnings, such as Order.address
+     */
+    private void collectFields(Map<?, ?> node, String prefix, String path, Map<String, String> out) {
+        String ref = refName(node);
+        if (ref != null) {
+            if (kind(ref).equals(OBJECT)) {
+                for (Map.Entry<String, String> field : fields(ref).entrySet()) {
+                    out.put(prefixed(prefix, field.getKey()), field.getValue());
+                }
+            }
+            return;
+        }
+        if (node.get("allOf") instanceof List<?> parts) {
+            for (Object part : parts) {
+                if (part instanceof Map<?, ?> partNode) {
+                    collectFields(partNode, prefix, path, out);
+                }
+            }
+        }
+        if (!(node.get("properties") instanceof Map<?, ?> properties)) {
+            return;
+        }
+        for (Map.Entry<?, ?> property : properties.entrySet()) {
+            String name = prefixed(prefix, property.getKey().toString());
+            String propertyPath = path + "." + property.getKey();
+            if (!(property.getValue() instanceof Map<?, ?> propertyNode)) {
+                out.put(name, "String");
+                continue;
+            }
+            String propertyRef = refName(propertyNode);
+            if (propertyRef == null) {
+                propertyRef = singleAllOfRef(propertyNode);
+            }
+            String kind = propertyRef != null ? kind(propertyRef) : kindOf(propertyNode);
+            if (kind.equals(OBJECT) && propertyRef != null) {
+                out.put(name + "Id", "Long");
+            } else if (kind.equals(OBJECT)) {
+                collectFields(propertyNode, name, propertyPath, out);
+            } else if (kind.equals(ARRAY)) {
+                warnings.add("OpenAPI array property " + propertyPath + " is not generated");
+            } else {
+                out.put(name, kind);
+            }
+        }
+    }
+
+    /**
+     * The target of {@code allOf: [{$ref: ...}]}, the usual way to annotate a reference, or null
+     */
+    private static String singleAllOfRef(Map<?, ?> node) {
+        if (node.get("allOf") instanceof List<?> parts && parts.size() == 1 && parts.get(0) instanceof Map<?, ?> part
+                && !node.containsKey("properties")) {
+            return refName(part);
+        }
+        return null;
+    }
+
+    /**
+     * Schema name of a local {@code $ref}, or null when the node has none
+     */
+    private static String refName(Map<?, ?> node) {
+        if (!(node.get("$ref") instanceof String ref)) {
+            return null;
+        }
+        String name = ref.startsWith(SCHEMA_REF_PREFIX) ? ref.substring(SCHEMA_REF_PREFIX.length()) : ref;
+        return name.replace("~1", "/").replace("~0", "~");
+    }
+
+    /**
+     * The type of a node; OpenAPI 3.1 type arrays yield their first type other than null
+     */
+    private static String type(Map<?, ?> node) {
+        Object type = node.get("type");
+        if (type instanceof List<?> types) {
+            for (Object candidate : types) {
+                if (!"null".equals(candidate)) {
+                    return String.valueOf(candidate);
+                }
+            }
+            return null;
+        }
+        return type instanceof String ? (String) type : null;
+    }
+
+    private static String prefixed(String prefix, String name) {
+        if (prefix.isEmpty()) {
+            return name;
+        }
+        return prefix + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+}
@@ -0,0 +1,36 @@
+package cc.spec;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+/**
+ * Destination of generated project files. Paths are relative to the project root and use '/'.
+ * Implementations must accept concurrent writes, since artifacts may be rendered in parallel.
+ */
+public interface OutputSink {
+
+    /**
+     * Writes a complete file
+     */
+    void write(String relativePath, String content) throws IOException;
+
+    /**
+     * Creates an empty directory; sinks without a directory notion ignore it
+     */
+    default void createDirectory(String relativePath) throws IOException {
+    }
+
+    /**
+     * Opens a writer for a file whose content arrives incrementally. The default buffers the
+     * content and writes it when the writer is closed.
+     */
+    default Writer openWriter(String relativePath) throws IOException {
+        return new StringWriter() {
+            @Override
+            public void close() throws IOException {
+                OutputSink.this.write(relativePath, toString());
+            }
+        };
+    }
+}
@@ -0,0 +1,68 @@
+package cc.spec;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates a project synchronously and streams it to the client as a ZIP archive
+ */
+@RestController
+public class ProjectDownloadController {
+    private final GenerationJobService jobService;
+
+    public ProjectDownloadController(GenerationJobService jobService) {
+        this.jobService = jobService;
+    }
+
+    @PostMapping("/download")
+    public ResponseEntity<StreamingResponseBody> download(@RequestParam(required = false) MultipartFile openapi,
+                                                          @RequestParam(required = false) MultipartFile graphql,
+                                                          @RequestParam(required = false) MultipartFile domain,
+                                                          @RequestParam(required = false) MultipartFile testspec,
+                                                          @RequestParam(required = false) MultipartFile dependencies,
+                                                          @RequestParam(required = false) MultipartFile outputprefs,
+                                                          @RequestParam(required = false) String generationMode) throws IOException {
+        MultipartFile[] requiredFiles = {openapi, graphql, domain, outputprefs};
+        MultipartFile[] optionalFiles = {testspec, dependencies};
+        Map<String, MultipartFile> uploadedFiles = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < requiredFiles.length; i++) {
+            if (requiredFiles[i] != null && !requiredFiles[i].isEmpty()) {
+                uploadedFiles.put(GenerationJobService.REQUIRED_KEYS[i], requiredFiles[i]);
+            } else {
+                missing.add(GenerationJobService.REQUIRED_NAMES[i]);
+            }
+        }
+        if (!missing.isEmpty()) {
+            StreamingResponseBody message = out -> out.write(
+                    ("Missing required specification files: " + String.join(", ", missing)).getBytes());
+            return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body(message);
+        }
+        for (int i = 0; i < optionalFiles.length; i++) {
+            if (optionalFiles[i] != null && !optionalFiles[i].isEmpty()) {
+                uploadedFiles.put(GenerationJobService.OPTIONAL_KEYS[i], optionalFiles[i]);
+            }
+        }
+
+        // Multipart parts only live for the request thread, so take them over before the body streams
+        UploadWorkspace workspace = jobService.stageUploads(uploadedFiles);
+        String fileName = "ai".equals(generationMode) ? "project-ai.zip" : "project.zip";
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(out -> jobService.streamZip(workspace, generationMode, out));
+    }
+}
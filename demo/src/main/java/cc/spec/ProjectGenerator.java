@@ -10,14 +10,36 @@ import java.util.*;
  * Generates the project structure and files
  */
 public class ProjectGenerator {
-    private final Path outputBasePath;
+    private final OutputSink output;
     private final String packageName;
     private final String projectName;
+    private final GeneratorOptions options;
+    private SpecParser.GraphQLSchema graphQLSchema;
 
     public ProjectGenerator(Path outputBasePath, String projectName, String packageName) {
-        this.outputBasePath = outputBasePath;
+        this(new DiskOutputSink(outputBasePath), projectName, packageName);
+    }
+
+    public ProjectGenerator(OutputSink output, String projectName, String packageName) {
+        this(output, projectName, packageName, GeneratorOptions.LEGACY);
+    }
+
+    /**
+     * @param options Generator options that also shape the project files, e.g. the JPA settings
+     */
+    public ProjectGenerator(OutputSink output, String projectName, String packageName, GeneratorOptions options) {
+        this.output = output;
         this.projectName = projectName;
         this.packageName = packageName;
+        this.options = options;
+    }
+
+    /**
+     * GraphQL schema the project serves with Spring for GraphQL, or null for none; set it before
+     * generating the pom
+     */
+    public void setGraphQLSchema(SpecParser.GraphQLSchema graphQLSchema) {
+        this.graphQLSchema = graphQLSchema;
     }
 
     /**
@@ -57,29 +79,14 @@ public class ProjectGenerator {
 
     <properties>
         <project.build.sourceEncoding>UTF-8</project.build.sourceEncoding>
-        <maven.compiler.source>17</maven.compiler.source>
-        <maven.compiler.target>17</maven.compiler.target>
+        <maven.compiler.source>%s</maven.compiler.source>
+        <maven.compiler.target>%s</maven.compiler.target>
+        <maven.compiler.parameters>true</maven.compiler.parameters>
         <spring.boot.version>3.2.5</spring.boot.version>
     </properties>
 
     <dependencies>
-        <dependency>
-            <groupId>org.springframework.boot</groupId>
-            <artifactId>spring-boot-starter-web</artifactId>
-            <version>${spring.boot.version}</version>
-        </dependency>
-        <dependency>
-            <groupId>org.springframework.boot</groupId>
-            <artifactId>spring-boot-starter-data-jpa</artifactId>
-            <version>${spring.boot.version}</version>
-        </dependency>
-        <dependency>
-            <groupId>com.h2database</groupId>
-            <artifactId>h2</artifactId>
-            <version>2.2.224</version>
-            <scope>runtime</scope>
-        </dependency>
-        <dependency>
+%s%s%s%s        <dependency>
             <groupId>org.springframework.boot</groupId>
             <artifactId>spring-boot-starter-test</artifactId>
             <version>${spring.boot.version}</version>
@@ -93,11 +100,13 @@ public class ProjectGenerator {
                 <groupId>org.springframework.boot</groupId>
                 <artifactId>spring-boot-maven-plugin</artifactId>
                 <version>${spring.boot.version}</version>
-            </plugin>
-        </plugins>
+%s            </plugin>
+%s        </plugins>
     </build>
-</project>
-""".formatted(packageName, projectName.toLowerCase(), projectName);
+%s</project>
+""".formatted(packageName, projectName.toLowerCase(), projectName, javaRelease(), javaRelease(),
+                stackDependencies(), graphQLDependencies(), cachingDependencies(), performanceDependencies(),
+                runConfiguration(), testPlugin(), perfProfile());
         
         writeFile("pom.xml", pomContent);
     }
@@ -106,12 +115,29 @@ public class ProjectGenerator {
      * Generates application.properties
      */
     public void generateApplicationProperties() throws IOException {
+        if (options.target().isReactive()) {
+            writeFile("src/main/resources/application.properties", """
+# Spring Boot Application Configuration
+spring.application.name=%s
+
+# Database Configuration (R2DBC H2 in-memory for development, tables from schema.sql)
+spring.r2dbc.url=r2dbc:h2:mem:///testdb?options=DB_CLOSE_DELAY=-1%s
+spring.r2dbc.username=sa
+spring.r2dbc.password=
+spring.sql.init.mode=always
+
+# Server Configuration
+server.port=8080
+%s""".formatted(projectName, options.performance().isTuned() ? ";QUERY_CACHE_SIZE=256" : "",
+                    performanceProperties()));
+            return;
+        }
         String propsContent = """
 # Spring Boot Application Configuration
 spring.application.name=%s
 
 # Database Configuration (H2 in-memory for development)
-spring.datasource.url=jdbc:h2:mem:testdb
+spring.datasource.url=jdbc:h2:mem:testdb%s
 spring.datasource.driverClassName=org.h2.Driver
 spring.datasource.username=sa
 spring.datasource.password=
@@ -119,20 +145,622 @@ spring.datasource.password=
 # JPA Configuration
 spring.jpa.database-platform=org.hibernate.dialect.H2Dialect
 spring.jpa.hibernate.ddl-auto=update
-spring.jpa.show-sql=true
-
+%s%s
 # Server Configuration
 server.port=8080
-""".formatted(projectName);
+%s""".formatted(projectName, options.performance().isTuned() ? ";QUERY_CACHE_SIZE=256" : "",
+                jpaProperties(), cachingProperties(), performanceProperties());
         
         writeFile("src/main/resources/application.properties", propsContent);
     }
 
+    private String jpaProperties() {
+        GeneratorOptions.Batching batching = options.batching();
+        // Statement logging costs more than the round trips batching saves, and tuned profiles cannot afford it
+        String showSql = "spring.jpa.show-sql=" + !(batching.enabled() || options.performance().isTuned()) + "\n";
+        if (!batching.enabled()) {
+            return showSql;
+        }
+        return showSql + """
+spring.jpa.properties.hibernate.jdbc.batch_size=%d
+spring.jpa.properties.hibernate.order_inserts=true
+spring.jpa.properties.hibernate.order_updates=true
+spring.jpa.properties.hibernate.jdbc.batch_versioned_data=true
+""".formatted(batching.batchSize());
+    }
+
+    private String performanceProperties() {
+        GeneratorOptions.Performance performance = options.performance();
+        if (!performance.enabled()) {
+            return "";
+        }
+        String header = "\n# Performance Profile: " + performance.profile().getKey() + "\n";
+        if (options.target().isReactive()) {
+            // Netty's event loops do not block, so neither virtual threads nor Tomcat settings apply
+            return header + switch (performance.profile()) {
+                case DEV -> """
+logging.level.org.springframework.r2dbc.core=DEBUG
+""";
+                case THROUGHPUT -> """
+spring.r2dbc.pool.initial-size=8
+spring.r2dbc.pool.max-size=32
+server.compression.enabled=true
+server.compression.mime-types=application/json
+server.compression.min-response-size=2048
+spring.jackson.default-property-inclusion=non_null
+""";
+                case LOW_LATENCY -> """
+spring.r2dbc.pool.initial-size=16
+spring.r2dbc.pool.max-size=16
+spring.r2dbc.pool.max-acquire-time=2s
+server.compression.enabled=false
+spring.jackson.default-property-inclusion=non_null
+""";
+            };
+        }
+        return header + switch (performance.profile()) {
+            case DEV -> """
+spring.jpa.properties.hibernate.format_sql=true
+""";
+            case THROUGHPUT -> """
+spring.threads.virtual.enabled=true
+spring.jpa.open-in-view=false
+spring.jpa.properties.hibernate.query.plan_cache_max_size=4096
+spring.jpa.properties.hibernate.query.in_clause_parameter_padding=true
+spring.datasource.hikari.maximum-pool-size=32
+spring.datasource.hikari.minimum-idle=8
+server.tomcat.max-connections=10000
+server.tomcat.accept-count=1000
+server.compression.enabled=true
+server.compression.mime-types=application/json
+server.compression.min-response-size=2048
+spring.jackson.default-property-inclusion=non_null
+""";
+            case LOW_LATENCY -> """
+spring.threads.virtual.enabled=true
+spring.jpa.open-in-view=false
+spring.jpa.properties.hibernate.query.plan_cache_max_size=4096
+spring.jpa.properties.hibernate.query.in_clause_parameter_padding=true
+spring.datasource.hikari.maximum-pool-size=16
+spring.datasource.hikari.minimum-idle=16
+spring.datasource.hikari.connection-timeout=2000
+server.tomcat.keep-alive-timeout=60s
+server.tomcat.max-keep-alive-requests=-1
+server.compression.enabled=false
+spring.jackson.default-property-inclusion=non_null
+""";
+        };
+    }
+
+    private String stackDependencies() {
+        if (options.target().isReactive()) {
+            return """
+        <dependency>
+            <groupId>org.springframework.boot</groupId>
+            <artifactId>spring-boot-starter-webflux</artifactId>
+            <version>${spring.boot.version}</version>
+        </dependency>
+        <dependency>
+            <groupId>org.springframework.boot</groupId>
+            <artifactId>spring-boot-starter-data-r2dbc</artifactId>
+            <version>${spring.boot.version}</version>
+        </dependency>
+        <dependency>
+            <groupId>io.r2dbc</groupId>
+            <artifactId>r2dbc-h2</artifactId>
+            <version>1.0.0.RELEASE</version>
+            <scope>runtime</scope>
+        </dependency>
+        <dependency>
+            <groupId>com.h2database</groupId>
+            <artifactId>h2</artifactId>
+            <version>2.2.224</version>
+            <scope>runtime</scope>
+        </dependency>
+""";
+        }
+        return """
+        <dependency>
+            <groupId>org.springframework.boot</groupId>
+            <artifactId>spring-boot-starter-web</artifactId>
+            <version>${spring.boot.version}</version>
+        </dependency>
+        <dependency>
+            <groupId>org.springframework.boot</groupId>
+            <artifactId>spring-boot-starter-data-jpa</artifactId>
+            <version>${spring.boot.version}</version>
+        </dependency>
+        <dependency>
+            <groupId>com.h2database</groupId>
+            <artifactId>h2</artifactId>
+            <version>2.2.224</version>
+            <scope>runtime</scope>
+        </dependency>
+""";
+    }
+
+    private String graphQLDependencies() {
+        if (graphQLSchema == null) {
+            return "";
+        }
+        return """
+        <dependency>
+            <groupId>org.springframework.boot</groupId>
+            <artifactId>spring-boot-starter-graphql</artifactId>
+            <version>${spring.boot.version}</version>
+        </dependency>
+""";
+    }
+
+    /**
+     * Writes the GraphQL schema where Spring for GraphQL loads it from, when the project serves one.
+     * Custom scalars are wired to the String scalar's coercing, matching the String fields the
+     * generator maps them to; without a wiring the schema would not load.
+     */
+    public void generateGraphQLSchema() throws IOException {
+        if (graphQLSchema == null) {
+            return;
+        }
+        writeFile("src/main/resources/graphql/schema.graphqls", graphQLSchema.getSource());
+        if (graphQLSchema.getCustomScalars().isEmpty()) {
+            return;
+        }
+        StringBuilder scalars = new StringBuilder();
+        for (String scalar : graphQLSchema.getCustomScalars()) {
+            scalars.append("""
+            wiring.scalar(GraphQLScalarType.newScalar()
+                    .name("%s")
+                    .coercing(Scalars.GraphQLString.getCoercing())
+                    .build());
+""".formatted(scalar));
+        }
+        String content = """
+package %s.config;
+
+import graphql.Scalars;
+import graphql.schema.GraphQLScalarType;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.graphql.execution.RuntimeWiringConfigurer;
+
+@Configuration
+public class GraphQLScalarConfig {
+
+    @Bean
+    public RuntimeWiringConfigurer customScalars() {
+        return wiring -> {
+%s        };
+    }
+}
+""".formatted(packageName, scalars);
+        writeFile("src/main/java/" + packageName.replace(".", "/") + "/config/GraphQLScalarConfig.java", content);
+    }
+
+    /**
+     * Java release of the generated project; virtual threads need 21
+     */
+    private String javaRelease() {
+        return options.performance().isTuned() ? "21" : "17";
+    }
+
+    private String performanceDependencies() {
+        if (!options.performance().isTuned()) {
+            return "";
+        }
+        return """
+        <dependency>
+            <groupId>com.fasterxml.jackson.module</groupId>
+            <artifactId>jackson-module-blackbird</artifactId>
+            <version>2.15.4</version>
+        </dependency>
+""";
+    }
+
+    private String runConfiguration() {
+        if (!options.performance().enabled()) {
+            return "";
+        }
+        return """
+                <configuration>
+                    <jvmArguments>@jvm.options</jvmArguments>
+                </configuration>
+""";
+    }
+
+    private String testPlugin() {
+        boolean jvmOptions = options.performance().enabled();
+        boolean perfHarness = options.perfHarness().enabled();
+        if (!jvmOptions && !perfHarness) {
+            return "";
+        }
+        return """
+            <plugin>
+                <groupId>org.apache.maven.plugins</groupId>
+                <artifactId>maven-surefire-plugin</artifactId>
+                <version>3.2.5</version>
+                <configuration>
+%s%s                </configuration>
+            </plugin>
+""".formatted(jvmOptions ? """
+                    <argLine>@${project.basedir}/jvm.options</argLine>
+""" : "", perfHarness ? """
+                    <excludes>
+                        <exclude>**/*LoadTest.java</exclude>
+                    </excludes>
+""" : "");
+    }
+
+    /**
+     * The perf profile of the generated project: mvn -Pperf verify runs only the load tests, then
+     * the JMH benchmarks under src/jmh/java, which it compiles with the test sources
+     */
+    private String perfProfile() {
+        if (!options.perfHarness().enabled()) {
+            return "";
+        }
+        return """
+
+    <profiles>
+        <profile>
+            <id>perf</id>
+            <dependencies>
+                <dependency>
+                    <groupId>org.openjdk.jmh</groupId>
+                    <artifactId>jmh-core</artifactId>
+                    <version>1.37</version>
+                    <scope>test</scope>
+                </dependency>
+            </dependencies>
+            <build>
+                <plugins>
+                    <plugin>
+                        <groupId>org.codehaus.mojo</groupId>
+                        <artifactId>build-helper-maven-plugin</artifactId>
+                        <version>3.6.0</version>
+                        <executions>
+                            <execution>
+                                <id>add-jmh-source</id>
+                                <phase>generate-test-sources</phase>
+                                <goals>
+                                    <goal>add-test-source</goal>
+                                </goals>
+                                <configuration>
+                                    <sources>
+                                        <source>src/jmh/java</source>
+                                    </sources>
+                                </configuration>
+                            </execution>
+                        </executions>
+                    </plugin>
+                    <plugin>
+                        <groupId>org.apache.maven.plugins</groupId>
+                        <artifactId>maven-compiler-plugin</artifactId>
+                        <version>3.13.0</version>
+                        <configuration>
+                            <annotationProcessorPaths>
+                                <path>
+                                    <groupId>org.openjdk.jmh</groupId>
+                                    <artifactId>jmh-generator-annprocess</artifactId>
+                                    <version>1.37</version>
+                                </path>
+                            </annotationProcessorPaths>
+                        </configuration>
+                    </plugin>
+                    <plugin>
+                        <groupId>org.apache.maven.plugins</groupId>
+                        <artifactId>maven-surefire-plugin</artifactId>
+                        <version>3.2.5</version>
+                        <configuration>
+                            <includes>
+                                <include>**/*LoadTest.java</include>
+                            </includes>
+                            <excludes combine.self="override"/>
+                        </configuration>
+                    </plugin>
+                    <plugin>
+                        <groupId>org.codehaus.mojo</groupId>
+                        <artifactId>exec-maven-plugin</artifactId>
+                        <version>3.1.0</version>
+                        <executions>
+                            <execution>
+                                <id>jmh</id>
+                                <phase>integration-test</phase>
+                                <goals>
+                                    <goal>exec</goal>
+                                </goals>
+                                <configuration>
+                                    <executable>${java.home}/bin/java</executable>
+                                    <classpathScope>test</classpathScope>
+                                    <arguments>
+                                        <argument>-classpath</argument>
+                                        <classpath/>
+                                        <argument>org.openjdk.jmh.Main</argument>
+                                        <argument>-foe</argument>
+                                        <argument>true</argument>
+                                        <argument>-rf</argument>
+                                        <argument>json</argument>
+                                        <argument>-rff</argument>
+                                        <argument>${project.build.directory}/jmh-result.json</argument>
+                                    </arguments>
+                                </configuration>
+                            </execution>
+                        </executions>
+                    </plugin>
+                </plugins>
+            </build>
+        </profile>
+    </profiles>
+""";
+    }
+
+    /**
+     * Generates the files of the chosen performance profile: jvm.options, which spring-boot:run
+     * and the tests pass to the JVM, the Blackbird Jackson module of tuned profiles, and a smoke
+     * benchmark of the first entity's list endpoint that prints throughput and latency percentiles,
+     * so that projects generated with different profiles can be compared
+     */
+    public void generatePerformanceFiles(List<SpecParser.EntityInfo> entities) throws IOException {
+        GeneratorOptions.Performance performance = options.performance();
+        if (!performance.enabled()) {
+            return;
+        }
+        String jvmOptions = switch (performance.profile()) {
+            case DEV -> """
+-XX:TieredStopAtLevel=1
+""";
+            case THROUGHPUT -> """
+-XX:+UseParallelGC
+-XX:MaxRAMPercentage=75
+""";
+            case LOW_LATENCY -> """
+-XX:+UseZGC
+-XX:+ZGenerational
+-XX:MaxRAMPercentage=75
+""";
+        };
+        writeFile("jvm.options", "# JVM options of the " + performance.profile().getKey()
+                + " profile, for spring-boot:run, the tests and java @jvm.options -jar\n" + jvmOptions);
+
+        String basePath = packageName.replace(".", "/");
+        if (performance.isTuned()) {
+            writeFile("src/main/java/" + basePath + "/config/JacksonConfig.java", """
+package %s.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Replaces reflective property access with generated lambdas in (de)serialization
+     */
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
+""".formatted(packageName));
+        }
+
+        if (entities.isEmpty()) {
+            return;
+        }
+        String endpoint = "/api/" + entities.get(0).getName().toLowerCase() + "s";
+        writeFile("src/test/java/" + basePath + "/PerformanceSmokeTest.java", """
+package %s;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Smoke benchmark of the %s profile: concurrent GETs of %s, reported as throughput and latency percentiles
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class PerformanceSmokeTest {
+    private static final String PROFILE = "%s";
+    private static final int WARMUP_REQUESTS = 500;
+    private static final int REQUESTS = 2000;
+    private static final int CONCURRENCY = 32;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    public void measureListEndpoint() throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "%s"))
+                .header("Accept-Encoding", "gzip")
+                .build();
+        for (int i = 0; i < WARMUP_REQUESTS; i++) {
+            client.send(request, HttpResponse.BodyHandlers.discarding());
+        }
+
+        long[] latencies = new long[REQUESTS];
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int worker = 0; worker < CONCURRENCY; worker++) {
+                workers.add(executor.submit(() -> {
+                    for (int i = next.getAndIncrement(); i < REQUESTS; i = next.getAndIncrement()) {
+                        long sent = System.nanoTime();
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        latencies[i] = System.nanoTime() - sent;
+                        assertEquals(200, response.statusCode());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Arrays.sort(latencies);
+        System.out.printf("[SMOKE] profile=%%s requests=%%d concurrency=%%d throughput=%%.0f req/s p50=%%.2f ms p99=%%.2f ms%%n",
+                PROFILE, REQUESTS, CONCURRENCY, REQUESTS / seconds,
+                latencies[REQUESTS / 2] / 1e6, latencies[REQUESTS * 99 / 100] / 1e6);
+    }
+}
+""".formatted(packageName, performance.profile().getKey(), endpoint, performance.profile().getKey(), endpoint));
+    }
+
+    private String cachingDependencies() {
+        if (!options.caching().enabled()) {
+            return "";
+        }
+        return """
+        <dependency>
+            <groupId>org.springframework.boot</groupId>
+            <artifactId>spring-boot-starter-cache</artifactId>
+            <version>${spring.boot.version}</version>
+        </dependency>
+        <dependency>
+            <groupId>com.github.ben-manes.caffeine</groupId>
+            <artifactId>caffeine</artifactId>
+            <version>3.1.8</version>
+        </dependency>
+        <dependency>
+            <groupId>org.springframework.boot</groupId>
+            <artifactId>spring-boot-starter-actuator</artifactId>
+            <version>${spring.boot.version}</version>
+        </dependency>
+""";
+    }
+
+    private String cachingProperties() {
+        if (!options.caching().enabled()) {
+            return "";
+        }
+        return """
+
+# Cache Configuration (caches and their sizes are defined in config.CachingConfig)
+management.endpoints.web.exposure.include=health,metrics,caches
+""";
+    }
+
+    /**
+     * Generates the Caffeine cache manager of the entity caches when caching is enabled; cache
+     * statistics are recorded so the actuator publishes cache.gets hit and miss counts
+     */
+    public void generateCachingConfig(List<SpecParser.EntityInfo> entities) throws IOException {
+        StringBuilder caches = new StringBuilder();
+        for (SpecParser.EntityInfo entity : entities) {
+            GeneratorOptions.Caching.CacheSpec cache = options.caching().specFor(entity);
+            if (cache != null) {
+                caches.append("""
+        cacheManager.registerCustomCache("%s", Caffeine.newBuilder()
+                .maximumSize(%d)
+                .expireAfterWrite(Duration.parse("%s"))
+                .recordStats()
+                .build());
+""".formatted(cache.cacheName(), cache.maximumSize(), cache.expireAfterWrite()));
+            }
+        }
+        if (caches.isEmpty()) {
+            return;
+        }
+        String content = """
+package %s.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CachingConfig {
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+%s        return cacheManager;
+    }
+}
+""".formatted(packageName, caches);
+
+        writeFile("src/main/java/" + packageName.replace(".", "/") + "/config/CachingConfig.java", content);
+    }
+
+    /**
+     * Generates schema.sql for the reactive target, which has no ORM to create the tables; Spring
+     * Boot runs it against the R2DBC connection factory on startup
+     */
+    public void generateSchema(List<SpecParser.EntityInfo> entities) throws IOException {
+        if (!options.target().isReactive()) {
+            return;
+        }
+        StringBuilder schema = new StringBuilder();
+        for (SpecParser.EntityInfo entity : entities) {
+            schema.append("CREATE TABLE IF NOT EXISTS ").append(entity.getName().toLowerCase()).append("s (\n");
+            schema.append("    id BIGINT AUTO_INCREMENT PRIMARY KEY");
+            for (Map.Entry<String, String> field : entity.getFields().entrySet()) {
+                if (!field.getKey().equalsIgnoreCase("id")) {
+                    schema.append(",\n    ").append(columnName(field.getKey())).append(" ").append(columnType(field.getValue()));
+                }
+            }
+            schema.append("\n);\n\n");
+        }
+        writeFile("src/main/resources/schema.sql", schema.toString());
+    }
+
+    /**
+     * The column Spring Data maps a property to by default: camel case split into snake case
+     */
+    static String columnName(String property) {
+        return String.join("_", property.split("(?<!(^|[A-Z]))(?=[A-Z])|(?<!^)(?=[A-Z][a-z])")).toLowerCase(Locale.ROOT);
+    }
+
+    private static String columnType(String javaType) {
+        return switch (javaType) {
+            case "Long" -> "BIGINT";
+            case "Double" -> "DOUBLE PRECISION";
+            case "Boolean" -> "BOOLEAN";
+            default -> "VARCHAR(255)";
+        };
+    }
+
+    /**
+     * Simple name of the generated Spring Boot application class
+     */
+    public String getApplicationClassName() {
+        return projectName + "Application";
+    }
+
     /**
      * Generates the main application class
      */
     public void generateApplicationClass() throws IOException {
-        String className = projectName + "Application";
+        String className = getApplicationClassName();
         String content = """
 package %s;
 
@@ -158,13 +786,21 @@ public class %s {
         readme.append("# ").append(projectName).append("\n\n");
         readme.append("## Overview\n");
         readme.append("This project was automatically generated from specification files using SpecToCodeAgent.\n\n");
+        if (options.target().isReactive()) {
+            readme.append("It runs on Spring WebFlux with R2DBC: controllers and services return Mono and Flux, ")
+                    .append("and the tables are created from src/main/resources/schema.sql.\n\n");
+        }
         
         readme.append("## Project Structure\n");
         readme.append("- **Entities**: Domain models representing database tables\n");
         readme.append("- **DTOs**: Data Transfer Objects for API requests/responses\n");
         readme.append("- **Repositories**: Data access layer interfaces\n");
         readme.append("- **Services**: Business logic layer\n");
-        readme.append("- **Controllers**: REST API endpoints\n\n");
+        readme.append("- **Controllers**: REST API endpoints\n");
+        if (graphQLSchema != null) {
+            readme.append("- **GraphQL**: Resolvers of the schema in src/main/resources/graphql, served at /graphql\n");
+        }
+        readme.append("\n");
         
         if (!entities.isEmpty()) {
             readme.append("## Generated Entities\n");
@@ -176,7 +812,7 @@ public class %s {
         
         readme.append("## Building and Running\n\n");
         readme.append("### Prerequisites\n");
-        readme.append("- Java 17 or higher\n");
+        readme.append("- Java ").append(javaRelease()).append(" or higher\n");
         readme.append("- Maven 3.6+\n\n");
         readme.append("### Build\n");
         readme.append("```bash\n");
@@ -186,6 +822,23 @@ public class %s {
         readme.append("```bash\n");
         readme.append("mvn spring-boot:run\n");
         readme.append("```\n\n");
+        if (options.performance().enabled()) {
+            readme.append("### Performance Profile\n");
+            readme.append("Configured for the ").append(options.performance().profile().getKey())
+                    .append(" profile; JVM options are in jvm.options. Run the smoke benchmark with:\n");
+            readme.append("```bash\n");
+            readme.append("mvn test -Dtest=PerformanceSmokeTest\n");
+            readme.append("```\n\n");
+        }
+        if (options.perfHarness().enabled()) {
+            readme.append("### Load Tests and Benchmarks\n");
+            readme.append("Every entity has a load test of its CRUD endpoints (src/test/java/.../perf) and a JMH benchmark ")
+                    .append("of its service and DTO mapping (src/jmh/java). Both run only in the perf profile; ")
+                    .append("JMH results are written to target/jmh-result.json:\n");
+            readme.append("```bash\n");
+            readme.append("mvn -Pperf verify\n");
+            readme.append("```\n\n");
+        }
         
         if (!gaps.isEmpty()) {
             readme.append("## GAP Report\n");
@@ -199,14 +852,11 @@ public class %s {
     }
 
     private void createDirectory(String relativePath) throws IOException {
-        Path dirPath = outputBasePath.resolve(relativePath);
-        Files.createDirectories(dirPath);
+        output.createDirectory(relativePath);
     }
 
     private void writeFile(String relativePath, String content) throws IOException {
-        Path filePath = outputBasePath.resolve(relativePath);
-        Files.createDirectories(filePath.getParent());
-        Files.writeString(filePath, content);
+        output.write(relativePath, content);
     }
 }
 
@@ -0,0 +1,244 @@
+package cc.spec;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admits OpenAI requests within the account's rate limits before they are sent, instead of
+ * letting them fail with 429s.
+ *
+ * Requests per minute and tokens per minute are each a token bucket refilled continuously; the
+ * bucket holds the amount allowed in the burst window. A request reserves one request and its
+ * estimated tokens (prompt plus max_tokens, as the API counts them) and may start when both are
+ * available, fewer than the maximum number of requests are in flight and no 429 pause is active.
+ * Waiting requests are served by priority lane, first come first served within a lane.
+ */
+public class RateLimitScheduler {
+    public enum Priority {
+        /** A user is waiting on the response, e.g. a ZIP download */
+        INTERACTIVE,
+        /** Background generation jobs */
+        NORMAL,
+        /** Work that can yield to everything else */
+        BACKGROUND
+    }
+
+    private static final RateLimitScheduler UNLIMITED = new RateLimitScheduler(new Limits(0, 0, Integer.MAX_VALUE, Duration.ofMinutes(1)));
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Limits limits;
+    private final TokenBucket requestBucket;
+    private final TokenBucket tokenBucket;
+    private final List<Deque<Object>> lanes = new ArrayList<>();
+    private int active;
+    private long pausedUntil = System.nanoTime();
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+    private final AtomicLong pauses = new AtomicLong();
+
+    public RateLimitScheduler(Limits limits) {
+        this.limits = limits;
+        long now = System.nanoTime();
+        this.requestBucket = limits.requestsPerMinute() > 0 ? new TokenBucket(limits.requestsPerMinute(), limits.burstWindow(), now) : null;
+        this.tokenBucket = limits.tokensPerMinute() > 0 ? new TokenBucket(limits.tokensPerMinute(), limits.burstWindow(), now) : null;
+        for (int i = 0; i < Priority.values().length; i++) {
+            lanes.add(new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * A scheduler that admits every request immediately
+     */
+    public static RateLimitScheduler unlimited() {
+        return UNLIMITED;
+    }
+
+    /**
+     * Blocks until the request may be sent
+     * @param estimatedTokens Tokens the request counts against the tokens-per-minute limit
+     * @return A permit to close once the response has been read
+     */
+    public Permit acquire(Priority priority, int estimatedTokens) throws InterruptedException {
+        Object ticket = new Object();
+        Deque<Object> lane = lanes.get(priority.ordinal());
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            lane.addLast(ticket);
+            try {
+                while (true) {
+                    long now = System.nanoTime();
+                    if (!isNext(ticket, priority)) {
+                        changed.await();
+                        continue;
+                    }
+                    long wait = pausedUntil - now;
+                    if (wait <= 0 && active >= limits.maxConcurrent()) {
+                        changed.await();
+                        continue;
+                    }
+                    if (wait <= 0) {
+                        wait = Math.max(nanosUntil(requestBucket, 1, now), nanosUntil(tokenBucket, estimatedTokens, now));
+                    }
+                    if (wait <= 0) {
+                        take(requestBucket, 1);
+                        take(tokenBucket, estimatedTokens);
+                        active++;
+                        admitted.incrementAndGet();
+                        waitNanos.addAndGet(now - start);
+                        return new Permit();
+                    }
+                    changed.awaitNanos(wait);
+                }
+            } finally {
+                lane.remove(ticket);
+                changed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Holds back all requests for the given time, e.g. after a 429 with Retry-After
+     */
+    public void pause(Duration duration) {
+        lock.lock();
+        try {
+            long until = System.nanoTime() + duration.toNanos();
+            if (until - pausedUntil > 0) {
+                pausedUntil = until;
+                pauses.incrementAndGet();
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Limits getLimits() { return limits; }
+    public long getAdmitted() { return admitted.get(); }
+    public long getPauses() { return pauses.get(); }
+
+    /**
+     * Total time admitted requests spent waiting for admission
+     */
+    public Duration getWaitTime() {
+        return Duration.ofNanos(waitNanos.get());
+    }
+
+    /**
+     * Requests currently waiting for admission
+     */
+    public int getWaiting() {
+        lock.lock();
+        try {
+            int waiting = 0;
+            for (Deque<Object> lane : lanes) {
+                waiting += lane.size();
+            }
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isNext(Object ticket, Priority priority) {
+        for (int i = 0; i < priority.ordinal(); i++) {
+            if (!lanes.get(i).isEmpty()) {
+                return false;
+            }
+        }
+        return lanes.get(priority.ordinal()).peekFirst() == ticket;
+    }
+
+    private static long nanosUntil(TokenBucket bucket, int amount, long now) {
+        return bucket != null ? bucket.nanosUntil(amount, now) : 0;
+    }
+
+    private static void take(TokenBucket bucket, int amount) {
+        if (bucket != null) {
+            bucket.take(amount);
+        }
+    }
+
+    private void release() {
+        lock.lock();
+        try {
+            active--;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Admission of one request; closing it frees its concurrency slot
+     */
+    public class Permit implements AutoCloseable {
+        private boolean released;
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                release();
+            }
+        }
+    }
+
+    /**
+     * @param requestsPerMinute Requests per minute, 0 for no limit
+     * @param tokensPerMinute Tokens per minute, 0 for no limit
+     * @param maxConcurrent Requests in flight at once
+     * @param burstWindow Share of the per-minute limits that may be used at once
+     */
+    public record Limits(int requestsPerMinute, int tokensPerMinute, int maxConcurrent, Duration burstWindow) {
+        public Limits {
+            if (requestsPerMinute < 0 || tokensPerMinute < 0 || maxConcurrent < 1) {
+                throw new IllegalArgumentException("Rate limits must not be negative and max concurrency must be positive");
+            }
+            if (burstWindow.isNegative() || burstWindow.isZero() || burstWindow.compareTo(Duration.ofMinutes(1)) > 0) {
+                throw new IllegalArgumentException("Burst window must be between 0 and 1 minute, was " + burstWindow);
+            }
+        }
+    }
+
+    /**
+     * Continuously refilled bucket; guarded by the scheduler lock
+     */
+    private static class TokenBucket {
+        private final double capacity;
+        private final double refillPerNano;
+        private double available;
+        private long refilledAt;
+
+        TokenBucket(int perMinute, Duration burstWindow, long now) {
+            this.refillPerNano = perMinute / (double) TimeUnit.MINUTES.toNanos(1);
+            this.capacity = Math.max(1, refillPerNano * burstWindow.toNanos());
+            this.available = capacity;
+            this.refilledAt = now;
+        }
+
+        long nanosUntil(int amount, long now) {
+            available = Math.min(capacity, available + (now - refilledAt) * refillPerNano);
+            refilledAt = now;
+            // A request larger than the bucket waits for a full bucket instead of forever
+            double needed = Math.min(amount, capacity);
+            return available >= needed ? 0 : (long) Math.ceil((needed - available) / refillPerNano);
+        }
+
+        void take(int amount) {
+            // May go negative for requests larger than the bucket; later requests repay the debt
+            available -= amount;
+        }
+    }
+}
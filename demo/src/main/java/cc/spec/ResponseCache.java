@@ -0,0 +1,19 @@
+package cc.spec;
+
+import java.util.Optional;
+
+/**
+ * Pluggable cache of OpenAI completions, keyed by a hash of the request parameters and prompt
+ */
+public interface ResponseCache {
+
+    /**
+     * Returns the cached completion for the key, or empty if absent or expired
+     */
+    Optional<String> get(String key);
+
+    /**
+     * Stores a completion under the key
+     */
+    void put(String key, String response);
+}
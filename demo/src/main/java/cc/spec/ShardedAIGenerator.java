@@ -0,0 +1,214 @@
+package cc.spec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates a project with OpenAI one shard of entities at a time instead of in a single request.
+ *
+ * Entities are packed, in declaration order, into shards whose estimated completion fits the
+ * token budget, so no response is cut off at the completion limit. Every shard prompt carries the
+ * shared context (project, package, the names of all entities) plus the full definition of its
+ * own entities and their endpoints, including the spec text that describes them (see
+ * {@link SpecFragments}); one extra shard asks for the project scaffolding. Shards run
+ * concurrently up to the configured limit, and their file maps are merged in shard order: a path
+ * generated by several shards with different content is reported as a conflict and the first
+ * shard's version is kept.
+ */
+public class ShardedAIGenerator {
+    /**
+     * Rough completion size of the seven artifacts of an entity, and of each field in them
+     */
+    static final int TOKENS_PER_ENTITY = 1200;
+    static final int TOKENS_PER_FIELD = 80;
+    static final int TOKENS_PER_ENDPOINT = 60;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final OpenAIClient openAIClient;
+    private final Options options;
+    private final RateLimitScheduler.Priority priority;
+
+    public ShardedAIGenerator(OpenAIClient openAIClient, Options options) {
+        this(openAIClient, options, RateLimitScheduler.Priority.NORMAL);
+    }
+
+    public ShardedAIGenerator(OpenAIClient openAIClient, Options options, RateLimitScheduler.Priority priority) {
+        this.openAIClient = openAIClient;
+        this.options = options;
+        this.priority = priority;
+    }
+
+    /**
+     * Packs entities into shards of at most the token budget; an entity above the budget on its
+     * own gets a shard to itself
+     */
+    static List<List<SpecParser.EntityInfo>> plan(List<SpecParser.EntityInfo> entities,
+                                                  List<SpecParser.EndpointInfo> endpoints, int tokenBudget) {
+        List<List<SpecParser.EntityInfo>> shards = new ArrayList<>();
+        List<SpecParser.EntityInfo> current = new ArrayList<>();
+        int currentTokens = 0;
+        for (SpecParser.EntityInfo entity : entities) {
+            int tokens = estimateTokens(entity, endpoints);
+            if (!current.isEmpty() && currentTokens + tokens > tokenBudget) {
+                shards.add(current);
+                current = new ArrayList<>();
+                currentTokens = 0;
+            }
+            current.add(entity);
+            currentTokens += tokens;
+        }
+        if (!current.isEmpty()) {
+            shards.add(current);
+        }
+        return shards;
+    }
+
+    static int estimateTokens(SpecParser.EntityInfo entity, List<SpecParser.EndpointInfo> endpoints) {
+        return TOKENS_PER_ENTITY + TOKENS_PER_FIELD * entity.getFields().size()
+                + TOKENS_PER_ENDPOINT * SpecToCodeAgent.endpointsFor(entity, endpoints).size();
+    }
+
+    /**
+     * Sends all shards and merges their file maps
+     * @param specFragments The spec text of each entity, added to the prompt of its shard
+     */
+    public Result generate(String projectName, String packageName, List<SpecParser.EntityInfo> entities,
+                           List<SpecParser.EndpointInfo> endpoints, SpecFragments specFragments) {
+        List<List<SpecParser.EntityInfo>> shards = new ArrayList<>();
+        shards.add(List.of()); // scaffolding
+        shards.addAll(plan(entities, endpoints, options.shardTokenBudget()));
+        List<String> entityNames = entities.stream().map(SpecParser.EntityInfo::getName).toList();
+        System.out.println("[AI] Sending " + shards.size() + " shard(s) for " + entities.size()
+                + " entities, at most " + options.concurrency() + " at a time");
+
+        List<Future<String>> responses = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(options.concurrency(),
+                Thread.ofVirtual().name("ai-shard-", 0).factory())) {
+            for (List<SpecParser.EntityInfo> shard : shards) {
+                String prompt = buildPrompt(projectName, packageName, entityNames, shard, endpoints, specFragments);
+                responses.add(executor.submit(() -> openAIClient.chatCompletion(prompt, priority)));
+            }
+        }
+
+        Result result = new Result();
+        Map<String, Integer> owners = new LinkedHashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            String label = label(i, shards.get(i));
+            String response;
+            try {
+                response = responses.get(i).get();
+            } catch (ExecutionException e) {
+                result.failures.add("AI shard " + label + " failed: " + e.getCause().getMessage());
+                continue;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result.failures.add("AI shard " + label + " was interrupted");
+                continue;
+            }
+            result.responses.add(new ShardResponse(i, shards.get(i).stream().map(SpecParser.EntityInfo::getName).toList(), response));
+            Map<String, String> files;
+            try {
+                files = OBJECT_MAPPER.readValue(response, OBJECT_MAPPER.getTypeFactory()
+                        .constructMapType(LinkedHashMap.class, String.class, String.class));
+            } catch (IOException e) {
+                result.failures.add("Failed to parse OpenAI response of AI shard " + label + " as JSON: " + e.getMessage());
+                continue;
+            }
+            System.out.println("[AI] ✓ Shard " + label + " returned " + files.size() + " files");
+            for (Map.Entry<String, String> file : files.entrySet()) {
+                Integer owner = owners.putIfAbsent(file.getKey(), i);
+                if (owner == null) {
+                    result.files.put(file.getKey(), file.getValue());
+                } else if (!result.files.get(file.getKey()).equals(file.getValue())) {
+                    result.conflicts.add("AI shards " + label(owner, shards.get(owner)) + " and " + label
+                            + " both generated " + file.getKey() + "; kept the first version");
+                }
+            }
+        }
+        return result;
+    }
+
+    private String buildPrompt(String projectName, String packageName, List<String> entityNames,
+                               List<SpecParser.EntityInfo> shard, List<SpecParser.EndpointInfo> endpoints,
+                               SpecFragments specFragments) {
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("You are generating one part of a Java Spring Boot project. Provide only the requested files as a JSON object with file paths as keys and file contents as values.\n\n");
+        prompt.append("Project: ").append(projectName).append("\n");
+        prompt.append("Base package: ").append(packageName).append("\n");
+        prompt.append("All entities in the project: ").append(String.join(", ", entityNames)).append("\n\n");
+        if (shard.isEmpty()) {
+            prompt.append("Generate only the project scaffolding: pom.xml, the Spring Boot application class and src/main/resources/application.properties. Do not generate any entity-specific files.\n");
+            return prompt.toString();
+        }
+        prompt.append("Generate the entity, DTO, repository, service interface, service implementation, REST controller and controller test for these entities only:\n");
+        for (SpecParser.EntityInfo entity : shard) {
+            prompt.append("\n--- ENTITY ").append(entity.getName()).append(" ---\n");
+            for (Map.Entry<String, String> field : entity.getFields().entrySet()) {
+                prompt.append("Field: ").append(field.getKey()).append(" ").append(field.getValue()).append("\n");
+            }
+            for (SpecParser.EndpointInfo endpoint : SpecToCodeAgent.endpointsFor(entity, endpoints)) {
+                prompt.append("Endpoint: ").append(endpoint.getMethod()).append(" ").append(endpoint.getPath());
+                if (endpoint.getSummary() != null) {
+                    prompt.append(" - ").append(endpoint.getSummary());
+                }
+                prompt.append("\n");
+            }
+            String fragment = specFragments.forEntity(entity, endpoints);
+            if (!fragment.isEmpty()) {
+                prompt.append("Specification:\n").append(fragment);
+            }
+        }
+        return prompt.toString();
+    }
+
+    private static String label(int index, List<SpecParser.EntityInfo> shard) {
+        if (shard.isEmpty()) {
+            return "#" + index + " (scaffolding)";
+        }
+        return "#" + index + " (" + String.join(", ", shard.stream().map(SpecParser.EntityInfo::getName).toList()) + ")";
+    }
+
+    /**
+     * @param shardTokenBudget Estimated completion tokens per shard; must leave room under the completion limit
+     * @param concurrency Shards in flight at once
+     */
+    public record Options(int shardTokenBudget, int concurrency) {
+        public Options {
+            if (shardTokenBudget < 1 || shardTokenBudget > OpenAIClient.MAX_TOKENS) {
+                throw new IllegalArgumentException("Shard token budget must be between 1 and " + OpenAIClient.MAX_TOKENS);
+            }
+            if (concurrency < 1) {
+                throw new IllegalArgumentException("Shard concurrency must be positive");
+            }
+        }
+    }
+
+    public record ShardResponse(int shard, List<String> entities, String response) {
+    }
+
+    public static class Result {
+        private final Map<String, String> files = new LinkedHashMap<>();
+        private final List<String> conflicts = new ArrayList<>();
+        private final List<String> failures = new ArrayList<>();
+        private final List<ShardResponse> responses = new ArrayList<>();
+
+        /**
+         * Merged file map in shard order
+         */
+        public Map<String, String> getFiles() { return Collections.unmodifiableMap(files); }
+        public List<String> getConflicts() { return conflicts; }
+        public List<String> getFailures() { return failures; }
+        public List<ShardResponse> getResponses() { return responses; }
+    }
+}
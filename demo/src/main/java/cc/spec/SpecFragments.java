@@ -0,0 +1,177 @@
+package cc.spec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.fasterxml.jackson.dataformat.yaml.YAMLGenerator;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cuts the uploaded specs into the parts that describe each entity, so a sharded AI prompt can
+ * carry the spec text of its own entities instead of the whole upload. An entity's fragment holds
+ * its OpenAPI schema with every schema it references, the OpenAPI paths of its endpoints, its
+ * domain model entry and its GraphQL type definition, each as written in the spec.
+ */
+public class SpecFragments {
+    private static final String SCHEMA_REF_PREFIX = "#/components/schemas/";
+    private static final ObjectMapper YAML_MAPPER = new ObjectMapper(new YAMLFactory()
+            .disable(YAMLGenerator.Feature.WRITE_DOC_START_MARKER)
+            .enable(YAMLGenerator.Feature.MINIMIZE_QUOTES));
+
+    private final Map<String, Object> openAPI;
+    private final Map<String, Object> domainModel;
+    private final String graphQL;
+
+    /**
+     * @param openAPI Parsed OpenAPI document, or null
+     * @param domainModel Parsed domain model, or null
+     * @param graphQL GraphQL schema source, or null
+     */
+    public SpecFragments(Map<String, Object> openAPI, Map<String, Object> domainModel, String graphQL) {
+        this.openAPI = openAPI;
+        this.domainModel = domainModel;
+        this.graphQL = graphQL;
+    }
+
+    /**
+     * Reads the OpenAPI, domain model and GraphQL specs of an upload; a spec that cannot be read
+     * is left out, as its parse failure is already reported as a gap
+     */
+    public static SpecFragments of(Map<String, SpecSource> uploadedFiles, SpecParser specParser) {
+        Map<String, Object> openAPI = null;
+        Map<String, Object> domainModel = null;
+        String graphQL = null;
+        try {
+            if (uploadedFiles.get("openapi") != null) {
+                openAPI = specParser.parseOpenAPI(uploadedFiles.get("openapi"));
+            }
+        } catch (Exception e) {
+            System.err.println("[AI] ✗ OpenAPI spec left out of the shard prompts: " + e.getMessage());
+        }
+        try {
+            if (uploadedFiles.get("domain") != null) {
+                domainModel = specParser.parseDomainModel(uploadedFiles.get("domain"));
+            }
+        } catch (Exception e) {
+            System.err.println("[AI] ✗ Domain model left out of the shard prompts: " + e.getMessage());
+        }
+        try {
+            if (uploadedFiles.get("graphql") != null) {
+                graphQL = uploadedFiles.get("graphql").readString();
+            }
+        } catch (Exception e) {
+            System.err.println("[AI] ✗ GraphQL schema left out of the shard prompts: " + e.getMessage());
+        }
+        return new SpecFragments(openAPI, domainModel, graphQL);
+    }
+
+    /**
+     * The spec text describing an entity and its endpoints, empty if no spec mentions it
+     */
+    public String forEntity(SpecParser.EntityInfo entity, List<SpecParser.EndpointInfo> endpoints) {
+        StringBuilder fragment = new StringBuilder();
+        Map<String, Object> openAPIFragment = openAPIFragment(entity.getName(), endpoints);
+        if (!openAPIFragment.isEmpty()) {
+            fragment.append("OpenAPI:\n").append(toYaml(openAPIFragment));
+        }
+        Object domainEntry = domainEntry(entity.getName());
+        if (domainEntry != null) {
+            fragment.append("Domain model:\n").append(toYaml(Map.of("entities", Map.of(entity.getName(), domainEntry))));
+        }
+        String graphQLType = graphQLType(entity.getName());
+        if (graphQLType != null) {
+            fragment.append("GraphQL:\n").append(graphQLType).append("\n");
+        }
+        return fragment.toString();
+    }
+
+    /**
+     * The entity's component schema with the schemas it references, and the path items of the
+     * endpoints the generator assigns to it
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> openAPIFragment(String entityName, List<SpecParser.EndpointInfo> endpoints) {
+        Map<String, Object> fragment = new LinkedHashMap<>();
+        if (openAPI == null) {
+            return fragment;
+        }
+        Map<String, Object> components = openAPI.get("components") instanceof Map<?, ?> map ? (Map<String, Object>) map : Map.of();
+        Map<String, Object> schemas = components.get("schemas") instanceof Map<?, ?> map ? (Map<String, Object>) map : Map.of();
+        Map<String, Object> paths = openAPI.get("paths") instanceof Map<?, ?> map ? (Map<String, Object>) map : Map.of();
+
+        Map<String, Object> pathItems = new LinkedHashMap<>();
+        for (SpecParser.EndpointInfo endpoint : endpoints) {
+            if (endpoint.getPath().contains(entityName.toLowerCase()) && paths.containsKey(endpoint.getPath())) {
+                pathItems.putIfAbsent(endpoint.getPath(), paths.get(endpoint.getPath()));
+            }
+        }
+
+        Map<String, Object> referenced = new LinkedHashMap<>();
+        Deque<Object> pending = new ArrayDeque<>();
+        if (schemas.containsKey(entityName)) {
+            referenced.put(entityName, schemas.get(entityName));
+            pending.push(schemas.get(entityName));
+        }
+        pending.addAll(pathItems.values());
+        while (!pending.isEmpty()) {
+            Object node = pending.pop();
+            if (node instanceof Map<?, ?> map) {
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    if ("$ref".equals(entry.getKey()) && entry.getValue() instanceof String ref && ref.startsWith(SCHEMA_REF_PREFIX)) {
+                        String name = ref.substring(SCHEMA_REF_PREFIX.length());
+                        if (schemas.containsKey(name) && !referenced.containsKey(name)) {
+                            referenced.put(name, schemas.get(name));
+                            pending.push(schemas.get(name));
+                        }
+                    } else {
+                        pending.push(entry.getValue());
+                    }
+                }
+            } else if (node instanceof List<?> list) {
+                list.forEach(pending::push);
+            }
+        }
+
+        if (!referenced.isEmpty()) {
+            fragment.put("components", Map.of("schemas", referenced));
+        }
+        if (!pathItems.isEmpty()) {
+            fragment.put("paths", pathItems);
+        }
+        return fragment;
+    }
+
+    private Object domainEntry(String entityName) {
+        if (domainModel == null || !(domainModel.get("entities") instanceof Map<?, ?> entities)) {
+            return null;
+        }
+        return entities.get(entityName);
+    }
+
+    /**
+     * The type definition of the entity as written in the schema, descriptions included
+     */
+    private String graphQLType(String entityName) {
+        if (graphQL == null) {
+            return null;
+        }
+        Matcher matcher = Pattern.compile("(?m)^(?:\"\"\"[^\"]*\"\"\"\\s*|\"[^\"\\n]*\"\\s*)?type\\s+"
+                + Pattern.quote(entityName) + "\\b[^{]*\\{[^}]*}").matcher(graphQL);
+        return matcher.find() ? matcher.group() : null;
+    }
+
+    private static String toYaml(Object value) {
+        try {
+            return YAML_MAPPER.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            return value + "\n";
+        }
+    }
+}
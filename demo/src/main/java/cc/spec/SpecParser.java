@@ -1,11 +1,20 @@
 package cc.spec;
 
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import org.springframework.boot.convert.DurationStyle;
+
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.util.*;
 
 /**
@@ -24,42 +33,119 @@ public class SpecParser {
      * Parses an OpenAPI/Swagger specification file
      */
     public Map<String, Object> parseOpenAPI(Path filePath) throws IOException {
-        String content = Files.readString(filePath);
-        if (filePath.toString().endsWith(".yaml") || filePath.toString().endsWith(".yml")) {
-            return yamlMapper.readValue(content, Map.class);
-        } else {
-            return jsonMapper.readValue(content, Map.class);
+        return parseOpenAPI(SpecSource.of(filePath));
+    }
+
+    public Map<String, Object> parseOpenAPI(SpecSource source) throws IOException {
+        try (InputStream in = source.openStream()) {
+            return parseOpenAPI(in, source.isYaml());
+        }
+    }
+
+    /**
+     * Parses an OpenAPI/Swagger document from a stream, e.g. an upload that was never stored
+     */
+    public Map<String, Object> parseOpenAPI(InputStream in, boolean yaml) throws IOException {
+        return (yaml ? yamlMapper : jsonMapper).readValue(in, Map.class);
+    }
+
+    /**
+     * Extracts title, entities and endpoints from an OpenAPI file in a single streaming pass,
+     * reading tokens straight from the file channel instead of building the document tree
+     */
+    public OpenAPIExtraction extractOpenAPIStreaming(Path filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ);
+             InputStream in = Channels.newInputStream(channel)) {
+            return extractOpenAPIStreaming(in, isYaml(filePath));
+        }
+    }
+
+    /**
+     * Streaming extraction from an uploaded spec; in-memory content is parsed in place
+     */
+    public OpenAPIExtraction extractOpenAPIStreaming(SpecSource source) throws IOException {
+        if (source instanceof SpecSource.MemorySource memory) {
+            return extractOpenAPIStreaming(memory.asByteBuffer(), source.isYaml());
+        }
+        try (InputStream in = source.openStream()) {
+            return extractOpenAPIStreaming(in, source.isYaml());
+        }
+    }
+
+    public OpenAPIExtraction extractOpenAPIStreaming(InputStream in, boolean yaml) throws IOException {
+        return new StreamingOpenAPIExtractor(factory(yaml)).extract(in);
+    }
+
+    /**
+     * Streaming extraction from a buffer; heap buffers are parsed without copying
+     */
+    public OpenAPIExtraction extractOpenAPIStreaming(ByteBuffer buffer, boolean yaml) throws IOException {
+        StreamingOpenAPIExtractor extractor = new StreamingOpenAPIExtractor(factory(yaml));
+        if (buffer.hasArray()) {
+            return extractor.extract(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
         }
+        byte[] content = new byte[buffer.remaining()];
+        buffer.duplicate().get(content);
+        return extractor.extract(content, 0, content.length);
     }
 
     /**
-     * Parses a GraphQL schema file
+     * Extracts title, entities and endpoints from an already parsed OpenAPI document tree
      */
-    public String parseGraphQL(Path filePath) throws IOException {
-        return Files.readString(filePath);
+    @SuppressWarnings("unchecked")
+    public OpenAPIExtraction extractOpenAPI(Map<String, Object> openAPISpec) {
+        String title = null;
+        Map<String, Object> info = (Map<String, Object>) openAPISpec.get("info");
+        if (info != null && info.containsKey("title")) {
+            title = info.get("title").toString();
+        }
+        OpenAPISchemaResolver resolver = schemaResolver(openAPISpec);
+        return new OpenAPIExtraction(title, resolver.resolveEntities(), extractEndpointsFromOpenAPI(openAPISpec),
+                resolver.getWarnings());
+    }
+
+    /**
+     * Parses a GraphQL schema file (SDL) into entities, relationships and root operations
+     */
+    public GraphQLSchema parseGraphQL(Path filePath) throws IOException {
+        return new GraphQLSchemaParser(Files.readString(filePath)).parse();
+    }
+
+    public GraphQLSchema parseGraphQL(SpecSource source) throws IOException {
+        return new GraphQLSchemaParser(source.readString()).parse();
     }
 
     /**
      * Parses a domain model YAML file
      */
     public Map<String, Object> parseDomainModel(Path filePath) throws IOException {
-        String content = Files.readString(filePath);
-        return yamlMapper.readValue(content, Map.class);
+        return parseDomainModel(SpecSource.of(filePath));
+    }
+
+    public Map<String, Object> parseDomainModel(SpecSource source) throws IOException {
+        return parseYaml(source);
     }
 
     /**
      * Parses a metadata YAML file
      */
     public Map<String, Object> parseMetadata(Path filePath) throws IOException {
-        String content = Files.readString(filePath);
-        return yamlMapper.readValue(content, Map.class);
+        return parseMetadata(SpecSource.of(filePath));
+    }
+
+    public Map<String, Object> parseMetadata(SpecSource source) throws IOException {
+        return parseYaml(source);
     }
 
     /**
      * Parses output preferences YAML file
      */
     public Map<String, Object> parseOutputPreferences(Path filePath) throws IOException {
-        String content = Files.readString(filePath);
+        return parseOutputPreferences(SpecSource.of(filePath));
+    }
+
+    public Map<String, Object> parseOutputPreferences(SpecSource source) throws IOException {
+        String content = source.readString();
         if (content.trim().isEmpty()) {
             return new HashMap<>();
         }
@@ -67,34 +153,37 @@ public class SpecParser {
     }
 
     /**
-     * Extracts entities from OpenAPI spec
+     * Parses a YAML document from a stream
+     */
+    public Map<String, Object> parseYaml(InputStream in) throws IOException {
+        return yamlMapper.readValue(in, Map.class);
+    }
+
+    private Map<String, Object> parseYaml(SpecSource source) throws IOException {
+        try (InputStream in = source.openStream()) {
+            return parseYaml(in);
+        }
+    }
+
+    private JsonFactory factory(boolean yaml) {
+        return yaml ? yamlMapper.getFactory() : jsonMapper.getFactory();
+    }
+
+    /**
+     * Extracts entities from OpenAPI spec, resolving $ref, allOf and inline objects
      */
-    @SuppressWarnings("unchecked")
     public List<EntityInfo> extractEntitiesFromOpenAPI(Map<String, Object> openAPISpec) {
-        List<EntityInfo> entities = new ArrayList<>();
+        return schemaResolver(openAPISpec).resolveEntities();
+    }
+
+    @SuppressWarnings("unchecked")
+    private OpenAPISchemaResolver schemaResolver(Map<String, Object> openAPISpec) {
+        Map<String, Object> schemas = null;
         Map<String, Object> components = (Map<String, Object>) openAPISpec.get("components");
         if (components != null) {
-            Map<String, Object> schemas = (Map<String, Object>) components.get("schemas");
-            if (schemas != null) {
-                for (Map.Entry<String, Object> entry : schemas.entrySet()) {
-                    String entityName = entry.getKey();
-                    Map<String, Object> schema = (Map<String, Object>) entry.getValue();
-                    EntityInfo entity = new EntityInfo(entityName);
-                    
-                    Map<String, Object> properties = (Map<String, Object>) schema.get("properties");
-                    if (properties != null) {
-                        for (Map.Entry<String, Object> propEntry : properties.entrySet()) {
-                            String fieldName = propEntry.getKey();
-                            Map<String, Object> fieldSchema = (Map<String, Object>) propEntry.getValue();
-                            String fieldType = (String) fieldSchema.get("type");
-                            entity.addField(fieldName, mapOpenAPITypeToJava(fieldType));
-                        }
-                    }
-                    entities.add(entity);
-                }
-            }
+            schemas = (Map<String, Object>) components.get("schemas");
         }
-        return entities;
+        return new OpenAPISchemaResolver(schemas != null ? schemas : Map.of());
     }
 
     /**
@@ -121,7 +210,16 @@ public class SpecParser {
     }
 
     /**
-     * Extracts entities from domain model
+     * Extracts entities from domain model. Besides its fields, an entity may carry cache hints for
+     * generated projects with caching enabled:
+     * <pre>
+     * Order:
+     *   cache:
+     *     maximumSize: 5000
+     *     expireAfterWrite: 10m
+     * </pre>
+     * or {@code cache: false} to leave it uncached.
+     * @throws IllegalArgumentException if cache hints have the wrong type or an invalid value
      */
     @SuppressWarnings("unchecked")
     public List<EntityInfo> extractEntitiesFromDomainModel(Map<String, Object> domainModel) {
@@ -141,13 +239,60 @@ public class SpecParser {
                         entity.addField(fieldName, mapDomainTypeToJava(fieldType));
                     }
                 }
+                if (entityData.get("cache") != null) {
+                    entity.setCache(parseCacheHints("entities." + entityName + ".cache", entityData.get("cache")));
+                }
                 entities.add(entity);
             }
         }
         return entities;
     }
 
-    private String mapOpenAPITypeToJava(String openAPIType) {
+    private static CacheHints parseCacheHints(String path, Object value) {
+        if (value instanceof Boolean enabled) {
+            return new CacheHints(enabled, null, null);
+        }
+        if (!(value instanceof Map<?, ?> hints)) {
+            throw new IllegalArgumentException(path + " must be a map or a boolean");
+        }
+        Object enabled = hints.get("enabled");
+        if (enabled != null && !(enabled instanceof Boolean)) {
+            throw new IllegalArgumentException(path + ".enabled must be true or false, was '" + enabled + "'");
+        }
+        Object maximumSize = hints.get("maximumSize");
+        if (maximumSize != null && (!(maximumSize instanceof Integer || maximumSize instanceof Long)
+                || ((Number) maximumSize).longValue() < 1)) {
+            throw new IllegalArgumentException(path + ".maximumSize must be a positive integer, was '" + maximumSize + "'");
+        }
+        Object expireAfterWrite = hints.get("expireAfterWrite");
+        return new CacheHints((Boolean) enabled,
+                maximumSize != null ? ((Number) maximumSize).longValue() : null,
+                expireAfterWrite != null ? parseDuration(path + ".expireAfterWrite", expireAfterWrite) : null);
+    }
+
+    /**
+     * Parses a positive duration written like a Spring property, e.g. 10m or PT10M; bare numbers
+     * are rejected because their unit would be ambiguous
+     */
+    static Duration parseDuration(String path, Object value) {
+        if (value instanceof String text) {
+            try {
+                Duration duration = DurationStyle.detectAndParse(text);
+                if (!duration.isNegative() && !duration.isZero()) {
+                    return duration;
+                }
+            } catch (IllegalArgumentException e) {
+                // reported below
+            }
+        }
+        throw new IllegalArgumentException(path + " must be a positive duration such as 10m or PT10M, was '" + value + "'");
+    }
+
+    private boolean isYaml(Path filePath) {
+        return filePath.toString().endsWith(".yaml") || filePath.toString().endsWith(".yml");
+    }
+
+    static String mapOpenAPITypeToJava(String openAPIType) {
         if (openAPIType == null) return "String";
         return switch (openAPIType.toLowerCase()) {
             case "string" -> "String";
@@ -173,6 +318,7 @@ public class SpecParser {
     public static class EntityInfo {
         private final String name;
         private final Map<String, String> fields = new LinkedHashMap<>();
+        private CacheHints cache;
 
         public EntityInfo(String name) {
             this.name = name;
@@ -184,6 +330,124 @@ public class SpecParser {
 
         public String getName() { return name; }
         public Map<String, String> getFields() { return fields; }
+
+        /**
+         * Cache hints from the domain model, null if it has none
+         */
+        public CacheHints getCache() { return cache; }
+        public void setCache(CacheHints cache) { this.cache = cache; }
+    }
+
+    /**
+     * Per-entity overrides of the caching output preferences; null components keep the preference
+     */
+    public record CacheHints(Boolean enabled, Long maximumSize, Duration expireAfterWrite) {
+    }
+
+    /**
+     * The parts of an OpenAPI document the generator uses
+     */
+    public static class OpenAPIExtraction {
+        private final String title;
+        private final List<EntityInfo> entities;
+        private final List<EndpointInfo> endpoints;
+        private final List<String> warnings;
+
+        public OpenAPIExtraction(String title, List<EntityInfo> entities, List<EndpointInfo> endpoints,
+                                 List<String> warnings) {
+            this.title = title;
+            this.entities = entities;
+            this.endpoints = endpoints;
+            this.warnings = warnings;
+        }
+
+        public String getTitle() { return title; }
+        public List<EntityInfo> getEntities() { return entities; }
+        public List<EndpointInfo> getEndpoints() { return endpoints; }
+
+        /**
+         * Schema properties no field is generated for and unresolved references
+         */
+        public List<String> getWarnings() { return warnings; }
+    }
+
+    /**
+     * The parts of a GraphQL schema the generator uses: object types become entities, fields of
+     * object types become relationships and Query and Mutation fields become operations
+     */
+    public static class GraphQLSchema {
+        private final String source;
+        private final List<EntityInfo> entities;
+        private final List<GraphQLRelationship> relationships;
+        private final List<GraphQLOperation> operations;
+        private final List<String> customScalars;
+        private final List<String> warnings;
+
+        public GraphQLSchema(String source, List<EntityInfo> entities, List<GraphQLRelationship> relationships,
+                             List<GraphQLOperation> operations, List<String> customScalars, List<String> warnings) {
+            this.source = source;
+            this.entities = entities;
+            this.relationships = relationships;
+            this.operations = operations;
+            this.customScalars = customScalars;
+            this.warnings = warnings;
+        }
+
+        /**
+         * The SDL as uploaded, served by the generated project
+         */
+        public String getSource() { return source; }
+        public List<EntityInfo> getEntities() { return entities; }
+        public List<GraphQLRelationship> getRelationships() { return relationships; }
+        public List<GraphQLOperation> getOperations() { return operations; }
+
+        /**
+         * Scalars the schema declares besides the built-in ones; the generated project serves them as strings
+         */
+        public List<String> getCustomScalars() { return customScalars; }
+
+        /**
+         * Parts of the schema no resolver is generated for
+         */
+        public List<String> getWarnings() { return warnings; }
+
+        /**
+         * Adds the foreign key fields the relationships join on to the given entities unless they
+         * declare them already, e.g. when a domain model redeclares a GraphQL type
+         */
+        public void addForeignKeys(List<EntityInfo> declarations) {
+            Map<String, EntityInfo> byName = new HashMap<>();
+            for (EntityInfo entity : declarations) {
+                byName.put(entity.getName(), entity);
+            }
+            for (GraphQLRelationship relationship : relationships) {
+                EntityInfo holder = byName.get(relationship.many() ? relationship.target() : relationship.owner());
+                if (holder != null) {
+                    holder.getFields().putIfAbsent(relationship.foreignKey(), "Long");
+                }
+            }
+        }
+    }
+
+    /**
+     * A field of an object type whose type is another object type
+     * @param many Whether the field is a list, i.e. the target rows hold the foreign key
+     * @param foreignKey Field joining the two entities, on the owner for single targets and on the target for lists
+     */
+    public record GraphQLRelationship(String owner, String field, String target, boolean many, String foreignKey) {
+    }
+
+    /**
+     * A Query or Mutation field the generator can resolve with the entity's service
+     * @param entity The entity the operation reads or writes
+     * @param idArgument Name of the ID argument of GET, UPDATE and DELETE, otherwise null
+     * @param inputArgument Name of the input object argument of CREATE and UPDATE, otherwise null
+     * @param paged Whether a LIST declares page or size arguments
+     * @param returnType GraphQL type the operation returns, without list and non-null markers
+     */
+    public record GraphQLOperation(String name, Action action, String entity, String idArgument, String inputArgument,
+                                   boolean paged, String returnType) {
+        public enum Action { LIST, GET, CREATE, UPDATE, DELETE }
     }
 
     public static class EndpointInfo {
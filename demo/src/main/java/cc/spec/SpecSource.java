@@ -0,0 +1,105 @@
+package cc.spec;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An uploaded specification file, held either in memory or in a file
+ */
+public interface SpecSource {
+
+    /**
+     * File name as uploaded; its extension decides between YAML and JSON
+     */
+    String getFileName();
+
+    InputStream openStream() throws IOException;
+
+    String readString() throws IOException;
+
+    /**
+     * Whether the content can still be read; a file source whose file was removed cannot
+     */
+    default boolean exists() {
+        return true;
+    }
+
+    default boolean isYaml() {
+        String name = getFileName();
+        return name.endsWith(".yaml") || name.endsWith(".yml");
+    }
+
+    static SpecSource of(Path file) {
+        return new FileSource(file);
+    }
+
+    static SpecSource of(String fileName, byte[] content) {
+        return new MemorySource(fileName, content);
+    }
+
+    /**
+     * Wraps each path of a spec bundle, skipping absent entries
+     */
+    static Map<String, SpecSource> of(Map<String, Path> files) {
+        Map<String, SpecSource> sources = new LinkedHashMap<>();
+        for (Map.Entry<String, Path> entry : files.entrySet()) {
+            if (entry.getValue() != null) {
+                sources.put(entry.getKey(), of(entry.getValue()));
+            }
+        }
+        return sources;
+    }
+
+    record FileSource(Path file) implements SpecSource {
+        @Override
+        public String getFileName() {
+            return file.getFileName().toString();
+        }
+
+        @Override
+        public InputStream openStream() throws IOException {
+            return Files.newInputStream(file);
+        }
+
+        @Override
+        public String readString() throws IOException {
+            return Files.readString(file);
+        }
+
+        @Override
+        public boolean exists() {
+            return Files.exists(file);
+        }
+    }
+
+    record MemorySource(String fileName, byte[] content) implements SpecSource {
+        @Override
+        public String getFileName() {
+            return fileName;
+        }
+
+        @Override
+        public InputStream openStream() {
+            return new ByteArrayInputStream(content);
+        }
+
+        @Override
+        public String readString() {
+            return new String(content, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * View of the content without copying it
+         */
+        public ByteBuffer asByteBuffer() {
+            return ByteBuffer.wrap(content);
+        }
+    }
+}
@@ -1,9 +1,17 @@
 package cc.spec;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
 
 import cc.spec.GapReportGenerator;
 import cc.spec.SpecParser;
@@ -23,6 +31,16 @@ public class SpecToCodeAgent {
     private final String referenceSpecFilePath;
     private final SpecParser specParser;
     private final GapReportGenerator gapReportGenerator;
+    private Executor artifactExecutor;
+    private OpenAIClient openAIClient;
+    private boolean streamingEnabled;
+    private GenerationCache generationCache;
+    private boolean streamingOpenAPI;
+    private boolean incremental;
+    private WriteBehindOutputSink.Options writeBehind;
+    private ShardedAIGenerator.Options aiSharding;
+    private RateLimitScheduler.Priority aiPriority = RateLimitScheduler.Priority.NORMAL;
+    private GenerationMetrics metrics = GenerationMetrics.NONE;
 
     /**
      * Constructs the agent with the path to the reference specification file.
@@ -34,6 +52,83 @@ public class SpecToCodeAgent {
         this.gapReportGenerator = new GapReportGenerator();
     }
 
+    /**
+     * Enables parallel artifact generation: every entity x artifact pair becomes a task on the
+     * given executor (e.g. virtual threads or a fork-join pool). Pass null to generate sequentially.
+     * The executor is not shut down by the agent.
+     */
+    public void setArtifactExecutor(Executor artifactExecutor) {
+        this.artifactExecutor = artifactExecutor;
+    }
+
+    /**
+     * Uses the given client for AI generation instead of the process-wide one
+     */
+    public void setOpenAIClient(OpenAIClient openAIClient) {
+        this.openAIClient = openAIClient;
+    }
+
+    /**
+     * Scheduler lane of this agent's AI requests, e.g. INTERACTIVE when a user waits on the result
+     */
+    public void setAIPriority(RateLimitScheduler.Priority aiPriority) {
+        this.aiPriority = aiPriority;
+    }
+
+    /**
+     * Enables streamed AI responses: generated files are materialized while the completion is still arriving
+     */
+    public void setStreamingEnabled(boolean streamingEnabled) {
+        this.streamingEnabled = streamingEnabled;
+    }
+
+    /**
+     * Enables the content-addressed generation cache; repeated spec bundles are materialized from it
+     */
+    public void setGenerationCache(GenerationCache generationCache) {
+        this.generationCache = generationCache;
+    }
+
+    /**
+     * Extracts OpenAPI entities and endpoints with the streaming token-level parser instead of
+     * building the full document tree
+     */
+    public void setStreamingOpenAPI(boolean streamingOpenAPI) {
+        this.streamingOpenAPI = streamingOpenAPI;
+    }
+
+    /**
+     * Enables incremental regeneration: when the output directory holds the manifest of a previous
+     * classic run, only entities whose inputs changed are re-rendered, unchanged files are left
+     * untouched and files no longer generated are removed. AI runs always regenerate fully.
+     */
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    /**
+     * Writes generated files to the output directory on background writer threads; null writes
+     * them synchronously on the rendering thread
+     */
+    public void setWriteBehind(WriteBehindOutputSink.Options writeBehind) {
+        this.writeBehind = writeBehind;
+    }
+
+    /**
+     * Generates AI projects in entity shards sent concurrently instead of in one prompt; null
+     * sends a single prompt
+     */
+    public void setAISharding(ShardedAIGenerator.Options aiSharding) {
+        this.aiSharding = aiSharding;
+    }
+
+    /**
+     * Records phase timings, counts and sizes of every run
+     */
+    public void setMetrics(GenerationMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     /**
      * Main method to generate a complete project from uploaded specification files
      * @param uploadedFiles Map of file types to their paths
@@ -41,58 +136,391 @@ public class SpecToCodeAgent {
      * @param useAI Whether to use AI-powered code generation
      */
     public GenerationResult generateProject(Map<String, Path> uploadedFiles, Path outputDirectory, boolean useAI) throws IOException {
+        return generateProject(uploadedFiles, outputDirectory, useAI, ProgressListener.NONE);
+    }
+
+    /**
+     * Generates a complete project, reporting each pipeline phase to the given listener
+     * @param uploadedFiles Map of file types to their paths
+     * @param outputDirectory Where to generate the project
+     * @param useAI Whether to use AI-powered code generation
+     * @param listener Receives phase and artifact progress notifications
+     */
+    public GenerationResult generateProject(Map<String, Path> uploadedFiles, Path outputDirectory, boolean useAI,
+                                            ProgressListener listener) throws IOException {
+        return generate(SpecSource.of(uploadedFiles), outputDirectory, null, useAI, listener);
+    }
+
+    /**
+     * Generates a complete project from specs that need not be files, e.g. uploads held in memory
+     * @param sources Map of file types to their contents
+     * @param outputDirectory Where to generate the project
+     * @param useAI Whether to use AI-powered code generation
+     * @param listener Receives phase and artifact progress notifications
+     */
+    public GenerationResult generateFromSources(Map<String, SpecSource> sources, Path outputDirectory, boolean useAI,
+                                                ProgressListener listener) throws IOException {
+        return generate(sources, outputDirectory, null, useAI, listener);
+    }
+
+    /**
+     * Generates a complete project from in-memory or file specs into an output sink
+     * @see #generateProject(Map, OutputSink, boolean, ProgressListener)
+     */
+    public GenerationResult generateFromSources(Map<String, SpecSource> sources, OutputSink sink, boolean useAI,
+                                                ProgressListener listener) throws IOException {
+        return generate(sources, null, sink, useAI, listener);
+    }
+
+    /**
+     * Generates a complete project into an output sink instead of a directory, e.g. straight into a
+     * ZIP stream. Nothing is written to disk; the generation cache and incremental mode do not apply.
+     * @param uploadedFiles Map of file types to their paths
+     * @param sink Receives every generated file as soon as it is rendered
+     * @param useAI Whether to use AI-powered code generation
+     * @param listener Receives phase and artifact progress notifications
+     */
+    public GenerationResult generateProject(Map<String, Path> uploadedFiles, OutputSink sink, boolean useAI,
+                                            ProgressListener listener) throws IOException {
+        return generate(SpecSource.of(uploadedFiles), null, sink, useAI, listener);
+    }
+
+    private GenerationResult generate(Map<String, SpecSource> uploadedFiles, Path outputDirectory, OutputSink sink,
+                                      boolean useAI, ProgressListener listener) throws IOException {
+        String mode = !useAI ? "classic" : aiSharding != null ? "ai-sharded" : "ai";
+        GenerationMetrics.Phase run = metrics.run(mode);
+        try {
+            return runPipeline(uploadedFiles, outputDirectory, sink, useAI, mode, listener);
+        } finally {
+            run.stop();
+        }
+    }
+
+    private GenerationResult runPipeline(Map<String, SpecSource> uploadedFiles, Path outputDirectory, OutputSink sink,
+                                         boolean useAI, String mode, ProgressListener listener) throws IOException {
         // Parse uploaded files
-        Map<String, Object> openAPISpec = null;
-        String graphQLSchema = null;
+        SpecParser.OpenAPIExtraction openAPI = null;
+        SpecParser.GraphQLSchema graphQLSchema = null;
         Map<String, Object> domainModel = null;
         Map<String, Object> metadata = null;
         Map<String, Object> outputPreferences = null;
 
-        // If AI is enabled and any spec file is present, call OpenAIClient for code generation
-        if (useAI) {
-            try {
-                OpenAIClient openAIClient = new OpenAIClient();
-                StringBuilder promptBuilder = new StringBuilder();
-                promptBuilder.append("Generate a Java Spring Boot project using the following specification files. Provide only the main code files as a JSON object with file paths as keys and file contents as values.\n");
-                promptBuilder.append("Include all necessary Spring Boot components: entities, DTOs, repositories, services, controllers, and tests.\n\n");
-                
-                System.out.println("[AI] Preparing to send spec files to OpenAI agent...");
-                int fileCount = 0;
-                for (Map.Entry<String, Path> entry : uploadedFiles.entrySet()) {
-                    String key = entry.getKey();
-                    Path path = entry.getValue();
-                    if (path != null && Files.exists(path)) {
-                        try {
-                            String content = Files.readString(path);
-                            promptBuilder.append("\n--- ").append(key.toUpperCase()).append(" SPECIFICATION FILE ---\n");
-                            promptBuilder.append("File type: ").append(key).append("\n");
-                            promptBuilder.append("File name: ").append(path.getFileName()).append("\n");
-                            promptBuilder.append("Content:\n").append(content).append("\n");
-                            promptBuilder.append("--- END ").append(key.toUpperCase()).append(" FILE ---\n");
-                            fileCount++;
-                            System.out.println("[AI] ✓ Added " + key + " file: " + path.getFileName() + " (" + content.length() + " chars)");
-                        } catch (Exception e) {
-                            System.err.println("[AI] ✗ Failed to read " + key + " file: " + e.getMessage());
-                            gapReportGenerator.addGap("Failed to read " + key + " file for AI: " + e.getMessage());
-                        }
+        GenerationManifest manifest = null;
+        if (incremental && useAI) {
+            System.out.println("[INCREMENTAL] AI generation always regenerates the full project");
+        } else if (incremental && outputDirectory != null) {
+            manifest = GenerationManifest.open(outputDirectory);
+        }
+
+        // Serve repeated bundles from the generation cache without running the pipeline.
+        // An incremental run over an existing output keeps its files instead.
+        String cacheKey = null;
+        if (generationCache != null && outputDirectory != null && (manifest == null || !manifest.hasPrevious())) {
+            listener.onPhase("cache");
+            cacheKey = computeCacheKey(uploadedFiles, mode);
+            Optional<GenerationResult> cached = generationCache.materialize(cacheKey, outputDirectory);
+            if (cached.isPresent()) {
+                System.out.println("[CACHE] ✓ Served from generation cache: " + cacheKey);
+                metrics.countCacheHit(mode);
+                return cached.get();
+            }
+        }
+        WriteBehindOutputSink writeBehindSink = sink == null && manifest == null && writeBehind != null
+                ? new WriteBehindOutputSink(outputDirectory, writeBehind)
+                : null;
+        OutputSink output = metrics.meter(sink != null ? sink
+                : manifest != null ? manifest
+                : writeBehindSink != null ? writeBehindSink
+                : new DiskOutputSink(outputDirectory));
+        // Queued writes must reach the disk before the result is cached or returned; a failed
+        // close is suppressed by a pipeline failure instead of replacing it
+        GenerationResult result;
+        boolean aiSucceeded;
+        try (writeBehindSink) {
+            int gapsBeforeAI = gapReportGenerator.getGaps().size();
+
+            // If AI is enabled and any spec file is present, call OpenAIClient for code generation
+            if (useAI && aiSharding == null) {
+                listener.onPhase("ai");
+                GenerationMetrics.Phase ai = metrics.phase("ai");
+                try {
+                    generateWithAI(uploadedFiles, output);
+                } finally {
+                    ai.stop();
+                }
+            }
+
+            aiSucceeded = gapReportGenerator.getGaps().size() == gapsBeforeAI;
+
+            boolean hasOpenAPI = uploadedFiles.containsKey("openapi") && uploadedFiles.get("openapi") != null;
+            boolean hasGraphQL = uploadedFiles.containsKey("graphql") && uploadedFiles.get("graphql") != null;
+            boolean hasDomainModel = uploadedFiles.containsKey("domain") && uploadedFiles.get("domain") != null;
+
+            listener.onPhase("parse");
+            gapReportGenerator.checkMissingSpecFiles(hasOpenAPI, hasGraphQL, hasDomainModel);
+
+            // Parse OpenAPI spec
+            if (hasOpenAPI) {
+                GenerationMetrics.Phase parse = metrics.phase("parse.openapi");
+                try {
+                    if (streamingOpenAPI) {
+                        openAPI = specParser.extractOpenAPIStreaming(uploadedFiles.get("openapi"));
+                    } else {
+                        openAPI = specParser.extractOpenAPI(specParser.parseOpenAPI(uploadedFiles.get("openapi")));
+                    }
+                    for (String warning : openAPI.getWarnings()) {
+                        gapReportGenerator.addGap(warning);
                     }
+                } catch (Exception e) {
+                    gapReportGenerator.addGap("Failed to parse OpenAPI specification: " + e.getMessage());
+                } finally {
+                    parse.stop();
                 }
-                
-                if (fileCount == 0) {
-                    throw new IOException("No spec files were successfully read to send to OpenAI");
+            }
+
+            // Parse GraphQL schema
+            if (hasGraphQL) {
+                GenerationMetrics.Phase parse = metrics.phase("parse.graphql");
+                try {
+                    graphQLSchema = specParser.parseGraphQL(uploadedFiles.get("graphql"));
+                    for (String warning : graphQLSchema.getWarnings()) {
+                        gapReportGenerator.addGap(warning);
+                    }
+                } catch (Exception e) {
+                    gapReportGenerator.addGap("Failed to parse GraphQL schema: " + e.getMessage());
+                } finally {
+                    parse.stop();
                 }
+            }
+
+            // Parse domain model
+            if (hasDomainModel) {
+                GenerationMetrics.Phase parse = metrics.phase("parse.domain");
+                try {
+                    domainModel = specParser.parseDomainModel(uploadedFiles.get("domain"));
+                } catch (Exception e) {
+                    gapReportGenerator.addGap("Failed to parse domain model: " + e.getMessage());
+                } finally {
+                    parse.stop();
+                }
+            }
+
+            // Parse metadata
+            if (uploadedFiles.containsKey("metadata") && uploadedFiles.get("metadata") != null) {
+                GenerationMetrics.Phase parse = metrics.phase("parse.metadata");
+                try {
+                    metadata = specParser.parseMetadata(uploadedFiles.get("metadata"));
+                } catch (Exception e) {
+                    // Metadata is optional, just log
+                } finally {
+                    parse.stop();
+                }
+            }
+
+            // Parse output preferences
+            if (uploadedFiles.containsKey("outputprefs") && uploadedFiles.get("outputprefs") != null) {
+                GenerationMetrics.Phase parse = metrics.phase("parse.outputprefs");
+                try {
+                    outputPreferences = specParser.parseOutputPreferences(uploadedFiles.get("outputprefs"));
+                } catch (Exception e) {
+                    // Output preferences are optional
+                } finally {
+                    parse.stop();
+                }
+            }
+
+            // Extract project information
+            listener.onPhase("extract");
+            String projectName = extractProjectName(openAPI, metadata);
+            String packageName = extractPackageName(projectName, outputPreferences);
+
+            // Extract entities
+            List<SpecParser.EntityInfo> entities = new ArrayList<>();
+            if (openAPI != null) {
+                entities.addAll(openAPI.getEntities());
+            }
+            if (graphQLSchema != null) {
+                entities.addAll(graphQLSchema.getEntities());
+            }
+            if (domainModel != null) {
+                try {
+                    entities.addAll(specParser.extractEntitiesFromDomainModel(domainModel));
+                } catch (IllegalArgumentException e) {
+                    gapReportGenerator.addGap("Failed to extract entities from domain model: " + e.getMessage());
+                }
+            }
+
+            // Extract endpoints
+            List<SpecParser.EndpointInfo> endpoints = new ArrayList<>();
+            if (openAPI != null) {
+                endpoints.addAll(openAPI.getEndpoints());
+            }
+
+            metrics.countEndpoints(endpoints.size());
+
+            // Validate entities
+            listener.onPhase("validate");
+            for (SpecParser.EntityInfo entity : entities) {
+                gapReportGenerator.checkEntityCompleteness(entity);
+            }
+
+            // Validate endpoints
+            for (SpecParser.EndpointInfo endpoint : endpoints) {
+                gapReportGenerator.checkEndpointCompleteness(endpoint);
+            }
+
+            // Sharded AI generation partitions the parsed entities, so it runs once they are known
+            if (useAI && aiSharding != null) {
+                listener.onPhase("ai");
+                int gapsBeforeShards = gapReportGenerator.getGaps().size();
+                GenerationMetrics.Phase ai = metrics.phase("ai");
+                try {
+                    generateWithShardedAI(uploadedFiles, projectName, packageName, lastDeclarations(entities), endpoints, output);
+                } finally {
+                    ai.stop();
+                }
+                aiSucceeded = gapReportGenerator.getGaps().size() == gapsBeforeShards;
+            }
+
+            // Create project structure
+            listener.onPhase("structure");
+            GeneratorOptions options = resolveOptions(outputPreferences);
+            SpecParser.GraphQLSchema resolvedGraphQL = resolveGraphQL(graphQLSchema, options, lastDeclarations(entities));
+            ProjectGenerator projectGenerator = new ProjectGenerator(output, projectName, packageName, options);
+            projectGenerator.setGraphQLSchema(resolvedGraphQL);
+            GenerationMetrics.Phase structure = metrics.phase("structure");
+            try {
+                projectGenerator.createProjectStructure();
+                projectGenerator.generatePomXml();
+                projectGenerator.generateApplicationProperties();
+                projectGenerator.generateApplicationClass();
+                projectGenerator.generateSchema(lastDeclarations(entities));
+                projectGenerator.generateGraphQLSchema();
+                projectGenerator.generateCachingConfig(lastDeclarations(entities));
+                projectGenerator.generatePerformanceFiles(lastDeclarations(entities));
+            } finally {
+                structure.stop();
+            }
+
+            // Generate code artifacts
+            CodeGenerator codeGenerator = new CodeGenerator(output, packageName, resolveTemplates(outputPreferences, options), options);
+            codeGenerator.setMetrics(metrics);
+            codeGenerator.setApplicationClass(projectGenerator.getApplicationClassName());
+            codeGenerator.setGraphQLSchema(resolvedGraphQL);
+            List<String> entityNames = new ArrayList<>();
+            for (SpecParser.EntityInfo entity : entities) {
+                entityNames.add(entity.getName());
+            }
+            List<SpecParser.EntityInfo> changedEntities = manifest != null
+                    ? selectChangedEntities(manifest, codeGenerator, packageName, entities, endpoints)
+                    : lastDeclarations(entities);
+            listener.onPhase("artifacts");
+            listener.onArtifactProgress(0, changedEntities.size());
+            metrics.countEntities(changedEntities.size());
+
+            if (artifactExecutor != null) {
+                generateArtifactsInParallel(codeGenerator, changedEntities, endpoints, listener);
+            } else {
+                int completed = 0;
+                for (SpecParser.EntityInfo entity : changedEntities) {
+                    codeGenerator.generateEntity(entity);
+                    codeGenerator.generateDTO(entity);
+                    codeGenerator.generateRepository(entity);
+                    codeGenerator.generateServiceInterface(entity);
+                    codeGenerator.generateServiceImpl(entity);
                 
-                System.out.println("[AI] Sending " + fileCount + " spec file(s) to OpenAI API...");
-                String prompt = promptBuilder.toString();
-                System.out.println("[AI] Total prompt size: " + prompt.length() + " characters");
-                String aiResponse = openAIClient.chatCompletion(prompt);
+                    // Generate controller with relevant endpoints
+                    codeGenerator.generateController(entity, endpointsFor(entity, endpoints));
+                    codeGenerator.generateTest(entity);
+                    codeGenerator.generatePerfHarness(entity);
+                    codeGenerator.generateGraphQLController(entity);
+                    listener.onArtifactProgress(++completed, changedEntities.size());
+                }
+            }
+
+            // Generate README
+            listener.onPhase("readme");
+            GenerationMetrics.Phase readme = metrics.phase("readme");
+            try {
+                projectGenerator.generateReadme(entityNames, gapReportGenerator.getGaps());
+            } finally {
+                readme.stop();
+            }
+
+            // Generate GAP report
+            listener.onPhase("gap-report");
+            GenerationMetrics.Phase gapReport = metrics.phase("gap-report");
+            try {
+                output.write("GAP_REPORT.md", gapReportGenerator.renderGapReport());
+            } finally {
+                gapReport.stop();
+            }
+            metrics.countGaps(gapReportGenerator.getGaps().size());
+            if (manifest != null) {
+                manifest.save();
+                System.out.println("[INCREMENTAL] ✓ " + manifest.getEntitiesSkipped() + " unchanged entities skipped, "
+                        + manifest.getFilesWritten() + " files written, " + manifest.getFilesUnchanged() + " unchanged, "
+                        + manifest.getFilesDeleted() + " deleted");
+            }
+
+            result = new GenerationResult(outputDirectory, entityNames, gapReportGenerator.getGaps());
+        }
+        // A failed OpenAI call is not worth remembering: the next upload should retry it
+        if (cacheKey != null && (!useAI || aiSucceeded)) {
+            generationCache.store(cacheKey, result);
+        }
+        return result;
+    }
+
+    /**
+     * Sends all uploaded specs to OpenAI in a single prompt and writes the files of its response
+     */
+    private void generateWithAI(Map<String, SpecSource> uploadedFiles, OutputSink output) {
+        try {
+            OpenAIClient openAIClient = this.openAIClient != null ? this.openAIClient : OpenAIClient.shared();
+            StringBuilder promptBuilder = new StringBuilder();
+            promptBuilder.append("Generate a Java Spring Boot project using the following specification files. Provide only the main code files as a JSON object with file paths as keys and file contents as values.\n");
+            promptBuilder.append("Include all necessary Spring Boot components: entities, DTOs, repositories, services, controllers, and tests.\n\n");
+        
+            System.out.println("[AI] Preparing to send spec files to OpenAI agent...");
+            int fileCount = 0;
+            for (Map.Entry<String, SpecSource> entry : uploadedFiles.entrySet()) {
+                String key = entry.getKey();
+                SpecSource source = entry.getValue();
+                if (source != null && source.exists()) {
+                    try {
+                        String content = source.readString();
+                        promptBuilder.append("\n--- ").append(key.toUpperCase()).append(" SPECIFICATION FILE ---\n");
+                        promptBuilder.append("File type: ").append(key).append("\n");
+                        promptBuilder.append("File name: ").append(source.getFileName()).append("\n");
+                        promptBuilder.append("Content:\n").append(content).append("\n");
+                        promptBuilder.append("--- END ").append(key.toUpperCase()).append(" FILE ---\n");
+                        fileCount++;
+                        System.out.println("[AI] ✓ Added " + key + " file: " + source.getFileName() + " (" + content.length() + " chars)");
+                    } catch (Exception e) {
+                        System.err.println("[AI] ✗ Failed to read " + key + " file: " + e.getMessage());
+                        gapReportGenerator.addGap("Failed to read " + key + " file for AI: " + e.getMessage());
+                    }
+                }
+            }
+        
+            if (fileCount == 0) {
+                throw new IOException("No spec files were successfully read to send to OpenAI");
+            }
+        
+            System.out.println("[AI] Sending " + fileCount + " spec file(s) to OpenAI API...");
+            String prompt = promptBuilder.toString();
+            System.out.println("[AI] Total prompt size: " + prompt.length() + " characters");
+            metrics.recordPromptSize(prompt.length());
+            if (streamingEnabled) {
+                generateFromStreamedResponse(openAIClient, prompt, output);
+            } else {
+                String aiResponse = openAIClient.chatCompletion(prompt, aiPriority);
                 System.out.println("[AI] ✓ Received response from OpenAI (" + aiResponse.length() + " chars)");
                 // Parse the AI response as JSON and write files
-                Files.createDirectories(outputDirectory);
-                Path aiOut = outputDirectory.resolve("openai_response.json");
-                Files.writeString(aiOut, aiResponse);
-                System.out.println("[AI] ✓ Saved OpenAI response to: " + aiOut);
-                
+                output.write("openai_response.json", aiResponse);
+                System.out.println("[AI] ✓ Saved OpenAI response to: openai_response.json");
+            
                 // Try to parse as JSON and write files
                 try {
                     com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
@@ -100,9 +528,7 @@ public class SpecToCodeAgent {
                     System.out.println("[AI] ✓ Parsed response as JSON, found " + fileMap.size() + " files to generate");
                     int generatedCount = 0;
                     for (Map.Entry<String, String> fileEntry : fileMap.entrySet()) {
-                        Path filePath = outputDirectory.resolve(fileEntry.getKey());
-                        Files.createDirectories(filePath.getParent());
-                        Files.writeString(filePath, fileEntry.getValue());
+                        writeAIFile(output, fileEntry.getKey(), fileEntry.getValue());
                         generatedCount++;
                         System.out.println("[AI] ✓ Generated: " + fileEntry.getKey());
                     }
@@ -111,145 +537,224 @@ public class SpecToCodeAgent {
                     System.err.println("[AI] ✗ Failed to parse OpenAI response as JSON: " + jsonEx.getMessage());
                     gapReportGenerator.addGap("Failed to parse OpenAI response as JSON: " + jsonEx.getMessage());
                 }
-            } catch (Exception e) {
-                System.err.println("[AI] ✗ OpenAI API call failed: " + e.getMessage());
-                e.printStackTrace();
-                gapReportGenerator.addGap("OpenAI API call failed: " + e.getMessage());
-            }
-        }
-
-        boolean hasOpenAPI = uploadedFiles.containsKey("openapi") && uploadedFiles.get("openapi") != null;
-        boolean hasGraphQL = uploadedFiles.containsKey("graphql") && uploadedFiles.get("graphql") != null;
-        boolean hasDomainModel = uploadedFiles.containsKey("domain") && uploadedFiles.get("domain") != null;
-
-        gapReportGenerator.checkMissingSpecFiles(hasOpenAPI, hasGraphQL, hasDomainModel);
-
-        // Parse OpenAPI spec
-        if (hasOpenAPI) {
-            try {
-                openAPISpec = specParser.parseOpenAPI(uploadedFiles.get("openapi"));
-            } catch (Exception e) {
-                gapReportGenerator.addGap("Failed to parse OpenAPI specification: " + e.getMessage());
-            }
-        }
-
-        // Parse GraphQL schema
-        if (hasGraphQL) {
-            try {
-                graphQLSchema = specParser.parseGraphQL(uploadedFiles.get("graphql"));
-                gapReportGenerator.addGap("GraphQL schema parsing is not fully implemented - manual review required");
-            } catch (Exception e) {
-                gapReportGenerator.addGap("Failed to parse GraphQL schema: " + e.getMessage());
             }
+        } catch (Exception e) {
+            System.err.println("[AI] ✗ OpenAI API call failed: " + e.getMessage());
+            e.printStackTrace();
+            gapReportGenerator.addGap("OpenAI API call failed: " + e.getMessage());
         }
+    }
 
-        // Parse domain model
-        if (hasDomainModel) {
-            try {
-                domainModel = specParser.parseDomainModel(uploadedFiles.get("domain"));
-            } catch (Exception e) {
-                gapReportGenerator.addGap("Failed to parse domain model: " + e.getMessage());
-            }
+    /**
+     * Sends the entities to OpenAI in shards that fit the completion limit and writes the merged files
+     */
+    private void generateWithShardedAI(Map<String, SpecSource> uploadedFiles, String projectName, String packageName,
+                                       List<SpecParser.EntityInfo> entities, List<SpecParser.EndpointInfo> endpoints,
+                                       OutputSink output) {
+        OpenAIClient openAIClient = this.openAIClient != null ? this.openAIClient : OpenAIClient.shared();
+        ShardedAIGenerator.Result result = new ShardedAIGenerator(openAIClient, aiSharding, aiPriority)
+                .generate(projectName, packageName, entities, endpoints, SpecFragments.of(uploadedFiles, specParser));
+        for (String failure : result.getFailures()) {
+            System.err.println("[AI] ✗ " + failure);
+            gapReportGenerator.addGap(failure);
         }
-
-        // Parse metadata
-        if (uploadedFiles.containsKey("metadata") && uploadedFiles.get("metadata") != null) {
-            try {
-                metadata = specParser.parseMetadata(uploadedFiles.get("metadata"));
-            } catch (Exception e) {
-                // Metadata is optional, just log
-            }
+        for (String conflict : result.getConflicts()) {
+            System.err.println("[AI] ✗ " + conflict);
+            gapReportGenerator.addGap(conflict);
         }
-
-        // Parse output preferences
-        if (uploadedFiles.containsKey("outputprefs") && uploadedFiles.get("outputprefs") != null) {
-            try {
-                outputPreferences = specParser.parseOutputPreferences(uploadedFiles.get("outputprefs"));
-            } catch (Exception e) {
-                // Output preferences are optional
+        try {
+            output.write("openai_response.json", new com.fasterxml.jackson.databind.ObjectMapper()
+                    .writerWithDefaultPrettyPrinter().writeValueAsString(result.getResponses()));
+            for (Map.Entry<String, String> file : result.getFiles().entrySet()) {
+                writeAIFile(output, file.getKey(), file.getValue());
             }
+            System.out.println("[AI] ✓ Successfully generated " + result.getFiles().size() + " files from "
+                    + result.getResponses().size() + " shard response(s)");
+        } catch (IOException e) {
+            System.err.println("[AI] ✗ Failed to write AI-generated files: " + e.getMessage());
+            gapReportGenerator.addGap("Failed to write AI-generated files: " + e.getMessage());
         }
+    }
 
-        // Extract project information
-        String projectName = extractProjectName(openAPISpec, metadata);
-        String packageName = extractPackageName(projectName, outputPreferences);
-
-        // Extract entities
-        List<SpecParser.EntityInfo> entities = new ArrayList<>();
-        if (openAPISpec != null) {
-            entities.addAll(specParser.extractEntitiesFromOpenAPI(openAPISpec));
+    /**
+     * Streams the completion and writes each generated file as soon as its JSON entry is complete.
+     * The raw response is appended to openai_response.json as tokens arrive instead of being held in memory.
+     */
+    private void generateFromStreamedResponse(OpenAIClient openAIClient, String prompt, OutputSink output) throws IOException {
+        StreamingFileMapParser parser = new StreamingFileMapParser((filePath, content) -> {
+            writeAIFile(output, filePath, content);
+            System.out.println("[AI] ✓ Generated: " + filePath);
+        });
+        long received;
+        try (Writer rawResponse = output.openWriter("openai_response.json")) {
+            received = openAIClient.streamChatCompletion(prompt, aiPriority, token -> {
+                rawResponse.write(token);
+                try {
+                    parser.feed(token);
+                } catch (JsonProcessingException e) {
+                    // Keep streaming the raw response; the gap below records the parse failure
+                    System.err.println("[AI] ✗ Failed to parse streamed OpenAI response as JSON: " + e.getOriginalMessage());
+                    gapReportGenerator.addGap("Failed to parse OpenAI response as JSON: " + e.getOriginalMessage());
+                }
+            });
         }
-        if (domainModel != null) {
-            entities.addAll(specParser.extractEntitiesFromDomainModel(domainModel));
+        System.out.println("[AI] ✓ Streamed response from OpenAI (" + received + " chars), saved to: openai_response.json");
+        if (parser.isComplete()) {
+            System.out.println("[AI] ✓ Successfully generated " + parser.getFilesParsed() + " files from AI response");
+        } else if (!parser.isFailed()) {
+            gapReportGenerator.addGap("OpenAI response ended before the JSON file map was complete; "
+                    + parser.getFilesParsed() + " file(s) were generated");
         }
+    }
 
-        // Extract endpoints
-        List<SpecParser.EndpointInfo> endpoints = new ArrayList<>();
-        if (openAPISpec != null) {
-            endpoints.addAll(specParser.extractEndpointsFromOpenAPI(openAPISpec));
+    /**
+     * Writes one AI-generated file, rejecting paths that would escape the output directory
+     */
+    private void writeAIFile(OutputSink output, String relativePath, String content) throws IOException {
+        Path filePath = Path.of(relativePath).normalize();
+        if (filePath.isAbsolute() || filePath.startsWith("..") || filePath.toString().isEmpty()) {
+            throw new IOException("AI response file path escapes the output directory: " + relativePath);
         }
+        output.write(filePath.toString().replace('\\', '/'), content);
+    }
 
-        // Validate entities
+    /**
+     * Keeps only the last declaration of each entity name, the one whose files win on disk. Sinks
+     * such as a ZIP stream cannot overwrite an entry, so the earlier declarations are not rendered.
+     */
+    private List<SpecParser.EntityInfo> lastDeclarations(List<SpecParser.EntityInfo> entities) {
+        Map<String, SpecParser.EntityInfo> effectiveEntities = new LinkedHashMap<>();
         for (SpecParser.EntityInfo entity : entities) {
-            gapReportGenerator.checkEntityCompleteness(entity);
+            effectiveEntities.remove(entity.getName());
+            effectiveEntities.put(entity.getName(), entity);
         }
+        return new ArrayList<>(effectiveEntities.values());
+    }
 
-        // Validate endpoints
-        for (SpecParser.EndpointInfo endpoint : endpoints) {
-            gapReportGenerator.checkEndpointCompleteness(endpoint);
+    /**
+     * Returns the entities whose artifacts must be rendered in an incremental run. When several
+     * specs declare the same entity name only the last declaration counts, as it is the one whose
+     * files end up on disk.
+     */
+    private List<SpecParser.EntityInfo> selectChangedEntities(GenerationManifest manifest, CodeGenerator codeGenerator,
+                                                              String packageName, List<SpecParser.EntityInfo> entities,
+                                                              List<SpecParser.EndpointInfo> endpoints) {
+        List<SpecParser.EntityInfo> changed = new ArrayList<>();
+        for (SpecParser.EntityInfo entity : lastDeclarations(entities)) {
+            String fingerprint = GenerationManifest.fingerprint(codeGenerator.getFingerprint(),
+                    packageName, entity, endpointsFor(entity, endpoints));
+            if (!manifest.isUnchanged(entity.getName(), fingerprint)) {
+                manifest.recordEntity(entity.getName(), fingerprint, codeGenerator.artifactPaths(entity));
+                changed.add(entity);
+            }
         }
+        return changed;
+    }
 
-        // Create project structure
-        ProjectGenerator projectGenerator = new ProjectGenerator(outputDirectory, projectName, packageName);
-        projectGenerator.createProjectStructure();
-        projectGenerator.generatePomXml();
-        projectGenerator.generateApplicationProperties();
-        projectGenerator.generateApplicationClass();
+    /**
+     * Fans the entity x artifact tasks out across the configured executor. Each output file is
+     * written by exactly one task; when several specs declare the same entity name, only the
+     * last declaration is rendered, matching the file the sequential path leaves on disk.
+     * All task failures are collected and reported together in entity/artifact order.
+     */
+    private void generateArtifactsInParallel(CodeGenerator codeGenerator, List<SpecParser.EntityInfo> entities,
+                                             List<SpecParser.EndpointInfo> endpoints,
+                                             ProgressListener listener) throws IOException {
+        List<SpecParser.EntityInfo> effectiveEntities = lastDeclarations(entities);
 
-        // Generate code artifacts
-        CodeGenerator codeGenerator = new CodeGenerator(outputDirectory, packageName);
-        List<String> entityNames = new ArrayList<>();
-        
-        for (SpecParser.EntityInfo entity : entities) {
-            entityNames.add(entity.getName());
-            codeGenerator.generateEntity(entity);
-            codeGenerator.generateDTO(entity);
-            codeGenerator.generateRepository(entity);
-            codeGenerator.generateServiceInterface(entity);
-            codeGenerator.generateServiceImpl(entity);
-            
-            // Generate controller with relevant endpoints
-            List<SpecParser.EndpointInfo> entityEndpoints = endpoints.stream()
-                .filter(e -> e.getPath().contains(entity.getName().toLowerCase()))
-                .toList();
-            codeGenerator.generateController(entity, entityEndpoints);
-            codeGenerator.generateTest(entity);
-        }
+        List<String> taskNames = new ArrayList<>();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        AtomicInteger completedEntities = new AtomicInteger(entities.size() - effectiveEntities.size());
+        for (SpecParser.EntityInfo entity : effectiveEntities) {
+            List<SpecParser.EndpointInfo> entityEndpoints = endpointsFor(entity, endpoints);
+            Map<String, ArtifactTask> tasks = new LinkedHashMap<>();
+            tasks.put("entity", () -> codeGenerator.generateEntity(entity));
+            tasks.put("dto", () -> codeGenerator.generateDTO(entity));
+            tasks.put("repository", () -> codeGenerator.generateRepository(entity));
+            tasks.put("service interface", () -> codeGenerator.generateServiceInterface(entity));
+            tasks.put("service implementation", () -> codeGenerator.generateServiceImpl(entity));
+            tasks.put("controller", () -> codeGenerator.generateController(entity, entityEndpoints));
+            tasks.put("test", () -> codeGenerator.generateTest(entity));
+            tasks.put("perf harness", () -> codeGenerator.generatePerfHarness(entity));
+            tasks.put("graphql controller", () -> codeGenerator.generateGraphQLController(entity));
 
-        // Generate README
-        projectGenerator.generateReadme(entityNames, gapReportGenerator.getGaps());
+            AtomicInteger remaining = new AtomicInteger(tasks.size());
+            for (Map.Entry<String, ArtifactTask> task : tasks.entrySet()) {
+                taskNames.add(entity.getName() + " " + task.getKey());
+                futures.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        task.getValue().run();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    } finally {
+                        if (remaining.decrementAndGet() == 0) {
+                            listener.onArtifactProgress(completedEntities.incrementAndGet(), entities.size());
+                        }
+                    }
+                }, artifactExecutor));
+            }
+        }
 
-        // Generate GAP report
-        Path gapReportPath = outputDirectory.resolve("GAP_REPORT.md");
-        gapReportGenerator.generateGapReport(gapReportPath);
+        List<String> failures = new ArrayList<>();
+        List<Throwable> causes = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() instanceof UncheckedIOException ? e.getCause().getCause() : e.getCause();
+                failures.add(taskNames.get(i) + ": " + cause.getMessage());
+                causes.add(cause);
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw new ArtifactGenerationException(failures, causes);
+        }
+    }
 
-        return new GenerationResult(outputDirectory, entityNames, gapReportGenerator.getGaps());
+    static List<SpecParser.EndpointInfo> endpointsFor(SpecParser.EntityInfo entity, List<SpecParser.EndpointInfo> endpoints) {
+        return endpoints.stream()
+            .filter(e -> e.getPath().contains(entity.getName().toLowerCase()))
+            .toList();
     }
 
-    private String extractProjectName(Map<String, Object> openAPISpec, Map<String, Object> metadata) {
+    private String extractProjectName(SpecParser.OpenAPIExtraction openAPI, Map<String, Object> metadata) {
         if (metadata != null && metadata.containsKey("projectName")) {
             return metadata.get("projectName").toString();
         }
-        if (openAPISpec != null) {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> info = (Map<String, Object>) openAPISpec.get("info");
-            if (info != null && info.containsKey("title")) {
-                return info.get("title").toString().replaceAll("\\s+", "");
-            }
+        if (openAPI != null && openAPI.getTitle() != null) {
+            return openAPI.getTitle().replaceAll("\\s+", "");
         }
         return "GeneratedProject";
     }
 
+    /**
+     * Computes the cache key from the specs and the package name and generator options of the
+     * output preferences alone. Without an explicit packageName the package is derived from the
+     * spec contents, which the key already covers; unreadable or invalid preferences fall back to
+     * the defaults, as in generateProject.
+     */
+    private String computeCacheKey(Map<String, SpecSource> uploadedFiles, String mode) throws IOException {
+        Map<String, Object> preferences = null;
+        SpecSource outputPrefs = uploadedFiles.get("outputprefs");
+        if (outputPrefs != null) {
+            try {
+                preferences = specParser.parseOutputPreferences(outputPrefs);
+            } catch (Exception e) {
+                // Unreadable preferences are ignored by generateProject as well
+            }
+        }
+        String packageName = preferences != null && preferences.containsKey("packageName")
+                ? preferences.get("packageName").toString()
+                : "<derived>";
+        GeneratorOptions options;
+        try {
+            options = GeneratorOptions.fromPreferences(preferences).supportedByTarget();
+        } catch (IllegalArgumentException e) {
+            options = GeneratorOptions.DEFAULT;
+        }
+        return GenerationCache.computeKey(uploadedFiles, mode, packageName, options);
+    }
+
     @SuppressWarnings("unchecked")
     private String extractPackageName(String projectName, Map<String, Object> outputPreferences) {
         if (outputPreferences != null && outputPreferences.containsKey("packageName")) {
@@ -259,6 +764,101 @@ public class SpecToCodeAgent {
         return "com.example." + projectName.toLowerCase();
     }
 
+    /**
+     * Applies template overrides from the output preferences' templates section.
+     * Invalid overrides are reported as gaps and the built-in templates are used instead.
+     */
+    private CodeTemplates resolveTemplates(Map<String, Object> outputPreferences, GeneratorOptions options) {
+        CodeTemplates templates = options.target().isReactive() ? CodeTemplates.builtInReactive() : CodeTemplates.builtIn();
+        if (outputPreferences == null || !(outputPreferences.get("templates") instanceof Map<?, ?> overrides)) {
+            return templates;
+        }
+        Map<String, String> sources = new LinkedHashMap<>();
+        for (Map.Entry<?, ?> override : overrides.entrySet()) {
+            sources.put(String.valueOf(override.getKey()), String.valueOf(override.getValue()));
+        }
+        try {
+            return templates.withOverrides(sources);
+        } catch (IllegalArgumentException e) {
+            gapReportGenerator.addGap("Ignored template overrides from output preferences: " + e.getMessage());
+            return templates;
+        }
+    }
+
+    /**
+     * Returns the GraphQL schema to generate resolvers for, or null when there is none or the
+     * target cannot serve it; adds the foreign keys its relationships join on to the entities
+     */
+    private SpecParser.GraphQLSchema resolveGraphQL(SpecParser.GraphQLSchema graphQLSchema, GeneratorOptions options,
+                                                    List<SpecParser.EntityInfo> entities) {
+        if (graphQLSchema == null) {
+            return null;
+        }
+        if (options.target().isReactive()) {
+            gapReportGenerator.addGap("GraphQL resolvers are only generated for the servlet target");
+            return null;
+        }
+        graphQLSchema.addForeignKeys(entities);
+        if (!options.pagination().enabled()) {
+            for (SpecParser.GraphQLOperation operation : graphQLSchema.getOperations()) {
+                if (operation.paged()) {
+                    gapReportGenerator.addGap("GraphQL query " + operation.name()
+                            + " ignores its page and size arguments because pagination is disabled");
+                }
+            }
+        }
+        return graphQLSchema;
+    }
+
+    /**
+     * Reads the generator options from the output preferences. Invalid settings are reported as
+     * gaps and the defaults are used instead; so are groups the chosen target cannot generate.
+     */
+    private GeneratorOptions resolveOptions(Map<String, Object> outputPreferences) {
+        try {
+            GeneratorOptions options = GeneratorOptions.fromPreferences(outputPreferences);
+            List<String> unsupported = options.unsupportedByTarget();
+            if (!unsupported.isEmpty()) {
+                gapReportGenerator.addGap("Ignored generator options not supported by the "
+                        + options.target().stack().getKey() + " target: " + String.join(", ", unsupported));
+            }
+            return options.supportedByTarget();
+        } catch (IllegalArgumentException e) {
+            gapReportGenerator.addGap("Ignored generator options from output preferences: " + e.getMessage());
+            return GeneratorOptions.DEFAULT;
+        }
+    }
+
+    /**
+     * A single artifact generation step, run on the artifact executor in parallel mode
+     */
+    @FunctionalInterface
+    private interface ArtifactTask {
+        void run() throws IOException;
+    }
+
+    /**
+     * Receives progress notifications while a project is being generated
+     */
+    public interface ProgressListener {
+        ProgressListener NONE = new ProgressListener() {
+            @Override
+            public void onPhase(String phase) {
+            }
+        };
+
+        /**
+         * Called when the pipeline enters a new phase (ai, parse, extract, validate, structure, artifacts, readme, gap-report)
+         */
+        void onPhase(String phase);
+
+        /**
+         * Called as entities are rendered during the artifacts phase
+         */
+        default void onArtifactProgress(int completedEntities, int totalEntities) {
+        }
+    }
+
     /**
      * Result class for generation operation
      */
@@ -266,23 +866,37 @@ public class SpecToCodeAgent {
         private final Path outputDirectory;
         private final List<String> generatedEntities;
         private final List<String> gaps;
+        private final boolean fromCache;
 
         public GenerationResult(Path outputDirectory, List<String> generatedEntities, List<String> gaps) {
+            this(outputDirectory, generatedEntities, gaps, false);
+        }
+
+        public GenerationResult(Path outputDirectory, List<String> generatedEntities, List<String> gaps, boolean fromCache) {
             this.outputDirectory = outputDirectory;
             this.generatedEntities = generatedEntities;
             this.gaps = gaps;
+            this.fromCache = fromCache;
         }
 
         public Path getOutputDirectory() { return outputDirectory; }
         public List<String> getGeneratedEntities() { return generatedEntities; }
         public List<String> getGaps() { return gaps; }
+        public boolean isFromCache() { return fromCache; }
     }
 
     /**
      * Main entry point for running the agent.
+     * <pre>
+     * SpecToCodeAgent openapi.yaml
+     * SpecToCodeAgent --batch specs/ [--output generated/] [--parallelism 8] [--ai]
+     * </pre>
      */
     public static void main(String[] args) {
         String referenceSpecPath = "src/main/java/cc/spec/specification_java_file.spec.md";
+        if (args.length > 0 && args[0].equals("--batch")) {
+            System.exit(runBatch(referenceSpecPath, args));
+        }
         String incomingSpecPath = args.length > 0 ? args[0] : "";
         SpecToCodeAgent agent = new SpecToCodeAgent(referenceSpecPath);
         if (!incomingSpecPath.isEmpty()) {
@@ -300,4 +914,38 @@ public class SpecToCodeAgent {
             System.out.println("No incoming spec file provided. Only reference spec loaded.");
         }
     }
+
+    /**
+     * Runs batch mode; exits non-zero on bad arguments or when any bundle failed
+     */
+    private static int runBatch(String referenceSpecPath, String[] args) {
+        Path input = null;
+        Path output = Path.of("generated-projects");
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        boolean useAI = false;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--batch" -> input = Path.of(args[++i]);
+                    case "--output" -> output = Path.of(args[++i]);
+                    case "--parallelism" -> parallelism = Integer.parseInt(args[++i]);
+                    case "--ai" -> useAI = true;
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            System.err.println("Usage: SpecToCodeAgent --batch <dir> [--output <dir>] [--parallelism <n>] [--ai]"
+                    + (e instanceof ArrayIndexOutOfBoundsException ? "" : " (" + e.getMessage() + ")"));
+            return 2;
+        }
+        try {
+            List<BatchGenerator.BundleResult> results = new BatchGenerator(
+                    () -> new SpecToCodeAgent(referenceSpecPath), parallelism).generate(input, output, useAI);
+            return results.stream().allMatch(BatchGenerator.BundleResult::succeeded) ? 0 : 1;
+        } catch (Exception e) {
+            System.err.println("Error generating batch: " + e.getMessage());
+            e.printStackTrace();
+            return 1;
+        }
+    }
 }
@@ -0,0 +1,124 @@
+package cc.spec;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * The speckits.* settings of application.properties; every setting has a default
+ * @param storage Where uploads are generated into and caches are kept
+ */
+@ConfigurationProperties("speckits")
+public record SpeckitsProperties(@DefaultValue Storage storage,
+                                 @DefaultValue Jobs jobs,
+                                 @DefaultValue Generation generation,
+                                 @DefaultValue Cache cache,
+                                 @DefaultValue Parser parser,
+                                 @DefaultValue Output output,
+                                 @DefaultValue Uploads uploads,
+                                 @DefaultValue Ai ai) {
+
+    /**
+     * @param directory Root of the generated projects and the caches, relative to the working directory
+     */
+    public record Storage(@DefaultValue("uploads") Path directory) {
+    }
+
+    /**
+     * @param concurrency Jobs running at once
+     * @param queueCapacity Jobs waiting to run; further submissions are rejected
+     * @param retention How long finished jobs stay visible
+     * @param maxRetained Finished jobs kept at most
+     */
+    public record Jobs(@DefaultValue("4") int concurrency,
+                       @DefaultValue("64") int queueCapacity,
+                       @DefaultValue("PT1H") Duration retention,
+                       @DefaultValue("200") int maxRetained) {
+    }
+
+    /**
+     * @param executor Per-entity artifact generation: sequential, virtual or fork-join
+     * @param parallelism Fork-join parallelism, 0 for the number of available processors
+     */
+    public record Generation(@DefaultValue("sequential") String executor,
+                             @DefaultValue("0") int parallelism) {
+    }
+
+    public record Cache(@DefaultValue("true") boolean enabled,
+                        @DefaultValue("512MB") DataSize maxSize) {
+    }
+
+    public record Parser(@DefaultValue("true") boolean streamingOpenapi) {
+    }
+
+    public record Output(@DefaultValue WriteBehind writeBehind) {
+    }
+
+    public record WriteBehind(@DefaultValue("true") boolean enabled,
+                              @DefaultValue("256") int queueCapacity,
+                              @DefaultValue("2") int threads,
+                              @DefaultValue("false") boolean fsync) {
+
+        /**
+         * The sink options, or null when write-behind is disabled
+         */
+        public WriteBehindOutputSink.Options toOptions() {
+            return enabled ? new WriteBehindOutputSink.Options(queueCapacity, threads, fsync) : null;
+        }
+    }
+
+    /**
+     * @param memoryThreshold Upload bytes per request kept in memory before the rest spills to disk
+     * @param memoryLimit Upload bytes kept in memory across all queued and running requests
+     */
+    public record Uploads(@DefaultValue("16MB") DataSize memoryThreshold,
+                          @DefaultValue("128MB") DataSize memoryLimit) {
+    }
+
+    public record Ai(@DefaultValue("true") boolean streaming,
+                     @DefaultValue AiCache cache,
+                     @DefaultValue Sharding sharding,
+                     @DefaultValue RateLimit rateLimit,
+                     @DefaultValue Retry retry) {
+    }
+
+    public record AiCache(@DefaultValue("true") boolean enabled,
+                          @DefaultValue("P7D") Duration ttl,
+                          @DefaultValue("32MB") DataSize memorySize,
+                          @DefaultValue("256MB") DataSize diskSize) {
+    }
+
+    public record Sharding(@DefaultValue("false") boolean enabled,
+                           @DefaultValue("3000") int shardTokenBudget,
+                           @DefaultValue("4") int concurrency) {
+
+        /**
+         * The sharding options, or null when sharding is disabled
+         */
+        public ShardedAIGenerator.Options toOptions() {
+            return enabled ? new ShardedAIGenerator.Options(shardTokenBudget, concurrency) : null;
+        }
+    }
+
+    public record RateLimit(@DefaultValue("500") int requestsPerMinute,
+                            @DefaultValue("200000") int tokensPerMinute,
+                            @DefaultValue("8") int maxConcurrent,
+                            @DefaultValue("PT10S") Duration burstWindow) {
+
+        public RateLimitScheduler.Limits toLimits() {
+            return new RateLimitScheduler.Limits(requestsPerMinute, tokensPerMinute, maxConcurrent, burstWindow);
+        }
+    }
+
+    public record Retry(@DefaultValue("5") int maxAttempts,
+                        @DefaultValue("PT0.5S") Duration initialBackoff,
+                        @DefaultValue("PT30S") Duration maxBackoff) {
+
+        public OpenAIClient.RetryPolicy toPolicy() {
+            return new OpenAIClient.RetryPolicy(maxAttempts, initialBackoff, maxBackoff);
+        }
+    }
+}
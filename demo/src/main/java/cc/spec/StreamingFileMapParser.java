@@ -0,0 +1,123 @@
+package cc.spec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Incrementally parses a JSON object of file paths to file contents as it is streamed in.
+ * Every top-level string entry is handed to the {@link FileHandler} as soon as its value is
+ * complete, so files can be written while the rest of the response is still arriving.
+ * Text before the opening brace (e.g. a markdown code fence) and after the closing brace is ignored.
+ */
+public class StreamingFileMapParser {
+    private final FileHandler handler;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private boolean started;
+    private boolean complete;
+    private boolean failed;
+    private int depth;
+    private String currentKey;
+    private int filesParsed;
+    private int entriesSkipped;
+    private char pendingHighSurrogate;
+
+    /**
+     * Receives each completed file entry
+     */
+    @FunctionalInterface
+    public interface FileHandler {
+        void onFile(String path, String content) throws IOException;
+    }
+
+    public StreamingFileMapParser(FileHandler handler) throws IOException {
+        this.handler = handler;
+        this.parser = new JsonFactory().createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * Feeds the next chunk of the response
+     */
+    public void feed(String chunk) throws IOException {
+        if (complete || failed || chunk.isEmpty()) {
+            return;
+        }
+        if (pendingHighSurrogate != 0) {
+            chunk = pendingHighSurrogate + chunk;
+            pendingHighSurrogate = 0;
+        }
+        if (Character.isHighSurrogate(chunk.charAt(chunk.length() - 1))) {
+            // Keep a split surrogate pair together so it is encoded as one code point
+            pendingHighSurrogate = chunk.charAt(chunk.length() - 1);
+            chunk = chunk.substring(0, chunk.length() - 1);
+            if (chunk.isEmpty()) {
+                return;
+            }
+        }
+        if (!started) {
+            int start = chunk.indexOf('{');
+            if (start < 0) {
+                return;
+            }
+            started = true;
+            chunk = chunk.substring(start);
+        }
+        byte[] bytes = chunk.getBytes(StandardCharsets.UTF_8);
+        feeder.feedInput(bytes, 0, bytes.length);
+        try {
+            drain();
+        } catch (JsonProcessingException e) {
+            failed = true; // malformed input: ignore the rest of the stream
+            throw e;
+        }
+    }
+
+    public boolean isComplete() { return complete; }
+    public boolean isFailed() { return failed; }
+    public int getFilesParsed() { return filesParsed; }
+    public int getEntriesSkipped() { return entriesSkipped; }
+
+    private void drain() throws IOException {
+        JsonToken token;
+        while (!complete && (token = parser.nextToken()) != JsonToken.NOT_AVAILABLE && token != null) {
+            switch (token) {
+                case START_OBJECT, START_ARRAY -> {
+                    if (depth == 1) {
+                        entriesSkipped++; // nested values are not file contents
+                    }
+                    depth++;
+                }
+                case END_OBJECT, END_ARRAY -> {
+                    depth--;
+                    if (depth == 0) {
+                        complete = true;
+                        feeder.endOfInput();
+                    }
+                }
+                case FIELD_NAME -> {
+                    if (depth == 1) {
+                        currentKey = parser.currentName();
+                    }
+                }
+                case VALUE_STRING -> {
+                    if (depth == 1) {
+                        filesParsed++;
+                        handler.onFile(currentKey, parser.getText());
+                    }
+                }
+                default -> {
+                    if (depth == 1) {
+                        entriesSkipped++;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package cc.spec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Extracts entities and endpoints from an OpenAPI document with Jackson's token-level parser,
+ * without materializing the document tree. Only info.title, paths.*.*.summary and the type,
+ * $ref, allOf and properties keys of components.schemas are read, the latter into small schema
+ * nodes for {@link OpenAPISchemaResolver}; every other subtree (examples, descriptions,
+ * responses, ...) is skipped as it streams past.
+ */
+public class StreamingOpenAPIExtractor {
+    private final JsonFactory factory;
+
+    /**
+     * @param factory JSON or YAML factory matching the document format
+     */
+    public StreamingOpenAPIExtractor(JsonFactory factory) {
+        this.factory = factory;
+    }
+
+    public SpecParser.OpenAPIExtraction extract(InputStream in) throws IOException {
+        return extract(factory.createParser(in));
+    }
+
+    /**
+     * Extracts from an in-memory document; the parser reads the array in place
+     */
+    public SpecParser.OpenAPIExtraction extract(byte[] content, int offset, int length) throws IOException {
+        return extract(factory.createParser(content, offset, length));
+    }
+
+    private SpecParser.OpenAPIExtraction extract(JsonParser documentParser) throws IOException {
+        String title = null;
+        Map<String, Object> schemas = new LinkedHashMap<>();
+        List<SpecParser.EndpointInfo> endpoints = new ArrayList<>();
+        try (JsonParser parser = documentParser) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("OpenAPI document is not an object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (value != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    continue;
+                }
+                switch (field) {
+                    case "info" -> title = readInfoTitle(parser);
+                    case "paths" -> readPaths(parser, endpoints);
+                    case "components" -> readComponents(parser, schemas);
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        OpenAPISchemaResolver resolver = new OpenAPISchemaResolver(schemas);
+        return new SpecParser.OpenAPIExtraction(title, resolver.resolveEntities(), endpoints, resolver.getWarnings());
+    }
+
+    private String readInfoTitle(JsonParser parser) throws IOException {
+        String title = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (field.equals("title") && value.isScalarValue()) {
+                title = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return title;
+    }
+
+    private void readPaths(JsonParser parser, List<SpecParser.EndpointInfo> endpoints) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String path = parser.currentName();
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String method = parser.currentName().toUpperCase();
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    parser.skipChildren(); // path-level parameters and $ref entries are not operations
+                    continue;
+                }
+                String summary = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if (field.equals("summary") && value == JsonToken.VALUE_STRING) {
+                        summary = parser.getText();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                endpoints.add(new SpecParser.EndpointInfo(path, method, summary != null ? summary : ""));
+            }
+        }
+    }
+
+    private void readComponents(JsonParser parser, Map<String, Object> schemas) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            if (parser.nextToken() == JsonToken.START_OBJECT && field.equals("schemas")) {
+                readSchemas(parser, schemas);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void readSchemas(JsonParser parser, Map<String, Object> schemas) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            schemas.put(name, parser.nextToken() == JsonToken.START_OBJECT ? readSchema(parser) : skipValue(parser));
+        }
+    }
+
+    /**
+     * Reads the keys of a schema object the resolver uses into a node shaped like the document tree
+     */
+    private Map<String, Object> readSchema(JsonParser parser) throws IOException {
+        Map<String, Object> schema = new LinkedHashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ((field.equals("type") || field.equals("$ref")) && value == JsonToken.VALUE_STRING) {
+                schema.put(field, parser.getText());
+            } else if (field.equals("type") && value == JsonToken.START_ARRAY) {
+                List<String> types = new ArrayList<>();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    types.add(parser.getText());
+                }
+                schema.put(field, types);
+            } else if (field.equals("properties") && value == JsonToken.START_OBJECT) {
+                Map<String, Object> properties = new LinkedHashMap<>();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String property = parser.currentName();
+                    properties.put(property, parser.nextToken() == JsonToken.START_OBJECT ? readSchema(parser) : skipValue(parser));
+                }
+                schema.put(field, properties);
+            } else if (field.equals("allOf") && value == JsonToken.START_ARRAY) {
+                List<Object> parts = new ArrayList<>();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    parts.add(parser.currentToken() == JsonToken.START_OBJECT ? readSchema(parser) : skipValue(parser));
+                }
+                schema.put(field, parts);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return schema;
+    }
+
+    /**
+     * Skips a value that is not a schema object, which the resolver maps to String like any scalar
+     */
+    private Object skipValue(JsonParser parser) throws IOException {
+        parser.skipChildren();
+        return null;
+    }
+}
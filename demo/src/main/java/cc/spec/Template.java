@@ -0,0 +1,236 @@
+package cc.spec;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A code template compiled once into a program of text segments, value slots and sections.
+ * The syntax is a small subset of Mustache:
+ * <ul>
+ *   <li>{@code {{name}}} inserts a value, looked up in the innermost section first</li>
+ *   <li>{@code {{#name}}...{{/name}}} repeats its body for each element of a list of maps,
+ *       or renders it once when the value is {@code true}</li>
+ *   <li>{@code {{^name}}...{{/name}}} renders its body when the value is missing, {@code false} or empty</li>
+ * </ul>
+ * A line holding nothing but a section tag is removed entirely, newline included, so sections can
+ * sit on their own lines. Values are inserted verbatim.
+ */
+public final class Template {
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+    private static final int INITIAL_BUFFER_CAPACITY = 16 * 1024;
+    private static final int MAX_RETAINED_BUFFER_CAPACITY = 256 * 1024;
+
+    /**
+     * Render buffer reused by every template rendered on the same worker thread
+     */
+    private static final ThreadLocal<StringBuilder> BUFFER =
+            ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_BUFFER_CAPACITY));
+
+    private final String name;
+    private final Node[] program;
+    /**
+     * Every name referenced by a slot or section; nodes refer to names by index into this table
+     */
+    private final String[] names;
+
+    private Template(String name, Node[] program, String[] names) {
+        this.name = name;
+        this.program = program;
+        this.names = names;
+    }
+
+    /**
+     * Compiles template source
+     *
+     * @throws IllegalArgumentException if a tag is unterminated, empty or a section is not closed properly
+     */
+    public static Template compile(String name, String source) {
+        Deque<Section> open = new ArrayDeque<>();
+        Deque<List<Node>> bodies = new ArrayDeque<>();
+        bodies.push(new ArrayList<>());
+        Map<String, Integer> names = new LinkedHashMap<>();
+        int position = 0;
+        while (position < source.length()) {
+            int tagStart = source.indexOf(OPEN, position);
+            if (tagStart < 0) {
+                bodies.peek().add(new Text(source.substring(position)));
+                break;
+            }
+            int tagEnd = source.indexOf(CLOSE, tagStart + OPEN.length());
+            if (tagEnd < 0) {
+                throw error(name, source, tagStart, "unterminated tag");
+            }
+            String tag = source.substring(tagStart + OPEN.length(), tagEnd).trim();
+            if (tag.isEmpty()) {
+                throw error(name, source, tagStart, "empty tag");
+            }
+            char kind = tag.charAt(0);
+            int textEnd = tagStart;
+            int next = tagEnd + CLOSE.length();
+            if (kind == '#' || kind == '^' || kind == '/') {
+                int lineStart = source.lastIndexOf('\n', tagStart - 1) + 1;
+                int lineEnd = source.indexOf('\n', next);
+                lineEnd = lineEnd < 0 ? source.length() : lineEnd + 1;
+                if (source.substring(lineStart, tagStart).isBlank() && source.substring(next, lineEnd).isBlank()) {
+                    textEnd = lineStart;
+                    next = lineEnd;
+                }
+            }
+            if (textEnd > position) {
+                bodies.peek().add(new Text(source.substring(position, textEnd)));
+            }
+
+            String key = tag.substring(1).trim();
+            if (kind == '#' || kind == '^') {
+                open.push(new Section(key, names.computeIfAbsent(key, k -> names.size()), kind == '^', null, null));
+                bodies.push(new ArrayList<>());
+            } else if (kind == '/') {
+                if (open.isEmpty() || !open.peek().name.equals(key)) {
+                    throw error(name, source, tagStart, "unexpected {{/" + key + "}}");
+                }
+                Section section = open.pop();
+                Node[] body = bodies.pop().toArray(new Node[0]);
+                bodies.peek().add(new Section(section.name, section.index, section.inverted, body, referencedNames(body)));
+            } else {
+                bodies.peek().add(new Slot(names.computeIfAbsent(tag, k -> names.size())));
+            }
+            position = next;
+        }
+        if (!open.isEmpty()) {
+            throw new IllegalArgumentException("Template '" + name + "': section '" + open.peek().name + "' is not closed");
+        }
+        return new Template(name, bodies.pop().toArray(new Node[0]), names.keySet().toArray(new String[0]));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Renders the template into the calling thread's reusable buffer and returns the result
+     */
+    public String render(Map<String, ?> model) {
+        StringBuilder out = BUFFER.get();
+        out.setLength(0);
+        renderTo(model, out);
+        String result = out.toString();
+        if (out.capacity() > MAX_RETAINED_BUFFER_CAPACITY) {
+            BUFFER.remove(); // do not pin an unusually large buffer to the thread
+        }
+        return result;
+    }
+
+    /**
+     * Appends the rendered template to the given buffer
+     */
+    public void renderTo(Map<String, ?> model, StringBuilder out) {
+        Object[] frame = new Object[names.length];
+        for (int i = 0; i < names.length; i++) {
+            frame[i] = model.get(names[i]);
+        }
+        execute(program, frame, out);
+    }
+
+    /**
+     * Runs a program against a frame holding the current value of every name, indexed like {@link #names}
+     */
+    private void execute(Node[] program, Object[] frame, StringBuilder out) {
+        for (Node node : program) {
+            if (node instanceof Text text) {
+                out.append(text.value);
+            } else if (node instanceof Slot slot) {
+                Object value = frame[slot.index];
+                if (value instanceof CharSequence chars) {
+                    out.append(chars);
+                } else if (value != null) {
+                    out.append(value);
+                }
+            } else {
+                executeSection((Section) node, frame, out);
+            }
+        }
+    }
+
+    private void executeSection(Section section, Object[] frame, StringBuilder out) {
+        Object value = frame[section.index];
+        if (section.inverted) {
+            if (!isTruthy(value)) {
+                execute(section.body, frame, out);
+            }
+            return;
+        }
+        if (value instanceof Iterable<?> elements) {
+            Object[] inner = frame.clone();
+            for (Object element : elements) {
+                execute(section.body, element instanceof Map<?, ?> map ? enter(section, frame, map, inner) : frame, out);
+            }
+        } else if (value instanceof Map<?, ?> map) {
+            execute(section.body, enter(section, frame, map, frame.clone()), out);
+        } else if (isTruthy(value)) {
+            execute(section.body, frame, out);
+        }
+    }
+
+    /**
+     * Updates a copy of the enclosing frame with the values the section context defines.
+     * Only names the section body references are looked up.
+     */
+    private Object[] enter(Section section, Object[] frame, Map<?, ?> context, Object[] inner) {
+        for (int index : section.referenced) {
+            Object value = context.get(names[index]);
+            inner[index] = value != null ? value : frame[index];
+        }
+        return inner;
+    }
+
+    private static int[] referencedNames(Node[] body) {
+        BitSet referenced = new BitSet();
+        for (Node node : body) {
+            if (node instanceof Slot slot) {
+                referenced.set(slot.index);
+            } else if (node instanceof Section section) {
+                referenced.set(section.index);
+                for (int index : section.referenced) {
+                    referenced.set(index);
+                }
+            }
+        }
+        return referenced.stream().toArray();
+    }
+
+    private static boolean isTruthy(Object value) {
+        if (value == null || Boolean.FALSE.equals(value)) {
+            return false;
+        }
+        return !(value instanceof Collection<?> collection) || !collection.isEmpty();
+    }
+
+    private static IllegalArgumentException error(String name, String source, int offset, String message) {
+        int line = 1;
+        for (int i = 0; i < offset; i++) {
+            if (source.charAt(i) == '\n') {
+                line++;
+            }
+        }
+        return new IllegalArgumentException("Template '" + name + "': " + message + " at line " + line);
+    }
+
+    private sealed interface Node permits Text, Slot, Section {
+    }
+
+    private record Text(String value) implements Node {
+    }
+
+    private record Slot(int index) implements Node {
+    }
+
+    private record Section(String name, int index, boolean inverted, Node[] body, int[] referenced) implements Node {
+    }
+}
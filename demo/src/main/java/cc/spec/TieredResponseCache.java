@@ -0,0 +1,186 @@
+package cc.spec;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Two-tier {@link ResponseCache}: an in-memory LRU tier in front of an on-disk tier that survives
+ * restarts. Both tiers expire entries after the configured TTL and evict least recently used
+ * entries once their byte budget is exceeded.
+ */
+public class TieredResponseCache implements ResponseCache {
+    private static final String ENTRY_SUFFIX = ".txt";
+
+    private final Path directory;
+    private final Duration ttl;
+    private final long memoryBudgetBytes;
+    private final long diskBudgetBytes;
+    private final LinkedHashMap<String, MemoryEntry> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Long> diskSizes = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBytes;
+    private long diskBytes;
+
+    /**
+     * @param directory Directory of the on-disk tier
+     * @param ttl How long a completion stays valid
+     * @param memoryBudgetBytes Upper bound for the in-memory tier (UTF-16 size of cached text)
+     * @param diskBudgetBytes Upper bound for the on-disk tier
+     */
+    public TieredResponseCache(Path directory, Duration ttl, long memoryBudgetBytes, long diskBudgetBytes) throws IOException {
+        this.directory = directory;
+        this.ttl = ttl;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.diskBudgetBytes = diskBudgetBytes;
+        Files.createDirectories(directory);
+        loadDiskIndex();
+    }
+
+    @Override
+    public Optional<String> get(String key) {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            MemoryEntry entry = memory.get(key);
+            if (entry != null) {
+                if (now - entry.storedAt < ttl.toMillis()) {
+                    return Optional.of(entry.response);
+                }
+                removeFromMemory(key);
+            }
+            if (diskSizes.get(key) == null) { // get() also refreshes the disk LRU position
+                return Optional.empty();
+            }
+        }
+        Path file = directory.resolve(key + ENTRY_SUFFIX);
+        try {
+            long storedAt = Files.getLastModifiedTime(file).toMillis();
+            if (now - storedAt >= ttl.toMillis()) {
+                synchronized (this) {
+                    removeFromDisk(key);
+                }
+                return Optional.empty();
+            }
+            String response = Files.readString(file, StandardCharsets.UTF_8);
+            synchronized (this) {
+                putInMemory(key, response, storedAt);
+            }
+            return Optional.of(response);
+        } catch (NoSuchFileException e) {
+            synchronized (this) {
+                diskSizes.remove(key); // evicted concurrently
+            }
+            return Optional.empty();
+        } catch (IOException e) {
+            System.err.println("[AI-CACHE] Failed to read entry " + key + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void put(String key, String response) {
+        long now = System.currentTimeMillis();
+        byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+        synchronized (this) {
+            putInMemory(key, response, now);
+        }
+        if (bytes.length > diskBudgetBytes) {
+            return;
+        }
+        Path staging = directory.resolve("staging-" + UUID.randomUUID());
+        try {
+            Files.write(staging, bytes);
+            Files.move(staging, directory.resolve(key + ENTRY_SUFFIX), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            synchronized (this) {
+                Long previous = diskSizes.put(key, (long) bytes.length);
+                diskBytes += bytes.length - (previous != null ? previous : 0);
+                evictDisk();
+            }
+        } catch (IOException e) {
+            System.err.println("[AI-CACHE] Failed to store entry " + key + ": " + e.getMessage());
+            try {
+                Files.deleteIfExists(staging);
+            } catch (IOException ignored) {
+                // Best effort
+            }
+        }
+    }
+
+    private void putInMemory(String key, String response, long storedAt) {
+        long size = (long) response.length() * Character.BYTES;
+        if (size > memoryBudgetBytes) {
+            return;
+        }
+        MemoryEntry previous = memory.put(key, new MemoryEntry(response, storedAt));
+        memoryBytes += size - (previous != null ? (long) previous.response.length() * Character.BYTES : 0);
+        Iterator<Map.Entry<String, MemoryEntry>> iterator = memory.entrySet().iterator();
+        while (memoryBytes > memoryBudgetBytes && iterator.hasNext()) {
+            Map.Entry<String, MemoryEntry> eldest = iterator.next();
+            iterator.remove();
+            memoryBytes -= (long) eldest.getValue().response.length() * Character.BYTES;
+        }
+    }
+
+    private void removeFromMemory(String key) {
+        MemoryEntry removed = memory.remove(key);
+        if (removed != null) {
+            memoryBytes -= (long) removed.response.length() * Character.BYTES;
+        }
+    }
+
+    private void removeFromDisk(String key) {
+        Long size = diskSizes.remove(key);
+        if (size != null) {
+            diskBytes -= size;
+        }
+        try {
+            Files.deleteIfExists(directory.resolve(key + ENTRY_SUFFIX));
+        } catch (IOException e) {
+            System.err.println("[AI-CACHE] Failed to delete entry " + key + ": " + e.getMessage());
+        }
+    }
+
+    private void evictDisk() {
+        while (diskBytes > diskBudgetBytes && !diskSizes.isEmpty()) {
+            removeFromDisk(diskSizes.keySet().iterator().next());
+        }
+    }
+
+    private void loadDiskIndex() throws IOException {
+        long now = System.currentTimeMillis();
+        List<Path> entries = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (!name.endsWith(ENTRY_SUFFIX) || now - Files.getLastModifiedTime(file).toMillis() >= ttl.toMillis()) {
+                    Files.deleteIfExists(file); // expired entry or interrupted write
+                } else {
+                    entries.add(file);
+                }
+            }
+        }
+        entries.sort(Comparator.comparing(file -> file.toFile().lastModified()));
+        for (Path file : entries) {
+            String name = file.getFileName().toString();
+            long size = Files.size(file);
+            diskSizes.put(name.substring(0, name.length() - ENTRY_SUFFIX.length()), size);
+            diskBytes += size;
+        }
+        evictDisk();
+    }
+
+    private record MemoryEntry(String response, long storedAt) {
+    }
+}
@@ -0,0 +1,140 @@
+package cc.spec;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Holds the uploaded spec files of one request. Uploads are kept in memory and parsed from
+ * there until the request's in-memory budget or the budget shared by all open workspaces is
+ * used up; an upload that does not fit spills into a temporary directory private to the
+ * request, which is deleted on close. Closing also returns the workspace's share of the
+ * shared budget, so queued jobs cannot hold more than that budget in memory between them.
+ */
+public class UploadWorkspace implements Closeable {
+    private final long memoryThreshold;
+    private final MemoryBudget sharedBudget;
+    private final Map<String, SpecSource> sources = new LinkedHashMap<>();
+    private long bytesInMemory;
+    private Path spillDirectory;
+    private boolean closed;
+
+    /**
+     * @param memoryThreshold Total upload size kept in memory before files spill to disk
+     */
+    public UploadWorkspace(long memoryThreshold) {
+        this(memoryThreshold, new MemoryBudget(Long.MAX_VALUE));
+    }
+
+    /**
+     * @param memoryThreshold Total upload size of this workspace kept in memory before files spill to disk
+     * @param sharedBudget In-memory bytes shared by all open workspaces
+     */
+    public UploadWorkspace(long memoryThreshold, MemoryBudget sharedBudget) {
+        this.memoryThreshold = memoryThreshold;
+        this.sharedBudget = sharedBudget;
+    }
+
+    /**
+     * Takes over the content of an upload; the multipart file is not needed afterwards
+     */
+    public SpecSource add(String key, MultipartFile file) throws IOException {
+        // Keep only the file name so a crafted client name cannot escape the spill directory
+        String fileName = Path.of(String.valueOf(file.getOriginalFilename())).getFileName().toString();
+        SpecSource source;
+        if (bytesInMemory + file.getSize() <= memoryThreshold && sharedBudget.tryReserve(file.getSize())) {
+            source = SpecSource.of(fileName, file.getBytes());
+            bytesInMemory += file.getSize();
+        } else {
+            if (spillDirectory == null) {
+                spillDirectory = Files.createTempDirectory("speckits-upload-");
+            }
+            Path filePath = spillDirectory.resolve(key + "-" + fileName);
+            file.transferTo(filePath);
+            source = SpecSource.of(filePath);
+        }
+        sources.put(key, source);
+        return source;
+    }
+
+    public Map<String, SpecSource> getSources() {
+        return Collections.unmodifiableMap(sources);
+    }
+
+    public long getBytesInMemory() {
+        return bytesInMemory;
+    }
+
+    /**
+     * Whether any upload was written to disk
+     */
+    public boolean hasSpilled() {
+        return spillDirectory != null;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        sharedBudget.release(bytesInMemory);
+        if (spillDirectory == null) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(spillDirectory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    System.err.println("[UPLOAD] Failed to delete " + path + ": " + e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("[UPLOAD] Failed to clean up " + spillDirectory + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Upload bytes that may be held in memory across workspaces
+     */
+    public static class MemoryBudget {
+        private final long limit;
+        private final AtomicLong used = new AtomicLong();
+
+        public MemoryBudget(long limit) {
+            this.limit = limit;
+        }
+
+        /**
+         * Takes the bytes from the budget if they fit
+         */
+        boolean tryReserve(long bytes) {
+            long current;
+            do {
+                current = used.get();
+                if (current + bytes > limit) {
+                    return false;
+                }
+            } while (!used.compareAndSet(current, current + bytes));
+            return true;
+        }
+
+        void release(long bytes) {
+            used.addAndGet(-bytes);
+        }
+
+        public long getUsed() {
+            return used.get();
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package cc.spec;
+
+import java.io.Closeable;
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writes generated files below a directory on background writer threads, so renderers only
+ * encode their output and hand it over. The queue is bounded: when the writers fall behind,
+ * renderers block instead of piling rendered files up in memory.
+ *
+ * Writers remember which directories exist (including those created through
+ * {@link #createDirectory}), so a file in a known directory costs a single open and write.
+ * Files larger than one chunk are encoded in pieces and written with one gathering write.
+ * With fsync enabled, every written file and created directory is forced to storage once in
+ * {@link #close()} rather than after each write.
+ *
+ * Every file is written to a temporary sibling and moved into place, so existing files are
+ * replaced, never written through. Writes to the same path are numbered as they are queued or
+ * opened, and only the latest one is moved into place: however the writer threads interleave, the
+ * last write of a path wins, and a superseded write is dropped.
+ */
+public class WriteBehindOutputSink implements OutputSink, Closeable {
+    private static final int CHUNK_CHARS = 64 * 1024;
+    private static final WriteTask STOP = new WriteTask(null, null, 0);
+
+    private final Path root;
+    private final Options options;
+    private final BlockingQueue<WriteTask> queue;
+    private final List<Thread> writers = new ArrayList<>();
+    private final Set<Path> directories = ConcurrentHashMap.newKeySet();
+    private final Set<Path> written = ConcurrentHashMap.newKeySet();
+    private final Map<Path, Long> latest = new ConcurrentHashMap<>();
+    private final Object commitLock = new Object();
+    private long sequence;
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final AtomicInteger filesWritten = new AtomicInteger();
+    private final AtomicInteger directoriesCreated = new AtomicInteger();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final AtomicReference<IOException> failure = new AtomicReference<>();
+    private boolean closed;
+
+    public WriteBehindOutputSink(Path root, Options options) {
+        this.root = root;
+        this.options = options;
+        this.queue = new ArrayBlockingQueue<>(options.queueCapacity());
+        for (int i = 0; i < options.writerThreads(); i++) {
+            Thread writer = Thread.ofPlatform().name("write-behind-" + i).daemon().unstarted(this::drain);
+            writers.add(writer);
+            writer.start();
+        }
+    }
+
+    /**
+     * Queues a file for writing, blocking while the queue is full
+     * @throws IOException if an earlier queued write failed
+     */
+    @Override
+    public void write(String relativePath, String content) throws IOException {
+        rethrowFailure();
+        Path filePath = root.resolve(relativePath);
+        WriteTask task = new WriteTask(filePath, encode(content), register(filePath));
+        try {
+            queue.put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while queueing " + relativePath);
+        }
+        maxQueueDepth.accumulateAndGet(queue.size(), Math::max);
+    }
+
+    @Override
+    public void createDirectory(String relativePath) throws IOException {
+        ensureDirectory(root.resolve(relativePath));
+    }
+
+    /**
+     * Streams on the calling thread, as content that arrives incrementally gains nothing from
+     * being queued. The file supersedes any write of the same path queued before it was opened.
+     */
+    @Override
+    public Writer openWriter(String relativePath) throws IOException {
+        Path filePath = root.resolve(relativePath);
+        long seq = register(filePath);
+        ensureDirectory(filePath.getParent());
+        Path temp = temporaryFile(filePath, seq);
+        return new FilterWriter(Files.newBufferedWriter(temp)) {
+            private boolean committed;
+
+            @Override
+            public void close() throws IOException {
+                super.close();
+                if (!committed) {
+                    committed = true;
+                    commit(filePath, temp, seq);
+                }
+            }
+        };
+    }
+
+    /**
+     * Waits for all queued files to be written, then fsyncs them if configured
+     * @throws IOException the first write failure, if any
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            for (int i = 0; i < writers.size(); i++) {
+                queue.put(STOP);
+            }
+            for (Thread writer : writers) {
+                writer.join();
+            }
+        } catch (InterruptedException e) {
+            writers.forEach(Thread::interrupt);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for queued writes");
+        }
+        rethrowFailure();
+        if (options.fsync()) {
+            for (Path file : written) {
+                force(file, StandardOpenOption.WRITE);
+            }
+            for (Path directory : directories) {
+                force(directory, StandardOpenOption.READ);
+            }
+        }
+        System.out.println("[WRITE-BEHIND] ✓ " + filesWritten.get() + " files, " + bytesWritten.get() + " bytes, "
+                + directoriesCreated.get() + " directories, max queue depth " + maxQueueDepth.get()
+                + (options.fsync() ? ", fsynced" : ""));
+    }
+
+    /**
+     * Files currently waiting for a writer
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public int getMaxQueueDepth() { return maxQueueDepth.get(); }
+    public long getBytesWritten() { return bytesWritten.get(); }
+    public int getFilesWritten() { return filesWritten.get(); }
+    public int getDirectoriesCreated() { return directoriesCreated.get(); }
+
+    private void drain() {
+        while (true) {
+            WriteTask task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (task == STOP) {
+                return;
+            }
+            // After a failure keep draining so renderers blocked on a full queue are released
+            if (failure.get() == null && isLatest(task.path(), task.seq())) {
+                try {
+                    writeFile(task);
+                } catch (IOException e) {
+                    failure.compareAndSet(null,
+                            new IOException("Failed to write " + root.relativize(task.path()) + ": " + e.getMessage(), e));
+                }
+            }
+        }
+    }
+
+    private void writeFile(WriteTask task) throws IOException {
+        ensureDirectory(task.path().getParent());
+        long remaining = 0;
+        for (ByteBuffer buffer : task.buffers()) {
+            remaining += buffer.remaining();
+        }
+        long size = remaining;
+        Path temp = temporaryFile(task.path(), task.seq());
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            while (remaining > 0) {
+                remaining -= channel.write(task.buffers());
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        if (commit(task.path(), temp, task.seq())) {
+            filesWritten.incrementAndGet();
+            bytesWritten.addAndGet(size);
+        }
+    }
+
+    /**
+     * Numbers a write of a path; only the write holding the latest number is moved into place
+     */
+    private long register(Path path) {
+        synchronized (commitLock) {
+            long seq = ++sequence;
+            latest.put(path, seq);
+            return seq;
+        }
+    }
+
+    private boolean isLatest(Path path, long seq) {
+        return latest.get(path) == seq;
+    }
+
+    /**
+     * Moves a written temporary file over the path unless a later write of the path superseded it
+     * @return whether the file was moved into place
+     */
+    private boolean commit(Path path, Path temp, long seq) throws IOException {
+        synchronized (commitLock) {
+            if (!isLatest(path, seq)) {
+                Files.deleteIfExists(temp);
+                return false;
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        written.add(path);
+        return true;
+    }
+
+    private static Path temporaryFile(Path path, long seq) {
+        return path.resolveSibling("." + path.getFileName() + "." + seq + ".tmp");
+    }
+
+    private void ensureDirectory(Path directory) throws IOException {
+        if (directory == null || directories.contains(directory)) {
+            return;
+        }
+        Files.createDirectories(directory);
+        if (directories.add(directory)) {
+            directoriesCreated.incrementAndGet();
+        }
+        // Every ancestor exists now as well
+        for (Path parent = directory.getParent(); parent != null && parent.startsWith(root); parent = parent.getParent()) {
+            directories.add(parent);
+        }
+    }
+
+    private void force(Path path, StandardOpenOption mode) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, mode)) {
+            channel.force(true);
+        }
+    }
+
+    private void rethrowFailure() throws IOException {
+        IOException e = failure.get();
+        if (e != null) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Encodes on the rendering thread; content beyond one chunk is split so large files are
+     * never copied into a single array
+     */
+    private static ByteBuffer[] encode(String content) {
+        if (content.length() <= CHUNK_CHARS) {
+            return new ByteBuffer[]{ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8))};
+        }
+        List<ByteBuffer> chunks = new ArrayList<>();
+        int start = 0;
+        while (start < content.length()) {
+            int end = Math.min(start + CHUNK_CHARS, content.length());
+            if (end < content.length() && Character.isHighSurrogate(content.charAt(end - 1))) {
+                end--; // keep surrogate pairs in one chunk
+            }
+            chunks.add(ByteBuffer.wrap(content.substring(start, end).getBytes(StandardCharsets.UTF_8)));
+            start = end;
+        }
+        return chunks.toArray(new ByteBuffer[0]);
+    }
+
+    /**
+     * @param queueCapacity Rendered files that may wait for a writer before renderers block
+     * @param writerThreads Number of writer threads
+     * @param fsync Whether to force all written files to storage when the sink is closed
+     */
+    public record Options(int queueCapacity, int writerThreads, boolean fsync) {
+        public Options {
+            if (queueCapacity < 1 || writerThreads < 1) {
+                throw new IllegalArgumentException("Write-behind queue capacity and writer threads must be positive");
+            }
+        }
+    }
+
+    private record WriteTask(Path path, ByteBuffer[] buffers, long seq) {
+    }
+}
@@ -0,0 +1,66 @@
+package cc.spec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams generated files into a ZIP archive as they are written. Each entry is flushed to the
+ * underlying stream once complete, so only the entry being written is held in memory.
+ * A ZIP stream cannot replace an entry: when a path is written twice, the first version is kept.
+ */
+public class ZipOutputSink implements OutputSink, Closeable {
+    private final OutputStream out;
+    private final ZipOutputStream zip;
+    private final Set<String> entries = new HashSet<>();
+    private long bytesWritten;
+
+    /**
+     * @param out Destination of the archive; closed when the sink is closed
+     */
+    public ZipOutputSink(OutputStream out) {
+        this.out = out;
+        this.zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public synchronized void write(String relativePath, String content) throws IOException {
+        if (!entries.add(relativePath)) {
+            System.err.println("[ZIP] Skipping duplicate entry " + relativePath);
+            return;
+        }
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        zip.putNextEntry(new ZipEntry(relativePath));
+        zip.write(bytes);
+        zip.closeEntry();
+        out.flush();
+        bytesWritten += bytes.length;
+    }
+
+    /**
+     * Number of entries written so far
+     */
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * Uncompressed size of the entries written so far
+     */
+    public synchronized long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Writes the central directory and closes the underlying stream
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        zip.close();
+    }
+}
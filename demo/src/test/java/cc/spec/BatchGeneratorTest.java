@@ -0,0 +1,73 @@
+package cc.spec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BatchGeneratorTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void givenDirectoryOfBundles_shouldGenerateEachWithItsOwnGapsAndSummarize() throws IOException {
+        Path input = tempDir.resolve("specs");
+        Path output = tempDir.resolve("out");
+        for (int i = 0; i < 6; i++) {
+            Path bundle = Files.createDirectories(input.resolve("team-" + (i % 2)).resolve("service-" + i));
+            // Every other bundle has an entity without an id field, which is reported as a gap
+            Files.writeString(bundle.resolve("domain.yaml"), "entities:\n  Item" + i + ":\n    fields:\n"
+                    + (i % 2 == 0 ? "      id: long\n" : "") + "      name: string\n");
+            Files.writeString(bundle.resolve("outputprefs.yml"), "packageName: com.example.service" + i + "\n");
+        }
+        Files.writeString(input.resolve("README.md"), "not a spec");
+        // The output directory of one bundle is blocked by a file, so that bundle fails
+        Files.createDirectories(output.resolve("team-1"));
+        Files.writeString(output.resolve("team-1").resolve("service-5"), "blocked");
+
+        List<BatchGenerator.BundleResult> results = new BatchGenerator(() -> new SpecToCodeAgent("unused"), 3)
+                .generate(input, output, false);
+
+        assertEquals(6, results.size());
+        for (BatchGenerator.BundleResult result : results) {
+            String name = result.bundle().getFileName().toString();
+            int i = Integer.parseInt(name.substring(name.indexOf('-') + 1));
+            if (i == 5) {
+                assertFalse(result.succeeded());
+                continue;
+            }
+            assertNull(result.error(), name);
+            assertEquals(1, result.entities());
+            assertEquals(new SpecToCodeAgent("unused").generateProject(
+                    BatchGenerator.findBundles(input.resolve(result.bundle())).values().iterator().next(),
+                    tempDir.resolve("single-" + i), false).getGaps().size(), result.gaps(), name);
+            assertTrue(Files.isRegularFile(output.resolve(result.bundle()).resolve("GAP_REPORT.md")));
+        }
+        String summary = Files.readString(output.resolve(BatchGenerator.SUMMARY_FILE));
+        assertTrue(summary.contains("- Bundles: 6"), summary);
+        assertTrue(summary.contains("- Failed: 1"), summary);
+        assertTrue(summary.contains("| team-1/service-5 | FAILED |"), summary);
+        assertTrue(summary.contains("## Failures"), summary);
+    }
+
+    @Test
+    public void givenSpecFilesByType_shouldGroupThemPerDirectory() throws IOException {
+        Path bundle = Files.createDirectories(tempDir.resolve("a"));
+        Files.writeString(bundle.resolve("openapi.json"), "{}");
+        Files.writeString(bundle.resolve("graphql.graphqls"), "type Query { a: Int }");
+        Files.writeString(bundle.resolve("notes.txt"), "");
+
+        Map<Path, Map<String, Path>> bundles = BatchGenerator.findBundles(tempDir);
+
+        assertEquals(Map.of(bundle, Map.of("openapi", bundle.resolve("openapi.json"), "graphql", bundle.resolve("graphql.graphqls"))), bundles);
+    }
+}
@@ -0,0 +1,33 @@
+package cc.spec;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Minimal MultipartFile over a byte array
+ */
+record BytesMultipartFile(String originalFilename, byte[] content) implements MultipartFile {
+
+    static MultipartFile of(String originalFilename, String content) {
+        return new BytesMultipartFile(originalFilename, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override public String getName() { return "file"; }
+    @Override public String getOriginalFilename() { return originalFilename; }
+    @Override public String getContentType() { return "application/octet-stream"; }
+    @Override public boolean isEmpty() { return content.length == 0; }
+    @Override public long getSize() { return content.length; }
+    @Override public byte[] getBytes() { return content.clone(); }
+    @Override public InputStream getInputStream() { return new ByteArrayInputStream(content); }
+
+    @Override
+    public void transferTo(File dest) throws IOException {
+        Files.write(dest.toPath(), content);
+    }
+}
@@ -0,0 +1,82 @@
+package cc.spec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the batch-friendly persistence generated from the output preferences
+ */
+public class CodeGeneratorBatchingTest {
+    private static final String PACKAGE_DIR = "src/main/java/com/example/shop";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void givenNoBatchingPreferences_shouldKeepIdentityIdsAndStatementLogging() throws IOException {
+        Path out = generate("packageName: com.example.shop\n");
+
+        String entity = Files.readString(out.resolve(PACKAGE_DIR + "/entity/Order.java"));
+        String properties = Files.readString(out.resolve("src/main/resources/application.properties"));
+        assertTrue(entity.contains("@GeneratedValue(strategy = GenerationType.IDENTITY)"), entity);
+        assertTrue(properties.contains("spring.jpa.show-sql=true\n\n# Server Configuration"), properties);
+        assertFalse(properties.contains("batch_size"), properties);
+        assertFalse(Files.readString(out.resolve(PACKAGE_DIR + "/controller/OrderController.java")).contains("/bulk"));
+    }
+
+    @Test
+    public void givenBatching_shouldGeneratePooledSequencesBatchSettingsAndBulkEndpoints() throws IOException {
+        Path out = generate("""
+                packageName: com.example.shop
+                batching:
+                  batchSize: 100
+                  allocationSize: 200
+                """);
+
+        String entity = Files.readString(out.resolve(PACKAGE_DIR + "/entity/Order.java"));
+        String properties = Files.readString(out.resolve("src/main/resources/application.properties"));
+        String serviceImpl = Files.readString(out.resolve(PACKAGE_DIR + "/service/OrderServiceImpl.java"));
+        String controller = Files.readString(out.resolve(PACKAGE_DIR + "/controller/OrderController.java"));
+        String test = Files.readString(out.resolve("src/test/java/com/example/shop/controller/OrderControllerTest.java"));
+        assertTrue(entity.contains("@SequenceGenerator(name = \"order_seq\", sequenceName = \"orders_seq\", allocationSize = 200)"), entity);
+        assertFalse(entity.contains("GenerationType.IDENTITY"), entity);
+        assertTrue(properties.contains("spring.jpa.properties.hibernate.jdbc.batch_size=100"), properties);
+        assertTrue(properties.contains("spring.jpa.properties.hibernate.order_inserts=true"), properties);
+        assertTrue(properties.contains("spring.jpa.show-sql=false"), properties);
+        assertTrue(serviceImpl.contains("List<Order> entities = repository.findAllById(byId.keySet());"), serviceImpl);
+        assertTrue(controller.contains("@PostMapping(\"/bulk\")"), controller);
+        assertTrue(controller.contains("@PutMapping(\"/bulk\")"), controller);
+        assertTrue(test.contains("public void testCreateAll()") && test.contains("public void testUpdateAll()"), test);
+    }
+
+    @Test
+    public void givenBatchingWithoutIdField_shouldOnlyGenerateBulkCreate() throws IOException {
+        Path domain = Files.writeString(tempDir.resolve("domain.yaml"), "entities:\n  Order:\n    fields:\n      total: double\n");
+        Path out = generate(domain, "packageName: com.example.shop\nbatching: true\n");
+
+        String controller = Files.readString(out.resolve(PACKAGE_DIR + "/controller/OrderController.java"));
+        assertTrue(controller.contains("@PostMapping(\"/bulk\")"), controller);
+        assertFalse(controller.contains("@PutMapping(\"/bulk\")"), controller);
+        assertFalse(Files.readString(out.resolve(PACKAGE_DIR + "/service/OrderServiceImpl.java")).contains("updateAll"));
+    }
+
+    private Path generate(String outputPreferences) throws IOException {
+        return generate(Files.writeString(tempDir.resolve("domain.yaml"),
+                "entities:\n  Order:\n    fields:\n      id: long\n      total: double\n"), outputPreferences);
+    }
+
+    private Path generate(Path domain, String outputPreferences) throws IOException {
+        Path prefs = Files.writeString(tempDir.resolve("outputprefs.yaml"), outputPreferences);
+        Path out = tempDir.resolve("out");
+        new SpecToCodeAgent("unused").generateProject(Map.of("domain", domain, "outputprefs", prefs), out, false);
+        return out;
+    }
+}
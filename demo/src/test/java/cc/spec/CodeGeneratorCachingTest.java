@@ -0,0 +1,89 @@
+package cc.spec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the caching tier generated from the output preferences and domain model cache hints
+ */
+public class CodeGeneratorCachingTest {
+    private static final String PACKAGE_DIR = "src/main/java/com/example/shop";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void givenNoCachingPreferences_shouldNotCacheServices() throws IOException {
+        Path out = generate("packageName: com.example.shop\n", "");
+
+        assertFalse(Files.readString(out.resolve(PACKAGE_DIR + "/service/OrderServiceImpl.java")).contains("@Cacheable"));
+        assertFalse(Files.readString(out.resolve("pom.xml")).contains("caffeine"));
+        assertFalse(Files.exists(out.resolve(PACKAGE_DIR + "/config/CachingConfig.java")));
+    }
+
+    @Test
+    public void givenCaching_shouldCacheReadsAndRegisterPerEntityCaches() throws IOException {
+        Path out = generate("packageName: com.example.shop\ncaching:\n  maximumSize: 500\n  expireAfterWrite: 5m\n",
+                "    cache:\n      maximumSize: 20000\n      expireAfterWrite: 1h\n");
+
+        String serviceImpl = Files.readString(out.resolve(PACKAGE_DIR + "/service/OrderServiceImpl.java"));
+        String customerService = Files.readString(out.resolve(PACKAGE_DIR + "/service/CustomerServiceImpl.java"));
+        String config = Files.readString(out.resolve(PACKAGE_DIR + "/config/CachingConfig.java"));
+        assertTrue(serviceImpl.contains("@CacheConfig(cacheNames = \"orders\")"), serviceImpl);
+        assertTrue(serviceImpl.contains("@Cacheable(key = \"#p0\", unless = \"#result == null\")"), serviceImpl);
+        assertTrue(serviceImpl.contains("@CachePut(key = \"#result.getId()\")"), serviceImpl);
+        assertTrue(serviceImpl.contains("@CacheEvict(key = \"#p0\")"), serviceImpl);
+        assertTrue(customerService.contains("@CacheConfig(cacheNames = \"customers\")"), customerService);
+        assertTrue(config.contains("registerCustomCache(\"orders\", Caffeine.newBuilder()\n                .maximumSize(20000)\n"
+                + "                .expireAfterWrite(Duration.parse(\"PT1H\"))"), config);
+        assertTrue(config.contains("registerCustomCache(\"customers\", Caffeine.newBuilder()\n                .maximumSize(500)\n"
+                + "                .expireAfterWrite(Duration.parse(\"PT5M\"))"), config);
+        assertTrue(config.contains(".recordStats()"), config);
+        assertTrue(Files.readString(out.resolve("pom.xml")).contains("<artifactId>caffeine</artifactId>"));
+        assertTrue(Files.readString(out.resolve("src/main/resources/application.properties"))
+                .contains("management.endpoints.web.exposure.include=health,metrics,caches"));
+    }
+
+    @Test
+    public void givenEntityOptingOut_shouldLeaveItUncached() throws IOException {
+        Path out = generate("packageName: com.example.shop\ncaching: true\n", "    cache: false\n");
+
+        assertFalse(Files.readString(out.resolve(PACKAGE_DIR + "/service/OrderServiceImpl.java")).contains("@Cacheable"));
+        String config = Files.readString(out.resolve(PACKAGE_DIR + "/config/CachingConfig.java"));
+        assertFalse(config.contains("\"orders\""), config);
+        assertTrue(config.contains("\"customers\""), config);
+    }
+
+    @Test
+    public void givenInvalidCacheHint_shouldRecordGap() throws IOException {
+        Path domain = writeDomain("    cache:\n      expireAfterWrite: 600\n");
+        Path prefs = Files.writeString(tempDir.resolve("outputprefs.yaml"), "packageName: com.example.shop\ncaching: true\n");
+        SpecToCodeAgent.GenerationResult result = new SpecToCodeAgent("unused")
+                .generateProject(Map.of("domain", domain, "outputprefs", prefs), tempDir.resolve("out"), false);
+
+        assertTrue(result.getGaps().stream().anyMatch(gap -> gap.contains("entities.Order.cache.expireAfterWrite")),
+                result.getGaps().toString());
+    }
+
+    private Path generate(String outputPreferences, String orderCacheHints) throws IOException {
+        Path domain = writeDomain(orderCacheHints);
+        Path prefs = Files.writeString(tempDir.resolve("outputprefs.yaml"), outputPreferences);
+        Path out = tempDir.resolve("out");
+        new SpecToCodeAgent("unused").generateProject(Map.of("domain", domain, "outputprefs", prefs), out, false);
+        return out;
+    }
+
+    private Path writeDomain(String orderCacheHints) throws IOException {
+        return Files.writeString(tempDir.resolve("domain.yaml"), "entities:\n  Order:\n" + orderCacheHints
+                + "    fields:\n      id: long\n      total: double\n"
+                + "  Customer:\n    fields:\n      id: long\n      name: string\n");
+    }
+}
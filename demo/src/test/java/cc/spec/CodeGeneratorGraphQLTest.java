@@ -0,0 +1,71 @@
+package cc.spec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the GraphQL controllers and batch loaders generated from a GraphQL schema
+ */
+public class CodeGeneratorGraphQLTest {
+    private static final String PACKAGE_DIR = "src/main/java/com/example/blog";
+    private static final String SCHEMA = """
+            type User { id: ID!, name: String, posts: [Post] }
+            type Post { id: ID!, title: String, author: User }
+            input PostInput { title: String, authorId: ID }
+            type Query { posts(page: Int, size: Int): [Post], user(id: ID!): User }
+            type Mutation { createPost(input: PostInput!): Post }
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void givenGraphQLSchema_shouldGenerateResolversWithBatchMappings() throws IOException {
+        Generated generated = generate("packageName: com.example.blog\n");
+        Path out = generated.outputPath;
+
+        String postController = Files.readString(out.resolve(PACKAGE_DIR + "/graphql/PostGraphQLController.java"));
+        String userController = Files.readString(out.resolve(PACKAGE_DIR + "/graphql/UserGraphQLController.java"));
+        assertTrue(postController.contains("@QueryMapping(\"posts\")"), postController);
+        assertTrue(postController.contains("public PostDTO createPost(@Argument(\"input\") PostDTO input)"), postController);
+        assertTrue(postController.contains("@BatchMapping(typeName = \"Post\", field = \"author\")"), postController);
+        assertTrue(postController.contains("userService.findAllById(ids)"), postController);
+        assertTrue(userController.contains("postService.findAllByAuthorIdIn(ids)"), userController);
+        assertTrue(Files.readString(out.resolve(PACKAGE_DIR + "/repository/PostRepository.java"))
+                .contains("List<Post> findByAuthorIdIn(Collection<Long> ids);"));
+        assertTrue(Files.readString(out.resolve(PACKAGE_DIR + "/entity/Post.java")).contains("private Long authorId;"));
+        assertTrue(Files.exists(out.resolve("src/test/java/com/example/blog/graphql/UserGraphQLControllerTest.java")));
+        assertTrue(Files.readString(out.resolve("pom.xml")).contains("<artifactId>spring-boot-starter-graphql</artifactId>"));
+        assertTrue(Files.readString(out.resolve("src/main/resources/graphql/schema.graphqls")).equals(SCHEMA));
+        assertFalse(generated.result.getGaps().toString().contains("GraphQL"), generated.result.getGaps().toString());
+    }
+
+    @Test
+    public void givenReactiveTarget_shouldSkipResolversAndRecordGap() throws IOException {
+        Generated generated = generate("packageName: com.example.blog\ntarget: reactive\n");
+
+        assertTrue(generated.result.getGaps().contains("GraphQL resolvers are only generated for the servlet target"));
+        assertFalse(Files.exists(generated.outputPath.resolve(PACKAGE_DIR + "/graphql/PostGraphQLController.java")));
+        assertFalse(Files.readString(generated.outputPath.resolve("pom.xml")).contains("spring-boot-starter-graphql"));
+    }
+
+    private Generated generate(String outputPreferences) throws IOException {
+        Path graphql = Files.writeString(tempDir.resolve("schema.graphqls"), SCHEMA);
+        Path prefs = Files.writeString(tempDir.resolve("outputprefs.yaml"), outputPreferences);
+        Path out = tempDir.resolve("out");
+        SpecToCodeAgent.GenerationResult result = new SpecToCodeAgent("unused")
+                .generateProject(Map.of("graphql", graphql, "outputprefs", prefs), out, false);
+        return new Generated(result, out);
+    }
+
+    private record Generated(SpecToCodeAgent.GenerationResult result, Path outputPath) {
+    }
+}
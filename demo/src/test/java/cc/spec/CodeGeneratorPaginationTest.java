@@ -0,0 +1,102 @@
+package cc.spec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the paginated list operations generated from the output preferences
+ */
+public class CodeGeneratorPaginationTest {
+    private static final String PACKAGE_DIR = "src/main/java/com/example/shop";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void givenNoPaginationPreferences_shouldPageListEndpointsWithDefaultSizes() throws IOException {
+        Path out = generate("packageName: com.example.shop\n");
+
+        String controller = Files.readString(out.resolve(PACKAGE_DIR + "/controller/OrderController.java"));
+        String serviceImpl = Files.readString(out.resolve(PACKAGE_DIR + "/service/OrderServiceImpl.java"));
+        assertTrue(controller.contains("static final int DEFAULT_PAGE_SIZE = 20;"), controller);
+        assertTrue(controller.contains("static final int MAX_PAGE_SIZE = 100;"), controller);
+        assertTrue(controller.contains("public ResponseEntity<Page<OrderDTO>> getAll(@RequestParam(name = \"page\", defaultValue = \"0\") int page,"), controller);
+        assertTrue(serviceImpl.contains("return repository.findAll(pageable).map(this::toDTO);"), serviceImpl);
+        assertFalse(serviceImpl.contains("repository.findAll().stream()"), serviceImpl);
+        assertFalse(controller.contains("/seek"), controller);
+        assertTrue(Files.readString(out.resolve("src/test/java/com/example/shop/controller/OrderControllerTest.java"))
+                .contains("assertEquals(OrderController.MAX_PAGE_SIZE, pageable.getValue().getPageSize());"));
+    }
+
+    @Test
+    public void givenKeysetPagination_shouldGenerateSeekEndpointAndTest() throws IOException {
+        Path out = generate("""
+                packageName: com.example.shop
+                pagination:
+                  keyset: true
+                  defaultPageSize: 50
+                  maxPageSize: 500
+                """);
+
+        String repository = Files.readString(out.resolve(PACKAGE_DIR + "/repository/OrderRepository.java"));
+        String service = Files.readString(out.resolve(PACKAGE_DIR + "/service/OrderService.java"));
+        String controller = Files.readString(out.resolve(PACKAGE_DIR + "/controller/OrderController.java"));
+        String test = Files.readString(out.resolve("src/test/java/com/example/shop/controller/OrderControllerTest.java"));
+        assertTrue(repository.contains("Slice<Order> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);"), repository);
+        assertTrue(service.contains("record SeekPage(List<OrderDTO> content, Long nextAfter)"), service);
+        assertTrue(controller.contains("static final int DEFAULT_PAGE_SIZE = 50;"), controller);
+        assertTrue(controller.contains("@GetMapping(\"/seek\")"), controller);
+        assertTrue(test.contains("public void testSeek()"), test);
+    }
+
+    @Test
+    public void givenPaginationDisabled_shouldRenderLegacyListOperations() throws IOException {
+        Path out = generate("packageName: com.example.shop\npagination: false\n");
+
+        SpecParser.EntityInfo order = new SpecParser.EntityInfo("Order");
+        order.addField("id", "Long");
+        order.addField("total", "Double");
+        assertEquals(LegacyCodeRenderer.renderServiceImpl("com.example.shop", order),
+                Files.readString(out.resolve(PACKAGE_DIR + "/service/OrderServiceImpl.java")));
+        assertEquals(LegacyCodeRenderer.renderController("com.example.shop", order, java.util.List.of()),
+                Files.readString(out.resolve(PACKAGE_DIR + "/controller/OrderController.java")));
+        assertEquals(LegacyCodeRenderer.renderTest("com.example.shop", order),
+                Files.readString(out.resolve("src/test/java/com/example/shop/controller/OrderControllerTest.java")));
+    }
+
+    @Test
+    public void givenInvalidPageSizes_shouldRecordGapAndUseDefaults() throws IOException {
+        Path domain = writeDomain();
+        Path prefs = Files.writeString(tempDir.resolve("outputprefs.yaml"),
+                "packageName: com.example.shop\npagination:\n  defaultPageSize: 500\n  maxPageSize: 100\n");
+        Path out = tempDir.resolve("out");
+        SpecToCodeAgent.GenerationResult result =
+                new SpecToCodeAgent("unused").generateProject(Map.of("domain", domain, "outputprefs", prefs), out, false);
+
+        assertTrue(result.getGaps().stream().anyMatch(gap -> gap.startsWith("Ignored generator options from output preferences")),
+                result.getGaps().toString());
+        assertTrue(Files.readString(out.resolve(PACKAGE_DIR + "/controller/OrderController.java"))
+                .contains("static final int DEFAULT_PAGE_SIZE = 20;"));
+    }
+
+    private Path generate(String outputPreferences) throws IOException {
+        Path domain = writeDomain();
+        Path prefs = Files.writeString(tempDir.resolve("outputprefs.yaml"), outputPreferences);
+        Path out = tempDir.resolve("out");
+        new SpecToCodeAgent("unused").generateProject(Map.of("domain", domain, "outputprefs", prefs), out, false);
+        return out;
+    }
+
+    private Path writeDomain() throws IOException {
+        return Files.writeString(tempDir.resolve("domain.yaml"), "entities:\n  Order:\n    fields:\n      id: long\n      total: double\n");
+    }
+}
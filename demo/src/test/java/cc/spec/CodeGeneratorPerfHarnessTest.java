@@ -0,0 +1,59 @@
+package cc.spec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the load tests and JMH benchmarks generated for every entity and the perf profile running them
+ */
+public class CodeGeneratorPerfHarnessTest {
+    private static final String BENCHMARK = "src/jmh/java/com/example/shop/benchmark/OrderBenchmark.java";
+    private static final String LOAD_TEST = "src/test/java/com/example/shop/perf/OrderLoadTest.java";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void givenDefaultPreferences_shouldGenerateHarnessRunOnlyByPerfProfile() throws IOException {
+        Path out = generate("packageName: com.example.shop\n");
+
+        String benchmark = Files.readString(out.resolve(BENCHMARK));
+        String loadTest = Files.readString(out.resolve(LOAD_TEST));
+        String pom = Files.readString(out.resolve("pom.xml"));
+        assertTrue(benchmark.contains("SpringApplication.run(GeneratedProjectApplication.class,"), benchmark);
+        assertTrue(benchmark.contains("public Page<OrderDTO> findPage()"), benchmark);
+        assertTrue(loadTest.contains("drive(\"DELETE /{id}\""), loadTest);
+        assertTrue(pom.contains("<maven.compiler.parameters>true</maven.compiler.parameters>"), pom);
+        assertTrue(pom.contains("<exclude>**/*LoadTest.java</exclude>"), pom);
+        assertTrue(pom.contains("<id>perf</id>") && pom.contains("<argument>org.openjdk.jmh.Main</argument>"), pom);
+        assertTrue(Files.readString(out.resolve("README.md")).contains("mvn -Pperf verify"));
+    }
+
+    @Test
+    public void givenPerfHarnessDisabled_shouldGenerateNeitherHarnessNorProfile() throws IOException {
+        Path out = generate("packageName: com.example.shop\nperfHarness: false\n");
+
+        assertFalse(Files.exists(out.resolve(BENCHMARK)));
+        assertFalse(Files.exists(out.resolve(LOAD_TEST)));
+        String pom = Files.readString(out.resolve("pom.xml"));
+        assertFalse(pom.contains("<profiles>"), pom);
+        assertFalse(pom.contains("maven-surefire-plugin"), pom);
+    }
+
+    private Path generate(String outputPreferences) throws IOException {
+        Path domain = Files.writeString(tempDir.resolve("domain.yaml"),
+                "entities:\n  Order:\n    fields:\n      id: long\n      total: double\n");
+        Path prefs = Files.writeString(tempDir.resolve("outputprefs.yaml"), outputPreferences);
+        Path out = tempDir.resolve("out");
+        new SpecToCodeAgent("unused").generateProject(Map.of("domain", domain, "outputprefs", prefs), out, false);
+        return out;
+    }
+}
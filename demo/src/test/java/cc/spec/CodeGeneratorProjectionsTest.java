@@ -0,0 +1,71 @@
+package cc.spec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the record DTOs and projection queries generated from the output preferences
+ */
+public class CodeGeneratorProjectionsTest {
+    private static final String PACKAGE_DIR = "src/main/java/com/example/shop";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void givenProjections_shouldReadRecordDtosThroughConstructorExpressions() throws IOException {
+        Path out = generate("packageName: com.example.shop\nprojections: true\npagination:\n  keyset: true\n");
+
+        String dto = Files.readString(out.resolve(PACKAGE_DIR + "/dto/OrderDTO.java"));
+        String repository = Files.readString(out.resolve(PACKAGE_DIR + "/repository/OrderRepository.java"));
+        String serviceImpl = Files.readString(out.resolve(PACKAGE_DIR + "/service/OrderServiceImpl.java"));
+        assertEquals("""
+                package com.example.shop.dto;
+
+                public record OrderDTO(
+                        Long id,
+                        Double total
+                ) {
+                }
+                """, dto);
+        assertTrue(repository.contains(
+                "String SELECT_DTO = \"select new com.example.shop.dto.OrderDTO(e.id, e.total) from Order e\";"), repository);
+        assertTrue(repository.contains("Optional<OrderDTO> findDtoById(@Param(\"id\") Long id);"), repository);
+        assertTrue(repository.contains("Page<OrderDTO> findAllDtos(Pageable pageable);"), repository);
+        assertTrue(serviceImpl.contains("return repository.findDtoById(id).orElse(null);"), serviceImpl);
+        assertTrue(serviceImpl.contains("return repository.findAllDtos(pageable);"), serviceImpl);
+        assertTrue(serviceImpl.contains("repository.findDtosByIdGreaterThan("), serviceImpl);
+        // writes stay on entities
+        assertTrue(serviceImpl.contains("entity.setTotal(dto.total());"), serviceImpl);
+        assertTrue(serviceImpl.contains("return new OrderDTO(\n                entity.getId(),\n                entity.getTotal()\n        );"),
+                serviceImpl);
+    }
+
+    @Test
+    public void givenProjectionsWithoutPagination_shouldListThroughProjectionQuery() throws IOException {
+        Path out = generate("packageName: com.example.shop\nprojections: true\npagination: false\n");
+
+        String repository = Files.readString(out.resolve(PACKAGE_DIR + "/repository/OrderRepository.java"));
+        String serviceImpl = Files.readString(out.resolve(PACKAGE_DIR + "/service/OrderServiceImpl.java"));
+        assertTrue(repository.contains("List<OrderDTO> findAllDtos();"), repository);
+        assertTrue(serviceImpl.contains("return repository.findAllDtos();"), serviceImpl);
+        assertFalse(serviceImpl.contains("Collectors"), serviceImpl);
+    }
+
+    private Path generate(String outputPreferences) throws IOException {
+        Path domain = Files.writeString(tempDir.resolve("domain.yaml"), "entities:\n  Order:\n    fields:\n      id: long\n      total: double\n");
+        Path prefs = Files.writeString(tempDir.resolve("outputprefs.yaml"), outputPreferences);
+        Path out = tempDir.resolve("out");
+        new SpecToCodeAgent("unused").generateProject(Map.of("domain", domain, "outputprefs", prefs), out, false);
+        return out;
+    }
+}
@@ -0,0 +1,102 @@
+package cc.spec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the built-in templates against the legacy StringBuilder renderer and the override hook
+ */
+public class CodeGeneratorTemplateTest {
+    private static final String PACKAGE = "com.example.shop";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void givenBuiltInTemplates_shouldRenderSameBytesAsLegacyRenderer() {
+        CodeGenerator codeGenerator = new CodeGenerator(tempDir, PACKAGE);
+        for (SpecParser.EntityInfo entity : sampleEntities()) {
+            assertEquals(LegacyCodeRenderer.renderEntity(PACKAGE, entity), codeGenerator.render(CodeTemplates.ENTITY, entity));
+            assertEquals(LegacyCodeRenderer.renderDTO(PACKAGE, entity), codeGenerator.render(CodeTemplates.DTO, entity));
+            assertEquals(LegacyCodeRenderer.renderRepository(PACKAGE, entity), codeGenerator.render(CodeTemplates.REPOSITORY, entity));
+            assertEquals(LegacyCodeRenderer.renderServiceInterface(PACKAGE, entity), codeGenerator.render(CodeTemplates.SERVICE, entity));
+            assertEquals(LegacyCodeRenderer.renderServiceImpl(PACKAGE, entity), codeGenerator.render(CodeTemplates.SERVICE_IMPL, entity));
+            assertEquals(LegacyCodeRenderer.renderController(PACKAGE, entity, List.of()), codeGenerator.render(CodeTemplates.CONTROLLER, entity));
+            assertEquals(LegacyCodeRenderer.renderTest(PACKAGE, entity), codeGenerator.render(CodeTemplates.TEST, entity));
+        }
+    }
+
+    @Test
+    public void givenTemplateOverrideInOutputPreferences_shouldReplaceOnlyThatArtifact() throws IOException {
+        Path domain = Files.writeString(tempDir.resolve("domain.yaml"), "entities:\n  Order:\n    fields:\n      id: long\n      total: double\n");
+        Path prefs = Files.writeString(tempDir.resolve("outputprefs.yaml"), """
+                packageName: com.example.shop
+                templates:
+                  repository: |
+                    package {{packageName}}.repository;
+
+                    // {{#fields}}{{name}}:{{type}} {{/fields}}
+                    public interface {{entityName}}Repository {
+                    }
+                """);
+        Path out = tempDir.resolve("out");
+        new SpecToCodeAgent("unused").generateProject(Map.of("domain", domain, "outputprefs", prefs), out, false);
+
+        Path packageDir = out.resolve("src/main/java/com/example/shop");
+        assertEquals("package com.example.shop.repository;\n\n// id:Long total:Double \npublic interface OrderRepository {\n}\n",
+                Files.readString(packageDir.resolve("repository/OrderRepository.java")));
+        SpecParser.EntityInfo order = new SpecParser.EntityInfo("Order");
+        order.addField("id", "Long");
+        order.addField("total", "Double");
+        assertEquals(LegacyCodeRenderer.renderEntity(PACKAGE, order), Files.readString(packageDir.resolve("entity/Order.java")));
+    }
+
+    @Test
+    public void givenInvalidTemplateOverride_shouldRecordGapAndKeepBuiltIn() throws IOException {
+        Path domain = Files.writeString(tempDir.resolve("domain.yaml"), "entities:\n  Order:\n    fields:\n      total: double\n");
+        Path prefs = Files.writeString(tempDir.resolve("outputprefs.yaml"),
+                "packageName: com.example.shop\ntemplates:\n  dto: \"{{#fields}}unclosed\"\n");
+        Path out = tempDir.resolve("out");
+        SpecToCodeAgent.GenerationResult result =
+                new SpecToCodeAgent("unused").generateProject(Map.of("domain", domain, "outputprefs", prefs), out, false);
+
+        assertTrue(result.getGaps().stream().anyMatch(gap -> gap.contains("section 'fields' is not closed")));
+        SpecParser.EntityInfo order = new SpecParser.EntityInfo("Order");
+        order.addField("total", "Double");
+        assertEquals(LegacyCodeRenderer.renderDTO(PACKAGE, order),
+                Files.readString(out.resolve("src/main/java/com/example/shop/dto/OrderDTO.java")));
+    }
+
+    @Test
+    public void givenMismatchedSectionTags_shouldFailToCompile() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> Template.compile("broken", "line\n{{#a}}\n{{/b}}\n"));
+        assertEquals("Template 'broken': unexpected {{/b}} at line 3", e.getMessage());
+    }
+
+    private List<SpecParser.EntityInfo> sampleEntities() {
+        SpecParser.EntityInfo product = new SpecParser.EntityInfo("Product");
+        product.addField("id", "Long");
+        product.addField("name", "String");
+        product.addField("price", "Double");
+        product.addField("inStock", "Boolean");
+
+        SpecParser.EntityInfo noId = new SpecParser.EntityInfo("auditEntry");
+        noId.addField("message", "String");
+        noId.addField("ID", "Long");
+
+        SpecParser.EntityInfo empty = new SpecParser.EntityInfo("Marker");
+
+        return List.of(product, noId, empty);
+    }
+}
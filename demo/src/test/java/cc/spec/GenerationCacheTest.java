@@ -0,0 +1,108 @@
+package cc.spec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies that repeated spec bundles are served from the generation cache
+ */
+public class GenerationCacheTest {
+    private static final String DOMAIN_MODEL = "entities:\n  Task:\n    fields:\n      id: long\n      title: string\n";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void givenRepeatedBundle_shouldMaterializeCachedOutput() throws IOException {
+        GenerationCache cache = new GenerationCache(tempDir.resolve("cache"), 10_000_000);
+        Path first = Files.writeString(tempDir.resolve("first.yaml"), DOMAIN_MODEL);
+        // Same spec with Windows line endings and trailing blanks normalizes to the same key
+        Path second = Files.writeString(tempDir.resolve("second.yaml"), DOMAIN_MODEL.replace("\n", "  \r\n") + "\r\n");
+
+        SpecToCodeAgent.GenerationResult generated = generate(cache, first, tempDir.resolve("out-1"));
+        SpecToCodeAgent.GenerationResult cached = generate(cache, second, tempDir.resolve("out-2"));
+
+        assertFalse(generated.isFromCache());
+        assertTrue(cached.isFromCache());
+        assertEquals(generated.getGeneratedEntities(), cached.getGeneratedEntities());
+        assertEquals(generated.getGaps(), cached.getGaps());
+        Path entity = Path.of("src/main/java/com/example/generatedproject/entity/Task.java");
+        assertEquals(Files.readString(tempDir.resolve("out-1").resolve(entity)), Files.readString(tempDir.resolve("out-2").resolve(entity)));
+
+        GenerationCache.Stats stats = cache.getStats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.entries());
+    }
+
+    @Test
+    public void givenEntryLargerThanBudget_shouldNotStoreIt() throws IOException {
+        GenerationCache cache = new GenerationCache(tempDir.resolve("cache"), 1);
+        Path first = Files.writeString(tempDir.resolve("first.yaml"), DOMAIN_MODEL);
+
+        generate(cache, first, tempDir.resolve("out-1"));
+
+        assertEquals(0, cache.getStats().entries());
+        assertFalse(generate(cache, first, tempDir.resolve("out-2")).isFromCache());
+    }
+
+    @Test
+    public void givenEditedOutput_shouldServeTheCachedContentsUnchanged() throws IOException {
+        GenerationCache cache = new GenerationCache(tempDir.resolve("cache"), 10_000_000);
+        Path spec = Files.writeString(tempDir.resolve("first.yaml"), DOMAIN_MODEL);
+        Path entity = Path.of("src/main/java/com/example/generatedproject/entity/Task.java");
+        generate(cache, spec, tempDir.resolve("out-1"));
+        String original = Files.readString(tempDir.resolve("out-1").resolve(entity));
+
+        Files.writeString(tempDir.resolve("out-1").resolve(entity), "edited");
+        generate(cache, spec, tempDir.resolve("out-2"));
+        Files.writeString(tempDir.resolve("out-2").resolve(entity), "edited again");
+
+        assertTrue(generate(cache, spec, tempDir.resolve("out-3")).isFromCache());
+        assertEquals(original, Files.readString(tempDir.resolve("out-3").resolve(entity)));
+    }
+
+    @Test
+    public void givenEntryOfAnotherGenerator_shouldDropItWhenLoadingTheIndex() throws IOException {
+        Path cacheRoot = tempDir.resolve("cache");
+        Path spec = Files.writeString(tempDir.resolve("first.yaml"), DOMAIN_MODEL);
+        generate(new GenerationCache(cacheRoot, 10_000_000), spec, tempDir.resolve("out-1"));
+        try (var entries = Files.list(cacheRoot)) {
+            Path metadata = entries.findFirst().orElseThrow().resolve(".cache-entry.json");
+            Files.writeString(metadata, Files.readString(metadata).replace(GenerationCache.generatorFingerprint()
+                    .replace("\n", "\\n"), "1\\nstale"));
+        }
+
+        GenerationCache reopened = new GenerationCache(cacheRoot, 10_000_000);
+
+        assertEquals(0, reopened.getStats().entries());
+        assertFalse(generate(reopened, spec, tempDir.resolve("out-2")).isFromCache());
+    }
+
+    @Test
+    public void givenDifferentGeneratorOptions_shouldComputeDifferentKeys() throws IOException {
+        Map<String, SpecSource> specs = SpecSource.of(Map.of("domain", Files.writeString(tempDir.resolve("d.yaml"), DOMAIN_MODEL)));
+
+        String defaults = GenerationCache.computeKey(specs, "classic", "com.example", GeneratorOptions.DEFAULT);
+        String legacy = GenerationCache.computeKey(specs, "classic", "com.example", GeneratorOptions.LEGACY);
+
+        assertNotEquals(defaults, legacy);
+        assertEquals(defaults, GenerationCache.computeKey(specs, "classic", "com.example", GeneratorOptions.DEFAULT));
+    }
+
+    private SpecToCodeAgent.GenerationResult generate(GenerationCache cache, Path domainModel, Path outputDir) throws IOException {
+        SpecToCodeAgent agent = new SpecToCodeAgent("unused");
+        agent.setGenerationCache(cache);
+        return agent.generateProject(Map.of("domain", domainModel), outputDir, false);
+    }
+}
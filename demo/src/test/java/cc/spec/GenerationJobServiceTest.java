@@ -0,0 +1,184 @@
+package cc.spec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.http.HttpStatus;
+import org.springframework.ui.ExtendedModelMap;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the lifecycle of background generation jobs and how a full queue and unknown jobs are reported
+ */
+public class GenerationJobServiceTest {
+    private static final String DOMAIN = "entities:\n  Order:\n    fields:\n      id: long\n      total: double\n";
+    private static final String COMPLETION = "{\"README.md\": \"generated\"}";
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private HttpServer server;
+    private GenerationJobService service;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    public void startStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/chat/completions", this::complete);
+        server.start();
+    }
+
+    @AfterEach
+    public void stop() {
+        release.countDown();
+        if (service != null) {
+            service.shutdown();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    public void givenSubmittedJob_shouldRunToSucceededWithProgress() throws Exception {
+        service = newService(Map.of());
+
+        GenerationJob job = service.submit(uploads(), "classic");
+        assertTrue(List.of(GenerationJob.Status.QUEUED, GenerationJob.Status.RUNNING, GenerationJob.Status.SUCCEEDED)
+                .contains(job.getStatus()));
+        awaitFinished(job);
+
+        assertEquals(GenerationJob.Status.SUCCEEDED, job.getStatus(), job.getLogs().toString());
+        assertEquals(List.of("Order"), job.getGeneratedEntities());
+        assertTrue(job.getCompletedPhases().containsAll(List.of("parse", "artifacts", "gap-report")), job.getCompletedPhases().toString());
+        assertEquals(1, job.getCompletedEntities());
+        assertTrue(Files.exists(Path.of(job.getResultLocation()).resolve("pom.xml")));
+        assertEquals(job, new GenerationJobController(service).getJob(job.getId()).getBody());
+    }
+
+    @Test
+    public void givenFullQueue_shouldRejectJobAndRespondServiceUnavailable() throws Exception {
+        service = newService(Map.of("speckits.jobs.concurrency", "1", "speckits.jobs.queue-capacity", "1"));
+        GenerationJob running = service.submit(uploads(), "ai");
+        awaitStatus(running, GenerationJob.Status.RUNNING);
+        GenerationJob queued = service.submit(uploads(), "ai");
+
+        assertThrows(RejectedExecutionException.class, () -> service.submit(uploads(), "ai"));
+        ModelAndView view = new FileUploadController(service).handleFileUpload(
+                upload("openapi"), upload("graphql"), BytesMultipartFile.of("domain.yaml", DOMAIN), null, null,
+                upload("outputprefs"), "ai", null, new ExtendedModelMap());
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, view.getStatus());
+        assertEquals(GenerationJob.Status.QUEUED, queued.getStatus());
+        assertEquals(List.of(running, queued), service.getJobs());
+
+        release.countDown();
+        awaitFinished(queued);
+        assertEquals(GenerationJob.Status.SUCCEEDED, running.getStatus());
+        assertEquals(GenerationJob.Status.SUCCEEDED, queued.getStatus());
+    }
+
+    @Test
+    public void givenUnknownJob_shouldRespondNotFound() throws IOException {
+        service = newService(Map.of());
+
+        assertEquals(HttpStatus.NOT_FOUND, new GenerationJobController(service).getJob("missing").getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, new GenerationJobController(service).getCacheStats().getStatusCode());
+    }
+
+    @Test
+    public void givenFinishedJobs_shouldEvictThemPastRetentionAndLimit() throws Exception {
+        service = newService(Map.of("speckits.jobs.max-retained", "1", "speckits.jobs.retention", "PT0.5S"));
+        GenerationJob first = service.submit(uploads(), "classic");
+        awaitFinished(first);
+        GenerationJob second = service.submit(uploads(), "classic");
+        awaitFinished(second);
+
+        assertEquals(List.of(second), service.getJobs());
+        assertTrue(service.getJob(first.getId()).isEmpty());
+
+        Thread.sleep(Duration.ofMillis(600));
+        assertTrue(service.getJob(second.getId()).isEmpty());
+        assertNull(new GenerationJobController(service).getJob(second.getId()).getBody());
+    }
+
+    private GenerationJobService newService(Map<String, String> overrides) throws IOException {
+        Map<String, String> settings = new HashMap<>();
+        settings.put("speckits.storage.directory", tempDir.toString());
+        settings.put("speckits.cache.enabled", "false");
+        settings.put("speckits.ai.streaming", "false");
+        settings.putAll(overrides);
+        SpeckitsProperties properties = new Binder(new MapConfigurationPropertySource(settings))
+                .bindOrCreate("speckits", SpeckitsProperties.class);
+        OpenAIClient openAIClient = new OpenAIClient("http://127.0.0.1:" + server.getAddress().getPort() + "/v1/chat/completions",
+                "test-key");
+        return new GenerationJobService(GenerationMetrics.NONE, openAIClient, properties);
+    }
+
+    private static Map<String, MultipartFile> uploads() {
+        return Map.of("domain", BytesMultipartFile.of("domain.yaml", DOMAIN),
+                "outputprefs", BytesMultipartFile.of("outputprefs.yaml", "packageName: com.example.shop\n"));
+    }
+
+    private static MultipartFile upload(String name) {
+        return BytesMultipartFile.of(name + ".yaml", name.equals("outputprefs") ? "packageName: com.example.shop\n" : "{}\n");
+    }
+
+    private static void awaitFinished(GenerationJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!job.isFinished()) {
+            assertTrue(System.nanoTime() < deadline, "Job did not finish: " + job.getLogs());
+            Thread.sleep(10);
+        }
+    }
+
+    private static void awaitStatus(GenerationJob job, GenerationJob.Status status) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (job.getStatus() != status) {
+            assertTrue(System.nanoTime() < deadline, "Job did not reach " + status + ": " + job.getLogs());
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Answers AI generation requests once the test releases them
+     */
+    private void complete(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        try {
+            release.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] body = new ObjectMapper().writeValueAsBytes(Map.of("choices", List.of(Map.of(
+                "message", Map.of("role", "assistant", "content", COMPLETION), "finish_reason", "stop"))));
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package cc.spec;
+
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs a classic generation against a Prometheus registry and checks the recorded meters
+ */
+public class GenerationMetricsTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void givenClassicRun_shouldRecordPhasesArtifactsAndCounts() throws IOException {
+        Path domain = Files.writeString(tempDir.resolve("domain.yaml"), """
+                entities:
+                  Customer:
+                    fields:
+                      id: long
+                      name: string
+                """);
+        Path openapi = Files.writeString(tempDir.resolve("openapi.yaml"), """
+                openapi: 3.0.0
+                info:
+                  title: Shop
+                paths:
+                  /customers:
+                    get:
+                      summary: List customers
+                    post:
+                      summary: Create customer
+                """);
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        SpecToCodeAgent agent = new SpecToCodeAgent("unused");
+        agent.setMetrics(new GenerationMetrics(registry));
+        InMemoryOutputSink output = new InMemoryOutputSink();
+
+        agent.generateProject(Map.of("openapi", openapi, "domain", domain), output, false, SpecToCodeAgent.ProgressListener.NONE);
+
+        long bytes = output.getFiles().values().stream().mapToLong(content -> content.getBytes(StandardCharsets.UTF_8).length).sum();
+        assertEquals(bytes, registry.get("speckits.generation.bytes.written").counter().count());
+        assertEquals(1, registry.get("speckits.generation.entities").counter().count());
+        assertEquals(2, registry.get("speckits.generation.endpoints").counter().count());
+        assertEquals(1, registry.get("speckits.generation.runs").tag("mode", "classic").timer().count());
+        for (String phase : new String[]{"parse.openapi", "parse.domain", "structure", "readme", "gap-report"}) {
+            assertEquals(1, registry.get("speckits.generation.phase").tag("phase", phase).timer().count(), phase);
+        }
+        assertEquals(1, registry.get("speckits.generation.artifact").tag("type", CodeTemplates.CONTROLLER).timer().count());
+
+        String scrape = registry.scrape();
+        assertTrue(scrape.contains("speckits_generation_phase_seconds_bucket{phase=\"parse.openapi\""), scrape);
+        assertTrue(scrape.contains("speckits_generation_bytes_written_bytes_total"), scrape);
+    }
+
+    @Test
+    public void givenMultiByteText_shouldCountUtf8LengthWithoutEncoding() {
+        String text = "aé€😀";
+        assertEquals(text.getBytes(StandardCharsets.UTF_8).length, GenerationMetrics.utf8Length(text, 0, text.length()));
+    }
+}
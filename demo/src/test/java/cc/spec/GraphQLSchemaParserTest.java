@@ -0,0 +1,100 @@
+package cc.spec;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the entities, relationships and operations read from a GraphQL schema
+ */
+public class GraphQLSchemaParserTest {
+    private static final String SCHEMA = """
+            \"""
+            Blog schema
+            \"""
+            scalar DateTime
+            enum Status { DRAFT PUBLISHED @deprecated(reason: "unused") }
+
+            type User {
+              id: ID!
+              name: String # display name
+              posts: [Post!]!
+              groups: [Group]
+            }
+
+            type Post {
+              id: ID!
+              "The title"
+              title: String @deprecated
+              status: Status
+              publishedAt: DateTime
+              author: User
+              tags: [String]
+            }
+
+            type Group { id: ID!, members: [User] }
+
+            input PostInput { title: String, authorId: ID, status: Status = DRAFT }
+
+            type Query {
+              posts(page: Int = 0, size: Int): [Post]
+              post(id: ID!): Post
+              search(text: String): [Post]
+            }
+
+            type Mutation {
+              createPost(input: PostInput!): Post
+              updatePost(id: ID!, input: PostInput!): Post
+              deletePost(id: ID!): Boolean
+            }
+            """;
+
+    @Test
+    public void givenSchema_shouldMapObjectTypesToEntitiesWithForeignKeys() throws IOException {
+        SpecParser.GraphQLSchema schema = new GraphQLSchemaParser(SCHEMA).parse();
+
+        assertEquals(List.of("User", "Post", "Group"), schema.getEntities().stream().map(SpecParser.EntityInfo::getName).toList());
+        assertEquals(Map.of("id", "Long", "title", "String", "status", "String", "publishedAt", "String", "authorId", "Long"),
+                schema.getEntities().get(1).getFields());
+        assertEquals(List.of(
+                new SpecParser.GraphQLRelationship("Post", "author", "User", false, "authorId"),
+                new SpecParser.GraphQLRelationship("User", "posts", "Post", true, "authorId")), schema.getRelationships());
+        assertEquals(List.of("DateTime"), schema.getCustomScalars());
+        assertEquals(SCHEMA, schema.getSource());
+    }
+
+    @Test
+    public void givenSchema_shouldMapCrudFieldsToOperationsAndWarnAboutTheRest() throws IOException {
+        SpecParser.GraphQLSchema schema = new GraphQLSchemaParser(SCHEMA).parse();
+
+        assertEquals(List.of(
+                new SpecParser.GraphQLOperation("posts", SpecParser.GraphQLOperation.Action.LIST, "Post", null, null, true, "Post"),
+                new SpecParser.GraphQLOperation("post", SpecParser.GraphQLOperation.Action.GET, "Post", "id", null, false, "Post"),
+                new SpecParser.GraphQLOperation("createPost", SpecParser.GraphQLOperation.Action.CREATE, "Post", null, "input", false, "Post"),
+                new SpecParser.GraphQLOperation("updatePost", SpecParser.GraphQLOperation.Action.UPDATE, "Post", "id", "input", false, "Post"),
+                new SpecParser.GraphQLOperation("deletePost", SpecParser.GraphQLOperation.Action.DELETE, "Post", "id", null, false, "Boolean")),
+                schema.getOperations());
+        String warnings = String.join("\n", schema.getWarnings());
+        assertTrue(warnings.contains("GraphQL list field Post.tags of String is not generated"), warnings);
+        assertTrue(warnings.contains("GraphQL field User.groups is not generated: many-to-many relationships need a join entity"), warnings);
+        assertTrue(warnings.contains("GraphQL operation Query.search is not generated"), warnings);
+        assertTrue(warnings.contains("GraphQL custom scalar DateTime of Post.publishedAt is stored and served as String"), warnings);
+    }
+
+    @Test
+    public void givenInvalidSchema_shouldReportPosition() {
+        IOException syntax = assertThrows(IOException.class,
+                () -> new GraphQLSchemaParser("type User {\n  id: ID!\n  name String\n}").parse());
+        assertEquals("Expected ':' at 3:8 of the GraphQL schema", syntax.getMessage());
+        IOException query = assertThrows(IOException.class, () -> new GraphQLSchemaParser("{ users { id } }").parse());
+        assertTrue(query.getMessage().startsWith("Executable definitions are not supported"), query.getMessage());
+        IOException unknown = assertThrows(IOException.class, () -> new GraphQLSchemaParser("type User { address: Address }").parse());
+        assertEquals("Unknown GraphQL type 'Address' of User.address", unknown.getMessage());
+    }
+}
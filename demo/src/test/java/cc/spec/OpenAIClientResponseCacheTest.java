@@ -0,0 +1,148 @@
+package cc.spec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Verifies caching and request coalescing in front of a local OpenAI stub
+ */
+public class OpenAIClientResponseCacheTest {
+    private static final String COMPLETION = "{\"A.java\": \"class A {}\"}";
+    private static final long STUB_LATENCY_MS = 300;
+    private static final int CONCURRENT_REQUESTS = 8;
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile String content = COMPLETION;
+    private volatile String finishReason = "stop";
+    private HttpServer server;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    public void startStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/v1/chat/completions", this::complete);
+        server.start();
+    }
+
+    @AfterEach
+    public void stopStubServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void givenConcurrentIdenticalPrompts_shouldSendOneRequest() throws Exception {
+        OpenAIClient client = newClient(newCache(Duration.ofHours(1)));
+
+        List<Future<String>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+                results.add(executor.submit(() -> client.chatCompletion("same prompt")));
+            }
+        }
+        for (Future<String> result : results) {
+            assertEquals("{\"A.java\": \"class A {}\"}", result.get());
+        }
+        assertEquals(1, requests.get());
+
+        assertEquals("{\"A.java\": \"class A {}\"}", client.chatCompletion("same prompt"));
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void givenRestart_shouldServeFromDiskTier() throws IOException {
+        newClient(newCache(Duration.ofHours(1))).chatCompletion("prompt");
+
+        List<String> tokens = new ArrayList<>();
+        newClient(newCache(Duration.ofHours(1))).streamChatCompletion("prompt", tokens::add);
+
+        assertEquals(List.of("{\"A.java\": \"class A {}\"}"), tokens);
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void givenExpiredEntry_shouldCallApiAgain() throws Exception {
+        OpenAIClient client = newClient(newCache(Duration.ofMillis(50)));
+        client.chatCompletion("prompt");
+        Thread.sleep(100);
+        client.chatCompletion("prompt");
+
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    public void givenTruncatedOrMalformedResponse_shouldNotCacheIt() throws IOException {
+        OpenAIClient client = newClient(newCache(Duration.ofHours(1)));
+
+        finishReason = "length";
+        client.chatCompletion("prompt");
+        client.streamChatCompletion("prompt", token -> { });
+        finishReason = "stop";
+        content = "Here are the files: {\"A.java\": \"class A {}\"}";
+        client.chatCompletion("prompt");
+        assertEquals(3, requests.get());
+
+        content = COMPLETION;
+        client.streamChatCompletion("prompt", token -> { });
+        assertEquals(COMPLETION, client.chatCompletion("prompt"));
+        assertEquals(4, requests.get());
+    }
+
+    private TieredResponseCache newCache(Duration ttl) throws IOException {
+        return new TieredResponseCache(tempDir.resolve("ai-cache"), ttl, 1_000_000, 1_000_000);
+    }
+
+    private OpenAIClient newClient(ResponseCache cache) {
+        return new OpenAIClient("http://127.0.0.1:" + server.getAddress().getPort() + "/v1/chat/completions", "test-key",
+                RateLimitScheduler.unlimited(), OpenAIClient.RetryPolicy.DEFAULT, cache);
+    }
+
+    private void complete(HttpExchange exchange) throws IOException {
+        boolean stream = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8).contains("\"stream\":true");
+        requests.incrementAndGet();
+        try {
+            Thread.sleep(STUB_LATENCY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ObjectMapper mapper = new ObjectMapper();
+        byte[] body;
+        if (stream) {
+            body = ("data: " + mapper.writeValueAsString(Map.of("choices", List.of(Map.of("delta", Map.of("content", content)))))
+                    + "\n\ndata: " + mapper.writeValueAsString(Map.of("choices", List.of(Map.of("delta", Map.of(), "finish_reason", finishReason))))
+                    + "\n\ndata: [DONE]\n\n").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+        } else {
+            body = mapper.writeValueAsBytes(Map.of("choices", List.of(Map.of("message",
+                    Map.of("role", "assistant", "content", content), "finish_reason", finishReason))));
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+        }
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package cc.spec;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the client against a local OpenAI stub that injects 429s, 503s and latency
+ */
+public class OpenAIClientRetryTest {
+    private static final long STUB_LATENCY_MS = 20;
+    private static final String COMPLETION = "{\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":\"ok\"}}]}";
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private volatile int failuresToInject;
+    private volatile int failureStatus;
+    private HttpServer server;
+
+    @BeforeEach
+    public void startStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/v1/chat/completions", this::complete);
+        server.start();
+    }
+
+    @AfterEach
+    public void stopStubServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void givenTooManyRequestsWithRetryAfter_shouldWaitAndRetry() throws IOException {
+        failuresToInject = 1;
+        failureStatus = 429;
+        RateLimitScheduler scheduler = new RateLimitScheduler(new RateLimitScheduler.Limits(0, 0, 4, Duration.ofMinutes(1)));
+        OpenAIClient client = newClient(scheduler, OpenAIClient.RetryPolicy.DEFAULT);
+
+        long start = System.nanoTime();
+        String response = client.chatCompletion("hello");
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals("ok", response);
+        assertEquals(2, requests.get());
+        assertTrue(elapsedMs >= 1000, "Retry-After of 1 s was not honored: " + elapsedMs + " ms");
+        assertEquals(1, scheduler.getPauses());
+    }
+
+    @Test
+    public void givenPersistentUnavailability_shouldGiveUpAfterMaxAttempts() {
+        failuresToInject = Integer.MAX_VALUE;
+        failureStatus = 503;
+        OpenAIClient client = newClient(RateLimitScheduler.unlimited(),
+                new OpenAIClient.RetryPolicy(3, Duration.ofMillis(10), Duration.ofMillis(50)));
+
+        IOException e = assertThrows(IOException.class, () -> client.chatCompletion("hello"));
+
+        assertTrue(e.getMessage().contains("status code: 503"), e.getMessage());
+        assertEquals(3, requests.get());
+    }
+
+    @Test
+    public void givenSequentialRequests_shouldReuseOneConnection() throws IOException {
+        OpenAIClient first = newClient();
+        OpenAIClient second = newClient();
+        for (int i = 0; i < 10; i++) {
+            assertEquals("ok", (i % 2 == 0 ? first : second).chatCompletion("hello " + i));
+        }
+
+        assertEquals(10, requests.get());
+        assertEquals(1, clientPorts.size(), "Requests opened new connections: " + clientPorts);
+    }
+
+    private OpenAIClient newClient() {
+        return newClient(RateLimitScheduler.unlimited(), OpenAIClient.RetryPolicy.DEFAULT);
+    }
+
+    private OpenAIClient newClient(RateLimitScheduler scheduler, OpenAIClient.RetryPolicy retryPolicy) {
+        return new OpenAIClient("http://127.0.0.1:" + server.getAddress().getPort() + "/v1/chat/completions", "test-key",
+                scheduler, retryPolicy, null);
+    }
+
+    private void complete(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        int request = requests.incrementAndGet();
+        try {
+            Thread.sleep(STUB_LATENCY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (request <= failuresToInject) {
+            byte[] body = "{\"error\":{\"message\":\"injected\"}}".getBytes(StandardCharsets.UTF_8);
+            if (failureStatus == 429) {
+                exchange.getResponseHeaders().add("Retry-After", "1");
+            }
+            exchange.sendResponseHeaders(failureStatus, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+            return;
+        }
+        byte[] body = COMPLETION.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package cc.spec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Exercises streamed completions against a local server-sent events stub
+ */
+public class OpenAIClientStreamingTest {
+    private static final String FIRST_FILE = "src/main/java/com/example/First.java";
+    private static final String SECOND_FILE = "src/main/java/com/example/Second.java";
+    private static final String RESPONSE_CONTENT = "```json\n{\"" + FIRST_FILE + "\": \"class First {\\n    String s = \\\"\\u00e9\\\";\\n}\\n\", \"ignored\": {\"nested\": 1}, "
+            + "\"" + SECOND_FILE + "\": \"class Second {}\\n\"}\n```";
+    private static final int TOKEN_SIZE = 7;
+    private static final long DELAY_AFTER_FIRST_FILE_MS = 300;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private HttpServer server;
+    private volatile String lastRequestBody;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    public void startStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/chat/completions", this::streamCompletion);
+        server.start();
+    }
+
+    @AfterEach
+    public void stopStubServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void givenStreamedCompletion_shouldDeliverTokensInOrder() throws IOException {
+        List<String> tokens = new ArrayList<>();
+        long received = newClient().streamChatCompletion("prompt", tokens::add);
+
+        assertTrue(lastRequestBody.contains("\"stream\":true"));
+        assertTrue(tokens.size() > 1);
+        assertEquals(RESPONSE_CONTENT, String.join("", tokens));
+        assertEquals(RESPONSE_CONTENT.length(), received);
+    }
+
+    @Test
+    public void givenStreamedFileMap_shouldEmitFirstFileBeforeStreamEnds() throws IOException {
+        List<String> paths = new ArrayList<>();
+        List<Long> emittedAt = new ArrayList<>();
+        StreamingFileMapParser parser = new StreamingFileMapParser((path, content) -> {
+            paths.add(path);
+            emittedAt.add(System.nanoTime());
+        });
+        newClient().streamChatCompletion("prompt", parser::feed);
+        long finishedAt = System.nanoTime();
+
+        assertEquals(List.of(FIRST_FILE, SECOND_FILE), paths);
+        assertEquals(1, parser.getEntriesSkipped());
+        assertTrue(parser.isComplete());
+        assertTrue((finishedAt - emittedAt.get(0)) / 1_000_000 >= DELAY_AFTER_FIRST_FILE_MS / 2,
+                "first file should be available while the response is still streaming");
+    }
+
+    @Test
+    public void givenStreamingAgent_shouldMaterializeGeneratedFiles() throws IOException {
+        Path domainModel = Files.writeString(tempDir.resolve("domain.yaml"), "entities:\n  Task:\n    fields:\n      title: string\n");
+        Path outputDir = tempDir.resolve("out");
+        SpecToCodeAgent agent = new SpecToCodeAgent("unused");
+        agent.setOpenAIClient(newClient());
+        agent.setStreamingEnabled(true);
+
+        SpecToCodeAgent.GenerationResult result = agent.generateProject(Map.of("domain", domainModel), outputDir, true);
+
+        assertEquals("class First {\n    String s = \"é\";\n}\n", Files.readString(outputDir.resolve(FIRST_FILE)));
+        assertEquals("class Second {}\n", Files.readString(outputDir.resolve(SECOND_FILE)));
+        assertEquals(RESPONSE_CONTENT, Files.readString(outputDir.resolve("openai_response.json")));
+        assertTrue(result.getGaps().stream().noneMatch(gap -> gap.contains("OpenAI")), result.getGaps().toString());
+    }
+
+    private OpenAIClient newClient() {
+        return new OpenAIClient("http://127.0.0.1:" + server.getAddress().getPort() + "/v1/chat/completions", "test-key");
+    }
+
+    private void streamCompletion(HttpExchange exchange) throws IOException {
+        lastRequestBody = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        int firstFileEnd = RESPONSE_CONTENT.indexOf("\", \"ignored\"");
+        try (OutputStream out = exchange.getResponseBody()) {
+            writeEvent(out, Map.of("choices", List.of(Map.of("delta", Map.of("role", "assistant")))));
+            for (int i = 0; i < RESPONSE_CONTENT.length(); i += TOKEN_SIZE) {
+                int end = Math.min(i + TOKEN_SIZE, RESPONSE_CONTENT.length());
+                writeEvent(out, Map.of("choices", List.of(Map.of("delta", Map.of("content", RESPONSE_CONTENT.substring(i, end))))));
+                if (i <= firstFileEnd && firstFileEnd < end) {
+                    sleep(DELAY_AFTER_FIRST_FILE_MS);
+                }
+            }
+            out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private void writeEvent(OutputStream out, Object chunk) throws IOException {
+        out.write(("data: " + objectMapper.writeValueAsString(chunk) + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package cc.spec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks $ref, allOf, inline object and cycle resolution, including a spec whose schemas share deep
+ * reference chains; SchemaResolverBenchmark compares the resolver with naive recursive inlining
+ */
+public class OpenAPISchemaResolverTest {
+    private static final int WIDTH = 200;
+    private static final int DEPTH = 25;
+    private static final int NAIVE_BUDGET = 5_000_000;
+
+    private final SpecParser specParser = new SpecParser();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void givenRefsAllOfAndInlineObjects_shouldResolveFieldsOfBothExtractionPaths() throws IOException {
+        Path spec = Files.writeString(tempDir.resolve("openapi.yaml"), """
+                openapi: 3.1.0
+                info: {title: Pets}
+                components:
+                  schemas:
+                    Money: {type: number}
+                    Pet:
+                      type: object
+                      properties: {id: {type: integer}, name: {type: [string, "null"]}}
+                    Dog:
+                      allOf:
+                        - $ref: '#/components/schemas/Pet'
+                        - properties: {barks: {type: boolean}}
+                    Order:
+                      properties:
+                        id: {type: integer}
+                        pet: {$ref: '#/components/schemas/Dog'}
+                        owner: {allOf: [{$ref: '#/components/schemas/Pet'}], description: annotated reference}
+                        price: {$ref: '#/components/schemas/Money'}
+                        address: {type: object, properties: {street: {type: string}, zip: {type: integer}}}
+                        tags: {type: array, items: {type: string}}
+                    Node:
+                      properties: {parent: {$ref: '#/components/schemas/Node'}, other: {$ref: '#/components/schemas/Missing'}}
+                    Alias: {$ref: '#/components/schemas/Loop'}
+                    Loop: {$ref: '#/components/schemas/Alias'}
+                """);
+
+        for (SpecParser.OpenAPIExtraction extraction : List.of(
+                specParser.extractOpenAPI(specParser.parseOpenAPI(spec)), specParser.extractOpenAPIStreaming(spec))) {
+            Map<String, Map<String, String>> entities = new LinkedHashMap<>();
+            for (SpecParser.EntityInfo entity : extraction.getEntities()) {
+                entities.put(entity.getName(), entity.getFields());
+            }
+            assertEquals(List.of("Pet", "Dog", "Order", "Node"), List.copyOf(entities.keySet()));
+            assertEquals(Map.of("id", "Long", "name", "String", "barks", "Boolean"), entities.get("Dog"));
+            assertEquals(Map.of("id", "Long", "petId", "Long", "ownerId", "Long", "price", "Double",
+                    "addressStreet", "String", "addressZip", "Long"), entities.get("Order"));
+            assertEquals(Map.of("parentId", "Long", "other", "String"), entities.get("Node"));
+            assertEquals(List.of(
+                    "OpenAPI array property Order.tags is not generated",
+                    "OpenAPI $ref to Missing is not resolved and is mapped to String",
+                    "OpenAPI schema Alias is a $ref cycle and is mapped to String"), extraction.getWarnings());
+        }
+    }
+
+    @Test
+    public void givenAllOfCycle_shouldWarnInsteadOfRecursing() {
+        Map<String, Object> schemas = Map.of(
+                "A", Map.of("allOf", List.of(Map.of("$ref", "#/components/schemas/B")), "properties", Map.of("a", Map.of("type", "string"))),
+                "B", Map.of("allOf", List.of(Map.of("$ref", "#/components/schemas/A")), "properties", Map.of("b", Map.of("type", "integer"))));
+        OpenAPISchemaResolver resolver = new OpenAPISchemaResolver(new java.util.TreeMap<>(schemas));
+
+        List<SpecParser.EntityInfo> entities = resolver.resolveEntities();
+
+        assertEquals(Map.of("a", "String", "b", "Long"), entities.get(0).getFields());
+        assertEquals(List.of("OpenAPI schema A includes itself through allOf; the cycle is not expanded"), resolver.getWarnings());
+    }
+
+    @Test
+    public void givenDeeplySharedSchemas_shouldResolveEachOnceWhereNaiveInliningBlowsUp() throws IOException {
+        // On a shallow spec both agree
+        Map<String, Object> shallow = SpecFixtures.sharedSchemas(WIDTH, 6);
+        List<SpecParser.EntityInfo> resolved = new OpenAPISchemaResolver(shallow).resolveEntities();
+        for (SpecParser.EntityInfo entity : resolved) {
+            assertEquals(entity.getFields(), SpecFixtures.naiveFields(shallow, entity.getName(), new int[] {NAIVE_BUDGET}));
+        }
+
+        Map<String, Object> spec = SpecFixtures.sharedSchemas(WIDTH, DEPTH);
+        List<SpecParser.EntityInfo> entities = new OpenAPISchemaResolver(spec).resolveEntities();
+        assertEquals(WIDTH * DEPTH, entities.size());
+        assertEquals(DEPTH + 2, entities.get(0).getFields().size());
+        assertThrows(IllegalStateException.class,
+                () -> SpecFixtures.naiveFields(spec, entities.get(0).getName(), new int[] {NAIVE_BUDGET}));
+
+        // The streaming extractor resolves the same spec from a file
+        Path file = tempDir.resolve("shared.json");
+        new ObjectMapper().writeValue(file.toFile(), Map.of("openapi", "3.0.0", "components", Map.of("schemas", spec)));
+        SpecParser.OpenAPIExtraction streaming = specParser.extractOpenAPIStreaming(file);
+        assertEquals(entities.get(0).getFields(), streaming.getEntities().get(0).getFields());
+    }
+}
@@ -0,0 +1,127 @@
+package cc.spec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Checks that disk, in-memory and ZIP output of the same generation are identical
+ */
+public class OutputSinkTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void givenSameSpec_shouldProduceSameFilesOnDiskInMemoryAndInZip() throws IOException {
+        Map<String, Path> spec = writeSpec();
+        Path disk = tempDir.resolve("disk");
+        new SpecToCodeAgent("unused").generateProject(spec, disk, false);
+
+        InMemoryOutputSink memory = new InMemoryOutputSink();
+        SpecToCodeAgent.GenerationResult result =
+                new SpecToCodeAgent("unused").generateProject(spec, memory, false, SpecToCodeAgent.ProgressListener.NONE);
+
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (ZipOutputSink zip = new ZipOutputSink(archive)) {
+            new SpecToCodeAgent("unused").generateProject(spec, zip, false, SpecToCodeAgent.ProgressListener.NONE);
+        }
+
+        Map<String, String> expected = normalize(readTree(disk));
+        assertEquals(expected, normalize(memory.getFiles()));
+        assertEquals(expected, normalize(readZip(archive.toByteArray())));
+        assertEquals(List.of("Order", "Order", "Customer"), result.getGeneratedEntities());
+        assertNull(result.getOutputDirectory());
+    }
+
+    @Test
+    public void givenSinkMode_shouldNotCreateOutputDirectory() throws IOException {
+        Map<String, Path> spec = writeSpec();
+        try (Stream<Path> before = Files.list(tempDir)) {
+            long count = before.count();
+            new SpecToCodeAgent("unused").generateProject(spec, new InMemoryOutputSink(), false, SpecToCodeAgent.ProgressListener.NONE);
+            try (Stream<Path> after = Files.list(tempDir)) {
+                assertEquals(count, after.count());
+            }
+        }
+        assertFalse(Files.exists(tempDir.resolve("src")));
+    }
+
+    private Map<String, Path> writeSpec() throws IOException {
+        // Order is declared twice: every sink must keep the last declaration
+        Path domain = Files.writeString(tempDir.resolve("domain.yaml"), """
+                entities:
+                  Order:
+                    fields:
+                      id: long
+                      total: double
+                  Customer:
+                    fields:
+                      id: long
+                      email: string
+                """);
+        Path openapi = Files.writeString(tempDir.resolve("openapi.yaml"), """
+                openapi: 3.0.0
+                info:
+                  title: Shop
+                paths:
+                  /orders:
+                    get:
+                      summary: List orders
+                components:
+                  schemas:
+                    Order:
+                      properties:
+                        id:
+                          type: integer
+                        status:
+                          type: string
+                """);
+        Path prefs = Files.writeString(tempDir.resolve("outputprefs.yaml"), "packageName: com.example.shop\n");
+        return Map.of("openapi", openapi, "domain", domain, "outputprefs", prefs);
+    }
+
+    private Map<String, String> readTree(Path root) throws IOException {
+        Map<String, String> tree = new TreeMap<>();
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths.filter(Files::isRegularFile)::iterator) {
+                tree.put(root.relativize(path).toString(), Files.readString(path));
+            }
+        }
+        return tree;
+    }
+
+    private Map<String, String> readZip(byte[] archive) throws IOException {
+        Map<String, String> tree = new TreeMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(archive), StandardCharsets.UTF_8)) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                tree.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return tree;
+    }
+
+    /**
+     * Blanks the GAP report timestamp, which differs between runs
+     */
+    private Map<String, String> normalize(Map<String, String> files) {
+        Map<String, String> normalized = new TreeMap<>();
+        files.forEach((path, content) -> normalized.put(path, content.replaceAll("(?m)^Generated: .*$", "")));
+        return normalized;
+    }
+}
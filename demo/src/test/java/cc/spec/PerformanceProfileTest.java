@@ -0,0 +1,81 @@
+package cc.spec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the project configuration generated for the performance profiles
+ */
+public class PerformanceProfileTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void givenNoProfile_shouldKeepDevConfigurationWithoutProfileFiles() throws IOException {
+        Path out = generate("packageName: com.example.shop\n");
+
+        String properties = Files.readString(out.resolve("src/main/resources/application.properties"));
+        assertTrue(properties.contains("spring.datasource.url=jdbc:h2:mem:testdb\n"), properties);
+        assertTrue(properties.endsWith("server.port=8080\n"), properties);
+        assertTrue(Files.readString(out.resolve("pom.xml")).contains("<maven.compiler.source>17</maven.compiler.source>"));
+        assertFalse(Files.exists(out.resolve("jvm.options")));
+        assertFalse(Files.exists(out.resolve("src/test/java/com/example/shop/PerformanceSmokeTest.java")));
+    }
+
+    @Test
+    public void givenThroughputProfile_shouldTuneConfigurationAndGenerateSmokeBenchmark() throws IOException {
+        Path out = generate("packageName: com.example.shop\nperformanceProfile: throughput\n");
+
+        String properties = Files.readString(out.resolve("src/main/resources/application.properties"));
+        String pom = Files.readString(out.resolve("pom.xml"));
+        assertTrue(properties.contains("spring.threads.virtual.enabled=true"), properties);
+        assertTrue(properties.contains("spring.jpa.open-in-view=false"), properties);
+        assertTrue(properties.contains("spring.jpa.show-sql=false"), properties);
+        assertTrue(properties.contains("server.compression.enabled=true"), properties);
+        assertTrue(properties.contains("spring.datasource.hikari.maximum-pool-size=32"), properties);
+        assertTrue(pom.contains("<maven.compiler.source>21</maven.compiler.source>"), pom);
+        assertTrue(pom.contains("<artifactId>jackson-module-blackbird</artifactId>"), pom);
+        assertTrue(pom.contains("<jvmArguments>@jvm.options</jvmArguments>"), pom);
+        assertTrue(Files.readString(out.resolve("jvm.options")).contains("-XX:+UseParallelGC"));
+        assertTrue(Files.exists(out.resolve("src/main/java/com/example/shop/config/JacksonConfig.java")));
+        assertTrue(Files.readString(out.resolve("src/test/java/com/example/shop/PerformanceSmokeTest.java"))
+                .contains("private static final String PROFILE = \"throughput\";"));
+    }
+
+    @Test
+    public void givenLowLatencyProfile_shouldUseZgcAndPrewarmedPool() throws IOException {
+        Path out = generate("packageName: com.example.shop\nperformanceProfile: low-latency\n");
+
+        String properties = Files.readString(out.resolve("src/main/resources/application.properties"));
+        assertTrue(properties.contains("spring.datasource.hikari.minimum-idle=16"), properties);
+        assertTrue(properties.contains("server.compression.enabled=false"), properties);
+        assertTrue(Files.readString(out.resolve("jvm.options")).contains("-XX:+UseZGC"));
+    }
+
+    @Test
+    public void givenUnknownProfile_shouldRecordGap() throws IOException {
+        Path domain = Files.writeString(tempDir.resolve("domain.yaml"), "entities:\n  Order:\n    fields:\n      id: long\n");
+        Path prefs = Files.writeString(tempDir.resolve("outputprefs.yaml"), "packageName: com.example.shop\nperformanceProfile: turbo\n");
+        SpecToCodeAgent.GenerationResult result = new SpecToCodeAgent("unused")
+                .generateProject(Map.of("domain", domain, "outputprefs", prefs), tempDir.resolve("out"), false);
+
+        assertTrue(result.getGaps().stream().anyMatch(gap -> gap.contains("performanceProfile must be one of")),
+                result.getGaps().toString());
+    }
+
+    private Path generate(String outputPreferences) throws IOException {
+        Path domain = Files.writeString(tempDir.resolve("domain.yaml"), "entities:\n  Order:\n    fields:\n      id: long\n      total: double\n");
+        Path prefs = Files.writeString(tempDir.resolve("outputprefs.yaml"), outputPreferences);
+        Path out = tempDir.resolve("out");
+        new SpecToCodeAgent("unused").generateProject(Map.of("domain", domain, "outputprefs", prefs), out, false);
+        return out;
+    }
+}
@@ -0,0 +1,59 @@
+package cc.spec;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RateLimitSchedulerTest {
+
+    @Test
+    public void givenRequestsPerMinuteLimit_shouldPaceRequestsAfterTheBurst() throws InterruptedException {
+        // 600 requests per minute with a 100 ms burst window: one request at once, then one every 100 ms
+        RateLimitScheduler scheduler = new RateLimitScheduler(new RateLimitScheduler.Limits(600, 0, 10, Duration.ofMillis(100)));
+        long start = System.nanoTime();
+        for (int i = 0; i < 6; i++) {
+            scheduler.acquire(RateLimitScheduler.Priority.NORMAL, 1000).close();
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMs >= 450, "Requests were not paced: " + elapsedMs + " ms");
+        assertEquals(6, scheduler.getAdmitted());
+    }
+
+    @Test
+    public void givenWaitingRequests_shouldAdmitHigherPriorityLaneFirst() throws InterruptedException {
+        RateLimitScheduler scheduler = new RateLimitScheduler(new RateLimitScheduler.Limits(0, 0, 1, Duration.ofMinutes(1)));
+        List<RateLimitScheduler.Priority> order = new CopyOnWriteArrayList<>();
+        RateLimitScheduler.Permit held = scheduler.acquire(RateLimitScheduler.Priority.NORMAL, 0);
+
+        Thread background = Thread.ofVirtual().start(() -> admit(scheduler, RateLimitScheduler.Priority.BACKGROUND, order));
+        awaitWaiting(scheduler, 1);
+        Thread interactive = Thread.ofVirtual().start(() -> admit(scheduler, RateLimitScheduler.Priority.INTERACTIVE, order));
+        awaitWaiting(scheduler, 2);
+        held.close();
+        background.join();
+        interactive.join();
+
+        assertEquals(List.of(RateLimitScheduler.Priority.INTERACTIVE, RateLimitScheduler.Priority.BACKGROUND), order);
+    }
+
+    private static void admit(RateLimitScheduler scheduler, RateLimitScheduler.Priority priority,
+                              List<RateLimitScheduler.Priority> order) {
+        try (RateLimitScheduler.Permit permit = scheduler.acquire(priority, 0)) {
+            order.add(priority);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitWaiting(RateLimitScheduler scheduler, int waiting) throws InterruptedException {
+        while (scheduler.getWaiting() < waiting) {
+            Thread.sleep(5);
+        }
+    }
+}
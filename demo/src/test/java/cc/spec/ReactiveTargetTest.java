@@ -0,0 +1,79 @@
+package cc.spec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the WebFlux and R2DBC project generated for the reactive target
+ */
+public class ReactiveTargetTest {
+    private static final String PACKAGE_DIR = "src/main/java/com/example/shop";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void givenReactiveTarget_shouldGenerateWebFluxAndR2dbcProject() throws IOException {
+        Path out = generate("packageName: com.example.shop\ntarget: reactive\n").outputPath;
+
+        String pom = Files.readString(out.resolve("pom.xml"));
+        String properties = Files.readString(out.resolve("src/main/resources/application.properties"));
+        String schema = Files.readString(out.resolve("src/main/resources/schema.sql"));
+        String repository = Files.readString(out.resolve(PACKAGE_DIR + "/repository/OrderRepository.java"));
+        String controller = Files.readString(out.resolve(PACKAGE_DIR + "/controller/OrderController.java"));
+        String test = Files.readString(out.resolve("src/test/java/com/example/shop/controller/OrderControllerTest.java"));
+        assertTrue(pom.contains("<artifactId>spring-boot-starter-webflux</artifactId>"), pom);
+        assertTrue(pom.contains("<artifactId>r2dbc-h2</artifactId>"), pom);
+        assertFalse(pom.contains("spring-boot-starter-data-jpa"), pom);
+        assertTrue(properties.contains("spring.r2dbc.url=r2dbc:h2:mem:///testdb"), properties);
+        assertFalse(properties.contains("spring.jpa"), properties);
+        assertTrue(schema.contains("CREATE TABLE IF NOT EXISTS orders (\n    id BIGINT AUTO_INCREMENT PRIMARY KEY,\n"
+                + "    total DOUBLE PRECISION,\n    shipping_address VARCHAR(255)\n);"), schema);
+        assertTrue(repository.contains("extends R2dbcRepository<Order, Long>"), repository);
+        assertTrue(controller.contains("public Mono<ResponseEntity<OrderDTO>> getById(@PathVariable Long id)"), controller);
+        assertTrue(test.contains("bodyValue(\"{\\\"total\\\": 1.5, \\\"shippingAddress\\\": \\\"sample\\\"}\")"), test);
+        assertTrue(Files.readString(out.resolve(PACKAGE_DIR + "/dto/OrderDTO.java")).contains("public Long getId()"));
+    }
+
+    @Test
+    public void givenReactiveTargetWithJpaOnlyOptions_shouldIgnoreThemAndRecordGap() throws IOException {
+        Generated generated = generate("packageName: com.example.shop\ntarget: reactive\ncaching: true\nbatching: true\n");
+
+        assertTrue(generated.result.getGaps().contains(
+                "Ignored generator options not supported by the reactive target: batching, caching"), generated.result.getGaps().toString());
+        assertFalse(Files.readString(generated.outputPath.resolve(PACKAGE_DIR + "/service/OrderServiceImpl.java")).contains("@Cacheable"));
+        assertFalse(Files.exists(generated.outputPath.resolve(PACKAGE_DIR + "/config/CachingConfig.java")));
+    }
+
+    @Test
+    public void givenServletTarget_shouldKeepJpaStackWithoutSchemaScript() throws IOException {
+        Path out = generate("packageName: com.example.shop\n").outputPath;
+
+        assertTrue(Files.readString(out.resolve("pom.xml")).contains("spring-boot-starter-data-jpa"));
+        assertFalse(Files.exists(out.resolve("src/main/resources/schema.sql")));
+        assertEquals("shipping_address", ProjectGenerator.columnName("shippingAddress"));
+        assertEquals("customer_id", ProjectGenerator.columnName("customerID"));
+    }
+
+    private Generated generate(String outputPreferences) throws IOException {
+        Path domain = Files.writeString(tempDir.resolve("domain.yaml"),
+                "entities:\n  Order:\n    fields:\n      id: long\n      total: double\n      shippingAddress: string\n");
+        Path prefs = Files.writeString(tempDir.resolve("outputprefs.yaml"), outputPreferences);
+        Path out = tempDir.resolve("out");
+        SpecToCodeAgent.GenerationResult result = new SpecToCodeAgent("unused")
+                .generateProject(Map.of("domain", domain, "outputprefs", prefs), out, false);
+        return new Generated(result, out);
+    }
+
+    private record Generated(SpecToCodeAgent.GenerationResult result, Path outputPath) {
+    }
+}
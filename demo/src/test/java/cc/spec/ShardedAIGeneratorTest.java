@@ -0,0 +1,234 @@
+package cc.spec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs sharded AI generation against a local OpenAI stub that answers per entity
+ */
+public class ShardedAIGeneratorTest {
+    private static final long STUB_LATENCY_MS = 200;
+    private static final Pattern ENTITY = Pattern.compile("--- ENTITY (\\w+) ---");
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final List<String> prompts = new CopyOnWriteArrayList<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private HttpServer server;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    public void startStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/v1/chat/completions", this::complete);
+        server.start();
+    }
+
+    @AfterEach
+    public void stopStubServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void givenTwelveEntities_shouldSendShardsConcurrentlyAndMergeTheirFiles() throws IOException {
+        StringBuilder yaml = new StringBuilder("entities:\n");
+        for (int i = 0; i < 12; i++) {
+            yaml.append("  Entity").append(i).append(":\n    fields:\n      id: long\n      name: string\n");
+        }
+        Path domain = Files.writeString(tempDir.resolve("domain.yaml"), yaml.toString());
+        Path prefs = Files.writeString(tempDir.resolve("outputprefs.yaml"), "packageName: com.example.shop\n");
+
+        SpecToCodeAgent agent = new SpecToCodeAgent("unused");
+        agent.setOpenAIClient(newClient());
+        // One entity per shard: 12 entity shards plus the scaffolding, four at a time
+        agent.setAISharding(new ShardedAIGenerator.Options(1500, 4));
+        InMemoryOutputSink output = new InMemoryOutputSink();
+        SpecToCodeAgent.GenerationResult result = agent.generateProject(Map.of("domain", domain, "outputprefs", prefs),
+                output, true, SpecToCodeAgent.ProgressListener.NONE);
+
+        assertEquals(13, requests.get());
+        assertEquals(4, maxInFlight.get());
+        assertTrue(result.getGaps().stream().noneMatch(gap -> gap.startsWith("AI shard #")), result.getGaps().toString());
+        Map<String, String> files = output.getFiles();
+        assertEquals("<project/>", files.get("ai/pom.xml"));
+        for (int i = 0; i < 12; i++) {
+            assertEquals("class Entity" + i + " {}", files.get("ai/Entity" + i + ".java"));
+        }
+        assertEquals("class Shared {}", files.get("ai/Shared.java"));
+    }
+
+    @Test
+    public void givenShardsGeneratingSamePathDifferently_shouldKeepFirstAndReportConflict() {
+        List<SpecParser.EntityInfo> entities = List.of(entity("Order", 2), entity("Customer", 2), entity("Invoice", 2));
+        ShardedAIGenerator generator = new ShardedAIGenerator(newClient(), new ShardedAIGenerator.Options(1500, 2));
+
+        ShardedAIGenerator.Result result = generator.generate("Shop", "com.example.shop", entities, List.of(),
+                new SpecFragments(null, null, null));
+
+        assertEquals("# Order", result.getFiles().get("ai/README.md"));
+        assertEquals(List.of(
+                "AI shards #1 (Order) and #2 (Customer) both generated ai/README.md; kept the first version",
+                "AI shards #1 (Order) and #3 (Invoice) both generated ai/README.md; kept the first version"),
+                result.getConflicts());
+        assertEquals(4, result.getResponses().size());
+    }
+
+    @Test
+    public void givenOpenAPISpec_shouldSendEachShardTheSpecTextOfItsEntities() throws IOException {
+        Path openapi = Files.writeString(tempDir.resolve("openapi.yaml"), """
+                openapi: 3.0.0
+                info:
+                  title: Shop
+                paths:
+                  /orders:
+                    post:
+                      summary: Place an order
+                      requestBody:
+                        content:
+                          application/json:
+                            schema:
+                              $ref: '#/components/schemas/Order'
+                  /customers:
+                    get:
+                      summary: List customers
+                components:
+                  schemas:
+                    Order:
+                      type: object
+                      required: [total]
+                      properties:
+                        total:
+                          type: number
+                          minimum: 0
+                        shipTo:
+                          $ref: '#/components/schemas/Address'
+                    Address:
+                      type: object
+                      properties:
+                        street:
+                          type: string
+                          maxLength: 80
+                    Customer:
+                      type: object
+                      properties:
+                        email:
+                          type: string
+                          format: email
+                """);
+        SpecToCodeAgent agent = new SpecToCodeAgent("unused");
+        agent.setOpenAIClient(newClient());
+        agent.setAISharding(new ShardedAIGenerator.Options(1500, 2));
+
+        agent.generateProject(Map.of("openapi", openapi), new InMemoryOutputSink(), true, SpecToCodeAgent.ProgressListener.NONE);
+
+        String orderPrompt = promptFor("Order");
+        assertTrue(orderPrompt.contains("minimum: 0"), orderPrompt);
+        assertTrue(orderPrompt.contains("required:"), orderPrompt);
+        assertTrue(orderPrompt.contains("maxLength: 80"), orderPrompt);
+        assertTrue(orderPrompt.contains("/orders:") && orderPrompt.contains("requestBody:"), orderPrompt);
+        assertFalse(orderPrompt.contains("format: email"), orderPrompt);
+        assertFalse(orderPrompt.contains("/customers:"), orderPrompt);
+        String customerPrompt = promptFor("Customer");
+        assertTrue(customerPrompt.contains("format: email") && customerPrompt.contains("/customers:"), customerPrompt);
+        assertFalse(customerPrompt.contains("minimum: 0"), customerPrompt);
+    }
+
+    @Test
+    public void givenTokenBudget_shouldPackEntitiesInDeclarationOrder() {
+        List<SpecParser.EntityInfo> entities = List.of(entity("A", 1), entity("B", 1), entity("C", 30), entity("D", 1));
+        int small = ShardedAIGenerator.estimateTokens(entities.get(0), List.of());
+
+        List<List<SpecParser.EntityInfo>> shards = ShardedAIGenerator.plan(entities, List.of(), 2 * small);
+
+        assertEquals(List.of(List.of("A", "B"), List.of("C"), List.of("D")),
+                shards.stream().map(shard -> shard.stream().map(SpecParser.EntityInfo::getName).toList()).toList());
+    }
+
+    private SpecParser.EntityInfo entity(String name, int fieldCount) {
+        SpecParser.EntityInfo entity = new SpecParser.EntityInfo(name);
+        for (int i = 0; i < fieldCount; i++) {
+            entity.addField("field" + i, "String");
+        }
+        return entity;
+    }
+
+    private String promptFor(String entityName) {
+        return prompts.stream().filter(prompt -> prompt.contains("--- ENTITY " + entityName + " ---"))
+                .findFirst().orElseThrow();
+    }
+
+    private OpenAIClient newClient() {
+        return new OpenAIClient("http://127.0.0.1:" + server.getAddress().getPort() + "/v1/chat/completions", "test-key");
+    }
+
+    /**
+     * Answers with one file per entity named in the prompt, a shared file every shard agrees on
+     * and a README that differs per shard
+     */
+    @SuppressWarnings("unchecked")
+    private void complete(HttpExchange exchange) throws IOException {
+        Map<String, Object> request = OBJECT_MAPPER.readValue(exchange.getRequestBody(), Map.class);
+        String prompt = (String) ((Map<String, Object>) ((List<Object>) request.get("messages")).get(0)).get("content");
+        prompts.add(prompt);
+        requests.incrementAndGet();
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            Thread.sleep(STUB_LATENCY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+
+        Map<String, String> files = new LinkedHashMap<>();
+        List<String> entities = new ArrayList<>();
+        Matcher matcher = ENTITY.matcher(prompt);
+        while (matcher.find()) {
+            entities.add(matcher.group(1));
+            files.put("ai/" + matcher.group(1) + ".java", "class " + matcher.group(1) + " {}");
+        }
+        if (entities.isEmpty()) {
+            files.put("ai/pom.xml", "<project/>");
+        } else {
+            files.put("ai/Shared.java", "class Shared {}");
+            files.put("ai/README.md", "# " + String.join(", ", entities));
+        }
+        String completion = OBJECT_MAPPER.writeValueAsString(files);
+        byte[] body = OBJECT_MAPPER.writeValueAsBytes(Map.of("choices",
+                List.of(Map.of("message", Map.of("role", "assistant", "content", completion)))));
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package cc.spec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the streaming OpenAPI extraction path extracts what the tree-based one does; their
+ * speed and allocation are compared by SpecParserBenchmark
+ */
+public class SpecParserStreamingTest {
+    private static final int SCHEMA_COUNT = 1_000;
+
+    private final SpecParser specParser = new SpecParser();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void givenLargeYamlSpec_shouldExtractSameEntitiesAndEndpoints() throws IOException {
+        compare(writeSpec(tempDir.resolve("openapi.yaml")));
+    }
+
+    @Test
+    public void givenLargeJsonSpec_shouldExtractSameEntitiesAndEndpoints() throws IOException {
+        compare(writeSpec(tempDir.resolve("openapi.json")));
+    }
+
+    private void compare(Path spec) throws IOException {
+        SpecParser.OpenAPIExtraction tree = specParser.extractOpenAPI(specParser.parseOpenAPI(spec));
+        SpecParser.OpenAPIExtraction streaming = specParser.extractOpenAPIStreaming(spec);
+
+        assertEquals(tree.getTitle(), streaming.getTitle());
+        assertEquals(describeEntities(tree), describeEntities(streaming));
+        assertEquals(describeEndpoints(tree), describeEndpoints(streaming));
+    }
+
+    private List<String> describeEntities(SpecParser.OpenAPIExtraction extraction) {
+        List<String> described = new ArrayList<>();
+        for (SpecParser.EntityInfo entity : extraction.getEntities()) {
+            described.add(entity.getName() + entity.getFields());
+        }
+        return described;
+    }
+
+    private List<String> describeEndpoints(SpecParser.OpenAPIExtraction extraction) {
+        List<String> described = new ArrayList<>();
+        for (SpecParser.EndpointInfo endpoint : extraction.getEndpoints()) {
+            described.add(endpoint.getMethod() + " " + endpoint.getPath() + " " + endpoint.getSummary());
+        }
+        return described;
+    }
+
+    /**
+     * Writes a spec whose size is dominated by descriptions and examples the generator never reads
+     */
+    private Path writeSpec(Path path) throws IOException {
+        String description = "Lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat(8);
+        StringBuilder json = new StringBuilder();
+        json.append("{\"openapi\": \"3.0.0\", \"info\": {\"title\": \"Large Vendor API\", \"description\": \"").append(description).append("\"},");
+        json.append("\"paths\": {");
+        for (int i = 0; i < SCHEMA_COUNT; i++) {
+            json.append(i > 0 ? "," : "").append("\"/item").append(i).append("s\": {");
+            json.append("\"get\": {\"summary\": \"List items ").append(i).append("\", \"description\": \"").append(description).append("\"},");
+            json.append("\"post\": {\"description\": \"").append(description).append("\", \"responses\": {\"201\": {\"description\": \"Created\"}}}}");
+        }
+        json.append("}, \"components\": {\"schemas\": {");
+        for (int i = 0; i < SCHEMA_COUNT; i++) {
+            json.append(i > 0 ? "," : "").append("\"Item").append(i).append("\": {\"type\": \"object\", \"description\": \"").append(description).append("\",");
+            json.append("\"example\": {\"id\": ").append(i).append(", \"name\": \"").append(description).append("\"},");
+            json.append("\"properties\": {");
+            json.append("\"id\": {\"type\": \"integer\", \"example\": ").append(i).append("},");
+            json.append("\"name\": {\"description\": \"").append(description).append("\", \"type\": \"string\"},");
+            json.append("\"price\": {\"type\": \"number\", \"enum\": [1.0, 2.0, 3.0]},");
+            json.append("\"active\": {\"type\": \"boolean\"},");
+            json.append("\"tags\": {\"type\": \"array\", \"items\": {\"type\": \"string\"}}");
+            json.append("}}");
+        }
+        json.append("}}}");
+        // JSON is valid YAML flow syntax, so one document serves both parsers
+        return Files.writeString(path, json.toString());
+    }
+}
@@ -0,0 +1,126 @@
+package cc.spec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Compares incremental regeneration against a full run of the changed spec
+ */
+public class SpecToCodeAgentIncrementalTest {
+    private static final int ENTITY_COUNT = 300;
+    private static final FileTime OLD = FileTime.fromMillis(1_000_000_000_000L);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void givenOneChangedEntity_shouldRewriteOnlyItsArtifacts() throws IOException {
+        Path output = tempDir.resolve("incremental");
+        generate(writeDomainModel("v1.yaml", ENTITY_COUNT, false), output);
+        touchAll(output, OLD);
+
+        // Entity7 gains a field, the last entity is removed
+        Path changedSpec = writeDomainModel("v2.yaml", ENTITY_COUNT - 1, true);
+        generate(changedSpec, output);
+
+        Set<String> rewritten = new TreeSet<>();
+        for (Map.Entry<String, FileTime> file : mtimes(output).entrySet()) {
+            // The GAP report carries a timestamp, so whether it changed depends on the clock
+            if (!file.getValue().equals(OLD) && !file.getKey().equals("GAP_REPORT.md")) {
+                rewritten.add(file.getKey());
+            }
+        }
+        assertEquals(Set.of(
+                GenerationManifest.MANIFEST_FILE,
+                "README.md",
+                "src/main/java/com/example/shop/dto/Entity7DTO.java",
+                "src/main/java/com/example/shop/entity/Entity7.java",
+                "src/main/java/com/example/shop/service/Entity7ServiceImpl.java",
+                // The harness posts a sample value for every field
+                "src/jmh/java/com/example/shop/benchmark/Entity7Benchmark.java",
+                "src/test/java/com/example/shop/perf/Entity7LoadTest.java"), rewritten);
+        assertFalse(Files.exists(output.resolve("src/main/java/com/example/shop/entity/Entity" + (ENTITY_COUNT - 1) + ".java")));
+
+        Path fresh = tempDir.resolve("fresh");
+        generate(changedSpec, fresh);
+        assertEquals(readTree(fresh), readTree(output));
+    }
+
+    @Test
+    public void givenDeletedOutputFile_shouldRegenerateIt() throws IOException {
+        Path spec = writeDomainModel("v1.yaml", 3, false);
+        Path output = tempDir.resolve("out");
+        generate(spec, output);
+        Path controller = output.resolve("src/main/java/com/example/shop/controller/Entity1Controller.java");
+        String expected = Files.readString(controller);
+        Files.delete(controller);
+
+        generate(spec, output);
+
+        assertEquals(expected, Files.readString(controller));
+    }
+
+    private void generate(Path domainModel, Path output) throws IOException {
+        Path prefs = Files.writeString(tempDir.resolve("outputprefs.yaml"), "packageName: com.example.shop\n");
+        SpecToCodeAgent agent = new SpecToCodeAgent("unused");
+        agent.setIncremental(true);
+        agent.generateProject(Map.of("domain", domainModel, "outputprefs", prefs), output, false);
+    }
+
+    private Path writeDomainModel(String fileName, int entityCount, boolean changed) throws IOException {
+        StringBuilder yaml = new StringBuilder("entities:\n");
+        for (int i = 0; i < entityCount; i++) {
+            yaml.append("  Entity").append(i).append(":\n");
+            yaml.append("    fields:\n");
+            yaml.append("      id: long\n");
+            yaml.append("      name: string\n");
+            yaml.append("      price: double\n");
+            if (changed && i == 7) {
+                yaml.append("      discontinued: boolean\n");
+            }
+        }
+        return Files.writeString(tempDir.resolve(fileName), yaml.toString());
+    }
+
+    private void touchAll(Path root, FileTime time) throws IOException {
+        for (Path file : mtimes(root).keySet().stream().map(root::resolve).toList()) {
+            Files.setLastModifiedTime(file, time);
+        }
+    }
+
+    private Map<String, FileTime> mtimes(Path root) throws IOException {
+        Map<String, FileTime> mtimes = new TreeMap<>();
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths.filter(Files::isRegularFile)::iterator) {
+                mtimes.put(root.relativize(path).toString(), Files.getLastModifiedTime(path));
+            }
+        }
+        return mtimes;
+    }
+
+    /**
+     * Reads every generated file keyed by relative path, ignoring the manifest and the GAP report timestamp
+     */
+    private Map<String, String> readTree(Path root) throws IOException {
+        Map<String, String> tree = new TreeMap<>();
+        for (String file : mtimes(root).keySet()) {
+            if (!file.equals(GenerationManifest.MANIFEST_FILE)) {
+                tree.put(file, Files.readString(root.resolve(file)).replaceAll("(?m)^Generated: .*$", ""));
+            }
+        }
+        return tree;
+    }
+}
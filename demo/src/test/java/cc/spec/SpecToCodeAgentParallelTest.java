@@ -0,0 +1,96 @@
+package cc.spec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Compares the parallel artifact generation path against the sequential one and checks how it
+ * reports failing artifacts
+ */
+public class SpecToCodeAgentParallelTest {
+    private static final int ENTITY_COUNT = 300;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void givenLargeDomainModel_shouldGenerateIdenticalOutputInParallel() throws Exception {
+        Path domainModel = writeDomainModel(tempDir.resolve("domain.yaml"), ENTITY_COUNT);
+        Map<String, Path> files = Map.of("domain", domainModel);
+
+        generate(files, tempDir.resolve("sequential"), null);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            generate(files, tempDir.resolve("parallel"), executor);
+        }
+
+        assertEquals(readTree(tempDir.resolve("sequential")), readTree(tempDir.resolve("parallel")));
+    }
+
+    @Test
+    public void givenSeveralFailingArtifacts_shouldReportEveryFailure() throws Exception {
+        Map<String, Path> files = Map.of("domain", writeDomainModel(tempDir.resolve("domain.yaml"), 4));
+        OutputSink sink = (relativePath, content) -> {
+            if (relativePath.endsWith("/entity/Entity1.java") || relativePath.endsWith("/entity/Entity3.java")) {
+                throw new IOException("disk full");
+            }
+        };
+        SpecToCodeAgent agent = new SpecToCodeAgent("unused");
+
+        ArtifactGenerationException failure;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            agent.setArtifactExecutor(executor);
+            failure = assertThrows(ArtifactGenerationException.class,
+                    () -> agent.generateProject(files, sink, false, SpecToCodeAgent.ProgressListener.NONE));
+        }
+
+        assertEquals(List.of("Entity1 entity: disk full", "Entity3 entity: disk full"), failure.getFailures());
+        assertEquals(2, failure.getSuppressed().length);
+    }
+
+    private void generate(Map<String, Path> files, Path outputDir, ExecutorService executor) throws IOException {
+        SpecToCodeAgent agent = new SpecToCodeAgent("unused");
+        agent.setArtifactExecutor(executor);
+        agent.generateProject(files, outputDir, false);
+    }
+
+    private Path writeDomainModel(Path path, int entityCount) throws IOException {
+        StringBuilder yaml = new StringBuilder("entities:\n");
+        for (int i = 0; i < entityCount; i++) {
+            yaml.append("  Entity").append(i).append(":\n");
+            yaml.append("    fields:\n");
+            yaml.append("      id: long\n");
+            yaml.append("      name: string\n");
+            yaml.append("      quantity: int\n");
+            yaml.append("      price: double\n");
+            yaml.append("      active: boolean\n");
+        }
+        return Files.writeString(path, yaml.toString());
+    }
+
+    /**
+     * Reads every generated file keyed by relative path, dropping the GAP report timestamp
+     */
+    private Map<String, String> readTree(Path root) throws IOException {
+        Map<String, String> tree = new TreeMap<>();
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths.filter(Files::isRegularFile)::iterator) {
+                String content = Files.readString(path).replaceAll("(?m)^Generated: .*$", "");
+                tree.put(root.relativize(path).toString(), content);
+            }
+        }
+        return tree;
+    }
+}
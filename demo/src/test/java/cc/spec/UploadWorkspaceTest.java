@@ -0,0 +1,125 @@
+package cc.spec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that uploads are parsed from memory and spill to disk only above the threshold
+ */
+public class UploadWorkspaceTest {
+    private static final String DOMAIN = "entities:\n  Order:\n    fields:\n      id: long\n      total: double\n";
+    private static final String OPENAPI = """
+            {"openapi": "3.0.0", "info": {"title": "Shop"},
+             "paths": {"/orders": {"get": {"summary": "List orders"}}},
+             "components": {"schemas": {"Customer": {"properties": {"id": {"type": "integer"}, "email": {"type": "string"}}}}}}
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void givenUploadsBelowThreshold_shouldGenerateSameProjectWithoutSpilling() throws IOException {
+        Path domain = Files.writeString(tempDir.resolve("domain.yaml"), DOMAIN);
+        Path openapi = Files.writeString(tempDir.resolve("openapi.json"), OPENAPI);
+        Path prefs = Files.writeString(tempDir.resolve("outputprefs.yaml"), "packageName: com.example.shop\n");
+        new SpecToCodeAgent("unused").generateProject(Map.of("domain", domain, "openapi", openapi, "outputprefs", prefs),
+                tempDir.resolve("from-files"), false);
+
+        try (UploadWorkspace workspace = new UploadWorkspace(1024 * 1024)) {
+            workspace.add("domain", upload("../../domain.yaml", DOMAIN));
+            workspace.add("openapi", upload("openapi.json", OPENAPI));
+            workspace.add("outputprefs", upload("outputprefs.yaml", "packageName: com.example.shop\n"));
+            assertFalse(workspace.hasSpilled());
+            assertEquals("domain.yaml", workspace.getSources().get("domain").getFileName());
+
+            new SpecToCodeAgent("unused").generateFromSources(workspace.getSources(), tempDir.resolve("from-memory"),
+                    false, SpecToCodeAgent.ProgressListener.NONE);
+        }
+
+        assertEquals(readTree(tempDir.resolve("from-files")), readTree(tempDir.resolve("from-memory")));
+    }
+
+    @Test
+    public void givenUploadsAboveThreshold_shouldSpillAndCleanUp() throws IOException {
+        UploadWorkspace workspace = new UploadWorkspace(DOMAIN.length());
+        SpecSource domain = workspace.add("domain", upload("domain.yaml", DOMAIN));
+        SpecSource prefs = workspace.add("outputprefs", upload("outputprefs.yaml", "packageName: com.example.shop\n"));
+
+        assertInstanceOf(SpecSource.MemorySource.class, domain);
+        Path spilled = assertInstanceOf(SpecSource.FileSource.class, prefs).file();
+        assertTrue(workspace.hasSpilled());
+        assertEquals(DOMAIN.length(), workspace.getBytesInMemory());
+        assertEquals("packageName: com.example.shop\n", Files.readString(spilled));
+
+        workspace.close();
+        assertFalse(Files.exists(spilled.getParent()));
+    }
+
+    @Test
+    public void givenSharedBudgetInUse_shouldSpillUntilItIsReleased() throws IOException {
+        UploadWorkspace.MemoryBudget budget = new UploadWorkspace.MemoryBudget(DOMAIN.length());
+        UploadWorkspace queued = new UploadWorkspace(1024 * 1024, budget);
+        queued.add("domain", upload("domain.yaml", DOMAIN));
+
+        try (UploadWorkspace next = new UploadWorkspace(1024 * 1024, budget)) {
+            assertInstanceOf(SpecSource.FileSource.class, next.add("domain", upload("domain.yaml", DOMAIN)));
+            assertEquals(0, next.getBytesInMemory());
+        }
+        queued.close();
+        queued.close();
+        assertEquals(0, budget.getUsed());
+
+        try (UploadWorkspace last = new UploadWorkspace(1024 * 1024, budget)) {
+            assertInstanceOf(SpecSource.MemorySource.class, last.add("domain", upload("domain.yaml", DOMAIN)));
+            assertEquals(DOMAIN.length(), budget.getUsed());
+        }
+    }
+
+    @Test
+    public void givenInMemoryOpenAPI_shouldExtractSameAsFromFile() throws IOException {
+        SpecParser parser = new SpecParser();
+        Path file = Files.writeString(tempDir.resolve("openapi.json"), OPENAPI);
+        SpecParser.OpenAPIExtraction expected = parser.extractOpenAPIStreaming(file);
+
+        byte[] bytes = OPENAPI.getBytes(StandardCharsets.UTF_8);
+        SpecParser.OpenAPIExtraction fromBuffer = parser.extractOpenAPIStreaming(ByteBuffer.wrap(bytes), false);
+        SpecParser.OpenAPIExtraction fromStream = parser.extractOpenAPIStreaming(new ByteArrayInputStream(bytes), false);
+        SpecParser.OpenAPIExtraction fromTree = parser.extractOpenAPI(parser.parseOpenAPI(new ByteArrayInputStream(bytes), false));
+
+        for (SpecParser.OpenAPIExtraction actual : new SpecParser.OpenAPIExtraction[]{fromBuffer, fromStream, fromTree}) {
+            assertEquals(expected.getTitle(), actual.getTitle());
+            assertEquals(expected.getEntities().get(0).getFields(), actual.getEntities().get(0).getFields());
+            assertEquals(expected.getEndpoints().get(0).getSummary(), actual.getEndpoints().get(0).getSummary());
+        }
+    }
+
+    private Map<String, String> readTree(Path root) throws IOException {
+        Map<String, String> tree = new TreeMap<>();
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths.filter(Files::isRegularFile)::iterator) {
+                tree.put(root.relativize(path).toString(), Files.readString(path).replaceAll("(?m)^Generated: .*$", ""));
+            }
+        }
+        return tree;
+    }
+
+    private static MultipartFile upload(String originalFilename, String content) {
+        return BytesMultipartFile.of(originalFilename, content);
+    }
+}
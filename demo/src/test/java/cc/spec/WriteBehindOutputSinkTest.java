@@ -0,0 +1,146 @@
+package cc.spec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the write-behind sink against synchronous disk output
+ */
+public class WriteBehindOutputSinkTest {
+    private static final int ENTITY_COUNT = 300;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void givenGeneratedProject_shouldMatchSynchronousOutput() throws IOException {
+        Map<String, Path> spec = writeSpec();
+        new SpecToCodeAgent("unused").generateProject(spec, tempDir.resolve("sync"), false);
+
+        SpecToCodeAgent agent = new SpecToCodeAgent("unused");
+        agent.setWriteBehind(new WriteBehindOutputSink.Options(16, 2, false));
+        agent.generateProject(spec, tempDir.resolve("write-behind"), false);
+
+        assertEquals(readTree(tempDir.resolve("sync")), readTree(tempDir.resolve("write-behind")));
+    }
+
+    @Test
+    public void givenLargeMultiByteContent_shouldWriteAllChunks() throws IOException {
+        // Puts a surrogate pair across the 64K chunk boundary
+        String content = "a".repeat(64 * 1024 - 1) + "😀" + "é".repeat(100_000);
+        WriteBehindOutputSink sink = new WriteBehindOutputSink(tempDir, new WriteBehindOutputSink.Options(4, 1, true));
+        sink.write("docs/large.txt", content);
+        sink.write("docs/small.txt", "small");
+        sink.close();
+
+        assertEquals(content, Files.readString(tempDir.resolve("docs/large.txt")));
+        assertEquals(2, sink.getFilesWritten());
+        assertEquals(Files.size(tempDir.resolve("docs/large.txt")) + 5, sink.getBytesWritten());
+        assertEquals(1, sink.getDirectoriesCreated());
+    }
+
+    @Test
+    public void givenHardLinkedFile_shouldReplaceItWithoutTouchingTheLinkTarget() throws IOException {
+        Path cached = Files.writeString(tempDir.resolve("cached.txt"), "cached");
+        Path out = Files.createDirectories(tempDir.resolve("out"));
+        Files.createLink(out.resolve("file.txt"), cached);
+
+        try (WriteBehindOutputSink sink = new WriteBehindOutputSink(out, new WriteBehindOutputSink.Options(4, 1, false))) {
+            sink.write("file.txt", "regenerated");
+        }
+
+        assertEquals("regenerated", Files.readString(out.resolve("file.txt")));
+        assertEquals("cached", Files.readString(cached));
+    }
+
+    @Test
+    public void givenRepeatedWritesOfOnePath_shouldKeepTheLastOne() throws IOException {
+        try (WriteBehindOutputSink sink = new WriteBehindOutputSink(tempDir, new WriteBehindOutputSink.Options(64, 4, false))) {
+            for (int i = 0; i < 500; i++) {
+                sink.write("pom.xml", "version " + i);
+            }
+        }
+
+        assertEquals("version 499", Files.readString(tempDir.resolve("pom.xml")));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(List.of(tempDir.resolve("pom.xml")), files.toList());
+        }
+    }
+
+    @Test
+    public void givenQueuedWriteThenStreamedFile_shouldKeepTheStreamedFile() throws IOException {
+        try (WriteBehindOutputSink sink = new WriteBehindOutputSink(tempDir, new WriteBehindOutputSink.Options(64, 2, false))) {
+            for (int i = 0; i < 100; i++) {
+                sink.write("README.md", "queued " + i);
+            }
+            try (Writer writer = sink.openWriter("README.md")) {
+                writer.write("streamed");
+            }
+        }
+
+        assertEquals("streamed", Files.readString(tempDir.resolve("README.md")));
+    }
+
+    @Test
+    public void givenFailedWrite_shouldReportItOnClose() throws IOException {
+        Files.writeString(tempDir.resolve("blocker"), "not a directory");
+        WriteBehindOutputSink sink = new WriteBehindOutputSink(tempDir, new WriteBehindOutputSink.Options(4, 1, false));
+        sink.write("blocker/file.txt", "content");
+
+        IOException e = assertThrows(IOException.class, sink::close);
+        assertTrue(e.getMessage().startsWith("Failed to write blocker/file.txt"), e.getMessage());
+    }
+
+    @Test
+    public void givenPipelineFailure_shouldSuppressTheQueuedWriteFailure() throws IOException {
+        Path out = tempDir.resolve("out");
+        // A non-empty directory where the README goes makes its queued write fail
+        Files.createDirectories(out.resolve("README.md/blocker"));
+        SpecToCodeAgent agent = new SpecToCodeAgent("unused");
+        agent.setWriteBehind(new WriteBehindOutputSink.Options(16, 2, false));
+        Map<String, Path> spec = writeSpec();
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> agent.generateProject(spec, out, false, phase -> {
+            if (phase.equals("gap-report")) {
+                throw new IllegalStateException("listener failed");
+            }
+        }));
+
+        assertEquals("listener failed", e.getMessage());
+        assertEquals(1, e.getSuppressed().length);
+        assertTrue(e.getSuppressed()[0].getMessage().startsWith("Failed to write README.md"), e.getSuppressed()[0].getMessage());
+    }
+
+    private Map<String, Path> writeSpec() throws IOException {
+        StringBuilder yaml = new StringBuilder("entities:\n");
+        for (int i = 0; i < ENTITY_COUNT; i++) {
+            yaml.append("  Entity").append(i).append(":\n    fields:\n      id: long\n      name: string\n");
+        }
+        Path domain = Files.writeString(tempDir.resolve("domain.yaml"), yaml.toString());
+        Path prefs = Files.writeString(tempDir.resolve("outputprefs.yaml"), "packageName: com.example.shop\n");
+        return Map.of("domain", domain, "outputprefs", prefs);
+    }
+
+    private Map<String, String> readTree(Path root) throws IOException {
+        Map<String, String> tree = new TreeMap<>();
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths.filter(Files::isRegularFile)::iterator) {
+                tree.put(root.relativize(path).toString(), Files.readString(path).replaceAll("(?m)^Generated: .*$", ""));
+            }
+        }
+        return tree;
+    }
+}